@@ -0,0 +1,49 @@
+package com.openframe.http2;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.UpgradeProtocol;
+import org.apache.coyote.http2.Http2Protocol;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Sizes Tomcat's HTTP/2 support for the gateway's h2c connections, in every servlet service that
+ * depends on this library.
+ * <p>
+ * With {@code server.http2.enabled} on a cleartext connector, Tomcat accepts h2c both with prior
+ * knowledge and by upgrade. The gateway multiplexes all of its requests over a handful of
+ * connections, so a connection must be allowed to run as many streams at once as the gateway
+ * sends, and must stay open longer than the gateway keeps it idle.
+ */
+@Slf4j
+@AutoConfiguration
+@ConditionalOnClass(Http2Protocol.class)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "server.http2.enabled", havingValue = "true")
+@EnableConfigurationProperties(Http2ServerProperties.class)
+public class Http2ServerAutoConfiguration {
+
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> http2ServerCustomizer(
+            Http2ServerProperties properties) {
+        return factory -> factory.addConnectorCustomizers(connector -> {
+            for (UpgradeProtocol protocol : connector.findUpgradeProtocols()) {
+                if (protocol instanceof Http2Protocol http2) {
+                    http2.setMaxConcurrentStreams(properties.getMaxConcurrentStreams());
+                    http2.setMaxConcurrentStreamExecution(properties.getMaxConcurrentStreamExecution());
+                    http2.setKeepAliveTimeout(properties.getKeepAliveTimeout().toMillis());
+                    log.info("HTTP/2 enabled: max concurrent streams {}, stream execution {}, keep-alive timeout {}",
+                            properties.getMaxConcurrentStreams(), properties.getMaxConcurrentStreamExecution(),
+                            properties.getKeepAliveTimeout());
+                }
+            }
+        });
+    }
+
+}
@@ -0,0 +1,30 @@
+package com.openframe.http2;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Sizing of Tomcat's HTTP/2 support for the gateway's multiplexed h2c connections.
+ */
+@Data
+@ConfigurationProperties(prefix = "openframe.server.http2")
+public class Http2ServerProperties {
+
+    /**
+     * Streams a connection may have open at once.
+     */
+    private long maxConcurrentStreams = 100;
+
+    /**
+     * Streams of a connection executed at once; Tomcat defaults to 20.
+     */
+    private int maxConcurrentStreamExecution = 100;
+
+    /**
+     * Idle time before a connection is closed, longer than the gateway keeps it idle.
+     */
+    private Duration keepAliveTimeout = Duration.ofSeconds(20);
+
+}
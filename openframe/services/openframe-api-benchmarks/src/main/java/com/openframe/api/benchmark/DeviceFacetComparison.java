@@ -0,0 +1,213 @@
+package com.openframe.api.benchmark;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.openframe.api.devices.DeviceFacetCounter;
+import com.openframe.api.devices.DeviceFacetFilter;
+import com.openframe.api.devices.DeviceFacetLookup;
+import com.openframe.api.devices.DeviceFacetProperties;
+import com.openframe.api.devices.InMemoryDeviceFacetStore;
+import com.openframe.data.document.device.Machine;
+import com.openframe.data.document.device.MachineTag;
+import com.openframe.data.document.organization.Organization;
+import com.openframe.data.document.tool.Tag;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.data.mongodb.repository.support.SimpleMongoRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Compares answering {@code deviceFilters} with a MongoDB aggregation per request against the
+ * precomputed facet counters, against a real MongoDB.
+ * <p>
+ * A scratch database is seeded with machines, organizations, tags and tag assignments. The
+ * aggregation run groups the filtered machines by each facet and their tag assignments by tag,
+ * as a resolver without counters does on every dashboard load. The counters run rebuilds the
+ * in-memory counters once, reports how long that took, and then answers from them; a batch of
+ * changed machines is applied as events are. Collections come from the core's entity mappings;
+ * every seeded machine is counted, in place of the core's device query without a filter. The
+ * scratch database is dropped afterwards.
+ * <p>
+ * Usage: {@code java -cp benchmarks.jar com.openframe.api.benchmark.DeviceFacetComparison <mongodb-uri> [machines] [runs]}
+ */
+public class DeviceFacetComparison {
+
+    private static final String[] STATUSES = {"ONLINE", "OFFLINE", "PENDING", "ARCHIVED"};
+    private static final String[] DEVICE_TYPES = {"DESKTOP", "LAPTOP", "SERVER", "VIRTUAL_MACHINE"};
+    private static final String[] OS_TYPES = {"WINDOWS", "MAC_OS", "LINUX"};
+    private static final int ORGANIZATIONS = 25;
+    private static final int TAGS = 40;
+    private static final int CHANGED = 100;
+
+    private final MongoTemplate mongoTemplate;
+    private final DeviceFacetProperties properties = new DeviceFacetProperties();
+    private final String machinesCollection;
+    private final String machineTagsCollection;
+    private final String organizationsCollection;
+    private final String tagsCollection;
+    private final int machines;
+    private final int runs;
+
+    DeviceFacetComparison(MongoTemplate mongoTemplate, int machines, int runs) {
+        this.mongoTemplate = mongoTemplate;
+        this.machinesCollection = mongoTemplate.getCollectionName(Machine.class);
+        this.machineTagsCollection = mongoTemplate.getCollectionName(MachineTag.class);
+        this.organizationsCollection = mongoTemplate.getCollectionName(Organization.class);
+        this.tagsCollection = mongoTemplate.getCollectionName(Tag.class);
+        this.machines = machines;
+        this.runs = runs;
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: DeviceFacetComparison <mongodb-uri> [machines] [runs]");
+            System.exit(1);
+        }
+        String database = "device_facets_bench_" + UUID.randomUUID().toString().substring(0, 8);
+        try (MongoClient client = MongoClients.create(args[0])) {
+            MongoTemplate mongoTemplate = new MongoTemplate(client, database);
+            try {
+                new DeviceFacetComparison(mongoTemplate,
+                        args.length > 1 ? Integer.parseInt(args[1]) : 50_000,
+                        args.length > 2 ? Integer.parseInt(args[2]) : 20).run();
+            } finally {
+                mongoTemplate.getDb().drop();
+            }
+        }
+    }
+
+    void run() {
+        seed();
+        Map<String, Object> filter = Map.of("statuses", List.of("ONLINE", "OFFLINE", "PENDING"));
+        DeviceFacetFilter facetFilter = DeviceFacetFilter.of(filter);
+
+        System.out.printf("%d machines, %d organizations, %d tags%n", machines, ORGANIZATIONS, TAGS);
+        report("aggregation", () -> aggregate(filter));
+
+        DeviceFacetLookup lookup = new DeviceFacetLookup(mongoTemplate, Machine.class, MachineTag.class, new Query(),
+                repositoryOf(Organization.class), repositoryOf(Tag.class));
+        InMemoryDeviceFacetStore store = new InMemoryDeviceFacetStore();
+        DeviceFacetCounter counter = new DeviceFacetCounter(store, lookup, properties, new SimpleMeterRegistry());
+        long start = System.nanoTime();
+        store.replace(lookup.points());
+        System.out.printf("%-12s %8.1fms%n", "rebuild", millis(System.nanoTime() - start));
+        List<String> changed = new ArrayList<>();
+        for (int i = 0; i < CHANGED; i++) {
+            changed.add("machine-" + (i * 7919L % machines));
+        }
+        start = System.nanoTime();
+        counter.machinesChanged(changed);
+        System.out.printf("%-12s %8.1fms for %d machines%n", "events", millis(System.nanoTime() - start), CHANGED);
+        report("counters", () -> counter.facets(facetFilter).orElseThrow());
+    }
+
+    /**
+     * The facets as grouped by MongoDB for every request.
+     */
+    private void aggregate(Map<String, Object> filter) {
+        Document match = new Document("status", new Document("$in", filter.get("statuses")));
+        Document facets = new Document()
+                .append("statuses", List.of(new Document("$group", new Document("_id", "$status").append("count", new Document("$sum", 1)))))
+                .append("deviceTypes", List.of(new Document("$group", new Document("_id", "$type").append("count", new Document("$sum", 1)))))
+                .append("osTypes", List.of(new Document("$group", new Document("_id", "$osType").append("count", new Document("$sum", 1)))))
+                .append("organizationIds", List.of(new Document("$group", new Document("_id", "$organizationId").append("count", new Document("$sum", 1)))))
+                .append("filteredCount", List.of(new Document("$count", "count")));
+        mongoTemplate.getCollection(machinesCollection)
+                .aggregate(List.of(new Document("$match", match), new Document("$facet", facets)))
+                .allowDiskUse(true).into(new ArrayList<>());
+        mongoTemplate.getCollection(machinesCollection).aggregate(List.of(
+                        new Document("$match", match),
+                        new Document("$lookup", new Document("from", machineTagsCollection)
+                                .append("localField", "machineId").append("foreignField", "machineId").append("as", "assignments")),
+                        new Document("$unwind", "$assignments"),
+                        new Document("$group", new Document("_id", "$assignments.tagId").append("count", new Document("$sum", 1)))))
+                .allowDiskUse(true).into(new ArrayList<>());
+        mongoTemplate.getCollection(organizationsCollection).find().into(new ArrayList<>());
+        mongoTemplate.getCollection(tagsCollection).find().into(new ArrayList<>());
+    }
+
+    private <T> SimpleMongoRepository<T, ?> repositoryOf(Class<T> type) {
+        return new SimpleMongoRepository<>(new MongoRepositoryFactory(mongoTemplate).getEntityInformation(type),
+                mongoTemplate);
+    }
+
+    private void report(String name, Runnable request) {
+        request.run();
+        request.run();
+        long[] nanos = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            long start = System.nanoTime();
+            request.run();
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        System.out.printf("%-12s p50=%8.2fms  p99=%8.2fms  mean=%8.2fms%n", name, millis(nanos[runs / 2]),
+                millis(nanos[Math.min(runs - 1, (int) Math.ceil(runs * 0.99) - 1)]),
+                millis(Arrays.stream(nanos).sum() / runs));
+    }
+
+    private void seed() {
+        List<Document> organizations = new ArrayList<>();
+        for (int i = 0; i < ORGANIZATIONS; i++) {
+            organizations.add(new Document("organizationId", "org-" + i).append("name", "Organization " + i));
+        }
+        mongoTemplate.insert(organizations, organizationsCollection);
+        List<ObjectId> tagIds = new ArrayList<>();
+        List<Document> tags = new ArrayList<>();
+        for (int i = 0; i < TAGS; i++) {
+            ObjectId id = new ObjectId();
+            tagIds.add(id);
+            tags.add(new Document("_id", id).append("name", "tag-" + i));
+        }
+        mongoTemplate.insert(tags, tagsCollection);
+
+        List<Document> batch = new ArrayList<>();
+        List<Document> assignments = new ArrayList<>();
+        for (int i = 0; i < machines; i++) {
+            String machineId = "machine-" + i;
+            batch.add(new Document("machineId", machineId)
+                    .append("hostname", "host-" + i)
+                    .append("status", STATUSES[i % STATUSES.length])
+                    .append("type", DEVICE_TYPES[(i / 3) % DEVICE_TYPES.length])
+                    .append("osType", OS_TYPES[(i / 7) % OS_TYPES.length])
+                    .append("organizationId", "org-" + (i % ORGANIZATIONS)));
+            for (int t = 0; t < 2; t++) {
+                assignments.add(new Document("machineId", machineId).append("tagId", tagIds.get((i + t * 13) % TAGS)));
+            }
+            if (batch.size() == 10_000) {
+                flush(batch, assignments);
+            }
+        }
+        flush(batch, assignments);
+        for (String collection : Set.of(machinesCollection, machineTagsCollection)) {
+            mongoTemplate.indexOps(collection).ensureIndex(new Index().on("machineId", Sort.Direction.ASC));
+        }
+        mongoTemplate.indexOps(machinesCollection).ensureIndex(new Index().on("status", Sort.Direction.ASC));
+    }
+
+    private void flush(List<Document> batch, List<Document> assignments) {
+        if (!batch.isEmpty()) {
+            mongoTemplate.insert(batch, machinesCollection);
+            mongoTemplate.insert(assignments, machineTagsCollection);
+            batch.clear();
+            assignments.clear();
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+}
@@ -0,0 +1,186 @@
+package com.openframe.api.benchmark;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.openframe.api.devices.DeviceCursor;
+import com.openframe.api.devices.DeviceKeysetPager;
+import com.openframe.api.devices.DeviceKeysetProperties;
+import com.openframe.data.document.device.Machine;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Compares offset and keyset pagination of the devices query at increasing depths, against a real
+ * MongoDB.
+ * <p>
+ * A scratch database is seeded with machines across organizations and statuses, and the
+ * {@link DeviceKeysetPager} indexes are created. For each depth, the offset run reads the page
+ * with {@code skip} on the same filter and order, and the keyset run reads it through the pager
+ * from the cursor of the device before it. The pager gets the filter as a fixed query, in place
+ * of the translation of the API core. Keys and documents examined come from the
+ * {@code executionStats} explain of each find; the pager's find is captured with a command
+ * listener. The scratch database is dropped afterwards.
+ * <p>
+ * Usage: {@code java -cp benchmarks.jar com.openframe.api.benchmark.DevicePaginationComparison <mongodb-uri> [machines] [runs]}
+ */
+public class DevicePaginationComparison {
+
+    private static final int LIMIT = 50;
+    private static final String ORGANIZATION = "org-0";
+    private static final String[] STATUSES = {"ONLINE", "OFFLINE"};
+    private static final int ORGANIZATIONS = 4;
+
+    private final MongoTemplate mongoTemplate;
+    private final AtomicReference<Document> lastFind;
+    private final DeviceKeysetProperties properties = new DeviceKeysetProperties();
+    private final int machines;
+    private final int runs;
+
+    DevicePaginationComparison(MongoTemplate mongoTemplate, AtomicReference<Document> lastFind, int machines, int runs) {
+        this.mongoTemplate = mongoTemplate;
+        this.lastFind = lastFind;
+        this.machines = machines;
+        this.runs = runs;
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: DevicePaginationComparison <mongodb-uri> [machines] [runs]");
+            System.exit(1);
+        }
+        AtomicReference<Document> lastFind = new AtomicReference<>();
+        CommandListener capture = new CommandListener() {
+            @Override
+            public void commandStarted(CommandStartedEvent event) {
+                if ("find".equals(event.getCommandName())) {
+                    lastFind.set(Document.parse(event.getCommand().toJson()));
+                }
+            }
+        };
+        MongoClientSettings settings = MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(args[0]))
+                .addCommandListener(capture)
+                .build();
+        String database = "device_pages_bench_" + UUID.randomUUID().toString().substring(0, 8);
+        try (MongoClient client = MongoClients.create(settings)) {
+            MongoTemplate mongoTemplate = new MongoTemplate(client, database);
+            try {
+                new DevicePaginationComparison(mongoTemplate, lastFind,
+                        args.length > 1 ? Integer.parseInt(args[1]) : 200_000,
+                        args.length > 2 ? Integer.parseInt(args[2]) : 20).run();
+            } finally {
+                mongoTemplate.getDb().drop();
+            }
+        }
+    }
+
+    void run() {
+        seed();
+        Criteria matching = new Criteria().andOperator(Criteria.where("organizationId").in(ORGANIZATION),
+                Criteria.where("status").in("ONLINE"));
+        DeviceKeysetPager pager = new DeviceKeysetPager(mongoTemplate, Machine.class,
+                (filter, search) -> new Query(matching), properties);
+        pager.ensureIndexes();
+        long matches = mongoTemplate.count(new Query(matching), machinesCollection());
+
+        System.out.printf("%d machines, %d matching the filter, %d per page%n", machines, matches, LIMIT);
+        for (long depth = 0; depth < matches; depth = depth == 0 ? 10 : depth * 10) {
+            int offset = (int) Math.min(depth * LIMIT, matches - LIMIT);
+            Query skipped = new Query(matching).with(order()).skip(offset).limit(LIMIT);
+            report("offset", offset, () -> mongoTemplate.find(skipped, Document.class,
+                    machinesCollection()));
+
+            DeviceCursor after = cursorBefore(matching, offset);
+            report("keyset", offset, () -> pager.page(null, null, after, LIMIT, false));
+        }
+    }
+
+    /**
+     * The cursor of the device just before the offset, read once outside the measurements.
+     */
+    private DeviceCursor cursorBefore(Criteria matching, int offset) {
+        if (offset == 0) {
+            return null;
+        }
+        Document previous = mongoTemplate.findOne(new Query(matching).with(order()).skip(offset - 1),
+                Document.class, machinesCollection());
+        return DeviceCursor.of(previous, properties.getSortField());
+    }
+
+    private String machinesCollection() {
+        return mongoTemplate.getCollectionName(Machine.class);
+    }
+
+    private Sort order() {
+        return Sort.by(properties.getSortDirection(), properties.getSortField())
+                .and(Sort.by(properties.getSortDirection(), "_id"));
+    }
+
+    private void report(String name, int offset, Runnable page) {
+        page.run();
+        Document stats = explain(lastFind.get());
+        page.run();
+        long[] nanos = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            long start = System.nanoTime();
+            page.run();
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        System.out.printf("%-7s offset=%-8d p50=%8.2fms  p99=%8.2fms  keys=%-8d docs=%d%n", name, offset,
+                millis(nanos[runs / 2]), millis(nanos[Math.min(runs - 1, (int) Math.ceil(runs * 0.99) - 1)]),
+                stats.get("totalKeysExamined", Number.class).longValue(),
+                stats.get("totalDocsExamined", Number.class).longValue());
+    }
+
+    /**
+     * Execution stats of a captured find, without the session and database fields the driver adds.
+     */
+    private Document explain(Document command) {
+        Document find = new Document();
+        command.forEach((key, value) -> {
+            if (!key.startsWith("$") && !key.equals("lsid")) {
+                find.append(key, value);
+            }
+        });
+        Document explain = mongoTemplate.executeCommand(new Document("explain", find).append("verbosity", "executionStats"));
+        return explain.get("executionStats", Document.class);
+    }
+
+    private void seed() {
+        List<Document> batch = new ArrayList<>();
+        for (int i = 0; i < machines; i++) {
+            batch.add(new Document("machineId", UUID.randomUUID().toString())
+                    .append("hostname", String.format("host-%08d", (i * 7919L) % machines))
+                    .append("organizationId", "org-" + (i % ORGANIZATIONS))
+                    .append("status", STATUSES[(i / ORGANIZATIONS) % STATUSES.length])
+                    .append("type", "DESKTOP")
+                    .append("osType", "WINDOWS"));
+            if (batch.size() == 10_000) {
+                mongoTemplate.insert(batch, machinesCollection());
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            mongoTemplate.insert(batch, machinesCollection());
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+}
@@ -0,0 +1,219 @@
+package com.openframe.api.benchmark;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.openframe.api.dataloader.MachineEdgeDataLoader;
+import com.openframe.api.dataloader.MachineEdgeProperties;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Compares the MongoDB queries and latency of resolving the tags, tool connections and installed
+ * agents of a devices page per machine and through the batched data loaders, against a real
+ * MongoDB.
+ * <p>
+ * A scratch database is seeded with the machine edges, with the {@code machineId} indexes the
+ * per-machine lookups rely on. The per-machine run issues the queries a resolver per field and
+ * machine does: tag assignments, their tags, tool connections and installed agents. The batched
+ * run loads the whole page through {@link MachineEdgeDataLoader}s, as one request does, backed by
+ * bulk {@code $in} queries on the seeded collections in place of the batch methods of the core
+ * services. Find commands are counted with a command listener. The scratch database is dropped
+ * afterwards.
+ * <p>
+ * Usage: {@code java -jar benchmarks.jar <mongodb-uri> [machines] [runs]}
+ */
+public class MachineEdgeQueryComparison {
+
+    private static final int TAGS = 50;
+    private static final int TAGS_PER_MACHINE = 3;
+    private static final String[] TOOL_TYPES = {"TACTICAL_RMM", "MESHCENTRAL", "FLEET_MDM"};
+    private static final String[] AGENT_TYPES = {"openframe", "osquery"};
+    private static final String TAGS_COLLECTION = "tags";
+    private static final String MACHINE_TAGS_COLLECTION = "machine_tags";
+    private static final String TOOL_CONNECTIONS_COLLECTION = "tool_connections";
+    private static final String INSTALLED_AGENTS_COLLECTION = "installed_agents";
+
+    private final MongoTemplate mongoTemplate;
+    private final AtomicLong finds;
+    private final MachineEdgeProperties properties = new MachineEdgeProperties();
+    private final int machines;
+    private final int runs;
+
+    MachineEdgeQueryComparison(MongoTemplate mongoTemplate, AtomicLong finds, int machines, int runs) {
+        this.mongoTemplate = mongoTemplate;
+        this.finds = finds;
+        this.machines = machines;
+        this.runs = runs;
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: MachineEdgeQueryComparison <mongodb-uri> [machines] [runs]");
+            System.exit(1);
+        }
+        AtomicLong finds = new AtomicLong();
+        CommandListener counter = new CommandListener() {
+            @Override
+            public void commandStarted(CommandStartedEvent event) {
+                if ("find".equals(event.getCommandName())) {
+                    finds.incrementAndGet();
+                }
+            }
+        };
+        MongoClientSettings settings = MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(args[0]))
+                .addCommandListener(counter)
+                .build();
+        String database = "machine_edges_bench_" + UUID.randomUUID().toString().substring(0, 8);
+        try (MongoClient client = MongoClients.create(settings)) {
+            MongoTemplate mongoTemplate = new MongoTemplate(client, database);
+            try {
+                new MachineEdgeQueryComparison(mongoTemplate, finds,
+                        args.length > 1 ? Integer.parseInt(args[1]) : 500,
+                        args.length > 2 ? Integer.parseInt(args[2]) : 20).run();
+            } finally {
+                mongoTemplate.getDb().drop();
+            }
+        }
+    }
+
+    void run() {
+        Set<String> machineIds = seed();
+        List<MachineEdgeDataLoader> loaders = List.of(
+                loader(this::findTags),
+                loader(ids -> findByMachineId(ids, TOOL_CONNECTIONS_COLLECTION)),
+                loader(ids -> findByMachineId(ids, INSTALLED_AGENTS_COLLECTION)));
+        List<String> pageIds = List.copyOf(machineIds);
+
+        System.out.printf("%d machines, %d tags, %d tool connections and %d installed agents per machine%n",
+                machines, TAGS_PER_MACHINE, TOOL_TYPES.length, AGENT_TYPES.length);
+        report("per-machine", () -> machineIds.forEach(this::loadOne));
+        report("batched", () -> loaders.forEach(loader -> loader.load(pageIds).toCompletableFuture().join()));
+    }
+
+    private MachineEdgeDataLoader loader(Function<List<String>, List<List<Document>>> lookup) {
+        return new MachineEdgeDataLoader(lookup, properties) {
+        };
+    }
+
+    private List<List<Document>> findTags(List<String> machineIds) {
+        List<Document> assignments = mongoTemplate.find(new Query(Criteria.where("machineId").in(machineIds)),
+                Document.class, MACHINE_TAGS_COLLECTION);
+        Map<Object, Document> tags = new HashMap<>();
+        mongoTemplate.find(new Query(Criteria.where("_id").in(assignments.stream().map(a -> a.get("tagId")).toList())),
+                Document.class, TAGS_COLLECTION).forEach(tag -> tags.put(tag.get("_id"), tag));
+        Map<String, List<Document>> byMachine = new HashMap<>();
+        for (Document assignment : assignments) {
+            Document tag = tags.get(assignment.get("tagId"));
+            if (tag != null) {
+                byMachine.computeIfAbsent(assignment.getString("machineId"), id -> new ArrayList<>()).add(tag);
+            }
+        }
+        return machineIds.stream().map(id -> byMachine.getOrDefault(id, List.of())).toList();
+    }
+
+    private List<List<Document>> findByMachineId(List<String> machineIds, String collection) {
+        Map<String, List<Document>> byMachine = new HashMap<>();
+        for (Document document : mongoTemplate.find(new Query(Criteria.where("machineId").in(machineIds)),
+                Document.class, collection)) {
+            byMachine.computeIfAbsent(document.getString("machineId"), id -> new ArrayList<>()).add(document);
+        }
+        return machineIds.stream().map(id -> byMachine.getOrDefault(id, List.of())).toList();
+    }
+
+    /**
+     * The lookups of one machine when every field is resolved on its own.
+     */
+    private void loadOne(String machineId) {
+        List<Document> assignments = mongoTemplate.find(new Query(Criteria.where("machineId").is(machineId)),
+                Document.class, MACHINE_TAGS_COLLECTION);
+        List<Object> tagIds = assignments.stream().map(assignment -> assignment.get("tagId")).toList();
+        mongoTemplate.find(new Query(Criteria.where("_id").in(tagIds)), Document.class, TAGS_COLLECTION);
+        mongoTemplate.find(new Query(Criteria.where("machineId").is(machineId)), Document.class,
+                TOOL_CONNECTIONS_COLLECTION);
+        mongoTemplate.find(new Query(Criteria.where("machineId").is(machineId)), Document.class,
+                INSTALLED_AGENTS_COLLECTION);
+    }
+
+    private void report(String name, Runnable page) {
+        page.run();
+        page.run();
+        long[] nanos = new long[runs];
+        long before = finds.get();
+        for (int i = 0; i < runs; i++) {
+            long start = System.nanoTime();
+            page.run();
+            nanos[i] = System.nanoTime() - start;
+        }
+        long queries = (finds.get() - before) / runs;
+        Arrays.sort(nanos);
+        System.out.printf("%-12s queries/page=%-6d p50=%8.1fms  p99=%8.1fms  mean=%8.1fms%n", name, queries,
+                millis(nanos[runs / 2]), millis(nanos[Math.min(runs - 1, (int) Math.ceil(runs * 0.99) - 1)]),
+                millis(Arrays.stream(nanos).sum() / runs));
+    }
+
+    private Set<String> seed() {
+        List<ObjectId> tagIds = new ArrayList<>();
+        List<Document> tags = new ArrayList<>();
+        for (int i = 0; i < TAGS; i++) {
+            ObjectId id = new ObjectId();
+            tagIds.add(id);
+            tags.add(new Document("_id", id).append("name", "tag-" + i).append("color", "#1f77b4")
+                    .append("organizationId", "bench").append("createdAt", new Date()));
+        }
+        mongoTemplate.insert(tags, TAGS_COLLECTION);
+
+        Set<String> machineIds = new LinkedHashSet<>();
+        List<Document> assignments = new ArrayList<>();
+        List<Document> connections = new ArrayList<>();
+        List<Document> agents = new ArrayList<>();
+        for (int i = 0; i < machines; i++) {
+            String machineId = UUID.randomUUID().toString();
+            machineIds.add(machineId);
+            for (int t = 0; t < TAGS_PER_MACHINE; t++) {
+                assignments.add(new Document("machineId", machineId).append("tagId", tagIds.get((i + t) % TAGS)));
+            }
+            for (String toolType : TOOL_TYPES) {
+                connections.add(new Document("machineId", machineId).append("toolType", toolType)
+                        .append("agentToolId", UUID.randomUUID().toString()).append("status", "CONNECTED"));
+            }
+            for (String agentType : AGENT_TYPES) {
+                agents.add(new Document("machineId", machineId).append("agentType", agentType).append("version", "1.0.0"));
+            }
+        }
+        mongoTemplate.insert(assignments, MACHINE_TAGS_COLLECTION);
+        mongoTemplate.insert(connections, TOOL_CONNECTIONS_COLLECTION);
+        mongoTemplate.insert(agents, INSTALLED_AGENTS_COLLECTION);
+        for (String collection : List.of(MACHINE_TAGS_COLLECTION,
+                TOOL_CONNECTIONS_COLLECTION, INSTALLED_AGENTS_COLLECTION)) {
+            mongoTemplate.indexOps(collection).ensureIndex(new Index().on("machineId", Sort.Direction.ASC));
+        }
+        return machineIds;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+}
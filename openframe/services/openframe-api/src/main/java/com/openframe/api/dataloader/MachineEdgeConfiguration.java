@@ -0,0 +1,18 @@
+package com.openframe.api.dataloader;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Enables batched loading of machine edges with {@code openframe.api.machine-edges.enabled}.
+ * <p>
+ * The data loaders and the data fetchers are DGS components found by component scanning, under
+ * the same condition. The loaders batch the tag, tool connection and installed agent services of
+ * the API core.
+ */
+@Configuration
+@EnableConfigurationProperties(MachineEdgeProperties.class)
+@ConditionalOnProperty(prefix = "openframe.api.machine-edges", name = "enabled", havingValue = "true")
+public class MachineEdgeConfiguration {
+}
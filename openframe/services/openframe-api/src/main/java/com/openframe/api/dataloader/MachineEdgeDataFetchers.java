@@ -0,0 +1,75 @@
+package com.openframe.api.dataloader;
+
+import com.netflix.graphql.dgs.DgsCodeRegistry;
+import com.netflix.graphql.dgs.DgsComponent;
+import com.openframe.api.graphql.TypeFields;
+import graphql.schema.DataFetcher;
+import graphql.schema.FieldCoordinates;
+import graphql.schema.GraphQLCodeRegistry;
+import graphql.schema.PropertyDataFetcher;
+import graphql.schema.idl.TypeDefinitionRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.dataloader.DataLoader;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Resolves the {@code tags}, {@code toolConnections} and {@code installedAgents} fields of
+ * machines through the per-request data loaders, instead of one lookup per machine.
+ * <p>
+ * The fetchers are set in the code registry, which DGS applies after the annotated data fetchers,
+ * so they take the place of any fetcher already registered for these fields. Fields the schema
+ * does not declare are left alone.
+ */
+@Slf4j
+@DgsComponent
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "openframe.api.machine-edges", name = "enabled", havingValue = "true")
+public class MachineEdgeDataFetchers {
+
+    private static final Map<String, String> LOADERS = new LinkedHashMap<>();
+
+    static {
+        LOADERS.put("tags", MachineTagsDataLoader.NAME);
+        LOADERS.put("toolConnections", MachineToolConnectionsDataLoader.NAME);
+        LOADERS.put("installedAgents", MachineInstalledAgentsDataLoader.NAME);
+    }
+
+    private static final PropertyDataFetcher<Object> MACHINE_ID = PropertyDataFetcher.fetching("machineId");
+
+    private final MachineEdgeProperties properties;
+
+    @DgsCodeRegistry
+    public GraphQLCodeRegistry.Builder machineEdges(GraphQLCodeRegistry.Builder codeRegistry,
+                                                    TypeDefinitionRegistry registry) {
+        String type = properties.getGraphqlType();
+        Set<String> fields = TypeFields.of(registry, type);
+        LOADERS.forEach((field, loader) -> {
+            if (fields.contains(field)) {
+                codeRegistry.dataFetcher(FieldCoordinates.coordinates(type, field), fetcher(loader));
+                log.info("Resolving {}.{} through the {} data loader", type, field, loader);
+            } else {
+                log.warn("Type {} has no field {}, not batching it", type, field);
+            }
+        });
+        return codeRegistry;
+    }
+
+    private static DataFetcher<CompletableFuture<List<?>>> fetcher(String loaderName) {
+        return environment -> {
+            Object machineId = MACHINE_ID.get(environment);
+            if (machineId == null) {
+                return CompletableFuture.completedFuture(List.of());
+            }
+            DataLoader<String, List<?>> loader = environment.getDataLoader(loaderName);
+            return loader.load(machineId.toString());
+        };
+    }
+
+}
@@ -0,0 +1,54 @@
+package com.openframe.api.dataloader;
+
+import org.dataloader.BatchLoader;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+
+/**
+ * Loads one list-valued edge of many machines, keyed by machine id, through a batch method of
+ * the core services.
+ * <p>
+ * DGS creates the data loaders for every request, so each machine id is loaded at most once per
+ * request and all ids requested while a level of the query is resolved are loaded together, in
+ * chunks of {@code max-batch-size}. The batch method returns one list per machine id, in the
+ * order of the ids; the entries are the core documents, so the fields of the edges resolve as
+ * they do without batching.
+ */
+public abstract class MachineEdgeDataLoader implements BatchLoader<String, List<?>> {
+
+    private final Function<List<String>, ? extends List<? extends List<?>>> lookup;
+    private final int maxBatchSize;
+
+    protected MachineEdgeDataLoader(Function<List<String>, ? extends List<? extends List<?>>> lookup,
+                                    MachineEdgeProperties properties) {
+        this.lookup = lookup;
+        this.maxBatchSize = properties.getMaxBatchSize();
+    }
+
+    @Override
+    public CompletionStage<List<List<?>>> load(List<String> machineIds) {
+        try {
+            return CompletableFuture.completedFuture(loadInChunks(machineIds));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private List<List<?>> loadInChunks(List<String> machineIds) {
+        List<List<?>> loaded = new ArrayList<>(machineIds.size());
+        for (int from = 0; from < machineIds.size(); from += maxBatchSize) {
+            List<String> chunk = machineIds.subList(from, Math.min(from + maxBatchSize, machineIds.size()));
+            List<? extends List<?>> edges = lookup.apply(chunk);
+            if (edges.size() != chunk.size()) {
+                throw new IllegalStateException("Loaded " + edges.size() + " edge lists for " + chunk.size() + " machines");
+            }
+            edges.forEach(edge -> loaded.add(edge == null ? List.of() : edge));
+        }
+        return loaded;
+    }
+
+}
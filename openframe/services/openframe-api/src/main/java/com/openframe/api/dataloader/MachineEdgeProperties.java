@@ -0,0 +1,27 @@
+package com.openframe.api.dataloader;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Batched loading of machine tags, tool connections and installed agents, bound from
+ * {@code openframe.api.machine-edges}.
+ */
+@Data
+@ConfigurationProperties(prefix = "openframe.api.machine-edges")
+public class MachineEdgeProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * GraphQL type whose {@code tags}, {@code toolConnections} and {@code installedAgents} fields
+     * are resolved through the data loaders.
+     */
+    private String graphqlType = "Machine";
+
+    /**
+     * Most machine ids passed to one batch call of the core services; larger pages are split.
+     */
+    private int maxBatchSize = 500;
+
+}
@@ -0,0 +1,22 @@
+package com.openframe.api.dataloader;
+
+import com.netflix.graphql.dgs.DgsDataLoader;
+import com.openframe.api.service.InstalledAgentService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+
+/**
+ * Loads the installed agents of machines in batches through
+ * {@link InstalledAgentService#getInstalledAgentsForMachines}.
+ */
+@ConditionalOnProperty(prefix = "openframe.api.machine-edges", name = "enabled", havingValue = "true")
+@DgsDataLoader(name = MachineInstalledAgentsDataLoader.NAME)
+public class MachineInstalledAgentsDataLoader extends MachineEdgeDataLoader {
+
+    public static final String NAME = "machineInstalledAgents";
+
+    public MachineInstalledAgentsDataLoader(InstalledAgentService installedAgentService,
+                                             MachineEdgeProperties properties) {
+        super(installedAgentService::getInstalledAgentsForMachines, properties);
+    }
+
+}
@@ -0,0 +1,22 @@
+package com.openframe.api.dataloader;
+
+import com.netflix.graphql.dgs.DgsDataLoader;
+import com.openframe.api.service.TagService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+
+/**
+ * Loads the tags of machines in batches through
+ * {@link TagService#getTagsForMachines}.
+ */
+@ConditionalOnProperty(prefix = "openframe.api.machine-edges", name = "enabled", havingValue = "true")
+@DgsDataLoader(name = MachineTagsDataLoader.NAME)
+public class MachineTagsDataLoader extends MachineEdgeDataLoader {
+
+    public static final String NAME = "machineTags";
+
+    public MachineTagsDataLoader(TagService tagService,
+                                  MachineEdgeProperties properties) {
+        super(tagService::getTagsForMachines, properties);
+    }
+
+}
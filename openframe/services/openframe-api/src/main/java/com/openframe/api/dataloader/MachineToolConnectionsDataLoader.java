@@ -0,0 +1,22 @@
+package com.openframe.api.dataloader;
+
+import com.netflix.graphql.dgs.DgsDataLoader;
+import com.openframe.api.service.ToolConnectionService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+
+/**
+ * Loads the tool connections of machines in batches through
+ * {@link ToolConnectionService#getToolConnectionsForMachines}.
+ */
+@ConditionalOnProperty(prefix = "openframe.api.machine-edges", name = "enabled", havingValue = "true")
+@DgsDataLoader(name = MachineToolConnectionsDataLoader.NAME)
+public class MachineToolConnectionsDataLoader extends MachineEdgeDataLoader {
+
+    public static final String NAME = "machineToolConnections";
+
+    public MachineToolConnectionsDataLoader(ToolConnectionService toolConnectionService,
+                                             MachineEdgeProperties properties) {
+        super(toolConnectionService::getToolConnectionsForMachines, properties);
+    }
+
+}
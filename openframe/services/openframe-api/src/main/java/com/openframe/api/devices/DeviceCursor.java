@@ -0,0 +1,48 @@
+package com.openframe.api.devices;
+
+import org.bson.BSONException;
+import org.bson.Document;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonParseException;
+import org.bson.json.JsonWriterSettings;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of a device in the keyset order: the sort key of the last device on a page and its
+ * {@code _id}. Encoded as base64url extended JSON, so that dates and object ids keep their type.
+ *
+ * @param sortValue value of the sort field, {@code null} if the device has none
+ * @param id        {@code _id} of the device
+ */
+public record DeviceCursor(Object sortValue, Object id) {
+
+    private static final JsonWriterSettings JSON = JsonWriterSettings.builder().outputMode(JsonMode.EXTENDED).build();
+
+    public static DeviceCursor of(Document machine, String sortField) {
+        return new DeviceCursor(machine.get(sortField), machine.get("_id"));
+    }
+
+    public String encode() {
+        String json = new Document("k", sortValue).append("i", id).toJson(JSON);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the cursor was not issued by {@link #encode()}
+     */
+    public static DeviceCursor decode(String cursor) {
+        Document document;
+        try {
+            document = Document.parse(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException | JsonParseException | BSONException e) {
+            throw new IllegalArgumentException("Invalid device cursor", e);
+        }
+        if (document.get("i") == null) {
+            throw new IllegalArgumentException("Invalid device cursor");
+        }
+        return new DeviceCursor(document.get("k"), document.get("i"));
+    }
+
+}
@@ -0,0 +1,89 @@
+package com.openframe.api.devices;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openframe.data.document.device.Machine;
+import com.openframe.data.document.device.MachineTag;
+import com.openframe.data.document.device.filter.MachineQueryFilter;
+import com.openframe.data.repository.device.MachineRepository;
+import com.openframe.data.repository.organization.OrganizationRepository;
+import com.openframe.data.repository.tool.TagRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.util.Assert;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Enables precomputed {@code deviceFilters} facet counts with {@code openframe.api.devices.facets.enabled}.
+ * <p>
+ * The data fetcher is a DGS component found by component scanning, under the same condition.
+ */
+@Configuration
+@EnableConfigurationProperties(DeviceFacetProperties.class)
+@ConditionalOnProperty(prefix = "openframe.api.devices.facets", name = "enabled", havingValue = "true")
+public class DeviceFacetConfiguration {
+
+    @Bean
+    public DeviceFacetStore deviceFacetStore(DeviceFacetProperties properties,
+                                             ObjectProvider<StringRedisTemplate> redisTemplate) {
+        return properties.getStore() == DeviceFacetProperties.Store.REDIS
+                ? new RedisDeviceFacetStore(redisTemplate.getObject(), properties.getRedis().getKeyPrefix())
+                : new InMemoryDeviceFacetStore();
+    }
+
+    /**
+     * Machines are counted if the core's device query without a filter matches them, as offset
+     * pages of {@code devices} list them.
+     */
+    @Bean
+    public DeviceFacetCounter deviceFacetCounter(DeviceFacetStore store, MongoTemplate mongoTemplate,
+                                                 MachineRepository machineRepository,
+                                                 OrganizationRepository organizationRepository,
+                                                 TagRepository tagRepository,
+                                                 DeviceFacetProperties properties, MeterRegistry meterRegistry) {
+        DeviceFacetLookup lookup = new DeviceFacetLookup(mongoTemplate, Machine.class, MachineTag.class,
+                machineRepository.buildDeviceQuery(MachineQueryFilter.builder().build(), null),
+                organizationRepository, tagRepository);
+        return new DeviceFacetCounter(store, lookup, properties, meterRegistry);
+    }
+
+    /**
+     * With the {@code MEMORY} store every replica reads all events with its own group and never
+     * commits; with {@code REDIS} the replicas share one group and commit, so each event is applied once.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "openframe.api.devices.facets.events", name = "enabled", havingValue = "true",
+            matchIfMissing = true)
+    public ConcurrentMessageListenerContainer<byte[], byte[]> deviceFacetEventContainer(
+            DeviceFacetCounter counter, DeviceFacetProperties properties, ObjectProvider<ObjectMapper> objectMapper) {
+        DeviceFacetProperties.Events events = properties.getEvents();
+        Assert.hasText(events.getBootstrapServers(), "openframe.api.devices.facets.events.bootstrap-servers must be set");
+        boolean shared = properties.getStore() == DeviceFacetProperties.Store.REDIS;
+        ContainerProperties containerProperties = new ContainerProperties(events.getTopic());
+        containerProperties.setAckMode(shared ? ContainerProperties.AckMode.BATCH : ContainerProperties.AckMode.MANUAL);
+        containerProperties.setMessageListener(
+                new DeviceFacetEventListener(counter, objectMapper.getIfAvailable(ObjectMapper::new)));
+        Map<String, Object> consumerProperties = Map.of(
+                ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, events.getBootstrapServers(),
+                ConsumerConfig.GROUP_ID_CONFIG, shared ? events.getGroupId() : events.getGroupId() + "-" + UUID.randomUUID(),
+                ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest",
+                ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false,
+                ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class,
+                ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        return new ConcurrentMessageListenerContainer<>(new DefaultKafkaConsumerFactory<>(consumerProperties),
+                containerProperties);
+    }
+
+}
@@ -0,0 +1,159 @@
+package com.openframe.api.devices;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maintains the {@code deviceFilters} facet counts incrementally.
+ * <p>
+ * Machines named by {@code devices-topic} events are read again and their difference to the
+ * last known point is applied to the counters. Every {@code reconcile-interval} the counters are
+ * rebuilt from MongoDB, which also covers changes no event was published for, such as tag
+ * assignments; machines updated while the rebuild read MongoDB are applied once more afterwards.
+ * {@code openframe.api.device-facets.drift} counts the corrections a rebuild made.
+ * <p>
+ * Organization and tag names are loaded with each rebuild, and looked up on first use for ids
+ * that appear in between.
+ */
+@Slf4j
+public class DeviceFacetCounter implements SmartLifecycle {
+
+    static final String METRIC_PREFIX = "openframe.api.device-facets";
+
+    private final DeviceFacetStore store;
+    private final DeviceFacetLookup lookup;
+    private final DeviceFacetProperties properties;
+    private final Timer reconcileTimer;
+    private final Counter drift;
+    private final Counter appliedEvents;
+    private final Map<String, String> organizationNames = new ConcurrentHashMap<>();
+    private final Map<String, String> tagNames = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService scheduler;
+
+    public DeviceFacetCounter(DeviceFacetStore store, DeviceFacetLookup lookup, DeviceFacetProperties properties,
+                              MeterRegistry meterRegistry) {
+        this.store = store;
+        this.lookup = lookup;
+        this.properties = properties;
+        this.reconcileTimer = Timer.builder(METRIC_PREFIX + ".reconcile")
+                .description("Time to rebuild the device facet counters from MongoDB")
+                .register(meterRegistry);
+        this.drift = Counter.builder(METRIC_PREFIX + ".drift")
+                .description("Counter differences corrected by rebuilds of the device facet counters")
+                .register(meterRegistry);
+        this.appliedEvents = Counter.builder(METRIC_PREFIX + ".machines")
+                .description("Changed machines applied to the device facet counters")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Only machines listed without a filter are counted. A status no counted machine has may be
+     * one the core's device query leaves out unless asked for, so filters naming one are not
+     * answered from the counters.
+     *
+     * @return the facets for the filter, empty until the counters were first built or if the
+     * filter names a status no counted machine has
+     */
+    public Optional<DeviceFacets> facets(DeviceFacetFilter filter) {
+        return store.counts().filter(counts -> counts.statuses().containsAll(filter.statuses())).map(counts -> {
+            resolveNames(counts);
+            return counts.facets(filter, id -> organizationNames.getOrDefault(id, id),
+                    id -> tagNames.getOrDefault(id, id));
+        });
+    }
+
+    /**
+     * Applies the current state of the machines to the counters.
+     */
+    public void machinesChanged(Collection<String> machineIds) {
+        if (machineIds.isEmpty()) {
+            return;
+        }
+        store.update(lookup.points(machineIds));
+        appliedEvents.increment(machineIds.size());
+    }
+
+    void reconcile() {
+        try {
+            if (store.tryReconcile(properties.getReconcileInterval())) {
+                reconcileTimer.record(this::rebuild);
+            }
+            organizationNames.putAll(lookup.organizationNames(null));
+            tagNames.putAll(lookup.tagNames(null));
+        } catch (RuntimeException e) {
+            log.warn("Failed to reconcile device facet counts", e);
+        }
+    }
+
+    private void rebuild() {
+        store.resetUpdated();
+        Map<String, DevicePoint> points = lookup.points();
+        Optional<DeviceFacetCounts> previous = store.counts();
+        store.replace(points);
+        Set<String> updated = store.updated();
+        if (!updated.isEmpty()) {
+            store.update(lookup.points(updated));
+        }
+        previous.ifPresent(counts -> {
+            long corrected = counts.distance(DeviceFacetCounts.of(points.values()));
+            drift.increment(corrected);
+            if (corrected > 0) {
+                log.info("Rebuilt device facet counts of {} machines, correcting {}", points.size(), corrected);
+            }
+        });
+    }
+
+    /**
+     * Ids without a name keep the id as their label until the next rebuild.
+     */
+    private void resolveNames(DeviceFacetCounts counts) {
+        Set<String> organizationIds = new HashSet<>(counts.organizationIds());
+        organizationIds.removeAll(organizationNames.keySet());
+        if (!organizationIds.isEmpty()) {
+            Map<String, String> names = lookup.organizationNames(organizationIds);
+            organizationIds.forEach(id -> organizationNames.put(id, names.getOrDefault(id, id)));
+        }
+        Set<String> tagIds = new HashSet<>(counts.tagIds());
+        tagIds.removeAll(tagNames.keySet());
+        if (!tagIds.isEmpty()) {
+            Map<String, String> names = lookup.tagNames(tagIds);
+            tagIds.forEach(id -> tagNames.put(id, names.getOrDefault(id, id)));
+        }
+    }
+
+    @Override
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("device-facet-reconciler").daemon().factory());
+        scheduler.scheduleWithFixedDelay(this::reconcile, 0, properties.getReconcileInterval().toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+
+}
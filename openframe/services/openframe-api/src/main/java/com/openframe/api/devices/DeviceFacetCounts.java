@@ -0,0 +1,165 @@
+package com.openframe.api.devices;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Device counts per cell and per tag and cell (see {@link DevicePoint}). Facets for a filter are
+ * summed over the matching cells, so answering costs the number of distinct cells rather than
+ * the number of devices.
+ */
+public class DeviceFacetCounts {
+
+    private static final Comparator<DeviceFacets.FacetCount> ORDER =
+            Comparator.comparingInt(DeviceFacets.FacetCount::count).reversed()
+                    .thenComparing(DeviceFacets.FacetCount::value);
+
+    private final Map<String, Long> cells;
+    private final Map<String, Long> tagCells;
+
+    public DeviceFacetCounts(Map<String, Long> cells, Map<String, Long> tagCells) {
+        this.cells = cells;
+        this.tagCells = tagCells;
+    }
+
+    public static DeviceFacetCounts of(Collection<DevicePoint> points) {
+        DeviceFacetCounts counts = new DeviceFacetCounts(new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+        points.forEach(point -> counts.add(point, 1));
+        return counts;
+    }
+
+    public Map<String, Long> cells() {
+        return cells;
+    }
+
+    public Map<String, Long> tagCells() {
+        return tagCells;
+    }
+
+    /**
+     * Adds the delta to the counters of the point; counters that drop to zero are removed.
+     */
+    public void add(DevicePoint point, long delta) {
+        if (point == null) {
+            return;
+        }
+        cells.merge(point.cell(), delta, DeviceFacetCounts::sum);
+        point.tagCells().forEach(tagCell -> tagCells.merge(tagCell, delta, DeviceFacetCounts::sum));
+    }
+
+    /**
+     * @return the sum of the differences between the counters of both, zero if they agree
+     */
+    public long distance(DeviceFacetCounts other) {
+        return distance(cells, other.cells) + distance(tagCells, other.tagCells);
+    }
+
+    /**
+     * @param organizationNames display names of organizations by id
+     * @param tagNames          names of tags by id
+     */
+    public DeviceFacets facets(DeviceFacetFilter filter, Function<String, String> organizationNames,
+                               Function<String, String> tagNames) {
+        Map<String, Long> statuses = new HashMap<>();
+        Map<String, Long> deviceTypes = new HashMap<>();
+        Map<String, Long> osTypes = new HashMap<>();
+        Map<String, Long> organizationIds = new HashMap<>();
+        long filteredCount = 0;
+        for (Map.Entry<String, Long> cell : cells.entrySet()) {
+            String[] fields = DevicePoint.fieldsOf(cell.getKey());
+            long count = cell.getValue();
+            if (count <= 0 || !filter.matches(fields)) {
+                continue;
+            }
+            filteredCount += count;
+            count(statuses, fields[0], count);
+            count(deviceTypes, fields[1], count);
+            count(osTypes, fields[2], count);
+            count(organizationIds, fields[3], count);
+        }
+        Map<String, Long> tags = new HashMap<>();
+        for (Map.Entry<String, Long> tagCell : tagCells.entrySet()) {
+            String[] tagAndCell = DevicePoint.splitTagCell(tagCell.getKey());
+            if (tagCell.getValue() > 0 && filter.matches(DevicePoint.fieldsOf(tagAndCell[1]))) {
+                count(tags, tagAndCell[0], tagCell.getValue());
+            }
+        }
+        return new DeviceFacets(facetsOf(statuses, Function.identity()), facetsOf(deviceTypes, Function.identity()),
+                facetsOf(osTypes, Function.identity()), facetsOf(organizationIds, organizationNames),
+                facetsOf(tags, tagNames), Math.toIntExact(filteredCount));
+    }
+
+    /**
+     * @return the statuses of the counted machines
+     */
+    public Set<String> statuses() {
+        Set<String> statuses = new HashSet<>();
+        cells.forEach((cell, count) -> {
+            String status = DevicePoint.fieldsOf(cell)[0];
+            if (status != null && count > 0) {
+                statuses.add(status);
+            }
+        });
+        return statuses;
+    }
+
+    /**
+     * @return the ids of the organizations and tags counted, for resolving their names
+     */
+    public Set<String> organizationIds() {
+        Set<String> ids = new HashSet<>();
+        cells.keySet().forEach(cell -> {
+            String organizationId = DevicePoint.fieldsOf(cell)[3];
+            if (organizationId != null) {
+                ids.add(organizationId);
+            }
+        });
+        return ids;
+    }
+
+    public Set<String> tagIds() {
+        Set<String> ids = new HashSet<>();
+        tagCells.keySet().forEach(tagCell -> ids.add(DevicePoint.splitTagCell(tagCell)[0]));
+        return ids;
+    }
+
+    private static void count(Map<String, Long> facet, String value, long count) {
+        if (value != null) {
+            facet.merge(value, count, Long::sum);
+        }
+    }
+
+    private static List<DeviceFacets.FacetCount> facetsOf(Map<String, Long> facet, Function<String, String> labels) {
+        return facet.entrySet().stream()
+                .map(entry -> new DeviceFacets.FacetCount(entry.getKey(), labels.apply(entry.getKey()),
+                        Math.toIntExact(entry.getValue())))
+                .sorted(ORDER)
+                .toList();
+    }
+
+    private static long distance(Map<String, Long> counters, Map<String, Long> others) {
+        long distance = 0;
+        for (Map.Entry<String, Long> counter : counters.entrySet()) {
+            distance += Math.abs(counter.getValue() - others.getOrDefault(counter.getKey(), 0L));
+        }
+        for (Map.Entry<String, Long> other : others.entrySet()) {
+            if (!counters.containsKey(other.getKey())) {
+                distance += Math.abs(other.getValue());
+            }
+        }
+        return distance;
+    }
+
+    private static Long sum(Long count, Long delta) {
+        long sum = count + delta;
+        return sum == 0 ? null : sum;
+    }
+
+}
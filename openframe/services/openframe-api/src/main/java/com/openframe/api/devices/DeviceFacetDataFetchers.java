@@ -0,0 +1,67 @@
+package com.openframe.api.devices;
+
+import com.netflix.graphql.dgs.DgsCodeRegistry;
+import com.netflix.graphql.dgs.DgsComponent;
+import com.openframe.api.graphql.RegisteredFetchers;
+import com.openframe.api.graphql.TypeFields;
+import graphql.schema.DataFetcher;
+import graphql.schema.FieldCoordinates;
+import graphql.schema.GraphQLCodeRegistry;
+import graphql.schema.idl.TypeDefinitionRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Answers the {@code deviceFilters} query from the {@link DeviceFacetCounter}.
+ * <p>
+ * The fetcher registered for {@code Query.deviceFilters} is kept and still answers filters the
+ * counters cannot, such as tags, and queries that arrive before the counters were first built.
+ * {@code openframe.api.device-facets.requests} counts requests by source, {@code counters} or
+ * {@code aggregation}.
+ */
+@Slf4j
+@DgsComponent
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "openframe.api.devices.facets", name = "enabled", havingValue = "true")
+public class DeviceFacetDataFetchers {
+
+    static final String QUERY_TYPE = "Query";
+    static final String DEVICE_FILTERS_FIELD = "deviceFilters";
+
+    private final DeviceFacetCounter counter;
+    private final MeterRegistry meterRegistry;
+
+    @DgsCodeRegistry
+    public GraphQLCodeRegistry.Builder deviceFilters(GraphQLCodeRegistry.Builder codeRegistry,
+                                                     TypeDefinitionRegistry registry) {
+        FieldCoordinates coordinates = FieldCoordinates.coordinates(QUERY_TYPE, DEVICE_FILTERS_FIELD);
+        Optional<DataFetcher<?>> registered = RegisteredFetchers.of(codeRegistry, coordinates);
+        if (!TypeFields.of(registry, QUERY_TYPE).contains(DEVICE_FILTERS_FIELD) || registered.isEmpty()) {
+            log.warn("Schema has no {}.{} fetcher, not answering it from facet counters", QUERY_TYPE, DEVICE_FILTERS_FIELD);
+            return codeRegistry;
+        }
+        DataFetcher<?> aggregation = registered.get();
+        DataFetcher<Object> deviceFilters = environment -> {
+            Map<String, Object> arguments = environment.getArguments();
+            DeviceFacetFilter filter = arguments.keySet().stream().allMatch(name -> name.equals("filter") || arguments.get(name) == null)
+                    ? DeviceFacetFilter.of(environment.getArgument("filter"))
+                    : null;
+            Optional<DeviceFacets> facets = filter == null ? Optional.empty() : counter.facets(filter);
+            count(facets.isPresent() ? "counters" : "aggregation");
+            return facets.isPresent() ? facets.get() : aggregation.get(environment);
+        };
+        codeRegistry.dataFetcher(coordinates, deviceFilters);
+        log.info("Answering {}.{} from facet counters", QUERY_TYPE, DEVICE_FILTERS_FIELD);
+        return codeRegistry;
+    }
+
+    private void count(String source) {
+        meterRegistry.counter(DeviceFacetCounter.METRIC_PREFIX + ".requests", "source", source).increment();
+    }
+
+}
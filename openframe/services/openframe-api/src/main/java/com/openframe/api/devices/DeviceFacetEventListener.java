@@ -0,0 +1,54 @@
+package com.openframe.api.devices;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.listener.BatchMessageListener;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Applies the machines named by a poll of {@code devices-topic} events to the facet counters,
+ * reading each machine once however many events it had. The machine id is taken from the record
+ * key, or from the {@code machineId} field of the event when the key is absent.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class DeviceFacetEventListener implements BatchMessageListener<byte[], byte[]> {
+
+    private final DeviceFacetCounter counter;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void onMessage(List<ConsumerRecord<byte[], byte[]>> records) {
+        Set<String> machineIds = new LinkedHashSet<>();
+        for (ConsumerRecord<byte[], byte[]> record : records) {
+            String machineId = record.key() != null ? new String(record.key(), StandardCharsets.UTF_8)
+                    : machineIdOf(record.value());
+            if (machineId != null) {
+                machineIds.add(machineId);
+            }
+        }
+        counter.machinesChanged(machineIds);
+    }
+
+    private String machineIdOf(byte[] value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            JsonNode machineId = objectMapper.readTree(value).get("machineId");
+            return machineId == null || machineId.isNull() ? null : machineId.asText();
+        } catch (IOException e) {
+            log.debug("Ignoring unreadable devices-topic event", e);
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,57 @@
+package com.openframe.api.devices;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The {@code DeviceFilterInput} fields the counters can answer; an empty set matches any value.
+ */
+public record DeviceFacetFilter(Set<String> statuses, Set<String> deviceTypes, Set<String> osTypes,
+                                Set<String> organizationIds) {
+
+    private static final Set<String> FIELDS = Set.of("statuses", "deviceTypes", "osTypes", "organizationIds");
+
+    public static final DeviceFacetFilter ANY = new DeviceFacetFilter(Set.of(), Set.of(), Set.of(), Set.of());
+
+    /**
+     * @param filter {@code filter} argument, may be {@code null}
+     * @return the filter, or {@code null} if it also filters on other fields such as tags
+     */
+    public static DeviceFacetFilter of(Map<String, Object> filter) {
+        if (filter == null) {
+            return ANY;
+        }
+        for (Map.Entry<String, Object> field : filter.entrySet()) {
+            if (!FIELDS.contains(field.getKey()) && !isEmpty(field.getValue())) {
+                return null;
+            }
+        }
+        return new DeviceFacetFilter(valuesOf(filter.get("statuses")), valuesOf(filter.get("deviceTypes")),
+                valuesOf(filter.get("osTypes")), valuesOf(filter.get("organizationIds")));
+    }
+
+    /**
+     * @param fields status, device type, OS type and organization of a cell
+     */
+    boolean matches(String[] fields) {
+        return matches(statuses, fields[0]) && matches(deviceTypes, fields[1]) && matches(osTypes, fields[2])
+                && matches(organizationIds, fields[3]);
+    }
+
+    private static boolean matches(Set<String> values, String value) {
+        return values.isEmpty() || value != null && values.contains(value);
+    }
+
+    private static Set<String> valuesOf(Object values) {
+        return values instanceof Collection<?> collection
+                ? collection.stream().map(String::valueOf).collect(Collectors.toUnmodifiableSet())
+                : Set.of();
+    }
+
+    private static boolean isEmpty(Object value) {
+        return value == null || value instanceof Collection<?> collection && collection.isEmpty();
+    }
+
+}
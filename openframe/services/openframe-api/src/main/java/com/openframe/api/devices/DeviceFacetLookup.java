@@ -0,0 +1,188 @@
+package com.openframe.api.devices;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mapping.PersistentPropertyAccessor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.repository.CrudRepository;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads the facet values of machines, and the names of organizations and tags, from MongoDB.
+ * <p>
+ * Collections and fields are resolved through the mappings of the core's machine and tag
+ * assignment entities, and only the machines matched by the core's device query without a filter
+ * are read, so the counters cover the devices an unfiltered {@code deviceFilters} counts.
+ * Organization and tag names are read through the core repositories; both collections are small,
+ * so they are read whole.
+ */
+public class DeviceFacetLookup {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final CrudRepository<?, ?> organizations;
+    private final CrudRepository<?, ?> tags;
+    private final String machinesCollection;
+    private final String machineTagsCollection;
+    private final Document defaultMatch;
+    private final String machineId;
+    private final String status;
+    private final String deviceType;
+    private final String osType;
+    private final String organizationId;
+    private final String assignmentMachineId;
+    private final String assignmentTagId;
+
+    /**
+     * @param machineType    entity class of the machines
+     * @param machineTagType entity class of the tag assignments of machines
+     * @param defaultQuery   query of the devices listed without a filter
+     */
+    public DeviceFacetLookup(MongoTemplate mongoTemplate, Class<?> machineType, Class<?> machineTagType,
+                             Query defaultQuery, CrudRepository<?, ?> organizations, CrudRepository<?, ?> tags) {
+        this.mongoTemplate = mongoTemplate;
+        this.organizations = organizations;
+        this.tags = tags;
+        MongoPersistentEntity<?> machine = entityOf(machineType);
+        MongoPersistentEntity<?> machineTag = entityOf(machineTagType);
+        this.machinesCollection = machine.getCollection();
+        this.machineTagsCollection = machineTag.getCollection();
+        this.defaultMatch = new QueryMapper(mongoTemplate.getConverter())
+                .getMappedObject(defaultQuery.getQueryObject(), machine);
+        this.machineId = fieldOf(machine, "machineId");
+        this.status = fieldOf(machine, "status");
+        this.deviceType = fieldOf(machine, "type");
+        this.osType = fieldOf(machine, "osType");
+        this.organizationId = fieldOf(machine, "organizationId");
+        this.assignmentMachineId = fieldOf(machineTag, "machineId");
+        this.assignmentTagId = fieldOf(machineTag, "tagId");
+    }
+
+    /**
+     * @return the points of all machines by machine id
+     */
+    public Map<String, DevicePoint> points() {
+        Map<String, Set<String>> tagIds = new HashMap<>();
+        mongoTemplate.getCollection(machineTagsCollection).find()
+                .projection(new Document(assignmentMachineId, 1).append(assignmentTagId, 1)).batchSize(BATCH_SIZE)
+                .forEach(assignment -> addTag(tagIds, assignment));
+        Map<String, DevicePoint> points = new HashMap<>();
+        mongoTemplate.getCollection(machinesCollection).find(defaultMatch).projection(projection())
+                .batchSize(BATCH_SIZE).forEach(machine -> put(points, machine, tagIds));
+        return points;
+    }
+
+    /**
+     * @return the points of the machines by machine id, {@code null} for machines that no longer
+     * exist or are not listed without a filter
+     */
+    public Map<String, DevicePoint> points(Collection<String> machineIds) {
+        Map<String, DevicePoint> points = new HashMap<>();
+        machineIds.forEach(id -> points.put(id, null));
+        if (machineIds.isEmpty()) {
+            return points;
+        }
+        Map<String, Set<String>> tagIds = new HashMap<>();
+        mongoTemplate.getCollection(machineTagsCollection)
+                .find(new Document(assignmentMachineId, new Document("$in", machineIds)))
+                .projection(new Document(assignmentMachineId, 1).append(assignmentTagId, 1))
+                .forEach(assignment -> addTag(tagIds, assignment));
+        Document byId = new Document(machineId, new Document("$in", machineIds));
+        mongoTemplate.getCollection(machinesCollection)
+                .find(defaultMatch.isEmpty() ? byId : new Document("$and", List.of(defaultMatch, byId)))
+                .projection(projection())
+                .forEach(machine -> put(points, machine, tagIds));
+        return points;
+    }
+
+    /**
+     * @param organizationIds ids to resolve, all organizations if {@code null}
+     */
+    public Map<String, String> organizationNames(Collection<String> organizationIds) {
+        return namesOf(organizations, "organizationId", organizationIds);
+    }
+
+    /**
+     * @param tagIds ids to resolve as hex strings, all tags if {@code null}
+     */
+    public Map<String, String> tagNames(Collection<String> tagIds) {
+        return namesOf(tags, null, tagIds);
+    }
+
+    /**
+     * @param idProperty property holding the id the names are keyed by, the entity's id if {@code null}
+     */
+    private Map<String, String> namesOf(CrudRepository<?, ?> repository, String idProperty, Collection<String> ids) {
+        Map<String, String> names = new HashMap<>();
+        for (Object item : repository.findAll()) {
+            MongoPersistentEntity<?> entity = entityOf(item.getClass());
+            PersistentPropertyAccessor<Object> accessor = entity.getPropertyAccessor(item);
+            Object id = accessor.getProperty(idProperty == null ? entity.getRequiredIdProperty()
+                    : entity.getRequiredPersistentProperty(idProperty));
+            Object name = accessor.getProperty(entity.getRequiredPersistentProperty("name"));
+            if (id != null && name != null && (ids == null || ids.contains(idOf(id)))) {
+                names.put(idOf(id), name.toString());
+            }
+        }
+        return names;
+    }
+
+    private Document projection() {
+        Document projection = new Document("_id", 0);
+        List.of(machineId, status, deviceType, osType, organizationId).forEach(field -> projection.append(field, 1));
+        return projection;
+    }
+
+    private void put(Map<String, DevicePoint> points, Document machine, Map<String, Set<String>> tagIds) {
+        String id = machine.getString(machineId);
+        if (id == null) {
+            return;
+        }
+        points.put(id, new DevicePoint(stringOf(machine.get(status)), stringOf(machine.get(deviceType)),
+                stringOf(machine.get(osType)), stringOf(machine.get(organizationId)),
+                Set.copyOf(tagIds.getOrDefault(id, Set.of()))));
+    }
+
+    private void addTag(Map<String, Set<String>> tagIds, Document assignment) {
+        String id = assignment.getString(assignmentMachineId);
+        Object tagId = assignment.get(assignmentTagId);
+        if (id != null && tagId != null) {
+            tagIds.computeIfAbsent(id, key -> new HashSet<>()).add(idOf(tagId));
+        }
+    }
+
+    private MongoPersistentEntity<?> entityOf(Class<?> type) {
+        return mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(type);
+    }
+
+    /**
+     * @return the stored field of a property, failing if the entity has no such property
+     */
+    private static String fieldOf(MongoPersistentEntity<?> entity, String property) {
+        MongoPersistentProperty persistentProperty = entity.getRequiredPersistentProperty(property);
+        return persistentProperty.getFieldName();
+    }
+
+    /**
+     * Tag ids may be stored as object ids or as strings.
+     */
+    private static String idOf(Object id) {
+        return id instanceof ObjectId objectId ? objectId.toHexString() : String.valueOf(id);
+    }
+
+    private static String stringOf(Object value) {
+        return value == null ? null : value.toString();
+    }
+
+}
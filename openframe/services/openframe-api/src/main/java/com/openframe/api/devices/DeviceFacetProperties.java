@@ -0,0 +1,61 @@
+package com.openframe.api.devices;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Precomputed facet counts of the {@code deviceFilters} query, bound from
+ * {@code openframe.api.devices.facets}.
+ */
+@Data
+@ConfigurationProperties(prefix = "openframe.api.devices.facets")
+public class DeviceFacetProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Where the counters live: {@code MEMORY} in every replica, or {@code REDIS} shared by all.
+     */
+    private Store store = Store.MEMORY;
+
+    /**
+     * How often the counters are rebuilt from MongoDB, correcting changes no event was published for.
+     */
+    private Duration reconcileInterval = Duration.ofMinutes(10);
+
+    private Events events = new Events();
+
+    private Redis redis = new Redis();
+
+    public enum Store {
+        MEMORY,
+        REDIS
+    }
+
+    @Data
+    public static class Events {
+
+        private boolean enabled = true;
+
+        private String bootstrapServers;
+
+        private String topic = "devices-topic";
+
+        /**
+         * Consumer group of the {@code REDIS} store, so that each event is applied once; with the
+         * {@code MEMORY} store every replica reads all events with a group of its own.
+         */
+        private String groupId = "openframe-api-device-facets";
+
+    }
+
+    @Data
+    public static class Redis {
+
+        private String keyPrefix = "openframe:api:device-facets:";
+
+    }
+
+}
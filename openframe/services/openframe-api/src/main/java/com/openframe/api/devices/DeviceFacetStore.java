@@ -0,0 +1,45 @@
+package com.openframe.api.devices;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Holds the facet counters and the last known point of every machine, from which changes are
+ * applied as deltas.
+ */
+public interface DeviceFacetStore {
+
+    /**
+     * Applies the current points of changed machines; a {@code null} point removes the machine.
+     */
+    void update(Map<String, DevicePoint> points);
+
+    /**
+     * Replaces all counters and points with those rebuilt from MongoDB.
+     */
+    void replace(Map<String, DevicePoint> points);
+
+    /**
+     * @return the counters, empty until they were first built
+     */
+    Optional<DeviceFacetCounts> counts();
+
+    /**
+     * Forgets the machines updated so far, before a rebuild starts reading MongoDB.
+     */
+    void resetUpdated();
+
+    /**
+     * @return the machines updated since {@link #resetUpdated()}, whose rebuilt points may be stale
+     */
+    Set<String> updated();
+
+    /**
+     * @return whether this replica should rebuild the counters now; replicas sharing the store
+     * take turns, each turn lasting {@code period}
+     */
+    boolean tryReconcile(Duration period);
+
+}
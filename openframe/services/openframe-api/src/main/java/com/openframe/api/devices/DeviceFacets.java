@@ -0,0 +1,19 @@
+package com.openframe.api.devices;
+
+import java.util.List;
+
+/**
+ * Result of the {@code deviceFilters} query.
+ *
+ * @param filteredCount devices matching the filter
+ */
+public record DeviceFacets(List<FacetCount> statuses, List<FacetCount> deviceTypes, List<FacetCount> osTypes,
+                           List<FacetCount> organizationIds, List<FacetCount> tags, int filteredCount) {
+
+    /**
+     * @param label display name of organizations and tags, the value itself otherwise
+     */
+    public record FacetCount(String value, String label, int count) {
+    }
+
+}
@@ -0,0 +1,64 @@
+package com.openframe.api.devices;
+
+import com.netflix.graphql.dgs.internal.DefaultInputObjectMapper;
+import com.netflix.graphql.dgs.internal.InputObjectMapper;
+import com.openframe.api.dto.device.DeviceFilterInput;
+import com.openframe.api.dto.device.DeviceFilterOptions;
+import com.openframe.api.mapper.GraphQLDeviceMapper;
+import com.openframe.data.document.device.Machine;
+import com.openframe.data.document.device.filter.MachineQueryFilter;
+import com.openframe.data.repository.device.MachineRepository;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.Map;
+
+/**
+ * Enables keyset pagination of {@code devices} with {@code openframe.api.devices.keyset.enabled}.
+ * <p>
+ * The data fetcher is a DGS component found by component scanning, under the same condition.
+ * The pager matches devices with the filter translation of the API core: the {@code filter}
+ * argument is read into its {@code DeviceFilterInput}, mapped by {@link GraphQLDeviceMapper} and
+ * turned into a query by {@link MachineRepository#buildDeviceQuery}, as the offset pages are.
+ */
+@Configuration
+@EnableConfigurationProperties(DeviceKeysetProperties.class)
+@ConditionalOnProperty(prefix = "openframe.api.devices.keyset", name = "enabled", havingValue = "true")
+public class DeviceKeysetConfiguration {
+
+    @Bean
+    public DeviceKeysetPager deviceKeysetPager(MongoTemplate mongoTemplate, MachineRepository machineRepository,
+                                               GraphQLDeviceMapper deviceMapper, DeviceKeysetProperties properties) {
+        InputObjectMapper inputObjectMapper = new DefaultInputObjectMapper();
+        return new DeviceKeysetPager(mongoTemplate, Machine.class, (filter, search) -> machineRepository
+                .buildDeviceQuery(queryFilterOf(filter, inputObjectMapper, deviceMapper), search), properties);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "openframe.api.devices.keyset", name = "create-indexes", havingValue = "true",
+            matchIfMissing = true)
+    public ApplicationRunner deviceKeysetIndexes(DeviceKeysetPager pager) {
+        return arguments -> pager.ensureIndexes();
+    }
+
+    private static MachineQueryFilter queryFilterOf(Map<String, Object> filter, InputObjectMapper inputObjectMapper,
+                                                    GraphQLDeviceMapper deviceMapper) {
+        if (filter == null) {
+            return MachineQueryFilter.builder().build();
+        }
+        DeviceFilterOptions options = deviceMapper.toDeviceFilterOptions(
+                inputObjectMapper.mapToJavaObject(filter, DeviceFilterInput.class));
+        return MachineQueryFilter.builder()
+                .statuses(options.getStatuses())
+                .deviceTypes(options.getDeviceTypes())
+                .osTypes(options.getOsTypes())
+                .organizationIds(options.getOrganizationIds())
+                .tagNames(options.getTagNames())
+                .build();
+    }
+
+}
@@ -0,0 +1,71 @@
+package com.openframe.api.devices;
+
+import com.netflix.graphql.dgs.DgsCodeRegistry;
+import com.netflix.graphql.dgs.DgsComponent;
+import com.openframe.api.graphql.TypeFields;
+import graphql.ErrorType;
+import graphql.GraphqlErrorBuilder;
+import graphql.execution.DataFetcherResult;
+import graphql.schema.DataFetcher;
+import graphql.schema.FieldCoordinates;
+import graphql.schema.GraphQLCodeRegistry;
+import graphql.schema.idl.TypeDefinitionRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+
+import java.util.Map;
+
+/**
+ * Resolves the {@code devices} query through the {@link DeviceKeysetPager}.
+ * <p>
+ * Like the machine edge fetchers, it is set in the code registry and so takes the place of the
+ * fetcher already registered for {@code Query.devices}. Arguments keep their shape: {@code filter},
+ * {@code search} and {@code pagination} with {@code limit} and {@code cursor}. Cursors that
+ * were not issued by the pager, such as those of the previous fetcher, are answered with a
+ * validation error on the field.
+ */
+@Slf4j
+@DgsComponent
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "openframe.api.devices.keyset", name = "enabled", havingValue = "true")
+public class DeviceKeysetDataFetchers {
+
+    static final String QUERY_TYPE = "Query";
+    static final String DEVICES_FIELD = "devices";
+
+    private final DeviceKeysetPager pager;
+
+    @DgsCodeRegistry
+    public GraphQLCodeRegistry.Builder devices(GraphQLCodeRegistry.Builder codeRegistry, TypeDefinitionRegistry registry) {
+        if (!TypeFields.of(registry, QUERY_TYPE).contains(DEVICES_FIELD)) {
+            log.warn("Schema has no {}.{} query, not paging it by keyset", QUERY_TYPE, DEVICES_FIELD);
+            return codeRegistry;
+        }
+        DataFetcher<DataFetcherResult<DevicePage>> devices = environment -> {
+            Map<String, Object> pagination = environment.getArgument("pagination");
+            String cursor = pagination == null ? null : (String) pagination.get("cursor");
+            DeviceCursor after;
+            try {
+                after = cursor == null ? null : DeviceCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                return DataFetcherResult.<DevicePage>newResult()
+                        .error(GraphqlErrorBuilder.newError(environment)
+                                .errorType(ErrorType.ValidationError)
+                                .message(e.getMessage())
+                                .build())
+                        .build();
+            }
+            Integer limit = pagination != null && pagination.get("limit") instanceof Number number
+                    ? number.intValue() : null;
+            return DataFetcherResult.<DevicePage>newResult()
+                    .data(pager.page(environment.getArgument("filter"), environment.getArgument("search"), after,
+                            limit, environment.getSelectionSet().contains("filteredCount")))
+                    .build();
+        };
+        codeRegistry.dataFetcher(FieldCoordinates.coordinates(QUERY_TYPE, DEVICES_FIELD), devices);
+        log.info("Paging {}.{} by keyset", QUERY_TYPE, DEVICES_FIELD);
+        return codeRegistry;
+    }
+
+}
@@ -0,0 +1,155 @@
+package com.openframe.api.devices;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * Pages through the machines with keyset (seek) pagination.
+ * <p>
+ * Pages are ordered by the sort field and {@code _id}. The next page starts right after the
+ * cursor's sort value and {@code _id} instead of skipping the devices before it, so with the
+ * compound indexes every page costs the same however deep it is.
+ * <p>
+ * The {@code filter} and {@code search} arguments are translated into a query by the API core,
+ * as for offset pages, so both ways match the same devices; only the query's criteria are used.
+ * Devices are read into the machine entity, so the other fields of {@code Machine} resolve as
+ * before. The number of matching devices is only counted when {@code filteredCount} is selected.
+ */
+@Slf4j
+public class DeviceKeysetPager {
+
+    private static final String ID = "_id";
+
+    private final MongoTemplate mongoTemplate;
+    private final Class<?> machineType;
+    private final BiFunction<Map<String, Object>, String, Query> matching;
+    private final DeviceKeysetProperties properties;
+    private final QueryMapper queryMapper;
+    private final String sortField;
+    private final boolean ascending;
+
+    /**
+     * @param machineType entity class of the machines
+     * @param matching    query of the devices matching the {@code filter} argument, which may be
+     *                    {@code null}, and the {@code search} argument
+     */
+    public DeviceKeysetPager(MongoTemplate mongoTemplate, Class<?> machineType,
+                             BiFunction<Map<String, Object>, String, Query> matching,
+                             DeviceKeysetProperties properties) {
+        this.mongoTemplate = mongoTemplate;
+        this.machineType = machineType;
+        this.matching = matching;
+        this.properties = properties;
+        this.queryMapper = new QueryMapper(mongoTemplate.getConverter());
+        this.sortField = properties.getSortField();
+        this.ascending = properties.getSortDirection().isAscending();
+    }
+
+    /**
+     * @param filter {@code DeviceFilterInput} argument, may be {@code null}
+     * @param search {@code search} argument, may be {@code null}
+     * @param after  cursor of the device before the page, {@code null} for the first page
+     * @param limit  {@code limit} of the pagination argument, may be {@code null}
+     * @param count  whether to count the matching devices
+     */
+    public DevicePage page(Map<String, Object> filter, String search, DeviceCursor after, Integer limit,
+                           boolean count) {
+        Document matching = matching(filter, search);
+        int pageSize = limitOf(limit);
+        String collection = mongoTemplate.getCollectionName(machineType);
+
+        Query query = new BasicQuery(after == null ? matching
+                : new Document("$and", List.of(matching, after(after).getCriteriaObject())));
+        Sort.Direction direction = properties.getSortDirection();
+        query.with(Sort.by(direction, sortField).and(Sort.by(direction, ID))).limit(pageSize + 1);
+        List<Document> machines = mongoTemplate.find(query, Document.class, collection);
+
+        boolean hasNextPage = machines.size() > pageSize;
+        List<DevicePage.Edge> edges = new ArrayList<>();
+        for (Document machine : hasNextPage ? machines.subList(0, pageSize) : machines) {
+            edges.add(new DevicePage.Edge(mongoTemplate.getConverter().read(machineType, machine),
+                    DeviceCursor.of(machine, sortField).encode()));
+        }
+        DevicePage.PageInfo pageInfo = new DevicePage.PageInfo(hasNextPage, after != null,
+                edges.isEmpty() ? null : edges.get(0).cursor(),
+                edges.isEmpty() ? null : edges.get(edges.size() - 1).cursor());
+        Integer filteredCount = count
+                ? Math.toIntExact(mongoTemplate.count(new BasicQuery(matching), collection))
+                : null;
+        return new DevicePage(edges, pageInfo, filteredCount);
+    }
+
+    /**
+     * Creates the indexes the filtered, sorted pages are read from.
+     */
+    public void ensureIndexes() {
+        Sort.Direction direction = properties.getSortDirection();
+        String collection = mongoTemplate.getCollectionName(machineType);
+        String organizationId = fieldOf("organizationId");
+        String status = fieldOf("status");
+        mongoTemplate.indexOps(collection).ensureIndex(new Index().on(organizationId, Sort.Direction.ASC)
+                .on(status, Sort.Direction.ASC).on(sortField, direction).on(ID, direction));
+        mongoTemplate.indexOps(collection).ensureIndex(new Index().on(status, Sort.Direction.ASC)
+                .on(sortField, direction).on(ID, direction));
+        log.info("Ensured keyset indexes of {} on {}, {}", collection, sortField, ID);
+    }
+
+    /**
+     * @return the criteria of the translated query, with property names mapped to stored fields
+     */
+    private Document matching(Map<String, Object> filter, String search) {
+        return queryMapper.getMappedObject(matching.apply(filter, search).getQueryObject(), entity());
+    }
+
+    private String fieldOf(String property) {
+        MongoPersistentProperty persistentProperty = entity().getPersistentProperty(property);
+        return persistentProperty == null ? property : persistentProperty.getFieldName();
+    }
+
+    private MongoPersistentEntity<?> entity() {
+        return mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(machineType);
+    }
+
+    /**
+     * Devices after the cursor in the page order. MongoDB sorts missing and {@code null} sort
+     * values before all others.
+     */
+    private Criteria after(DeviceCursor cursor) {
+        Object id = cursor.id();
+        Criteria laterId = ascending ? Criteria.where(ID).gt(id) : Criteria.where(ID).lt(id);
+        if (ID.equals(sortField)) {
+            return laterId;
+        }
+        Object value = cursor.sortValue();
+        Criteria sameValue = ascending
+                ? Criteria.where(sortField).is(value).and(ID).gt(id)
+                : Criteria.where(sortField).is(value).and(ID).lt(id);
+        if (value == null) {
+            return ascending ? new Criteria().orOperator(sameValue, Criteria.where(sortField).ne(null)) : sameValue;
+        }
+        return ascending
+                ? new Criteria().orOperator(Criteria.where(sortField).gt(value), sameValue)
+                : new Criteria().orOperator(Criteria.where(sortField).lt(value), sameValue,
+                Criteria.where(sortField).is(null));
+    }
+
+    private int limitOf(Integer limit) {
+        int requested = limit == null ? properties.getDefaultLimit() : limit;
+        return Math.max(1, Math.min(requested, properties.getMaximumLimit()));
+    }
+
+}
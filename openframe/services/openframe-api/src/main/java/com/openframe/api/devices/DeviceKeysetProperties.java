@@ -0,0 +1,33 @@
+package com.openframe.api.devices;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Keyset pagination of the {@code devices} query, bound from {@code openframe.api.devices.keyset}.
+ */
+@Data
+@ConfigurationProperties(prefix = "openframe.api.devices.keyset")
+public class DeviceKeysetProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Field pages are ordered by; {@code _id} breaks ties. The dashboard lists devices by name.
+     */
+    private String sortField = "hostname";
+
+    private Sort.Direction sortDirection = Sort.Direction.ASC;
+
+    private int defaultLimit = 20;
+
+    private int maximumLimit = 500;
+
+    /**
+     * Creates the compound indexes on {@code (organizationId, status, sortField, _id)} and
+     * {@code (status, sortField, _id)} at startup.
+     */
+    private boolean createIndexes = true;
+
+}
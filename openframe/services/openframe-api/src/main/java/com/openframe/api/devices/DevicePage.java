@@ -0,0 +1,20 @@
+package com.openframe.api.devices;
+
+import java.util.List;
+
+/**
+ * One page of the {@code devices} connection.
+ *
+ * @param edges         devices of the page with their cursors
+ * @param pageInfo      cursors of the first and last device, and whether more pages follow
+ * @param filteredCount devices matching the filter and search, {@code null} unless selected
+ */
+public record DevicePage(List<Edge> edges, PageInfo pageInfo, Integer filteredCount) {
+
+    public record Edge(Object node, String cursor) {
+    }
+
+    public record PageInfo(boolean hasNextPage, boolean hasPreviousPage, String startCursor, String endCursor) {
+    }
+
+}
@@ -0,0 +1,69 @@
+package com.openframe.api.devices;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The facet values of one machine. Counters are kept per cell, the combination of status, device
+ * type, OS type and organization, and per tag and cell; cells are encoded as strings so that the
+ * same keys serve in memory and as Redis hash fields.
+ *
+ * @param tagIds ids of the machine's tags, as hex strings
+ */
+public record DevicePoint(String status, String deviceType, String osType, String organizationId,
+                          Set<String> tagIds) {
+
+    static final String SEPARATOR = "\u001f";
+    private static final String TAG_SEPARATOR = ",";
+
+    public String cell() {
+        return String.join(SEPARATOR, valueOf(status), valueOf(deviceType), valueOf(osType), valueOf(organizationId));
+    }
+
+    public List<String> tagCells() {
+        String cell = cell();
+        return tagIds.stream().map(tagId -> tagId + SEPARATOR + cell).toList();
+    }
+
+    public String encode() {
+        return cell() + SEPARATOR + String.join(TAG_SEPARATOR, tagIds);
+    }
+
+    public static DevicePoint decode(String encoded) {
+        String[] values = encoded.split(SEPARATOR, -1);
+        Set<String> tagIds = values[4].isEmpty() ? Set.of()
+                : Arrays.stream(values[4].split(TAG_SEPARATOR)).collect(Collectors.toUnmodifiableSet());
+        return new DevicePoint(nullIfEmpty(values[0]), nullIfEmpty(values[1]), nullIfEmpty(values[2]),
+                nullIfEmpty(values[3]), tagIds);
+    }
+
+    /**
+     * @return status, device type, OS type and organization of a cell, {@code null} where the machine has none
+     */
+    static String[] fieldsOf(String cell) {
+        String[] values = cell.split(SEPARATOR, -1);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = nullIfEmpty(values[i]);
+        }
+        return values;
+    }
+
+    /**
+     * @return the tag id and the cell of a tag cell
+     */
+    static String[] splitTagCell(String tagCell) {
+        int separator = tagCell.indexOf(SEPARATOR);
+        return new String[]{tagCell.substring(0, separator), tagCell.substring(separator + 1)};
+    }
+
+    private static String valueOf(String value) {
+        return value == null ? "" : value;
+    }
+
+    private static String nullIfEmpty(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+}
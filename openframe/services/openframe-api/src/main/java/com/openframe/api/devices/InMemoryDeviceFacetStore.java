@@ -0,0 +1,63 @@
+package com.openframe.api.devices;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Counters held by each replica; every replica applies all events and rebuilds on its own.
+ * Queries read the counters while they are updated, without locking.
+ */
+public class InMemoryDeviceFacetStore implements DeviceFacetStore {
+
+    private final Map<String, DevicePoint> machines = new HashMap<>();
+    private final Set<String> updated = new HashSet<>();
+    private volatile DeviceFacetCounts counts;
+
+    @Override
+    public synchronized void update(Map<String, DevicePoint> points) {
+        updated.addAll(points.keySet());
+        if (counts == null) {
+            return;
+        }
+        points.forEach((machineId, point) -> {
+            DevicePoint previous = point == null ? machines.remove(machineId) : machines.put(machineId, point);
+            if (!Objects.equals(previous, point)) {
+                counts.add(previous, -1);
+                counts.add(point, 1);
+            }
+        });
+    }
+
+    @Override
+    public synchronized void replace(Map<String, DevicePoint> points) {
+        machines.clear();
+        machines.putAll(points);
+        counts = DeviceFacetCounts.of(points.values());
+    }
+
+    @Override
+    public Optional<DeviceFacetCounts> counts() {
+        return Optional.ofNullable(counts);
+    }
+
+    @Override
+    public synchronized void resetUpdated() {
+        updated.clear();
+    }
+
+    @Override
+    public synchronized Set<String> updated() {
+        return Set.copyOf(updated);
+    }
+
+    @Override
+    public boolean tryReconcile(Duration period) {
+        return true;
+    }
+
+}
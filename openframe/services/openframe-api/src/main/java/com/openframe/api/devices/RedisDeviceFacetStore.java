@@ -0,0 +1,193 @@
+package com.openframe.api.devices;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Counters in Redis hashes shared by all replicas. Events are consumed by one group, so each
+ * change is applied once. A Lua script reads the previous point of each machine and applies the
+ * deltas and the new point in the same atomic step, so replicas updating the same machine, or a
+ * rebuild renaming the hashes meanwhile, never count against a stale point. A rebuild
+ * is written to staging keys and renamed over the live ones, and only the replica holding the
+ * reconcile key for the period rebuilds.
+ * <p>
+ * Keys under the prefix: {@code cells} and {@code tag-cells} (counter hashes), {@code machines}
+ * (encoded point per machine id), {@code updated} (machines updated since the last rebuild started),
+ * {@code reconciled-at} and {@code reconcile}.
+ */
+@Slf4j
+public class RedisDeviceFacetStore implements DeviceFacetStore {
+
+    private static final int WRITE_CHUNK = 1000;
+
+    /**
+     * KEYS: cells, tag-cells, machines and updated. ARGV: the separator of {@link DevicePoint}
+     * encodings, then machine id and encoded point pairs, an empty point removing the machine.
+     * Decodes points the way {@link DevicePoint#cell()} and {@link DevicePoint#tagCells()} build
+     * the counter fields: the cell is everything before the last separator, the tag ids follow it.
+     */
+    private static final RedisScript<Long> UPDATE = RedisScript.of("""
+            local separator = ARGV[1]
+            local function count(encoded, delta)
+              local last, from = nil, 1
+              while true do
+                local at = string.find(encoded, separator, from, true)
+                if not at then break end
+                last, from = at, at + 1
+              end
+              local cell = string.sub(encoded, 1, last - 1)
+              redis.call('HINCRBY', KEYS[1], cell, delta)
+              for tagId in string.gmatch(string.sub(encoded, last + #separator), '[^,]+') do
+                redis.call('HINCRBY', KEYS[2], tagId .. separator .. cell, delta)
+              end
+            end
+            for i = 2, #ARGV, 2 do
+              local machineId, point = ARGV[i], ARGV[i + 1]
+              local previous = redis.call('HGET', KEYS[3], machineId) or ''
+              if previous ~= point then
+                if previous ~= '' then count(previous, -1) end
+                if point == '' then
+                  redis.call('HDEL', KEYS[3], machineId)
+                else
+                  count(point, 1)
+                  redis.call('HSET', KEYS[3], machineId, point)
+                end
+              end
+              redis.call('SADD', KEYS[4], machineId)
+            end
+            return 0
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final String cellsKey;
+    private final String tagCellsKey;
+    private final String machinesKey;
+    private final String updatedKey;
+    private final String reconciledAtKey;
+    private final String reconcileKey;
+    private final String stagingPrefix;
+
+    public RedisDeviceFacetStore(StringRedisTemplate redisTemplate, String keyPrefix) {
+        this.redisTemplate = redisTemplate;
+        this.cellsKey = keyPrefix + "cells";
+        this.tagCellsKey = keyPrefix + "tag-cells";
+        this.machinesKey = keyPrefix + "machines";
+        this.updatedKey = keyPrefix + "updated";
+        this.reconciledAtKey = keyPrefix + "reconciled-at";
+        this.reconcileKey = keyPrefix + "reconcile";
+        this.stagingPrefix = keyPrefix + "staging:";
+    }
+
+    @Override
+    public void update(Map<String, DevicePoint> points) {
+        List<Map.Entry<String, DevicePoint>> entries = new ArrayList<>(points.entrySet());
+        for (int from = 0; from < entries.size(); from += WRITE_CHUNK) {
+            List<String> args = new ArrayList<>();
+            args.add(DevicePoint.SEPARATOR);
+            for (Map.Entry<String, DevicePoint> entry : entries.subList(from, Math.min(entries.size(), from + WRITE_CHUNK))) {
+                args.add(entry.getKey());
+                args.add(entry.getValue() == null ? "" : entry.getValue().encode());
+            }
+            redisTemplate.execute(UPDATE, List.of(cellsKey, tagCellsKey, machinesKey, updatedKey), args.toArray());
+        }
+    }
+
+    @Override
+    public void replace(Map<String, DevicePoint> points) {
+        DeviceFacetCounts counts = DeviceFacetCounts.of(points.values());
+        Map<String, String> machines = new HashMap<>();
+        points.forEach((machineId, point) -> machines.put(machineId, point.encode()));
+        Map<String, Map<String, String>> staged = Map.of(
+                cellsKey, asStrings(counts.cells()),
+                tagCellsKey, asStrings(counts.tagCells()),
+                machinesKey, machines);
+        staged.forEach((key, values) -> {
+            redisTemplate.delete(stagingPrefix + key);
+            List<Map.Entry<String, String>> entries = new ArrayList<>(values.entrySet());
+            for (int from = 0; from < entries.size(); from += WRITE_CHUNK) {
+                Map<String, String> chunk = new HashMap<>();
+                entries.subList(from, Math.min(entries.size(), from + WRITE_CHUNK))
+                        .forEach(entry -> chunk.put(entry.getKey(), entry.getValue()));
+                redisTemplate.opsForHash().putAll(stagingPrefix + key, chunk);
+            }
+        });
+        redisTemplate.execute(new SessionCallback<List<Object>>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public List<Object> execute(RedisOperations operations) throws DataAccessException {
+                RedisOperations<String, String> redis = operations;
+                redis.multi();
+                staged.forEach((key, values) -> {
+                    if (values.isEmpty()) {
+                        redis.delete(key);
+                    } else {
+                        redis.rename(stagingPrefix + key, key);
+                    }
+                });
+                redis.opsForValue().set(reconciledAtKey, Instant.now().toString());
+                return redis.exec();
+            }
+        });
+    }
+
+    @Override
+    public Optional<DeviceFacetCounts> counts() {
+        List<Object> results = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                RedisOperations<String, String> redis = operations;
+                redis.hasKey(reconciledAtKey);
+                redis.opsForHash().entries(cellsKey);
+                redis.opsForHash().entries(tagCellsKey);
+                return null;
+            }
+        });
+        if (!Boolean.TRUE.equals(results.get(0))) {
+            return Optional.empty();
+        }
+        return Optional.of(new DeviceFacetCounts(asCounts((Map<?, ?>) results.get(1)), asCounts((Map<?, ?>) results.get(2))));
+    }
+
+    @Override
+    public void resetUpdated() {
+        redisTemplate.delete(updatedKey);
+    }
+
+    @Override
+    public Set<String> updated() {
+        Set<String> members = redisTemplate.opsForSet().members(updatedKey);
+        return members == null ? Set.of() : members;
+    }
+
+    @Override
+    public boolean tryReconcile(Duration period) {
+        return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(reconcileKey, Instant.now().toString(), period));
+    }
+
+    private static Map<String, String> asStrings(Map<String, Long> counts) {
+        Map<String, String> values = new HashMap<>();
+        counts.forEach((field, count) -> values.put(field, Long.toString(count)));
+        return values;
+    }
+
+    private static Map<String, Long> asCounts(Map<?, ?> values) {
+        Map<String, Long> counts = new HashMap<>();
+        values.forEach((field, count) -> counts.put((String) field, Long.parseLong((String) count)));
+        return counts;
+    }
+
+}
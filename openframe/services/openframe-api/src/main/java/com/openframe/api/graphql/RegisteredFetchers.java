@@ -0,0 +1,31 @@
+package com.openframe.api.graphql;
+
+import graphql.Scalars;
+import graphql.schema.DataFetcher;
+import graphql.schema.FieldCoordinates;
+import graphql.schema.GraphQLCodeRegistry;
+import graphql.schema.GraphQLFieldDefinition;
+
+import java.util.Optional;
+
+/**
+ * Fetchers already registered for a field, for fetchers that take its place and hand over the
+ * requests they cannot answer.
+ */
+public final class RegisteredFetchers {
+
+    private RegisteredFetchers() {
+    }
+
+    /**
+     * @return the fetcher registered for the field, empty if there is none
+     */
+    public static Optional<DataFetcher<?>> of(GraphQLCodeRegistry.Builder codeRegistry, FieldCoordinates coordinates) {
+        if (!codeRegistry.hasDataFetcher(coordinates)) {
+            return Optional.empty();
+        }
+        return Optional.of(codeRegistry.getDataFetcher(coordinates, GraphQLFieldDefinition.newFieldDefinition()
+                .name(coordinates.getFieldName()).type(Scalars.GraphQLString).build()));
+    }
+
+}
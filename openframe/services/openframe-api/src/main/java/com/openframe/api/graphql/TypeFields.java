@@ -0,0 +1,33 @@
+package com.openframe.api.graphql;
+
+import graphql.language.FieldDefinition;
+import graphql.language.ObjectTypeDefinition;
+import graphql.language.ObjectTypeExtensionDefinition;
+import graphql.schema.idl.TypeDefinitionRegistry;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Field names of GraphQL object types, for fetchers that only replace fields the schema declares.
+ */
+public final class TypeFields {
+
+    private TypeFields() {
+    }
+
+    /**
+     * @return the fields of the type and its extensions, empty if the type is not declared
+     */
+    public static Set<String> of(TypeDefinitionRegistry registry, String type) {
+        Set<String> fields = new HashSet<>();
+        registry.getType(type, ObjectTypeDefinition.class).ifPresent(definition ->
+                definition.getFieldDefinitions().stream().map(FieldDefinition::getName).forEach(fields::add));
+        registry.objectTypeExtensions().getOrDefault(type, List.of()).stream()
+                .map(ObjectTypeExtensionDefinition::getFieldDefinitions)
+                .forEach(extension -> extension.stream().map(FieldDefinition::getName).forEach(fields::add));
+        return fields;
+    }
+
+}
@@ -0,0 +1,38 @@
+package com.openframe.api.logs;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of a log in the page order: the timestamp of the last log of a page, with its
+ * {@code toolEventId} breaking ties between logs of the same millisecond.
+ *
+ * @param timestamp   event time in epoch milliseconds
+ * @param toolEventId id of the log
+ */
+public record LogCursor(long timestamp, String toolEventId) {
+
+    private static final char SEPARATOR = ':';
+
+    public String encode() {
+        String value = timestamp + String.valueOf(SEPARATOR) + toolEventId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the cursor was not issued by {@link #encode()}
+     */
+    public static LogCursor decode(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.indexOf(SEPARATOR);
+            if (separator < 1) {
+                throw new IllegalArgumentException("Invalid log cursor");
+            }
+            return new LogCursor(Long.parseLong(value.substring(0, separator)), value.substring(separator + 1));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid log cursor", e);
+        }
+    }
+
+}
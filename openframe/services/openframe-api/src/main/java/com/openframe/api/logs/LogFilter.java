@@ -0,0 +1,97 @@
+package com.openframe.api.logs;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The {@code LogFilterInput} fields the Pinot queries push down as predicates.
+ *
+ * @param toolTypes       {@code toolType} values, empty for any
+ * @param eventTypes      {@code eventType} values, empty for any
+ * @param severities      {@code severity} values, empty for any
+ * @param organizationIds {@code organizationId} values, empty for any
+ * @param deviceIds       {@code deviceId} values, empty for any
+ * @param userIds         {@code userId} values, empty for any
+ * @param from            earliest event time, inclusive, or {@code null}
+ * @param to              latest event time, exclusive, or {@code null}
+ */
+public record LogFilter(Set<String> toolTypes, Set<String> eventTypes, Set<String> severities,
+                        Set<String> organizationIds, Set<String> deviceIds, Set<String> userIds,
+                        Instant from, Instant to) {
+
+    public static final LogFilter ANY = new LogFilter(Set.of(), Set.of(), Set.of(), Set.of(), Set.of(), Set.of(),
+            null, null);
+
+    private static final Set<String> FIELDS = Set.of("toolTypes", "eventTypes", "severities", "organizationIds",
+            "deviceId", "deviceIds", "userId", "userIds", "startDate", "endDate");
+
+    /**
+     * @param filter {@code LogFilterInput} argument, may be {@code null}
+     * @return the filter, or {@code null} if it sets fields these queries do not know or dates
+     * they cannot read
+     */
+    public static LogFilter of(Map<String, Object> filter) {
+        if (filter == null) {
+            return ANY;
+        }
+        for (Map.Entry<String, Object> field : filter.entrySet()) {
+            if (!FIELDS.contains(field.getKey()) && !isEmpty(field.getValue())) {
+                return null;
+            }
+        }
+        try {
+            Instant from = startOf(filter.get("startDate"), false);
+            Instant to = startOf(filter.get("endDate"), true);
+            return new LogFilter(values(filter.get("toolTypes")), values(filter.get("eventTypes")),
+                    values(filter.get("severities")), values(filter.get("organizationIds")),
+                    values(filter.get("deviceId"), filter.get("deviceIds")),
+                    values(filter.get("userId"), filter.get("userIds")), from, to);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static Set<String> values(Object... fields) {
+        Set<String> values = new LinkedHashSet<>();
+        for (Object field : fields) {
+            if (field instanceof Collection<?> collection) {
+                collection.stream().filter(value -> value != null).forEach(value -> values.add(String.valueOf(value)));
+            } else if (field != null && !field.toString().isBlank()) {
+                values.add(field.toString());
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Dates cover their whole UTC day, so the end of an {@code endDate} is the start of the next day;
+     * date-times are taken as they are.
+     */
+    private static Instant startOf(Object value, boolean nextDay) {
+        if (value == null || value.toString().isBlank()) {
+            return null;
+        }
+        return switch (value) {
+            case LocalDate date -> (nextDay ? date.plusDays(1) : date).atStartOfDay(ZoneOffset.UTC).toInstant();
+            case Instant instant -> instant;
+            case OffsetDateTime dateTime -> dateTime.toInstant();
+            case ZonedDateTime dateTime -> dateTime.toInstant();
+            default -> value.toString().length() == 10 ? startOf(LocalDate.parse(value.toString()), nextDay)
+                    : OffsetDateTime.parse(value.toString()).toInstant();
+        };
+    }
+
+    private static boolean isEmpty(Object value) {
+        return value == null || value instanceof Collection<?> collection && collection.isEmpty()
+                || value instanceof String string && string.isBlank();
+    }
+
+}
@@ -0,0 +1,19 @@
+package com.openframe.api.logs;
+
+import java.util.List;
+
+/**
+ * Values the logs can be filtered by, answering {@code logFilters}.
+ *
+ * @param toolTypes     distinct {@code toolType} values, sorted
+ * @param eventTypes    distinct {@code eventType} values, sorted
+ * @param severities    distinct {@code severity} values, sorted
+ * @param organizations organizations with logs, sorted by name
+ */
+public record LogFilters(List<String> toolTypes, List<String> eventTypes, List<String> severities,
+                         List<Organization> organizations) {
+
+    public record Organization(String id, String name) {
+    }
+
+}
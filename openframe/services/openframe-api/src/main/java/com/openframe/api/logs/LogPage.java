@@ -0,0 +1,19 @@
+package com.openframe.api.logs;
+
+import java.util.List;
+
+/**
+ * One page of the {@code logs} connection.
+ *
+ * @param edges    logs of the page with their cursors, newest first
+ * @param pageInfo cursors of the first and last log, and whether older logs follow
+ */
+public record LogPage(List<Edge> edges, PageInfo pageInfo) {
+
+    public record Edge(Object node, String cursor) {
+    }
+
+    public record PageInfo(boolean hasNextPage, boolean hasPreviousPage, String startCursor, String endCursor) {
+    }
+
+}
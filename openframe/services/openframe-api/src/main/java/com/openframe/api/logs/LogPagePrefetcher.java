@@ -0,0 +1,107 @@
+package com.openframe.api.logs;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streams {@code logs} pages: whenever a page has a next one, the next page is queried in the
+ * background while the current one is serialized, and kept for a short time under its cursor.
+ * <p>
+ * Pages are keyed by filter, search, limit and cursor, so a cursor only finds the page of the
+ * query it came from. A request for a page still being prefetched waits for it instead of
+ * querying again. The first page of a query is always read from Pinot; only pages after a cursor
+ * are served from the cache, at most {@code ttl} old. Prefetches run on {@code threads} threads
+ * with {@code queueCapacity} waiting ones; beyond that they are dropped and the page is read when
+ * it is requested.
+ * <p>
+ * {@code openframe.api.logs.pinot.prefetch} counts pages after a cursor by {@code result}:
+ * {@code hit}, {@code miss} or {@code failed}, and dropped prefetches as {@code rejected}.
+ */
+@Slf4j
+public class LogPagePrefetcher implements AutoCloseable {
+
+    private final PinotLogQueries queries;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolExecutor executor;
+    private final AsyncCache<Key, LogPage> pages;
+
+    public LogPagePrefetcher(PinotLogQueries queries, LogQueryProperties.Streaming properties,
+                             MeterRegistry meterRegistry) {
+        this.queries = queries;
+        this.meterRegistry = meterRegistry;
+        this.executor = new ThreadPoolExecutor(properties.getThreads(), properties.getThreads(), 0, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                Thread.ofPlatform().name("logs-prefetch-", 0).daemon().factory(), new ThreadPoolExecutor.AbortPolicy());
+        this.pages = Caffeine.newBuilder()
+                .expireAfterWrite(properties.getTtl())
+                .maximumSize(properties.getMaximumPages())
+                .buildAsync();
+    }
+
+    /**
+     * @see PinotLogQueries#page(LogFilter, String, LogCursor, int)
+     */
+    public LogPage page(LogFilter filter, String search, LogCursor cursor, int limit) {
+        Key key = new Key(filter, search == null || search.isBlank() ? null : search.trim(), cursor, limit);
+        LogPage page = key.cursor() == null ? null : prefetched(key);
+        if (page == null) {
+            page = queries.page(key.filter(), key.search(), key.cursor(), key.limit());
+        }
+        if (page.pageInfo().hasNextPage()) {
+            prefetch(new Key(key.filter(), key.search(), LogCursor.decode(page.pageInfo().endCursor()), key.limit()));
+        }
+        return page;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private LogPage prefetched(Key key) {
+        CompletableFuture<LogPage> page = pages.getIfPresent(key);
+        if (page == null) {
+            count("miss");
+            return null;
+        }
+        try {
+            LogPage prefetched = page.get();
+            count("hit");
+            return prefetched;
+        } catch (ExecutionException e) {
+            log.debug("Prefetch of logs page failed, querying it again", e.getCause());
+            count("failed");
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            count("failed");
+            return null;
+        }
+    }
+
+    private void prefetch(Key key) {
+        try {
+            pages.get(key, (next, cacheExecutor) -> CompletableFuture.supplyAsync(
+                    () -> queries.page(next.filter(), next.search(), next.cursor(), next.limit()), executor));
+        } catch (RejectedExecutionException e) {
+            count("rejected");
+        }
+    }
+
+    private void count(String result) {
+        meterRegistry.counter(PinotQueryRunner.METRIC_PREFIX + ".prefetch", "result", result).increment();
+    }
+
+    private record Key(LogFilter filter, String search, LogCursor cursor, int limit) {
+    }
+
+}
@@ -0,0 +1,51 @@
+package com.openframe.api.logs;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.pinot.client.Connection;
+import org.apache.pinot.client.ConnectionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.Assert;
+
+/**
+ * Enables the Pinot queries of {@code logs} and {@code logFilters} with {@code openframe.api.logs.pinot.enabled}.
+ * <p>
+ * Queries go through the Pinot {@link Connection} of the context, or one to {@code pinot.broker.url}
+ * if there is none. {@code openframe.api.logs.pinot.streaming.enabled} adds prefetching of the next
+ * {@code logs} page. The data fetchers are a DGS component found by component scanning, under the
+ * same condition.
+ */
+@Configuration
+@EnableConfigurationProperties(LogQueryProperties.class)
+@ConditionalOnProperty(prefix = "openframe.api.logs.pinot", name = "enabled", havingValue = "true")
+public class LogQueryConfiguration {
+
+    @Bean
+    public PinotQueryRunner logPinotQueryRunner(ObjectProvider<Connection> connection,
+                                                @Value("${pinot.broker.url:}") String brokerUrl,
+                                                LogQueryProperties properties, MeterRegistry meterRegistry) {
+        Connection shared = connection.getIfUnique();
+        if (shared != null) {
+            return new PinotQueryRunner(shared, false, properties, meterRegistry);
+        }
+        Assert.hasText(brokerUrl, "pinot.broker.url must be set without a Pinot connection bean");
+        return new PinotQueryRunner(ConnectionFactory.fromHostList(brokerUrl), true, properties, meterRegistry);
+    }
+
+    @Bean
+    public PinotLogQueries pinotLogQueries(PinotQueryRunner logPinotQueryRunner, LogQueryProperties properties) {
+        return new PinotLogQueries(logPinotQueryRunner, properties);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "openframe.api.logs.pinot.streaming", name = "enabled", havingValue = "true")
+    public LogPagePrefetcher logPagePrefetcher(PinotLogQueries pinotLogQueries, LogQueryProperties properties,
+                                               MeterRegistry meterRegistry) {
+        return new LogPagePrefetcher(pinotLogQueries, properties.getStreaming(), meterRegistry);
+    }
+
+}
@@ -0,0 +1,109 @@
+package com.openframe.api.logs;
+
+import com.netflix.graphql.dgs.DgsCodeRegistry;
+import com.netflix.graphql.dgs.DgsComponent;
+import com.openframe.api.graphql.RegisteredFetchers;
+import com.openframe.api.graphql.TypeFields;
+import graphql.ErrorType;
+import graphql.GraphqlErrorBuilder;
+import graphql.execution.DataFetcherResult;
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.FieldCoordinates;
+import graphql.schema.GraphQLCodeRegistry;
+import graphql.schema.idl.TypeDefinitionRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiFunction;
+
+/**
+ * Answers the {@code logs} and {@code logFilters} queries with {@link PinotLogQueries}.
+ * <p>
+ * The fetchers registered for both fields are kept and still answer requests with filter fields
+ * or arguments the Pinot queries do not push down. Cursors issued by the previous {@code logs}
+ * fetcher, or otherwise not decodable, are rejected as validation errors. With streaming enabled, {@code logs} pages go through the
+ * {@link LogPagePrefetcher}. {@code openframe.api.logs.pinot.requests} counts requests by query and
+ * source, {@code pinot} or {@code registered}.
+ */
+@Slf4j
+@DgsComponent
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "openframe.api.logs.pinot", name = "enabled", havingValue = "true")
+public class LogQueryDataFetchers {
+
+    static final String QUERY_TYPE = "Query";
+    static final String LOGS_FIELD = "logs";
+    static final String LOG_FILTERS_FIELD = "logFilters";
+
+    private final PinotLogQueries queries;
+    private final ObjectProvider<LogPagePrefetcher> prefetcher;
+    private final MeterRegistry meterRegistry;
+
+    @DgsCodeRegistry
+    public GraphQLCodeRegistry.Builder logs(GraphQLCodeRegistry.Builder codeRegistry, TypeDefinitionRegistry registry) {
+        Set<String> fields = TypeFields.of(registry, QUERY_TYPE);
+        LogPagePrefetcher streaming = prefetcher.getIfAvailable();
+        replace(codeRegistry, fields, LOGS_FIELD, Set.of("filter", "search", "pagination"), (environment, filter) -> {
+            Map<String, Object> pagination = environment.getArgument("pagination");
+            String cursor = pagination == null ? null : (String) pagination.get("cursor");
+            LogCursor after;
+            try {
+                after = cursor == null ? null : LogCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                return DataFetcherResult.<LogPage>newResult()
+                        .error(GraphqlErrorBuilder.newError(environment)
+                                .errorType(ErrorType.ValidationError)
+                                .message(e.getMessage())
+                                .build())
+                        .build();
+            }
+            String search = environment.getArgument("search");
+            int limit = queries.limitOf(pagination);
+            return streaming != null
+                    ? streaming.page(filter, search, after, limit)
+                    : queries.page(filter, search, after, limit);
+        });
+        replace(codeRegistry, fields, LOG_FILTERS_FIELD, Set.of("filter"),
+                (environment, filter) -> queries.filters(filter));
+        return codeRegistry;
+    }
+
+    private void replace(GraphQLCodeRegistry.Builder codeRegistry, Set<String> fields, String field,
+                         Set<String> arguments, BiFunction<DataFetchingEnvironment, LogFilter, Object> query) {
+        if (!fields.contains(field)) {
+            log.warn("Schema has no {}.{} query, not answering it from Pinot", QUERY_TYPE, field);
+            return;
+        }
+        FieldCoordinates coordinates = FieldCoordinates.coordinates(QUERY_TYPE, field);
+        Optional<DataFetcher<?>> registered = RegisteredFetchers.of(codeRegistry, coordinates);
+        DataFetcher<Object> fetcher = environment -> {
+            Map<String, Object> values = environment.getArguments();
+            LogFilter filter = values.keySet().stream().allMatch(name -> arguments.contains(name) || values.get(name) == null)
+                    ? LogFilter.of(environment.getArgument("filter"))
+                    : null;
+            if (filter == null && registered.isPresent()) {
+                count(field, "registered");
+                return registered.get().get(environment);
+            }
+            if (filter == null) {
+                throw new IllegalArgumentException("Unsupported " + field + " arguments");
+            }
+            count(field, "pinot");
+            return query.apply(environment, filter);
+        };
+        codeRegistry.dataFetcher(coordinates, fetcher);
+        log.info("Answering {}.{} from Pinot", QUERY_TYPE, field);
+    }
+
+    private void count(String query, String source) {
+        meterRegistry.counter(PinotQueryRunner.METRIC_PREFIX + ".requests", "query", query, "source", source).increment();
+    }
+
+}
@@ -0,0 +1,104 @@
+package com.openframe.api.logs;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pinot queries of the {@code logs} and {@code logFilters} queries, bound from
+ * {@code openframe.api.logs.pinot}.
+ */
+@Data
+@ConfigurationProperties(prefix = "openframe.api.logs.pinot")
+public class LogQueryProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Logs table, as registered by the management service under {@code pinot.tables.logs.name}.
+     */
+    private String table = "logs";
+
+    /**
+     * Event time column, epoch milliseconds; exposed as {@code timestamp}.
+     */
+    private String timestampColumn = "eventTimestamp";
+
+    private String ingestDayColumn = "ingestDay";
+
+    /**
+     * Pattern of {@code ingestDay} values, in UTC.
+     */
+    private String ingestDayPattern = "yyyy-MM-dd";
+
+    /**
+     * How far an event's {@code ingestDay} may lie from the day of its timestamp, e.g. for events
+     * that arrive late or agents with skewed clocks; widens the {@code ingestDay} range of every query.
+     */
+    private Duration ingestDayTolerance = Duration.ofDays(1);
+
+    /**
+     * Oldest logs reachable without a start date in the filter.
+     */
+    private Duration lookback = Duration.ofDays(30);
+
+    /**
+     * Time range of the first query of a page; each following query covers twice the range,
+     * until the page is full or the lookback is reached.
+     */
+    private Duration initialWindow = Duration.ofDays(1);
+
+    /**
+     * Time range {@code logFilters} collects values from without a start date in the filter.
+     */
+    private Duration filtersLookback = Duration.ofDays(7);
+
+    /**
+     * Columns matched by a case-insensitive {@code search}.
+     */
+    private List<String> searchColumns = new ArrayList<>(List.of("summary", "hostname"));
+
+    private int defaultLimit = 20;
+
+    private int maximumLimit = 100;
+
+    /**
+     * Pinot {@code timeoutMs} query option.
+     */
+    private Duration timeout = Duration.ofSeconds(10);
+
+    /**
+     * Pinot {@code numGroupsLimit} query option, and the most value combinations {@code logFilters} reads.
+     */
+    private int numGroupsLimit = 10_000;
+
+    private Streaming streaming = new Streaming();
+
+    /**
+     * Prefetching the page after each {@code logs} page, so scrolling on reads it from memory.
+     */
+    @Data
+    public static class Streaming {
+
+        private boolean enabled = false;
+
+        /**
+         * How long a prefetched page is served; logs that arrive late within it are not on the page.
+         */
+        private Duration ttl = Duration.ofSeconds(30);
+
+        private long maximumPages = 500;
+
+        private int threads = 4;
+
+        /**
+         * Prefetches waiting for a thread; further ones are dropped.
+         */
+        private int queueCapacity = 64;
+
+    }
+
+}
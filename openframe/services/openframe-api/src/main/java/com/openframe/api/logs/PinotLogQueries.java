@@ -0,0 +1,270 @@
+package com.openframe.api.logs;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pinot.client.ResultSet;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.temporal.ChronoField;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Answers {@code logs} and {@code logFilters} with Pinot queries that only touch the days they need.
+ * <p>
+ * Every query is bounded by event time and by an {@code ingestDay} IN list derived from it, so
+ * Pinot prunes segments outside the range instead of scanning the whole table. An event is
+ * assumed to be ingested within {@code ingestDayTolerance} of its timestamp.
+ * <p>
+ * Logs are paged newest first, ordered by timestamp and {@code toolEventId}. A page is read from
+ * the cursor backwards in windows: the first covers {@code initialWindow}, each following one
+ * twice the previous, until the page is full or the start date or {@code lookback} is reached.
+ * Since each window holds every log of its time range, pages neither skip nor repeat logs, also
+ * between logs of the same millisecond. Tool type, event type, severity, organization, device and
+ * user filters are pushed down as IN predicates; {@code search} is a case-insensitive substring of
+ * the search columns.
+ */
+@Slf4j
+public class PinotLogQueries {
+
+    static final String LOGS_QUERY = "logs";
+    static final String FILTERS_QUERY = "logFilters";
+    static final String TIMESTAMP = "timestamp";
+    static final String TOOL_EVENT_ID = "toolEventId";
+    static final List<String> FIELDS = List.of(TOOL_EVENT_ID, "eventType", "ingestDay", "toolType", "severity",
+            "userId", "deviceId", "hostname", "organizationName", "organizationId", "summary");
+
+    private static final String NULL = "null";
+    private static final DateTimeFormatter PINOT_TIMESTAMP = new DateTimeFormatterBuilder()
+            .appendPattern("yyyy-MM-dd HH:mm:ss").optionalStart().appendFraction(ChronoField.NANO_OF_SECOND, 0, 9, true)
+            .optionalEnd().toFormatter();
+
+    private final PinotQueryRunner runner;
+    private final LogQueryProperties properties;
+    private final DateTimeFormatter ingestDays;
+    private final String timestamp;
+
+    public PinotLogQueries(PinotQueryRunner runner, LogQueryProperties properties) {
+        this.runner = runner;
+        this.properties = properties;
+        this.ingestDays = DateTimeFormatter.ofPattern(properties.getIngestDayPattern()).withZone(ZoneOffset.UTC);
+        this.timestamp = identifier(properties.getTimestampColumn());
+    }
+
+    /**
+     * @param filter pushed down filter
+     * @param search {@code search} argument, may be {@code null}
+     * @param cursor cursor of the previous page, {@code null} for the first page
+     * @param limit  page size from {@link #limitOf(Map)}
+     */
+    public LogPage page(LogFilter filter, String search, LogCursor cursor, int limit) {
+        Instant now = Instant.now();
+        Instant newest = filter.to() != null ? filter.to() : now;
+        if (cursor != null && Instant.ofEpochMilli(cursor.timestamp()).isBefore(newest)) {
+            newest = Instant.ofEpochMilli(cursor.timestamp());
+        }
+        Instant oldest = filter.from() != null ? filter.from()
+                : (filter.to() != null ? filter.to() : now).minus(properties.getLookback());
+
+        List<Map<String, Object>> logs = new ArrayList<>();
+        Instant windowEnd = newest;
+        Duration window = properties.getInitialWindow();
+        boolean first = true;
+        while (logs.size() <= limit && windowEnd.isAfter(oldest)) {
+            Instant windowStart = windowEnd.minus(window).isAfter(oldest) ? windowEnd.minus(window) : oldest;
+            List<String> predicates = predicates(filter, search, windowStart, windowEnd);
+            if (first) {
+                if (cursor != null) {
+                    predicates.add("(" + timestamp + " < " + cursor.timestamp() + " OR (" + timestamp + " = "
+                            + cursor.timestamp() + " AND " + identifier(TOOL_EVENT_ID) + " < "
+                            + literal(cursor.toolEventId()) + "))");
+                }
+                if (filter.to() != null) {
+                    predicates.add(timestamp + " < " + filter.to().toEpochMilli());
+                }
+            } else {
+                predicates.add(timestamp + " < " + windowEnd.toEpochMilli());
+            }
+            String sql = "SELECT " + FIELDS.stream().map(PinotLogQueries::identifier).collect(Collectors.joining(", "))
+                    + ", " + timestamp + " FROM " + identifier(properties.getTable())
+                    + " WHERE " + String.join(" AND ", predicates)
+                    + " ORDER BY " + timestamp + " DESC, " + identifier(TOOL_EVENT_ID) + " DESC"
+                    + " LIMIT " + (limit + 1 - logs.size());
+            logs.addAll(rows(runner.execute(LOGS_QUERY, sql).getResultSet(0)));
+            windowEnd = windowStart;
+            window = window.multipliedBy(2);
+            first = false;
+        }
+
+        boolean hasNextPage = logs.size() > limit;
+        List<LogPage.Edge> edges = new ArrayList<>();
+        for (Map<String, Object> log : hasNextPage ? logs.subList(0, limit) : logs) {
+            LogCursor position = new LogCursor(((Instant) log.get(TIMESTAMP)).toEpochMilli(),
+                    (String) log.get(TOOL_EVENT_ID));
+            edges.add(new LogPage.Edge(log, position.encode()));
+        }
+        return new LogPage(edges, new LogPage.PageInfo(hasNextPage, cursor != null,
+                edges.isEmpty() ? null : edges.get(0).cursor(),
+                edges.isEmpty() ? null : edges.get(edges.size() - 1).cursor()));
+    }
+
+    /**
+     * Distinct tool types, event types, severities and organizations of the filtered logs, from
+     * {@code filtersLookback} back unless the filter starts earlier.
+     */
+    public LogFilters filters(LogFilter filter) {
+        Instant to = filter.to() != null ? filter.to() : Instant.now();
+        Instant from = filter.from() != null ? filter.from() : to.minus(properties.getFiltersLookback());
+        List<String> predicates = predicates(filter, null, from, to);
+        if (filter.to() != null) {
+            predicates.add(timestamp + " < " + filter.to().toEpochMilli());
+        }
+        String columns = "\"toolType\", \"eventType\", \"severity\", \"organizationId\", \"organizationName\"";
+        String sql = "SELECT " + columns + " FROM " + identifier(properties.getTable())
+                + " WHERE " + String.join(" AND ", predicates)
+                + " GROUP BY " + columns + " LIMIT " + properties.getNumGroupsLimit();
+        ResultSet groups = runner.execute(FILTERS_QUERY, sql).getResultSet(0);
+
+        Set<String> toolTypes = new TreeSet<>();
+        Set<String> eventTypes = new TreeSet<>();
+        Set<String> severities = new TreeSet<>();
+        Map<String, String> organizations = new TreeMap<>();
+        for (int row = 0; row < groups.getRowCount(); row++) {
+            add(toolTypes, value(groups, row, 0));
+            add(eventTypes, value(groups, row, 1));
+            add(severities, value(groups, row, 2));
+            String organizationId = value(groups, row, 3);
+            if (organizationId != null) {
+                String name = value(groups, row, 4);
+                if (name != null) {
+                    organizations.put(organizationId, name);
+                } else {
+                    organizations.putIfAbsent(organizationId, organizationId);
+                }
+            }
+        }
+        return new LogFilters(List.copyOf(toolTypes), List.copyOf(eventTypes), List.copyOf(severities),
+                organizations.entrySet().stream()
+                        .map(organization -> new LogFilters.Organization(organization.getKey(), organization.getValue()))
+                        .sorted(Comparator.comparing(LogFilters.Organization::name, String.CASE_INSENSITIVE_ORDER))
+                        .toList());
+    }
+
+    public int limitOf(Map<String, Object> pagination) {
+        Object limit = pagination == null ? null : pagination.get("limit");
+        int requested = limit instanceof Number number ? number.intValue() : properties.getDefaultLimit();
+        return Math.max(1, Math.min(requested, properties.getMaximumLimit()));
+    }
+
+    /**
+     * The time range as an {@code ingestDay} IN list and a lower timestamp bound, and the filter
+     * and search; the upper timestamp bound depends on the query.
+     */
+    private List<String> predicates(LogFilter filter, String search, Instant from, Instant to) {
+        List<String> predicates = new ArrayList<>();
+        predicates.add(in(properties.getIngestDayColumn(), days(from, to)));
+        predicates.add(timestamp + " >= " + from.toEpochMilli());
+        in(predicates, "toolType", filter.toolTypes());
+        in(predicates, "eventType", filter.eventTypes());
+        in(predicates, "severity", filter.severities());
+        in(predicates, "organizationId", filter.organizationIds());
+        in(predicates, "deviceId", filter.deviceIds());
+        in(predicates, "userId", filter.userIds());
+        if (search != null && !search.isBlank()) {
+            String pattern = literal(search.trim().replaceAll("[\\\\^$.|?*+()\\[\\]{}]", "\\\\$0"));
+            predicates.add(properties.getSearchColumns().stream()
+                    .map(column -> "REGEXP_LIKE(" + identifier(column) + ", " + pattern + ", 'i')")
+                    .collect(Collectors.joining(" OR ", "(", ")")));
+        }
+        return predicates;
+    }
+
+    private List<String> days(Instant from, Instant to) {
+        Duration tolerance = properties.getIngestDayTolerance();
+        LocalDate last = LocalDate.ofInstant(to.plus(tolerance), ZoneOffset.UTC);
+        List<String> days = new ArrayList<>();
+        for (LocalDate day = LocalDate.ofInstant(from.minus(tolerance), ZoneOffset.UTC); !day.isAfter(last);
+             day = day.plusDays(1)) {
+            days.add(ingestDays.format(day.atStartOfDay(ZoneOffset.UTC)));
+        }
+        return days;
+    }
+
+    private List<Map<String, Object>> rows(ResultSet resultSet) {
+        Map<String, Integer> columns = new HashMap<>();
+        for (int column = 0; column < resultSet.getColumnCount(); column++) {
+            columns.put(resultSet.getColumnName(column), column);
+        }
+        int timestampColumn = columns.get(properties.getTimestampColumn());
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int row = 0; row < resultSet.getRowCount(); row++) {
+            Map<String, Object> log = new LinkedHashMap<>();
+            for (String field : FIELDS) {
+                log.put(field, value(resultSet, row, columns.get(field)));
+            }
+            log.put(TIMESTAMP, instant(resultSet.getString(row, timestampColumn)));
+            rows.add(log);
+        }
+        return rows;
+    }
+
+    /**
+     * Pinot returns the default null value of string columns, {@code "null"}, for missing values.
+     */
+    private static String value(ResultSet resultSet, int row, int column) {
+        String value = resultSet.getString(row, column);
+        return value == null || NULL.equals(value) ? null : value;
+    }
+
+    /**
+     * {@code LONG} columns hold epoch milliseconds, {@code TIMESTAMP} columns are returned as
+     * {@code yyyy-MM-dd HH:mm:ss.S} in UTC.
+     */
+    private static Instant instant(String value) {
+        try {
+            return Instant.ofEpochMilli(Long.parseLong(value));
+        } catch (NumberFormatException e) {
+            return LocalDateTime.parse(value, PINOT_TIMESTAMP).toInstant(ZoneOffset.UTC);
+        }
+    }
+
+    private static void add(Set<String> values, String value) {
+        if (value != null && !value.isEmpty()) {
+            values.add(value);
+        }
+    }
+
+    private static void in(List<String> predicates, String column, Collection<String> values) {
+        if (!values.isEmpty()) {
+            predicates.add(in(column, values));
+        }
+    }
+
+    private static String in(String column, Collection<String> values) {
+        return identifier(column) + " IN (" + values.stream().map(PinotLogQueries::literal)
+                .collect(Collectors.joining(", ")) + ")";
+    }
+
+    private static String identifier(String name) {
+        return "\"" + name.replace("\"", "\"\"") + "\"";
+    }
+
+    private static String literal(String value) {
+        return "'" + value.replace("'", "''") + "'";
+    }
+
+}
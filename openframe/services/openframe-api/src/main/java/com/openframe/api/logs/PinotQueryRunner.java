@@ -0,0 +1,101 @@
+package com.openframe.api.logs;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pinot.client.Connection;
+import org.apache.pinot.client.ExecutionStats;
+import org.apache.pinot.client.ResultSetGroup;
+
+/**
+ * Runs Pinot queries with the configured query options and records what each of them scanned.
+ * <p>
+ * Every query is prefixed with {@code SET timeoutMs} and {@code SET numGroupsLimit}, so a broad
+ * query fails or stops grouping on its own instead of holding servers. From the execution stats of
+ * the response, per query name:
+ * <ul>
+ *     <li>{@code openframe.api.logs.pinot.segments} - segments queried, processed and matched</li>
+ *     <li>{@code openframe.api.logs.pinot.docs.scanned} - documents scanned</li>
+ *     <li>{@code openframe.api.logs.pinot.entries.scanned} - entries scanned in and after the filter</li>
+ *     <li>{@code openframe.api.logs.pinot.truncated} - partial responses and reached group limits</li>
+ *     <li>{@code openframe.api.logs.pinot.duration} - query time</li>
+ * </ul>
+ * A connection the runner was given ownership of is closed with it.
+ */
+@Slf4j
+public class PinotQueryRunner implements AutoCloseable {
+
+    static final String METRIC_PREFIX = "openframe.api.logs.pinot";
+
+    private final Connection connection;
+    private final MeterRegistry meterRegistry;
+    private final boolean ownsConnection;
+    private final String options;
+
+    public PinotQueryRunner(Connection connection, boolean ownsConnection, LogQueryProperties properties,
+                            MeterRegistry meterRegistry) {
+        this.connection = connection;
+        this.ownsConnection = ownsConnection;
+        this.meterRegistry = meterRegistry;
+        this.options = "SET timeoutMs = " + properties.getTimeout().toMillis() + "; "
+                + "SET numGroupsLimit = " + properties.getNumGroupsLimit() + "; ";
+    }
+
+    /**
+     * @param name metric tag of the query, such as {@code logs}
+     * @param sql  a single {@code SELECT}
+     */
+    public ResultSetGroup execute(String name, String sql) {
+        log.debug("Pinot {} query: {}", name, sql);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        ResultSetGroup result;
+        try {
+            result = connection.execute(options + sql);
+        } finally {
+            sample.stop(meterRegistry.timer(METRIC_PREFIX + ".duration", "query", name));
+        }
+        record(name, result.getExecutionStats());
+        return result;
+    }
+
+    @Override
+    public void close() {
+        if (ownsConnection) {
+            connection.close();
+        }
+    }
+
+    private void record(String name, ExecutionStats stats) {
+        if (stats == null) {
+            return;
+        }
+        segments(name, "queried").record(stats.getNumSegmentsQueried());
+        segments(name, "processed").record(stats.getNumSegmentsProcessed());
+        segments(name, "matched").record(stats.getNumSegmentsMatched());
+        summary(".docs.scanned", name).record(stats.getNumDocsScanned());
+        summary(".entries.scanned", name, "stage", "filter").record(stats.getNumEntriesScannedInFilter());
+        summary(".entries.scanned", name, "stage", "post-filter").record(stats.getNumEntriesScannedPostFilter());
+        if (stats.isPartialResult()) {
+            truncated(name, "partial");
+        }
+        if (stats.isNumGroupsLimitReached()) {
+            truncated(name, "groups-limit");
+        }
+    }
+
+    private DistributionSummary segments(String name, String state) {
+        return summary(".segments", name, "state", state);
+    }
+
+    private DistributionSummary summary(String suffix, String name, String... tags) {
+        return DistributionSummary.builder(METRIC_PREFIX + suffix).tag("query", name).tags(tags)
+                .register(meterRegistry);
+    }
+
+    private void truncated(String name, String reason) {
+        log.warn("Pinot {} query returned truncated results: {}", name, reason);
+        meterRegistry.counter(METRIC_PREFIX + ".truncated", "query", name, "reason", reason).increment();
+    }
+
+}
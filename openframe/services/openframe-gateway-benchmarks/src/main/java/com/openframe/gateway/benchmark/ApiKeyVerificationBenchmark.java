@@ -0,0 +1,81 @@
+package com.openframe.gateway.benchmark;
+
+import com.openframe.gateway.apikey.ApiKeyValidationCacheProperties;
+import com.openframe.gateway.apikey.CachingPasswordEncoder;
+import com.openframe.gateway.apikey.VerifiedApiKeyCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of verifying a presented API key secret against its stored BCrypt hash, with and
+ * without the verified key cache.
+ * <p>
+ * {@link #bcrypt} is the per-request cost of the current flow; {@link #cached} is the cost once
+ * a key has been verified within the cache TTL. Run in {@code SampleTime} mode to read p50/p99:
+ * {@code java -cp benchmarks.jar org.openjdk.jmh.Main ApiKeyVerificationBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ApiKeyVerificationBenchmark {
+
+    /**
+     * BCrypt cost factor; 10 is the default of {@link BCryptPasswordEncoder}.
+     */
+    @Param("10")
+    private int strength;
+
+    /**
+     * Distinct keys in use, all verified once before measuring.
+     */
+    @Param({"1", "1000"})
+    private int keys;
+
+    private PasswordEncoder bcrypt;
+    private PasswordEncoder cached;
+    private String[] secrets;
+    private String[] hashes;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        bcrypt = new BCryptPasswordEncoder(strength);
+        VerifiedApiKeyCache cache = new VerifiedApiKeyCache(new ApiKeyValidationCacheProperties(), new SimpleMeterRegistry());
+        cached = new CachingPasswordEncoder(bcrypt, cache);
+        secrets = new String[keys];
+        hashes = new String[keys];
+        secrets[0] = "sk_live_benchmark_0";
+        hashes[0] = bcrypt.encode(secrets[0]);
+        cached.matches(secrets[0], hashes[0]);
+        for (int i = 1; i < keys; i++) {
+            // Hashing every key would dominate the setup; the other keys are entered directly
+            secrets[i] = "sk_live_benchmark_" + i;
+            hashes[i] = hashes[0].substring(0, hashes[0].length() - 8) + "%08d".formatted(i);
+            cache.markVerified(secrets[i], hashes[i]);
+        }
+    }
+
+    @Benchmark
+    public boolean bcrypt() {
+        return bcrypt.matches(secrets[0], hashes[0]);
+    }
+
+    @Benchmark
+    public boolean cached() {
+        int i = cursor;
+        cursor = (cursor + 1) % keys;
+        return cached.matches(secrets[i], hashes[i]);
+    }
+
+}
@@ -0,0 +1,70 @@
+package com.openframe.gateway.benchmark;
+
+import com.openframe.gateway.ratelimit.ApiKeyRateLimiter;
+import com.openframe.gateway.ratelimit.RateLimitDecision;
+import com.openframe.gateway.ratelimit.RateLimitDecision.Outcome;
+import com.openframe.gateway.ratelimit.RateLimitWindow;
+import com.openframe.gateway.ratelimit.RateLimits;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fixed window limiter following the documented flow of the gateway core: read the minute, hour
+ * and day counters, then increment each of them (setting the TTL on the first increment) if none
+ * is exhausted. Used as the baseline the gateway limiters are compared against.
+ */
+class FixedWindowCounterBaseline implements ApiKeyRateLimiter {
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final Clock clock;
+    private final Duration ttl;
+    private final AtomicLong roundTrips = new AtomicLong();
+
+    FixedWindowCounterBaseline(ReactiveStringRedisTemplate redisTemplate, Clock clock, Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.clock = clock;
+        this.ttl = ttl;
+    }
+
+    @Override
+    public Mono<RateLimitDecision> acquire(String keyId, RateLimits limits) {
+        long epochSecond = clock.millis() / 1000;
+        RateLimitWindow[] windows = RateLimitWindow.values();
+        for (RateLimitWindow window : windows) {
+            String count = get(key(keyId, window, epochSecond));
+            if (count != null && Long.parseLong(count) >= limits.of(window)) {
+                return Mono.just(new RateLimitDecision(Outcome.DENIED, window, limits.of(window), 0,
+                        window.startOf(epochSecond) + window.getSeconds()));
+            }
+        }
+        for (RateLimitWindow window : windows) {
+            String key = key(keyId, window, epochSecond);
+            roundTrips.incrementAndGet();
+            Long count = redisTemplate.opsForValue().increment(key).block();
+            if (count != null && count == 1) {
+                roundTrips.incrementAndGet();
+                redisTemplate.expire(key, ttl).block();
+            }
+        }
+        return Mono.just(new RateLimitDecision(Outcome.ALLOWED, RateLimitWindow.MINUTE, limits.perMinute(), -1,
+                RateLimitWindow.MINUTE.startOf(epochSecond) + RateLimitWindow.MINUTE.getSeconds()));
+    }
+
+    long roundTrips() {
+        return roundTrips.get();
+    }
+
+    private String get(String key) {
+        roundTrips.incrementAndGet();
+        return redisTemplate.opsForValue().get(key).block();
+    }
+
+    private static String key(String keyId, RateLimitWindow window, long epochSecond) {
+        return "rate_limit:baseline:" + keyId + ":" + window.tag() + ":" + window.startOf(epochSecond);
+    }
+
+}
@@ -0,0 +1,87 @@
+package com.openframe.gateway.benchmark;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.openframe.gateway.jwt.IssuerJwtDecoder;
+import com.openframe.gateway.jwt.IssuerKeys;
+import com.openframe.gateway.jwt.JwksRegistry;
+import com.openframe.gateway.jwt.JwtRegistryProperties;
+import com.openframe.gateway.jwt.VerifiedTokenCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.oauth2.jwt.Jwt;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of decoding an RS256 access token of a known issuer, with and without the verified
+ * token cache.
+ * <p>
+ * {@link #verified} checks the signature on every call, the way a decoder without memoization
+ * does; {@link #memoized} is the cost of a token seen before, e.g. the next request of the same
+ * SPA session. Keys are preloaded, so neither includes a JWKS fetch:
+ * {@code java -cp benchmarks.jar org.openjdk.jmh.Main JwtVerificationBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtVerificationBenchmark {
+
+    private static final String ISSUER_BASE = "https://auth.example.com/sas";
+    private static final String ISSUER = ISSUER_BASE + "/tenant";
+
+    private IssuerJwtDecoder verifying;
+    private IssuerJwtDecoder memoizing;
+    private String token;
+
+    @Setup
+    public void setUp() throws JOSEException {
+        RSAKey key = new RSAKeyGenerator(2048).keyID("benchmark").generate();
+        JWKSet jwkSet = new JWKSet(key.toPublicJWK());
+        JwtRegistryProperties.Registry properties = new JwtRegistryProperties.Registry();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        JwksRegistry registry = new JwksRegistry(issuer -> Mono.just(IssuerKeys.of(issuer, jwkSet, Clock.systemUTC().instant())),
+                properties, Clock.systemUTC(), meterRegistry);
+        VerifiedTokenCache verifiedTokens = new VerifiedTokenCache(properties.getVerifiedTokens(), Clock.systemUTC(), meterRegistry);
+        verifying = new IssuerJwtDecoder(registry, null, ISSUER_BASE);
+        memoizing = new IssuerJwtDecoder(registry, verifiedTokens, ISSUER_BASE);
+
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(),
+                new JWTClaimsSet.Builder()
+                        .issuer(ISSUER)
+                        .subject("benchmark-user")
+                        .issueTime(new Date())
+                        .expirationTime(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)))
+                        .build());
+        jwt.sign(new RSASSASigner(key));
+        token = jwt.serialize();
+        memoizing.decode(token).block();
+    }
+
+    @Benchmark
+    public Jwt verified() {
+        return verifying.decode(token).block();
+    }
+
+    @Benchmark
+    public Jwt memoized() {
+        return memoizing.decode(token).block();
+    }
+
+}
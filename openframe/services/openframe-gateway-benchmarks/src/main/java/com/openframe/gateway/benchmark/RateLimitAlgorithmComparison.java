@@ -0,0 +1,181 @@
+package com.openframe.gateway.benchmark;
+
+import com.openframe.gateway.ratelimit.ApiKeyRateLimiter;
+import com.openframe.gateway.ratelimit.LocalRateLimiter;
+import com.openframe.gateway.ratelimit.RateLimitAlgorithm;
+import com.openframe.gateway.ratelimit.RateLimitDecision;
+import com.openframe.gateway.ratelimit.RateLimitProperties;
+import com.openframe.gateway.ratelimit.RateLimits;
+import com.openframe.gateway.ratelimit.RedisQuotaReserver;
+import com.openframe.gateway.ratelimit.ScriptedRateLimiter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Compares Redis cost and accuracy of the rate limit algorithms against a real Redis.
+ * <p>
+ * Replays the same simulated traffic through the fixed window baseline of the gateway core, the
+ * sliding window and the GCRA limiter, and GCRA served from token leases (three replicas).
+ * Each key sends a background trickle plus bursts that straddle every other minute boundary,
+ * the worst case for fixed windows. Time is simulated, so ten minutes of traffic take seconds.
+ * <p>
+ * Reported per algorithm: Redis round trips and commands (including those run inside scripts)
+ * per request, admitted requests, and the most requests admitted for one key in any sliding
+ * 60 seconds relative to the per-minute limit. Keys are removed afterwards.
+ * <p>
+ * Usage: {@code java -jar benchmarks.jar <redis-uri> [keys] [minutes] [limit-per-minute]}
+ */
+public class RateLimitAlgorithmComparison {
+
+    private static final long TICK_MILLIS = 50;
+    private static final long MINUTE_MILLIS = 60_000;
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final int keys;
+    private final int minutes;
+    private final RateLimits limits;
+    private final String keyPrefix = "ak_bench" + UUID.randomUUID().toString().substring(0, 8) + "_";
+
+    RateLimitAlgorithmComparison(ReactiveStringRedisTemplate redisTemplate, int keys, int minutes, int limitPerMinute) {
+        this.redisTemplate = redisTemplate;
+        this.keys = keys;
+        this.minutes = minutes;
+        this.limits = new RateLimits(limitPerMinute, limitPerMinute * 30, limitPerMinute * 600);
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: RateLimitAlgorithmComparison <redis-uri> [keys] [minutes] [limit-per-minute]");
+            System.exit(1);
+        }
+        URI uri = URI.create(args[0]);
+        LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(uri.getHost(), uri.getPort() > 0 ? uri.getPort() : 6379));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        try {
+            new RateLimitAlgorithmComparison(new ReactiveStringRedisTemplate(connectionFactory),
+                    args.length > 1 ? Integer.parseInt(args[1]) : 20,
+                    args.length > 2 ? Integer.parseInt(args[2]) : 10,
+                    args.length > 3 ? Integer.parseInt(args[3]) : 100).run();
+        } finally {
+            connectionFactory.destroy();
+        }
+    }
+
+    void run() {
+        long start = System.currentTimeMillis() / MINUTE_MILLIS * MINUTE_MILLIS;
+        System.out.printf("keys=%d minutes=%d limits=%s%n", keys, minutes, limits);
+        System.out.printf("%-26s %10s %12s %14s %10s %14s%n",
+                "algorithm", "requests", "trips/req", "commands/req", "admitted", "max 60s/limit");
+        try {
+            SimulatedClock clock = new SimulatedClock(start);
+            FixedWindowCounterBaseline baseline = new FixedWindowCounterBaseline(redisTemplate, clock, Duration.ofHours(2));
+            report("fixed window (core)", clock, List.of(baseline), baseline::roundTrips);
+
+            RateLimitProperties properties = new RateLimitProperties();
+            for (RateLimitAlgorithm algorithm : List.of(RateLimitAlgorithm.SLIDING_WINDOW, RateLimitAlgorithm.GCRA)) {
+                clock = new SimulatedClock(start);
+                SimpleMeterRegistry metrics = new SimpleMeterRegistry();
+                ScriptedRateLimiter limiter = new ScriptedRateLimiter(redisTemplate, properties, algorithm, clock, metrics);
+                report(algorithm.tag(), clock, List.of(limiter), () -> redisCalls(metrics));
+            }
+
+            clock = new SimulatedClock(start);
+            SimpleMeterRegistry leaseMetrics = new SimpleMeterRegistry();
+            List<ApiKeyRateLimiter> replicas = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                replicas.add(new LocalRateLimiter(new RedisQuotaReserver(redisTemplate, properties, leaseMetrics),
+                        properties, clock, leaseMetrics));
+            }
+            report("gcra (leases, x3)", clock, replicas, () -> redisCalls(leaseMetrics));
+        } finally {
+            cleanUp();
+        }
+    }
+
+    private void report(String name, SimulatedClock clock, List<ApiKeyRateLimiter> replicas, Supplier<Long> roundTrips) {
+        long commandsBefore = commandCalls();
+        Random random = new Random(42);
+        List<List<Long>> admitted = new ArrayList<>(keys);
+        for (int k = 0; k < keys; k++) {
+            admitted.add(new ArrayList<>());
+        }
+        long origin = clock.millis();
+        long requests = 0;
+        for (long t = origin; t < origin + minutes * MINUTE_MILLIS; t += TICK_MILLIS) {
+            clock.set(t);
+            long minute = (t - origin) / MINUTE_MILLIS;
+            long second = (t - origin) % MINUTE_MILLIS / 1000;
+            boolean burst = (minute % 2 == 0 && second >= 55) || (minute % 2 == 1 && second < 5);
+            for (int k = 0; k < keys; k++) {
+                int count = burst ? 3 : (random.nextInt(40) == 0 ? 1 : 0);
+                for (int i = 0; i < count; i++) {
+                    ApiKeyRateLimiter limiter = replicas.get((int) (requests++ % replicas.size()));
+                    RateLimitDecision decision = limiter.acquire(keyPrefix + k, limits).block();
+                    if (decision != null && decision.isAllowed()) {
+                        admitted.get(k).add(t);
+                    }
+                }
+            }
+        }
+        // One INFO call is counted between the two samples
+        long commands = commandCalls() - commandsBefore - 1;
+        long totalAdmitted = admitted.stream().mapToLong(List::size).sum();
+        int maxInMinute = admitted.stream().mapToInt(RateLimitAlgorithmComparison::maxInSlidingMinute).max().orElse(0);
+        System.out.printf("%-26s %10d %12.3f %14.3f %10d %14.2f%n", name, requests,
+                (double) roundTrips.get() / requests, (double) commands / requests, totalAdmitted,
+                (double) maxInMinute / limits.perMinute());
+    }
+
+    private static int maxInSlidingMinute(List<Long> times) {
+        int max = 0;
+        int from = 0;
+        for (int to = 0; to < times.size(); to++) {
+            while (times.get(to) - times.get(from) >= MINUTE_MILLIS) {
+                from++;
+            }
+            max = Math.max(max, to - from + 1);
+        }
+        return max;
+    }
+
+    private static long redisCalls(SimpleMeterRegistry metrics) {
+        return metrics.find("openframe.gateway.ratelimit.redis").timers().stream().mapToLong(Timer::count).sum();
+    }
+
+    private long commandCalls() {
+        Properties stats = redisTemplate.getConnectionFactory().getReactiveConnection()
+                .serverCommands().info("commandstats").block();
+        long calls = 0;
+        for (String name : stats.stringPropertyNames()) {
+            if (name.startsWith("cmdstat_")) {
+                String value = stats.getProperty(name);
+                int from = value.indexOf("calls=") + "calls=".length();
+                calls += Long.parseLong(value.substring(from, value.indexOf(',', from)));
+            }
+        }
+        return calls;
+    }
+
+    private void cleanUp() {
+        redisTemplate.scan(ScanOptions.scanOptions().match("*" + keyPrefix + "*").count(1000).build())
+                .buffer(500)
+                .flatMap(batch -> redisTemplate.delete(batch.toArray(String[]::new)))
+                .blockLast();
+    }
+
+}
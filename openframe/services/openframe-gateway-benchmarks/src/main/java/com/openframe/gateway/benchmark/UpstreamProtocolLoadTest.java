@@ -0,0 +1,245 @@
+package com.openframe.gateway.benchmark;
+
+import com.openframe.gateway.httpclient.HttpClientProfileProperties;
+import com.openframe.gateway.httpclient.ProfiledHttpClientFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.ByteBufFlux;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares HTTP/1.1 and h2c between the gateway and an upstream under dashboard fan-out.
+ * <p>
+ * Each simulated user loads dashboard pages one after another; a page is {@code fanout}
+ * concurrent GraphQL {@code POST}s, followed by a random think time. Requests go through the
+ * clients the gateway builds for its HTTP client profiles: an HTTP/1.1 profile with a pool of 500
+ * connections, like {@code api}, and an h2c profile multiplexing the same 500 in-flight requests
+ * over 4 connections.
+ * <p>
+ * By default the upstream is an in-process server accepting both protocols and answering after a
+ * fixed service latency; it counts the TCP connections it accepts. Pass a URL to target a real
+ * service instead, e.g. openframe-api started with {@code server.http2.enabled=true}; connection
+ * counts then come from the pool gauges.
+ * <p>
+ * Reported per protocol: requests, TCP connections opened and peak open, request p50/p99 and
+ * page p99 (the slowest request of a page).
+ * <p>
+ * Usage: {@code java -cp benchmarks.jar com.openframe.gateway.benchmark.UpstreamProtocolLoadTest
+ * [users] [pages-per-user] [fanout] [service-latency-ms] [think-ms] [upstream-url]}
+ */
+public class UpstreamProtocolLoadTest {
+
+    private static final String QUERY = "{\"query\":\"query GetDeviceFilters($filter: DeviceFilterInput) "
+            + "{ deviceFilters(filter: $filter) { statuses { value count } deviceTypes { value count } "
+            + "osTypes { value count } organizationIds { value label count } filteredCount } }\","
+            + "\"variables\":{\"filter\":{\"statuses\":[\"ONLINE\"]}}}";
+    private static final String RESPONSE = "{\"data\":{\"deviceFilters\":{\"statuses\":["
+            + "{\"value\":\"ONLINE\",\"count\":1200},".repeat(40) + "{\"value\":\"OFFLINE\",\"count\":80}]}}}";
+
+    private final int users;
+    private final int pages;
+    private final int fanout;
+    private final Duration serviceLatency;
+    private final Duration thinkTime;
+    private final String upstreamUrl;
+
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private final AtomicInteger peakConnections = new AtomicInteger();
+    private final AtomicLong openedConnections = new AtomicLong();
+
+    UpstreamProtocolLoadTest(int users, int pages, int fanout, Duration serviceLatency, Duration thinkTime,
+                             String upstreamUrl) {
+        this.users = users;
+        this.pages = pages;
+        this.fanout = fanout;
+        this.serviceLatency = serviceLatency;
+        this.thinkTime = thinkTime;
+        this.upstreamUrl = upstreamUrl;
+    }
+
+    public static void main(String[] args) {
+        new UpstreamProtocolLoadTest(
+                args.length > 0 ? Integer.parseInt(args[0]) : 2_000,
+                args.length > 1 ? Integer.parseInt(args[1]) : 10,
+                args.length > 2 ? Integer.parseInt(args[2]) : 6,
+                Duration.ofMillis(args.length > 3 ? Long.parseLong(args[3]) : 25),
+                Duration.ofMillis(args.length > 4 ? Long.parseLong(args[4]) : 1_000),
+                args.length > 5 ? args[5] : null).run();
+    }
+
+    void run() {
+        Metrics.addRegistry(new SimpleMeterRegistry());
+        DisposableServer server = upstreamUrl == null ? startServer() : null;
+        String url = server != null ? "http://localhost:" + server.port() + "/graphql" : upstreamUrl;
+        System.out.printf("users=%d pages=%d fanout=%d service-latency=%dms think=%dms upstream=%s%n",
+                users, pages, fanout, serviceLatency.toMillis(), thinkTime.toMillis(),
+                server != null ? "in-process" : url);
+        try {
+            run("HTTP11", profile(List.of(HttpProtocol.HTTP11)), url);
+            run("H2C", profile(List.of(HttpProtocol.H2C)), url);
+        } finally {
+            if (server != null) {
+                server.disposeNow();
+            }
+        }
+    }
+
+    private void run(String name, HttpClientProfileProperties.Profile profile, String url) {
+        HttpClientProperties properties = new HttpClientProperties();
+        ServerProperties serverProperties = new ServerProperties();
+        ProfiledHttpClientFactory factory = new ProfiledHttpClientFactory("bench-" + name.toLowerCase(), profile,
+                properties, serverProperties, new HttpClientSslConfigurer(properties.getSsl(), serverProperties),
+                List.of());
+        HttpClient client = factory.build();
+        peakConnections.set(0);
+        openedConnections.set(0);
+        int total = users * pages * fanout;
+        long[] requestNanos = new long[total];
+        long[] pageNanos = new long[users * pages];
+        AtomicInteger requestIndex = new AtomicInteger();
+        AtomicInteger pageIndex = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        AtomicInteger peakPoolConnections = new AtomicInteger();
+        var sampler = Flux.interval(Duration.ofMillis(100))
+                .doOnNext(tick -> peakPoolConnections.accumulateAndGet(poolConnections(), Math::max))
+                .subscribe();
+
+        long started = System.nanoTime();
+        Flux.range(0, users)
+                .flatMap(user -> Mono.delay(randomThinkTime())
+                        .thenMany(Flux.range(0, pages).concatMap(page -> {
+                            long pageStarted = System.nanoTime();
+                            return Flux.range(0, fanout)
+                                    .flatMap(request -> {
+                                        long requestStarted = System.nanoTime();
+                                        return post(client, url)
+                                                .doOnNext(status -> {
+                                                    if (status != 200) {
+                                                        failures.incrementAndGet();
+                                                    }
+                                                    requestNanos[requestIndex.getAndIncrement()] =
+                                                            System.nanoTime() - requestStarted;
+                                                })
+                                                .onErrorResume(e -> {
+                                                    if (failures.incrementAndGet() == 1) {
+                                                        System.out.println(name + " first failure: " + e);
+                                                    }
+                                                    return Mono.empty();
+                                                });
+                                    })
+                                    .then(Mono.fromRunnable(() ->
+                                            pageNanos[pageIndex.getAndIncrement()] = System.nanoTime() - pageStarted))
+                                    .then(Mono.delay(randomThinkTime()));
+                        })), users)
+                .blockLast();
+        double seconds = (System.nanoTime() - started) / 1e9;
+        sampler.dispose();
+
+        int completed = requestIndex.get();
+        long[] requests = Arrays.copyOf(requestNanos, completed);
+        long[] pageTimes = Arrays.copyOf(pageNanos, pageIndex.get());
+        Arrays.sort(requests);
+        Arrays.sort(pageTimes);
+        long connections = upstreamUrl == null ? openedConnections.get() : -1;
+        int peak = upstreamUrl == null ? peakConnections.get() : peakPoolConnections.get();
+        System.out.printf("%-6s %,d requests (%d failed) in %.1fs, %,.0f req/s; connections opened %s, peak %d; "
+                        + "request p50 %.1f ms p99 %.1f ms; page p99 %.1f ms%n",
+                name, completed, failures.get(), seconds, completed / seconds,
+                connections < 0 ? "n/a" : Long.toString(connections), peak,
+                percentile(requests, 0.50), percentile(requests, 0.99), percentile(pageTimes, 0.99));
+        factory.destroy();
+        awaitClosedConnections();
+    }
+
+    /**
+     * Waits for the server to see the pool's connections closed, so that the next run starts from zero.
+     */
+    private void awaitClosedConnections() {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (openConnections.get() > 0 && System.nanoTime() < deadline) {
+            Mono.delay(Duration.ofMillis(50)).block();
+        }
+    }
+
+    private HttpClientProfileProperties.Profile profile(List<HttpProtocol> protocols) {
+        HttpClientProfileProperties.Profile profile = new HttpClientProfileProperties.Profile();
+        profile.setProtocols(protocols);
+        profile.setMaxConnections(500);
+        profile.getHttp2().setMaxConnections(4);
+        profile.getHttp2().setMaxConcurrentStreams(125);
+        profile.setResponseTimeout(Duration.ofSeconds(30));
+        profile.setPendingAcquireTimeout(Duration.ofSeconds(30));
+        return profile;
+    }
+
+    private static Mono<Integer> post(HttpClient client, String url) {
+        return client.headers(headers -> headers
+                        .set(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.APPLICATION_JSON)
+                        .set(HttpHeaderNames.AUTHORIZATION, "Bearer load-test"))
+                .post()
+                .uri(url)
+                .send(ByteBufFlux.fromString(Mono.just(QUERY)))
+                .responseSingle((response, body) -> body.then(Mono.just(response.status().code())));
+    }
+
+    private DisposableServer startServer() {
+        return HttpServer.create()
+                .port(0)
+                .protocol(HttpProtocol.HTTP11, HttpProtocol.H2C)
+                .http2Settings(settings -> settings.maxConcurrentStreams(1_000))
+                .doOnChannelInit((observer, channel, address) -> {
+                    openedConnections.incrementAndGet();
+                    peakConnections.accumulateAndGet(openConnections.incrementAndGet(), Math::max);
+                    channel.closeFuture().addListener(future -> openConnections.decrementAndGet());
+                })
+                .route(routes -> routes.post("/graphql", (request, response) -> request.receive()
+                        .then()
+                        .then(Mono.delay(serviceLatency))
+                        .then(response.header(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.APPLICATION_JSON)
+                                .sendString(Mono.just(RESPONSE))
+                                .then())))
+                .bindNow();
+    }
+
+    /**
+     * @return the pool's open connections, from the {@code reactor.netty.connection.provider} gauges
+     */
+    private static int poolConnections() {
+        return (int) Metrics.globalRegistry.find("reactor.netty.connection.provider.total.connections")
+                .gauges().stream()
+                .filter(gauge -> gauge.getId().getTag("name") != null
+                        && gauge.getId().getTag("name").startsWith("gateway-bench-"))
+                .mapToDouble(Gauge::value)
+                .sum();
+    }
+
+    private Duration randomThinkTime() {
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(thinkTime.toMillis() + 1));
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(percentile * sorted.length) - 1)] / 1e6;
+    }
+
+}
@@ -0,0 +1,96 @@
+package com.openframe.gateway.apikey;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+
+/**
+ * Drops cached verifications of API keys announced by openframe-management as revoked, changed or
+ * deleted.
+ * <p>
+ * Messages carry the {@code _id} of the changed {@code api_keys} document, or {@value #ALL_KEYS} for
+ * changes that cannot be attributed to one document. The key's current hash is looked up to drop
+ * its entries; if it cannot be found, for instance because the key was deleted, the whole cache is
+ * cleared.
+ */
+@Slf4j
+public class ApiKeyInvalidationListener implements SmartLifecycle {
+
+    public static final String ALL_KEYS = "*";
+
+    private static final String COLLECTION = "api_keys";
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final VerifiedApiKeyCache cache;
+    private final ApiKeyValidationCacheProperties properties;
+
+    private volatile Disposable subscription;
+
+    public ApiKeyInvalidationListener(ReactiveStringRedisTemplate redisTemplate,
+                                      ObjectProvider<ReactiveMongoTemplate> mongoTemplate,
+                                      VerifiedApiKeyCache cache,
+                                      ApiKeyValidationCacheProperties properties) {
+        this.redisTemplate = redisTemplate;
+        this.mongoTemplate = mongoTemplate.getIfAvailable();
+        this.cache = cache;
+        this.properties = properties;
+    }
+
+    Mono<Void> invalidate(String id) {
+        if (ALL_KEYS.equals(id) || mongoTemplate == null) {
+            cache.invalidateAll();
+            return Mono.empty();
+        }
+        Query query = Query.query(Criteria.where("_id").is(id));
+        query.fields().include("hashedKey");
+        return mongoTemplate.findOne(query, Document.class, COLLECTION)
+                .mapNotNull(document -> document.getString("hashedKey"))
+                .doOnNext(cache::invalidateHash)
+                .switchIfEmpty(Mono.fromRunnable(cache::invalidateAll))
+                .onErrorResume(e -> {
+                    log.warn("Failed to look up API key {}, clearing all cached verifications: {}", id, e.getMessage());
+                    cache.invalidateAll();
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    @Override
+    public void start() {
+        subscription = redisTemplate.listenToChannel(properties.getInvalidationChannel())
+                // Verifications made before the (re)subscription may be stale
+                .doOnSubscribe(s -> cache.invalidateAll())
+                .concatMap(message -> invalidate(message.getMessage()))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetry(signal -> log.warn("API key invalidation subscription failed, resubscribing: {}",
+                                signal.failure().getMessage())))
+                .subscribe();
+        log.info("Listening for API key invalidations on {}", properties.getInvalidationChannel());
+    }
+
+    @Override
+    public void stop() {
+        Disposable current = subscription;
+        subscription = null;
+        if (current != null) {
+            current.dispose();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return subscription != null;
+    }
+
+}
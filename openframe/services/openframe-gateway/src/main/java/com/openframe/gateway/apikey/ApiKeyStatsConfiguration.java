@@ -0,0 +1,41 @@
+package com.openframe.gateway.apikey;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * Enables write-behind API key usage statistics with {@code openframe.api-key-stats.write-behind.enabled}.
+ * <p>
+ * The last use of each key is aggregated in memory and flushed to Redis in batches;
+ * openframe-management applies the batches to MongoDB. The gateway core exposes no setting to turn
+ * off its own per-request {@code lastUsedAt} update, so it keeps running alongside: until the core
+ * can skip it, the write-behind adds a Redis path rather than removing the MongoDB write.
+ */
+@Configuration
+@EnableConfigurationProperties(ApiKeyStatsProperties.class)
+@ConditionalOnProperty(prefix = "openframe.api-key-stats.write-behind", name = "enabled", havingValue = "true")
+public class ApiKeyStatsConfiguration {
+
+    @Bean
+    public ApiKeyUsageRecorder apiKeyUsageRecorder() {
+        return new ApiKeyUsageRecorder();
+    }
+
+    @Bean
+    public ApiKeyUsageFilter apiKeyUsageFilter(ApiKeyUsageRecorder recorder) {
+        return new ApiKeyUsageFilter(recorder);
+    }
+
+    @Bean
+    public ApiKeyStatsFlusher apiKeyStatsFlusher(ApiKeyUsageRecorder recorder,
+                                                 StringRedisTemplate redisTemplate,
+                                                 ApiKeyStatsProperties properties,
+                                                 MeterRegistry meterRegistry) {
+        return new ApiKeyStatsFlusher(recorder, redisTemplate, properties, meterRegistry);
+    }
+
+}
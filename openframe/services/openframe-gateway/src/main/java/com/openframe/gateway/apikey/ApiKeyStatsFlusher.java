@@ -0,0 +1,140 @@
+package com.openframe.gateway.apikey;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.connection.RedisZSetCommands.ZAddArgs;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Flushes the usage aggregated by {@link ApiKeyUsageRecorder} to Redis every
+ * {@code write-behind.flush-interval}, as one pipelined round trip per flush.
+ * <p>
+ * Per key, the last use is kept in the {@code api_key_stats:last_used} sorted set ({@code ZADD GT},
+ * Redis 6.2+) and the key is added to the {@code api_key_stats:pending} set, from which
+ * openframe-management applies it to MongoDB and removes it from the sorted set. Entries older
+ * than {@code redis-ttl}, left behind while nothing syncs them, are trimmed by every flush. Usage
+ * that fails to flush is put back and retried with the next flush; the last flush runs on shutdown.
+ */
+@Slf4j
+public class ApiKeyStatsFlusher implements SmartLifecycle {
+
+    public static final String PENDING_KEY = "api_key_stats:pending";
+    public static final String LAST_USED_KEY = "api_key_stats:last_used";
+
+    private final ApiKeyUsageRecorder recorder;
+    private final StringRedisTemplate redisTemplate;
+    private final ApiKeyStatsProperties properties;
+    private final Timer flushSuccess;
+    private final Timer flushError;
+    private final Counter flushedKeys;
+
+    private volatile ScheduledExecutorService scheduler;
+
+    public ApiKeyStatsFlusher(ApiKeyUsageRecorder recorder, StringRedisTemplate redisTemplate,
+                              ApiKeyStatsProperties properties, MeterRegistry meterRegistry) {
+        this.recorder = recorder;
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+        this.flushSuccess = flushTimer(meterRegistry, "success");
+        this.flushError = flushTimer(meterRegistry, "error");
+        this.flushedKeys = Counter.builder("openframe.gateway.apikey.stats.flushed")
+                .description("API key usage deltas flushed to Redis")
+                .register(meterRegistry);
+        meterRegistry.gauge("openframe.gateway.apikey.stats.keys", recorder, ApiKeyUsageRecorder::size);
+    }
+
+    void flush() {
+        List<ApiKeyUsageDelta> deltas = recorder.drain();
+        if (deltas.isEmpty()) {
+            return;
+        }
+        long ttl = properties.getRedisTtl();
+        long staleBefore = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(ttl);
+        long started = System.nanoTime();
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection redis = (StringRedisConnection) connection;
+                for (ApiKeyUsageDelta delta : deltas) {
+                    redis.zAdd(LAST_USED_KEY, delta.lastUsedAt(), delta.keyId(), ZAddArgs.empty().gt());
+                    redis.sAdd(PENDING_KEY, delta.keyId());
+                }
+                redis.zRemRangeByScore(LAST_USED_KEY, Double.NEGATIVE_INFINITY, staleBefore);
+                redis.expire(LAST_USED_KEY, ttl);
+                redis.expire(PENDING_KEY, ttl);
+                return null;
+            });
+            flushSuccess.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            flushedKeys.increment(deltas.size());
+        } catch (RuntimeException e) {
+            flushError.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            deltas.forEach(recorder::restore);
+            log.warn("Failed to flush usage of {} API keys, retrying with the next flush: {}", deltas.size(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void start() {
+        long interval = properties.getWriteBehind().getFlushInterval().toMillis();
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("api-key-stats-flush").daemon().factory());
+        executor.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        scheduler = executor;
+        log.info("API key usage is flushed to Redis every {} ms", interval);
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService executor = scheduler;
+        scheduler = null;
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushQuietly();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+
+    /**
+     * Stops after the web server and its graceful shutdown, so the usage of in-flight requests is
+     * in the last flush, and before the Redis connection factory.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("API key usage flush failed", e);
+        }
+    }
+
+    private static Timer flushTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("openframe.gateway.apikey.stats.flush")
+                .description("Pipelined flushes of API key usage to Redis")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+}
@@ -0,0 +1,34 @@
+package com.openframe.gateway.apikey;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * API key usage statistics, bound from {@code openframe.api-key-stats}.
+ */
+@Data
+@ConfigurationProperties(prefix = "openframe.api-key-stats")
+public class ApiKeyStatsProperties {
+
+    /**
+     * TTL of the statistics kept in Redis, in seconds.
+     */
+    private long redisTtl = 604800;
+
+    private WriteBehind writeBehind = new WriteBehind();
+
+    @Data
+    public static class WriteBehind {
+
+        private boolean enabled = false;
+
+        /**
+         * How often usage aggregated in memory is flushed to Redis.
+         */
+        private Duration flushInterval = Duration.ofSeconds(10);
+
+    }
+
+}
@@ -0,0 +1,14 @@
+package com.openframe.gateway.apikey;
+
+/**
+ * Usage of one API key since the previous flush.
+ *
+ * @param lastUsedAt epoch milliseconds of the latest request, {@code 0} if none
+ */
+public record ApiKeyUsageDelta(String keyId, long lastUsedAt) {
+
+    public boolean isEmpty() {
+        return lastUsedAt == 0;
+    }
+
+}
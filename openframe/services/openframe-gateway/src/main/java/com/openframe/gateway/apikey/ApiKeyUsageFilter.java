@@ -0,0 +1,40 @@
+package com.openframe.gateway.apikey;
+
+import com.openframe.gateway.ratelimit.RateLimitFilter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Records the last use of every request made with a validated API key.
+ * <p>
+ * Requests whose key was not authenticated by the gateway core are not recorded, so made-up key
+ * ids never reach Redis. Runs after the rate limit filter: like the per-request update of the
+ * core, only requests that are forwarded count as a use.
+ */
+@RequiredArgsConstructor
+public class ApiKeyUsageFilter implements GlobalFilter, Ordered {
+
+    public static final int ORDER = RateLimitFilter.ORDER + 1;
+
+    private final ApiKeyUsageRecorder recorder;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (ApiKeys.keyIdOf(exchange.getRequest()) == null) {
+            return chain.filter(exchange);
+        }
+        return ApiKeys.validatedKeyIdOf(exchange)
+                .doOnNext(keyId -> recorder.record(keyId, System.currentTimeMillis()))
+                .then(chain.filter(exchange));
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+}
@@ -0,0 +1,91 @@
+package com.openframe.gateway.apikey;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Aggregates the last use of API keys in memory until it is drained by {@link ApiKeyStatsFlusher}.
+ * <p>
+ * The last use of a key is a {@link LongAccumulator}, which stripes concurrent updates over
+ * per-thread cells like a {@code LongAdder}, so recording a request is a map lookup plus an
+ * uncontended update. Draining takes it with {@link LongAccumulator#getThenReset()}; an update
+ * racing a drain is reported by this drain or the next one.
+ * <p>
+ * Request counters are not aggregated here: the gateway core already counts every request in
+ * Redis for the statistics synchronisation of openframe-management.
+ * <p>
+ * Keys without usage in a drain are removed from the map. A request that looked the key up just
+ * before its removal may still update the removed entry, so removed keys are drained once more on
+ * the following drain.
+ */
+public class ApiKeyUsageRecorder {
+
+    private final Map<String, KeyUsage> usage = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<KeyUsage> retired = new ConcurrentLinkedQueue<>();
+
+    public void record(String keyId, long epochMillis) {
+        usage.computeIfAbsent(keyId, KeyUsage::new).lastUsedAt.accumulate(epochMillis);
+    }
+
+    /**
+     * Re-adds usage that could not be flushed, so it is retried with the next drain.
+     */
+    public void restore(ApiKeyUsageDelta delta) {
+        record(delta.keyId(), delta.lastUsedAt());
+    }
+
+    /**
+     * @return the usage of every key since the previous drain, without empty entries
+     */
+    public List<ApiKeyUsageDelta> drain() {
+        List<ApiKeyUsageDelta> deltas = new ArrayList<>(usage.size());
+        List<KeyUsage> previouslyRetired = new ArrayList<>();
+        for (KeyUsage key; (key = retired.poll()) != null; ) {
+            previouslyRetired.add(key);
+        }
+        for (KeyUsage key : previouslyRetired) {
+            add(deltas, key.drain());
+        }
+        for (KeyUsage key : usage.values()) {
+            ApiKeyUsageDelta delta = key.drain();
+            if (delta.isEmpty()) {
+                if (usage.remove(key.keyId, key)) {
+                    retired.add(key);
+                }
+            } else {
+                deltas.add(delta);
+            }
+        }
+        return deltas;
+    }
+
+    public int size() {
+        return usage.size();
+    }
+
+    private static void add(List<ApiKeyUsageDelta> deltas, ApiKeyUsageDelta delta) {
+        if (!delta.isEmpty()) {
+            deltas.add(delta);
+        }
+    }
+
+    private static final class KeyUsage {
+
+        final String keyId;
+        final LongAccumulator lastUsedAt = new LongAccumulator(Math::max, 0);
+
+        KeyUsage(String keyId) {
+            this.keyId = keyId;
+        }
+
+        ApiKeyUsageDelta drain() {
+            return new ApiKeyUsageDelta(keyId, lastUsedAt.getThenReset());
+        }
+
+    }
+
+}
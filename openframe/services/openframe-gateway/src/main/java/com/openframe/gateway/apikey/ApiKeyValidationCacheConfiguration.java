@@ -0,0 +1,40 @@
+package com.openframe.gateway.apikey;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+
+/**
+ * Enables caching of verified API key secrets with {@code openframe.api-key.validation-cache.enabled}.
+ */
+@Configuration
+@EnableConfigurationProperties(ApiKeyValidationCacheProperties.class)
+@ConditionalOnProperty(prefix = "openframe.api-key.validation-cache", name = "enabled", havingValue = "true")
+public class ApiKeyValidationCacheConfiguration {
+
+    @Bean
+    public static CachingPasswordEncoderPostProcessor cachingPasswordEncoderPostProcessor(
+            ObjectProvider<VerifiedApiKeyCache> cache, ObjectProvider<ApiKeyValidationCacheProperties> properties) {
+        return new CachingPasswordEncoderPostProcessor(cache, properties);
+    }
+
+    @Bean
+    public VerifiedApiKeyCache verifiedApiKeyCache(ApiKeyValidationCacheProperties properties,
+                                                   MeterRegistry meterRegistry) {
+        return new VerifiedApiKeyCache(properties, meterRegistry);
+    }
+
+    @Bean
+    public ApiKeyInvalidationListener apiKeyInvalidationListener(ReactiveStringRedisTemplate redisTemplate,
+                                                                 ObjectProvider<ReactiveMongoTemplate> mongoTemplate,
+                                                                 VerifiedApiKeyCache cache,
+                                                                 ApiKeyValidationCacheProperties properties) {
+        return new ApiKeyInvalidationListener(redisTemplate, mongoTemplate, cache, properties);
+    }
+
+}
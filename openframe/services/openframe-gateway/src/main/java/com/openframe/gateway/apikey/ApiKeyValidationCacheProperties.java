@@ -0,0 +1,34 @@
+package com.openframe.gateway.apikey;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Cache of verified API key secrets, bound from {@code openframe.api-key.validation-cache}.
+ */
+@Data
+@ConfigurationProperties(prefix = "openframe.api-key.validation-cache")
+public class ApiKeyValidationCacheProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * How long a successful verification is reused before BCrypt runs again.
+     */
+    private Duration ttl = Duration.ofMinutes(5);
+
+    private long maximumSize = 10_000;
+
+    /**
+     * Name of the gateway core's password encoder bean that verifies API key secrets.
+     */
+    private String passwordEncoderBean = "apiKeyPasswordEncoder";
+
+    /**
+     * Redis channel on which openframe-management announces revoked, changed and deleted keys.
+     */
+    private String invalidationChannel = "openframe:api-keys:invalidated";
+
+}
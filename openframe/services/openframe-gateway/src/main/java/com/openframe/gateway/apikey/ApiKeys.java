@@ -0,0 +1,55 @@
+package com.openframe.gateway.apikey;
+
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Helpers for the {@code X-API-Key: ak_<id>.sk_<secret>} header.
+ */
+public final class ApiKeys {
+
+    public static final String API_KEY_HEADER = "X-API-Key";
+
+    private static final String KEY_ID_PREFIX = "ak_";
+
+    private ApiKeys() {
+    }
+
+    /**
+     * @return the {@code ak_...} key id of the request's API key, or {@code null} if it has none
+     */
+    public static String keyIdOf(ServerHttpRequest request) {
+        return keyIdOf(request.getHeaders().getFirst(API_KEY_HEADER));
+    }
+
+    /**
+     * The key id of a request whose API key has been validated: the security chain of the gateway
+     * core authenticates the key before any gateway filter runs and rejects invalid ones, so a key
+     * id is only emitted for requests with an authenticated principal.
+     *
+     * @return the {@code ak_...} key id, or empty for requests without an API key or authentication
+     */
+    public static Mono<String> validatedKeyIdOf(ServerWebExchange exchange) {
+        String keyId = keyIdOf(exchange.getRequest());
+        if (keyId == null) {
+            return Mono.empty();
+        }
+        return exchange.getPrincipal()
+                .filter(principal -> principal instanceof Authentication authentication && authentication.isAuthenticated())
+                .map(principal -> keyId);
+    }
+
+    /**
+     * @return the {@code ak_...} part of an API key, or {@code null} if it is not a well-formed key
+     */
+    public static String keyIdOf(String apiKey) {
+        if (apiKey == null || !apiKey.startsWith(KEY_ID_PREFIX)) {
+            return null;
+        }
+        int dot = apiKey.indexOf('.');
+        return dot > KEY_ID_PREFIX.length() ? apiKey.substring(0, dot) : null;
+    }
+
+}
@@ -0,0 +1,43 @@
+package com.openframe.gateway.apikey;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Password encoder that verifies a secret against a stored hash with the delegate (BCrypt) only
+ * when the pair is not in the {@link VerifiedApiKeyCache}.
+ * <p>
+ * Encoding is always delegated, and failed matches are never cached.
+ */
+@RequiredArgsConstructor
+public class CachingPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final VerifiedApiKeyCache cache;
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        if (rawPassword == null || encodedPassword == null) {
+            return delegate.matches(rawPassword, encodedPassword);
+        }
+        if (cache.isVerified(rawPassword, encodedPassword)) {
+            return true;
+        }
+        boolean matches = delegate.matches(rawPassword, encodedPassword);
+        if (matches) {
+            cache.markVerified(rawPassword, encodedPassword);
+        }
+        return matches;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+}
@@ -0,0 +1,43 @@
+package com.openframe.gateway.apikey;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Wraps the password encoder the gateway core verifies API key secrets with, named by
+ * {@code password-encoder-bean}, in a {@link CachingPasswordEncoder}. Other password encoders
+ * are left alone.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class CachingPasswordEncoderPostProcessor implements BeanPostProcessor, SmartInitializingSingleton {
+
+    private final ObjectProvider<VerifiedApiKeyCache> cache;
+    private final ObjectProvider<ApiKeyValidationCacheProperties> properties;
+
+    private volatile boolean wrapped;
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof PasswordEncoder encoder && !(bean instanceof CachingPasswordEncoder)
+                && beanName.equals(properties.getObject().getPasswordEncoderBean())) {
+            wrapped = true;
+            log.info("API key verifications of {} are cached", beanName);
+            return new CachingPasswordEncoder(encoder, cache.getObject());
+        }
+        return bean;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!wrapped) {
+            log.warn("No password encoder bean named {}, API key verifications are not cached",
+                    properties.getObject().getPasswordEncoderBean());
+        }
+    }
+
+}
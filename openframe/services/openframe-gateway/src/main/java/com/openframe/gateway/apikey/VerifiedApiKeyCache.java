@@ -0,0 +1,90 @@
+package com.openframe.gateway.apikey;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+/**
+ * Remembers which presented secrets matched which stored hashes.
+ * <p>
+ * Entries are keyed by the stored hash and an HMAC-SHA256 of the presented secret under a key
+ * generated per process, so the cache never holds a secret and its contents are meaningless to
+ * anyone without that key. Only successful matches are cached; they expire after {@code ttl}
+ * and the cache holds at most {@code maximum-size} of them.
+ */
+public class VerifiedApiKeyCache {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final Cache<Entry, Boolean> verified;
+    private final ThreadLocal<Mac> hmac;
+
+    public VerifiedApiKeyCache(ApiKeyValidationCacheProperties properties, MeterRegistry meterRegistry) {
+        this.verified = Caffeine.newBuilder()
+                .expireAfterWrite(properties.getTtl())
+                .maximumSize(properties.getMaximumSize())
+                .recordStats()
+                .build();
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        SecretKeySpec hmacKey = new SecretKeySpec(key, HMAC_ALGORITHM);
+        this.hmac = ThreadLocal.withInitial(() -> newMac(hmacKey));
+        CaffeineCacheMetrics.monitor(meterRegistry, verified, "apiKeyValidation");
+    }
+
+    public boolean isVerified(CharSequence secret, String storedHash) {
+        return verified.getIfPresent(new Entry(storedHash, digest(secret))) != null;
+    }
+
+    public void markVerified(CharSequence secret, String storedHash) {
+        verified.put(new Entry(storedHash, digest(secret)), Boolean.TRUE);
+    }
+
+    /**
+     * Forgets every secret verified against a stored hash.
+     */
+    public void invalidateHash(String storedHash) {
+        verified.asMap().keySet().removeIf(entry -> entry.storedHash().equals(storedHash));
+    }
+
+    public void invalidateAll() {
+        verified.invalidateAll();
+    }
+
+    private byte[] digest(CharSequence secret) {
+        return hmac.get().doFinal(secret.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Mac newMac(SecretKeySpec key) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+
+    private record Entry(String storedHash, byte[] digest) {
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Entry entry && storedHash.equals(entry.storedHash) && Arrays.equals(digest, entry.digest);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * storedHash.hashCode() + Arrays.hashCode(digest);
+        }
+
+    }
+
+}
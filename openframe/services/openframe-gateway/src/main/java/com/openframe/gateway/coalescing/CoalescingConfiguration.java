@@ -0,0 +1,25 @@
+package com.openframe.gateway.coalescing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Enables single-flight coalescing of identical reads with {@code openframe.gateway.coalescing.enabled}.
+ */
+@Configuration
+@EnableConfigurationProperties(CoalescingProperties.class)
+@ConditionalOnProperty(prefix = "openframe.gateway.coalescing", name = "enabled", havingValue = "true")
+public class CoalescingConfiguration {
+
+    @Bean
+    public CoalescingFilter coalescingFilter(CoalescingProperties properties, ObjectProvider<ObjectMapper> objectMapper,
+                                             MeterRegistry meterRegistry) {
+        return new CoalescingFilter(properties, objectMapper.getIfAvailable(ObjectMapper::new), meterRegistry);
+    }
+
+}
@@ -0,0 +1,228 @@
+package com.openframe.gateway.coalescing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openframe.gateway.reads.ReadRequest;
+import com.openframe.gateway.reads.ReadRequests;
+import com.openframe.gateway.reads.ResponseBodies;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Collapses concurrent identical reads into one upstream request.
+ * <p>
+ * The first allow-listed read for a key is proxied as usual and its response is buffered; reads
+ * with the same key arriving while it is in flight wait for it and get a copy of its status,
+ * upstream headers and body instead of being proxied. Keys are those of {@link ReadRequests}, so
+ * only requests of the same caller are collapsed; {@code Accept-Encoding} is part of the key as
+ * well. Unauthenticated requests and event streams are always proxied.
+ * <p>
+ * Waiting requests fetch their own response if the first one fails or is cancelled, or if its
+ * response is {@code 304}, sets cookies or exceeds {@code maximum-body-size}. A body is only held
+ * up to that size; once it grows beyond it, it is passed through as it arrives.
+ */
+public class CoalescingFilter implements GlobalFilter, Ordered {
+
+    /**
+     * Just ahead of {@link NettyWriteResponseFilter}, inside the response cache, so that only cache
+     * misses are coalesced.
+     */
+    public static final int ORDER = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+
+    public static final String COALESCED_HEADER = "X-Coalesced";
+
+    static final String LEADER = "leader";
+    static final String COALESCED = "coalesced";
+    static final String FALLBACK = "fallback";
+
+    private static final Set<String> FRAMING_HEADERS = Set.of(
+            HttpHeaders.CONTENT_LENGTH.toLowerCase(),
+            HttpHeaders.TRANSFER_ENCODING.toLowerCase(),
+            HttpHeaders.CONNECTION.toLowerCase(),
+            "keep-alive");
+
+    private final CoalescingProperties properties;
+    private final ReadRequests readRequests;
+    private final Set<String> graphqlOperations;
+    private final List<PathPattern> restReads;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, CompletableFuture<SharedResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public CoalescingFilter(CoalescingProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.readRequests = new ReadRequests(objectMapper, properties.getGraphqlPath(),
+                properties.getMaximumRequestSize());
+        this.graphqlOperations = Set.copyOf(properties.getGraphqlOperations());
+        this.restReads = properties.getRest().stream().map(PathPatternParser.defaultInstance::parse).toList();
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("openframe.gateway.coalescing.in-flight", inFlight, Map::size)
+                .description("Distinct reads currently fetched from upstreams on behalf of waiting requests")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        return readRequests.filter(exchange, chain, (readExchange, read) -> coalesce(readExchange, chain, read));
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    private Mono<Void> coalesce(ServerWebExchange exchange, GatewayFilterChain chain, ReadRequest read) {
+        String name = nameOf(read);
+        if (name == null || isEventStream(exchange)) {
+            return chain.filter(exchange);
+        }
+        String acceptEncoding = exchange.getRequest().getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING);
+        return readRequests.keyOf(exchange, read)
+                .map(key -> Optional.of(acceptEncoding == null ? key : key + "\n" + acceptEncoding))
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(key -> key.isPresent() ? coalesce(exchange, chain, name, key.get()) : chain.filter(exchange));
+    }
+
+    private Mono<Void> coalesce(ServerWebExchange exchange, GatewayFilterChain chain, String name, String key) {
+        CompletableFuture<SharedResponse> flight = new CompletableFuture<>();
+        CompletableFuture<SharedResponse> current = inFlight.putIfAbsent(key, flight);
+        if (current != null) {
+            return follow(exchange, chain, name, current);
+        }
+        count(name, LEADER);
+        ServerHttpResponseDecorator sharing = new ServerHttpResponseDecorator(exchange.getResponse()) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                if (!isShareable(getStatusCode(), getHeaders())) {
+                    land(key, flight, null);
+                    return super.writeWith(body);
+                }
+                return ResponseBodies.collect(body, properties.getMaximumBodySize().toBytes(), bytes -> {
+                    land(key, flight, new SharedResponse(getStatusCode(), upstreamHeaders(exchange, getHeaders()), bytes));
+                    getHeaders().remove(HttpHeaders.TRANSFER_ENCODING);
+                    getHeaders().setContentLength(bytes.length);
+                    return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                }, rest -> {
+                    land(key, flight, null);
+                    return super.writeWith(rest);
+                });
+            }
+        };
+        // Errors, cancellation and responses without a body release the waiting requests
+        return chain.filter(exchange.mutate().response(sharing).build())
+                .doFinally(signal -> land(key, flight, null));
+    }
+
+    private Mono<Void> follow(ServerWebExchange exchange, GatewayFilterChain chain, String name,
+                              CompletableFuture<SharedResponse> flight) {
+        return Mono.fromFuture(flight, true)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(shared -> {
+                    if (shared.isEmpty()) {
+                        count(name, FALLBACK);
+                        return chain.filter(exchange);
+                    }
+                    count(name, COALESCED);
+                    return write(exchange.getResponse(), shared.get());
+                });
+    }
+
+    /**
+     * Writes the shared response; headers the gateway already set on this response, such as CORS
+     * headers for its own origin, are kept.
+     */
+    private static Mono<Void> write(ServerHttpResponse response, SharedResponse shared) {
+        HttpHeaders headers = response.getHeaders();
+        response.setStatusCode(shared.status());
+        shared.headers().forEach((name, values) -> {
+            if (!headers.containsKey(name)) {
+                headers.put(name, values);
+            }
+        });
+        headers.setContentLength(shared.body().length);
+        headers.set(COALESCED_HEADER, "true");
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(shared.body())));
+    }
+
+    /**
+     * Removes the flight before completing it, so that later requests start a new one.
+     */
+    private void land(String key, CompletableFuture<SharedResponse> flight, SharedResponse response) {
+        inFlight.remove(key, flight);
+        flight.complete(response);
+    }
+
+    private String nameOf(ReadRequest read) {
+        if (read.isGraphQL()) {
+            return graphqlOperations.containsAll(read.rootFields()) ? String.join("+", read.rootFields()) : null;
+        }
+        PathContainer path = PathContainer.parsePath(read.path());
+        for (PathPattern pattern : restReads) {
+            if (pattern.matches(path)) {
+                return pattern.getPatternString();
+            }
+        }
+        return null;
+    }
+
+    private boolean isShareable(HttpStatusCode status, HttpHeaders headers) {
+        long length = headers.getContentLength();
+        return status != null && status.value() != HttpStatus.NOT_MODIFIED.value()
+                && !headers.containsKey(HttpHeaders.SET_COOKIE)
+                && !MediaType.TEXT_EVENT_STREAM.isCompatibleWith(headers.getContentType())
+                && length <= properties.getMaximumBodySize().toBytes();
+    }
+
+    /**
+     * @return the headers of the response that came from the upstream, as left by the route filters
+     */
+    private static HttpHeaders upstreamHeaders(ServerWebExchange exchange, HttpHeaders headers) {
+        Set<String> names = exchange.getAttribute(ServerWebExchangeUtils.CLIENT_RESPONSE_HEADER_NAMES);
+        HttpHeaders upstream = new HttpHeaders();
+        if (names != null) {
+            names.forEach(name -> {
+                List<String> values = headers.get(name);
+                if (values != null && !FRAMING_HEADERS.contains(name.toLowerCase())) {
+                    upstream.put(name, new ArrayList<>(values));
+                }
+            });
+        }
+        return HttpHeaders.readOnlyHttpHeaders(upstream);
+    }
+
+    private static boolean isEventStream(ServerWebExchange exchange) {
+        return exchange.getRequest().getHeaders().getAccept().stream()
+                .anyMatch(MediaType.TEXT_EVENT_STREAM::equalsTypeAndSubtype);
+    }
+
+    private void count(String read, String result) {
+        meterRegistry.counter("openframe.gateway.coalescing.requests", "read", read, "result", result).increment();
+    }
+
+}
@@ -0,0 +1,47 @@
+package com.openframe.gateway.coalescing;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Single-flight coalescing of identical reads, bound from {@code openframe.gateway.coalescing}.
+ */
+@Data
+@ConfigurationProperties(prefix = "openframe.gateway.coalescing")
+public class CoalescingProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * GraphQL endpoint as requested by clients, before route filters strip any prefix.
+     */
+    private String graphqlPath = "/api/graphql";
+
+    /**
+     * GraphQL root query fields that may be coalesced. A request is coalesced only if every root
+     * field it selects is listed.
+     */
+    private List<String> graphqlOperations = new ArrayList<>();
+
+    /**
+     * Path patterns of {@code GET} requests outside GraphQL that may be coalesced, matched before
+     * route filters strip any prefix.
+     */
+    private List<String> rest = new ArrayList<>();
+
+    /**
+     * Larger responses are still written to the request that fetched them, but the requests
+     * waiting on it fetch their own.
+     */
+    private DataSize maximumBodySize = DataSize.ofMegabytes(1);
+
+    /**
+     * Larger GraphQL request bodies are passed through without being read.
+     */
+    private DataSize maximumRequestSize = DataSize.ofKilobytes(64);
+
+}
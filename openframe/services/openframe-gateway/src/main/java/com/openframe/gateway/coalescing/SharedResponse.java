@@ -0,0 +1,14 @@
+package com.openframe.gateway.coalescing;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+
+/**
+ * An upstream response fanned out to the requests that waited on it.
+ *
+ * @param status  upstream status
+ * @param headers upstream headers, without the ones describing the connection or framing
+ * @param body    complete body
+ */
+public record SharedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body) {
+}
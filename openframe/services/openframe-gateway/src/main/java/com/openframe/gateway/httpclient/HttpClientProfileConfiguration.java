@@ -0,0 +1,44 @@
+package com.openframe.gateway.httpclient;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.netty.http.client.HttpClient;
+
+import java.util.List;
+
+/**
+ * Enables per-route upstream HTTP client profiles with {@code openframe.gateway.http-client.enabled}.
+ */
+@Configuration
+@EnableConfigurationProperties(HttpClientProfileProperties.class)
+@ConditionalOnProperty(prefix = "openframe.gateway.http-client", name = "enabled", havingValue = "true")
+public class HttpClientProfileConfiguration {
+
+    @Bean
+    public static HttpClientProfilePostProcessor httpClientProfilePostProcessor(
+            ObjectProvider<HttpClientProfiles> profiles,
+            ObjectProvider<HttpClient> httpClient,
+            ObjectProvider<List<HttpHeadersFilter>> headersFilters,
+            ObjectProvider<HttpClientProperties> properties) {
+        return new HttpClientProfilePostProcessor(profiles, httpClient, headersFilters, properties);
+    }
+
+    @Bean
+    public HttpClientProfiles httpClientProfiles(HttpClientProfileProperties properties,
+                                                 HttpClientProperties httpClientProperties,
+                                                 ServerProperties serverProperties,
+                                                 HttpClientSslConfigurer sslConfigurer,
+                                                 ObjectProvider<HttpClientCustomizer> customizers) {
+        return new HttpClientProfiles(properties, httpClientProperties, serverProperties, sslConfigurer,
+                customizers.orderedStream().toList());
+    }
+
+}
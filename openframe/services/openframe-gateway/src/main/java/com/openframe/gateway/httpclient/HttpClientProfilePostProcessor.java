@@ -0,0 +1,51 @@
+package com.openframe.gateway.httpclient;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.web.reactive.socket.client.ReactorNettyWebSocketClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.client.WebsocketClientSpec;
+
+import java.util.List;
+
+/**
+ * Replaces the gateway's routing filter with the {@link ProfiledNettyRoutingFilter}, and its
+ * WebSocket client with one on the {@code websocket} profile, keeping the configured frame size
+ * and ping handling.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class HttpClientProfilePostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<HttpClientProfiles> profiles;
+    private final ObjectProvider<HttpClient> httpClient;
+    private final ObjectProvider<List<HttpHeadersFilter>> headersFilters;
+    private final ObjectProvider<HttpClientProperties> properties;
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean.getClass() == NettyRoutingFilter.class) {
+            log.info("Routing through HTTP client profiles instead of {}", beanName);
+            return new ProfiledNettyRoutingFilter(httpClient.getObject(), headersFilters, properties.getObject(),
+                    profiles.getObject());
+        }
+        if (bean.getClass() == ReactorNettyWebSocketClient.class && profiles.getObject().websocket() != null) {
+            log.info("Proxying WebSockets through the websocket HTTP client profile instead of {}", beanName);
+            HttpClientProperties.Websocket websocket = properties.getObject().getWebsocket();
+            return new ReactorNettyWebSocketClient(profiles.getObject().websocket(), () -> {
+                WebsocketClientSpec.Builder spec = WebsocketClientSpec.builder().handlePing(websocket.isProxyPing());
+                if (websocket.getMaxFramePayloadLength() != null) {
+                    spec.maxFramePayloadLength(websocket.getMaxFramePayloadLength());
+                }
+                return spec;
+            });
+        }
+        return bean;
+    }
+
+}
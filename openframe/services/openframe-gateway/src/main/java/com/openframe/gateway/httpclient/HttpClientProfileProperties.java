@@ -0,0 +1,103 @@
+package com.openframe.gateway.httpclient;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import reactor.netty.http.HttpProtocol;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Upstream HTTP client profiles, bound from {@code openframe.gateway.http-client}. Each profile has
+ * its own connection pool and timeouts; routes without a profile keep the
+ * {@code spring.cloud.gateway.httpclient} client.
+ */
+@Data
+@ConfigurationProperties(prefix = "openframe.gateway.http-client")
+public class HttpClientProfileProperties {
+
+    private boolean enabled = false;
+
+    private Map<String, Profile> profiles = new LinkedHashMap<>();
+
+    @Data
+    public static class Profile {
+
+        /**
+         * Ids of the routes using this profile.
+         */
+        private List<String> routes = new ArrayList<>();
+
+        /**
+         * Whether this profile serves requests accepting {@code text/event-stream} on any route.
+         */
+        private boolean eventStream = false;
+
+        /**
+         * Whether this profile serves proxied WebSocket connections.
+         */
+        private boolean websocket = false;
+
+        /**
+         * Protocols spoken to the upstream. {@code [H2C]} opens HTTP/2 connections with prior
+         * knowledge and multiplexes requests over them, sized by {@code http2} instead of
+         * {@code max-connections}; {@code [H2C, HTTP11]} upgrades from HTTP/1.1 instead.
+         */
+        private List<HttpProtocol> protocols = new ArrayList<>(List.of(HttpProtocol.HTTP11));
+
+        private Http2 http2 = new Http2();
+
+        private Duration connectTimeout = Duration.ofSeconds(2);
+
+        /**
+         * Longest time without reading from the upstream while waiting for or reading a response.
+         * Unset for no limit once the response headers arrived within the gateway-wide
+         * {@code spring.cloud.gateway.httpclient.response-timeout}.
+         */
+        private Duration responseTimeout;
+
+        private int maxConnections = 500;
+
+        /**
+         * How long a request waits for a free connection when all are in use.
+         */
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(5);
+
+        /**
+         * Idle connections are closed after this long.
+         */
+        private Duration maxIdleTime = Duration.ofSeconds(30);
+
+        /**
+         * Connections are closed after this long regardless of use. Unset for no limit.
+         */
+        private Duration maxLifeTime;
+
+        /**
+         * How often idle and expired connections are evicted in the background.
+         */
+        private Duration evictionInterval = Duration.ofSeconds(30);
+
+    }
+
+    @Data
+    public static class Http2 {
+
+        private int maxConnections = 4;
+
+        /**
+         * Connections kept open even when idle, so that bursts do not wait for new connections.
+         */
+        private int minConnections = 1;
+
+        /**
+         * Streams per connection, capped by the upstream's own limit (100 on Tomcat).
+         */
+        private long maxConcurrentStreams = 100;
+
+    }
+
+}
@@ -0,0 +1,96 @@
+package com.openframe.gateway.httpclient;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.MediaType;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The HTTP clients of all configured profiles and the rules selecting them: event streams first,
+ * then the profile listing the route. WebSocket connections use the {@code websocket} profile.
+ */
+@Slf4j
+public class HttpClientProfiles implements DisposableBean {
+
+    private final Map<String, HttpClient> byRoute = new HashMap<>();
+    private final List<ProfiledHttpClientFactory> factories = new ArrayList<>();
+    private HttpClient eventStream;
+    private HttpClient websocket;
+
+    public HttpClientProfiles(HttpClientProfileProperties properties, HttpClientProperties httpClientProperties,
+                              ServerProperties serverProperties, HttpClientSslConfigurer sslConfigurer,
+                              List<HttpClientCustomizer> customizers) {
+        properties.getProfiles().forEach((name, profile) -> {
+            ProfiledHttpClientFactory factory = new ProfiledHttpClientFactory(name, profile, httpClientProperties,
+                    serverProperties, sslConfigurer, customizers);
+            HttpClient client = factory.build();
+            factories.add(factory);
+            for (String route : profile.getRoutes()) {
+                if (byRoute.putIfAbsent(route, client) != null) {
+                    throw new IllegalStateException("Route " + route + " is listed in more than one HTTP client profile");
+                }
+            }
+            if (profile.isEventStream()) {
+                eventStream = exclusive(eventStream, client, "event-stream");
+            }
+            if (profile.isWebsocket()) {
+                if (!profile.getProtocols().equals(List.of(HttpProtocol.HTTP11))) {
+                    throw new IllegalStateException("HTTP client profile " + name + " proxies WebSockets and must use HTTP11 only");
+                }
+                websocket = exclusive(websocket, client, "websocket");
+            }
+            log.info("HTTP client profile {}: routes {}, protocols {}, max connections {}, response timeout {}",
+                    name, profile.getRoutes(), profile.getProtocols(),
+                    profile.getProtocols().contains(HttpProtocol.H2C) ? profile.getHttp2().getMaxConnections()
+                            : profile.getMaxConnections(),
+                    profile.getResponseTimeout());
+        });
+    }
+
+    /**
+     * @return the client of the profile serving the exchange, or {@code null} for the default client
+     */
+    public HttpClient select(Route route, ServerWebExchange exchange) {
+        if (eventStream != null && acceptsEventStream(exchange)) {
+            return eventStream;
+        }
+        return byRoute.get(route.getId());
+    }
+
+    /**
+     * @return the client of the {@code websocket} profile, or {@code null} if there is none
+     */
+    public HttpClient websocket() {
+        return websocket;
+    }
+
+    @Override
+    public void destroy() {
+        factories.forEach(ProfiledHttpClientFactory::destroy);
+    }
+
+    private static boolean acceptsEventStream(ServerWebExchange exchange) {
+        return exchange.getRequest().getHeaders().getAccept().stream()
+                .anyMatch(MediaType.TEXT_EVENT_STREAM::equalsTypeAndSubtype);
+    }
+
+    private static HttpClient exclusive(HttpClient current, HttpClient client, String flag) {
+        if (current != null) {
+            throw new IllegalStateException("Only one HTTP client profile can set " + flag);
+        }
+        return client;
+    }
+
+}
@@ -0,0 +1,89 @@
+package com.openframe.gateway.httpclient;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.cloud.gateway.config.HttpClientFactory;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.Http2AllocationStrategy;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.List;
+
+/**
+ * Builds the HTTP client of one profile like the gateway builds its own (SSL, proxy, compression,
+ * customizers), but on the profile's connection pool and with the profile's timeouts.
+ */
+public class ProfiledHttpClientFactory extends HttpClientFactory {
+
+    static final String POOL_PREFIX = "gateway-";
+
+    private final String name;
+    private final HttpClientProfileProperties.Profile profile;
+    private ConnectionProvider connectionProvider;
+
+    public ProfiledHttpClientFactory(String name, HttpClientProfileProperties.Profile profile,
+                                     HttpClientProperties properties, ServerProperties serverProperties,
+                                     HttpClientSslConfigurer sslConfigurer, List<HttpClientCustomizer> customizers) {
+        super(properties, serverProperties, sslConfigurer, customizers);
+        this.name = name;
+        this.profile = profile;
+    }
+
+    public HttpClient build() {
+        HttpClient client = createInstance()
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, Math.toIntExact(profile.getConnectTimeout().toMillis()))
+                .protocol(profile.getProtocols().toArray(HttpProtocol[]::new));
+        if (isH2c()) {
+            // Cleartext upstreams only: the gateway-wide SSL settings would otherwise reject H2C
+            client = client.noSSL();
+        }
+        return profile.getResponseTimeout() != null ? client.responseTimeout(profile.getResponseTimeout()) : client;
+    }
+
+    /**
+     * Pool metrics are published by Reactor Netty as {@code reactor.netty.connection.provider.*}
+     * tagged {@code name=gateway-<profile>}; HTTP/2 pools add {@code active.streams} and
+     * {@code pending.streams}.
+     */
+    @Override
+    protected ConnectionProvider buildConnectionProvider(HttpClientProperties properties) {
+        ConnectionProvider.Builder builder = ConnectionProvider.builder(POOL_PREFIX + name)
+                .maxConnections(profile.getMaxConnections())
+                .pendingAcquireTimeout(profile.getPendingAcquireTimeout())
+                .maxIdleTime(profile.getMaxIdleTime())
+                .evictInBackground(profile.getEvictionInterval())
+                .metrics(true);
+        if (profile.getMaxLifeTime() != null) {
+            builder.maxLifeTime(profile.getMaxLifeTime());
+        }
+        if (isH2c()) {
+            HttpClientProfileProperties.Http2 http2 = profile.getHttp2();
+            builder.allocationStrategy(Http2AllocationStrategy.builder()
+                    .maxConnections(http2.getMaxConnections())
+                    .minConnections(http2.getMinConnections())
+                    .maxConcurrentStreams(http2.getMaxConcurrentStreams())
+                    .build());
+        }
+        connectionProvider = builder.build();
+        return connectionProvider;
+    }
+
+    private boolean isH2c() {
+        return profile.getProtocols().contains(HttpProtocol.H2C);
+    }
+
+    /**
+     * Closes the connections of the profile's pool.
+     */
+    @Override
+    public void destroy() {
+        if (connectionProvider != null) {
+            connectionProvider.disposeLater().block();
+        }
+    }
+
+}
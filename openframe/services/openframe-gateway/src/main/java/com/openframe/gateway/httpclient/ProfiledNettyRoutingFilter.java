@@ -0,0 +1,54 @@
+package com.openframe.gateway.httpclient;
+
+import io.netty.channel.ChannelOption;
+import io.netty.handler.timeout.ReadTimeoutException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+
+import java.util.List;
+
+import static org.springframework.cloud.gateway.support.RouteMetadataUtils.CONNECT_TIMEOUT_ATTR;
+
+/**
+ * Routing filter sending each request through the HTTP client of its profile. A response timeout
+ * hit before the response is committed is answered with 504, like the gateway's own timeout.
+ */
+public class ProfiledNettyRoutingFilter extends NettyRoutingFilter {
+
+    private final HttpClientProfiles profiles;
+
+    public ProfiledNettyRoutingFilter(HttpClient httpClient, ObjectProvider<List<HttpHeadersFilter>> headersFilters,
+                                      HttpClientProperties properties, HttpClientProfiles profiles) {
+        super(httpClient, headersFilters, properties);
+        this.profiles = profiles;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        return super.filter(exchange, chain)
+                .onErrorMap(ReadTimeoutException.class,
+                        e -> new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, "Upstream response timed out", e));
+    }
+
+    @Override
+    protected HttpClient getHttpClient(Route route, ServerWebExchange exchange) {
+        HttpClient client = profiles.select(route, exchange);
+        if (client == null) {
+            return super.getHttpClient(route, exchange);
+        }
+        Object connectTimeout = route.getMetadata().get(CONNECT_TIMEOUT_ATTR);
+        return connectTimeout != null
+                ? client.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, Integer.parseInt(connectTimeout.toString()))
+                : client;
+    }
+
+}
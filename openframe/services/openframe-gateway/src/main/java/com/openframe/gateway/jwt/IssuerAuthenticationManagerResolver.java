@@ -0,0 +1,36 @@
+package com.openframe.gateway.jwt;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.ReactiveAuthenticationManagerResolver;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtReactiveAuthenticationManager;
+import reactor.core.publisher.Mono;
+
+/**
+ * Resolves the authentication manager of an issuer for
+ * {@code JwtIssuerReactiveAuthenticationManagerResolver}. All allowed issuers share one manager,
+ * since the {@link IssuerJwtDecoder} picks the keys per token.
+ */
+public class IssuerAuthenticationManagerResolver implements ReactiveAuthenticationManagerResolver<String> {
+
+    private final IssuerJwtDecoder decoder;
+    private final ReactiveAuthenticationManager manager;
+
+    public IssuerAuthenticationManagerResolver(IssuerJwtDecoder decoder,
+                                               Converter<Jwt, ? extends Mono<? extends AbstractAuthenticationToken>> converter) {
+        JwtReactiveAuthenticationManager manager = new JwtReactiveAuthenticationManager(decoder);
+        if (converter != null) {
+            manager.setJwtAuthenticationConverter(converter);
+        }
+        this.decoder = decoder;
+        this.manager = manager;
+    }
+
+    @Override
+    public Mono<ReactiveAuthenticationManager> resolve(String issuer) {
+        return decoder.isAllowed(issuer) ? Mono.just(manager) : Mono.empty();
+    }
+
+}
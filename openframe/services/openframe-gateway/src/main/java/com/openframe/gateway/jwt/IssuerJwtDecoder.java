@@ -0,0 +1,129 @@
+package com.openframe.gateway.jwt;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.MappedJwtClaimSetConverter;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Mono;
+
+import java.text.ParseException;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Decodes tokens of any allowed issuer with the keys held by the {@link JwksRegistry}.
+ * <p>
+ * The issuer is read from the unverified claims only to pick the keys; a token is accepted once its
+ * signature verifies against one of them and it passes the validator, by default
+ * {@link JwtValidators#createDefault()}. Verified tokens are remembered in the
+ * {@link VerifiedTokenCache} when one is given and validated again on every use.
+ */
+public class IssuerJwtDecoder implements ReactiveJwtDecoder {
+
+    private final JwksRegistry registry;
+    private final VerifiedTokenCache verifiedTokens;
+    private final String allowedIssuerBase;
+    private volatile OAuth2TokenValidator<Jwt> validator = JwtValidators.createDefault();
+    private final Converter<Map<String, Object>, Map<String, Object>> claimSetConverter =
+            MappedJwtClaimSetConverter.withDefaults(Collections.emptyMap());
+
+    public IssuerJwtDecoder(JwksRegistry registry, VerifiedTokenCache verifiedTokens, String allowedIssuerBase) {
+        this.registry = registry;
+        this.verifiedTokens = verifiedTokens;
+        this.allowedIssuerBase = allowedIssuerBase;
+    }
+
+    /**
+     * Replaces the validator run after signature verification, like
+     * {@code NimbusReactiveJwtDecoder#setJwtValidator}.
+     */
+    public void setJwtValidator(OAuth2TokenValidator<Jwt> validator) {
+        Assert.notNull(validator, "validator cannot be null");
+        this.validator = validator;
+    }
+
+    public boolean isAllowed(String issuer) {
+        return issuer != null && (issuer.equals(allowedIssuerBase) || issuer.startsWith(allowedIssuerBase + "/"));
+    }
+
+    @Override
+    public Mono<Jwt> decode(String token) throws JwtException {
+        Jwt verified = verifiedTokens != null ? verifiedTokens.get(token) : null;
+        if (verified != null) {
+            return validate(verified);
+        }
+        SignedJWT signed;
+        JWTClaimsSet claims;
+        try {
+            signed = SignedJWT.parse(token);
+            claims = signed.getJWTClaimsSet();
+        } catch (ParseException e) {
+            return Mono.error(new BadJwtException("Malformed token: " + e.getMessage(), e));
+        }
+        String issuer = claims.getIssuer();
+        if (!isAllowed(issuer)) {
+            return Mono.error(new BadJwtException("Untrusted issuer " + issuer));
+        }
+        return registry.keysOf(issuer)
+                .onErrorMap(e -> !(e instanceof JwtException),
+                        e -> new JwtException("Failed to load signing keys of issuer " + issuer, e))
+                .flatMap(keys -> verify(signed, keys)
+                        .switchIfEmpty(Mono.defer(() -> registry.rotated(keys).flatMap(rotated -> verify(signed, rotated)))))
+                .switchIfEmpty(Mono.error(() -> new BadJwtException("No signing key of issuer " + issuer
+                        + " matches key id " + signed.getHeader().getKeyID())))
+                .map(ignored -> createJwt(token, signed, claims))
+                .flatMap(this::validate)
+                .doOnNext(jwt -> {
+                    if (verifiedTokens != null) {
+                        verifiedTokens.put(jwt);
+                    }
+                });
+    }
+
+    /**
+     * @return the token if it verifies against the issuer's keys, empty if none of them fits it
+     */
+    private static Mono<SignedJWT> verify(SignedJWT signed, IssuerKeys keys) {
+        JWSVerifier verifier = keys.verifierFor(signed.getHeader()).orElse(null);
+        if (verifier == null) {
+            return Mono.empty();
+        }
+        try {
+            if (!signed.verify(verifier)) {
+                return Mono.error(new BadJwtException("Invalid signature"));
+            }
+        } catch (JOSEException e) {
+            return Mono.error(new BadJwtException("Failed to verify signature: " + e.getMessage(), e));
+        }
+        return Mono.just(signed);
+    }
+
+    private Jwt createJwt(String token, SignedJWT signed, JWTClaimsSet claims) {
+        Map<String, Object> converted = claimSetConverter.convert(claims.getClaims());
+        return Jwt.withTokenValue(token)
+                .headers(headers -> headers.putAll(signed.getHeader().toJSONObject()))
+                .claims(values -> values.putAll(converted))
+                .build();
+    }
+
+    private Mono<Jwt> validate(Jwt jwt) {
+        OAuth2TokenValidatorResult result = validator.validate(jwt);
+        if (result.hasErrors()) {
+            return Mono.error(new JwtValidationException("Invalid token: " + result.getErrors().iterator().next()
+                    .getDescription(), result.getErrors()));
+        }
+        return Mono.just(jwt);
+    }
+
+}
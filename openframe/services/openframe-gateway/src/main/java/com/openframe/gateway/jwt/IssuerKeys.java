@@ -0,0 +1,78 @@
+package com.openframe.gateway.jwt;
+
+import com.nimbusds.jose.Algorithm;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.RSAKey;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Signing keys of one issuer, parsed into verifiers once when the key set is fetched.
+ * <p>
+ * Only RSA and EC signature keys are kept; tokens signed with anything else find no verifier.
+ */
+@Slf4j
+public record IssuerKeys(String issuer, List<VerificationKey> keys, Instant fetchedAt) {
+
+    public static IssuerKeys of(String issuer, JWKSet jwkSet, Instant fetchedAt) {
+        List<VerificationKey> keys = new ArrayList<>();
+        for (JWK jwk : jwkSet.getKeys()) {
+            if (jwk.getKeyUse() != null && !KeyUse.SIGNATURE.equals(jwk.getKeyUse())) {
+                continue;
+            }
+            try {
+                if (jwk instanceof RSAKey rsaKey) {
+                    keys.add(new VerificationKey(jwk.getKeyID(), jwk.getAlgorithm(), JWSAlgorithm.Family.RSA,
+                            new RSASSAVerifier(rsaKey)));
+                } else if (jwk instanceof ECKey ecKey) {
+                    keys.add(new VerificationKey(jwk.getKeyID(), jwk.getAlgorithm(), JWSAlgorithm.Family.EC,
+                            new ECDSAVerifier(ecKey)));
+                }
+            } catch (JOSEException e) {
+                log.warn("Skipping key {} of issuer {}: {}", jwk.getKeyID(), issuer, e.getMessage());
+            }
+        }
+        return new IssuerKeys(issuer, List.copyOf(keys), fetchedAt);
+    }
+
+    /**
+     * @return the verifier of the key the token names, or of the only suitable key if it names none
+     */
+    public Optional<JWSVerifier> verifierFor(JWSHeader header) {
+        List<VerificationKey> candidates = keys.stream()
+                .filter(key -> key.supports(header))
+                .toList();
+        if (header.getKeyID() != null) {
+            return candidates.stream()
+                    .filter(key -> header.getKeyID().equals(key.keyId()))
+                    .findFirst()
+                    .map(VerificationKey::verifier);
+        }
+        return candidates.size() == 1 ? Optional.of(candidates.get(0).verifier()) : Optional.empty();
+    }
+
+    public record VerificationKey(String keyId, Algorithm algorithm,
+                                  JWSAlgorithm.Family family, JWSVerifier verifier) {
+
+        boolean supports(JWSHeader header) {
+            return family.contains(header.getAlgorithm())
+                    && (algorithm == null || Objects.equals(algorithm.getName(), header.getAlgorithm().getName()));
+        }
+
+    }
+
+}
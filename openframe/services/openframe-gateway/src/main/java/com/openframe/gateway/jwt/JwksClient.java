@@ -0,0 +1,71 @@
+package com.openframe.gateway.jwt;
+
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.util.JSONObjectUtils;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.text.ParseException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Loads the signing keys of an issuer through its OpenID Connect discovery document and
+ * {@code jwks_uri}, the way issuer-location decoders do.
+ */
+public class JwksClient implements JwksLoader {
+
+    private static final String DISCOVERY_PATH = "/.well-known/openid-configuration";
+
+    private final WebClient webClient;
+    private final Duration timeout;
+    private final Clock clock;
+
+    public JwksClient(WebClient webClient, Duration timeout, Clock clock) {
+        this.webClient = webClient;
+        this.timeout = timeout;
+        this.clock = clock;
+    }
+
+    @Override
+    public Mono<IssuerKeys> load(String issuer) {
+        return webClient.get()
+                .uri(issuer + DISCOVERY_PATH)
+                .retrieve()
+                .bodyToMono(String.class)
+                .map(json -> jwksUriOf(issuer, json))
+                .flatMap(jwksUri -> webClient.get()
+                        .uri(jwksUri)
+                        .retrieve()
+                        .bodyToMono(String.class))
+                .map(json -> IssuerKeys.of(issuer, parse(issuer, json), clock.instant()))
+                .timeout(timeout);
+    }
+
+    private static String jwksUriOf(String issuer, String json) {
+        Map<String, Object> metadata;
+        try {
+            metadata = JSONObjectUtils.parse(json);
+        } catch (ParseException e) {
+            throw new JwtException("Invalid discovery document of " + issuer, e);
+        }
+        if (!issuer.equals(metadata.get("issuer"))) {
+            throw new JwtException("Discovery document of " + issuer + " names issuer " + metadata.get("issuer"));
+        }
+        if (!(metadata.get("jwks_uri") instanceof String jwksUri)) {
+            throw new JwtException("Discovery document of " + issuer + " has no jwks_uri");
+        }
+        return jwksUri;
+    }
+
+    private static JWKSet parse(String issuer, String json) {
+        try {
+            return JWKSet.parse(json);
+        } catch (ParseException e) {
+            throw new JwtException("Invalid JWK set of " + issuer, e);
+        }
+    }
+
+}
@@ -0,0 +1,13 @@
+package com.openframe.gateway.jwt;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Fetches the current signing keys of an issuer.
+ */
+@FunctionalInterface
+public interface JwksLoader {
+
+    Mono<IssuerKeys> load(String issuer);
+
+}
@@ -0,0 +1,87 @@
+package com.openframe.gateway.jwt;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collections;
+
+/**
+ * Signing keys per issuer.
+ * <p>
+ * The first token of an issuer triggers one fetch that concurrent requests of the same issuer wait
+ * on. Keys older than {@code refresh-after} are refetched in the background on their next use
+ * while the current ones keep being served; if that fetch fails they stay in use. A token signed
+ * with a key id the issuer's keys do not contain causes an immediate refetch, at most once per
+ * {@code rotation-cooldown}, so key rotations are picked up without waiting for the refresh.
+ */
+@Slf4j
+public class JwksRegistry {
+
+    private final JwksLoader loader;
+    private final Duration rotationCooldown;
+    private final Clock clock;
+    private final MeterRegistry meterRegistry;
+    private final AsyncLoadingCache<String, IssuerKeys> keys;
+
+    public JwksRegistry(JwksLoader loader, JwtRegistryProperties.Registry properties, Clock clock,
+                        MeterRegistry meterRegistry) {
+        this.loader = loader;
+        this.rotationCooldown = properties.getRotationCooldown();
+        this.clock = clock;
+        this.meterRegistry = meterRegistry;
+        this.keys = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumIssuers())
+                .expireAfterAccess(properties.getExpireAfter())
+                .refreshAfterWrite(properties.getRefreshAfter())
+                .recordStats()
+                .buildAsync((issuer, executor) -> fetch(issuer).toFuture());
+        CaffeineCacheMetrics.monitor(meterRegistry, keys, "jwtIssuerKeys", Collections.emptyList());
+    }
+
+    /**
+     * The fetch is shared by all waiting requests, so a cancelled request does not cancel it.
+     */
+    public Mono<IssuerKeys> keysOf(String issuer) {
+        return Mono.fromFuture(keys.get(issuer), true);
+    }
+
+    /**
+     * Refetches the keys of an issuer after one of its tokens named an unknown key.
+     *
+     * @return the refetched keys, or {@code current} within the cooldown or if the fetch fails
+     */
+    public Mono<IssuerKeys> rotated(IssuerKeys current) {
+        if (current.fetchedAt().plus(rotationCooldown).isAfter(clock.instant())) {
+            return Mono.just(current);
+        }
+        return Mono.fromFuture(keys.synchronous().refresh(current.issuer()), true)
+                .onErrorReturn(current);
+    }
+
+    private Mono<IssuerKeys> fetch(String issuer) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return loader.load(issuer)
+                .doOnSuccess(loaded -> {
+                    sample.stop(timer("success"));
+                    log.debug("Loaded {} signing keys of issuer {}", loaded.keys().size(), issuer);
+                })
+                .doOnError(e -> {
+                    sample.stop(timer("failure"));
+                    log.warn("Failed to load signing keys of issuer {}: {}", issuer, e.getMessage());
+                });
+    }
+
+    private Timer timer(String outcome) {
+        return Timer.builder("openframe.gateway.jwt.jwks.fetch")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+}
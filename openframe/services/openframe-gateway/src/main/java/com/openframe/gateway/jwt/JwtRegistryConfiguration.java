@@ -0,0 +1,56 @@
+package com.openframe.gateway.jwt;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.util.Assert;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+
+/**
+ * Enables the issuer-keyed JWKS registry with {@code openframe.security.jwt.registry.enabled}.
+ */
+@Configuration
+@EnableConfigurationProperties(JwtRegistryProperties.class)
+@ConditionalOnProperty(prefix = "openframe.security.jwt.registry", name = "enabled", havingValue = "true")
+public class JwtRegistryConfiguration {
+
+    @Bean
+    public static JwtRegistryPostProcessor jwtRegistryPostProcessor(
+            ObjectProvider<JwtRegistryProperties> properties,
+            ObjectProvider<JwksRegistry> registry,
+            ObjectProvider<VerifiedTokenCache> verifiedTokens,
+            ObjectProvider<Converter<Jwt, Mono<AbstractAuthenticationToken>>> converter,
+            ObjectProvider<OAuth2TokenValidator<Jwt>> validators) {
+        return new JwtRegistryPostProcessor(properties, registry, verifiedTokens, converter, validators);
+    }
+
+    @Bean
+    public JwksRegistry jwksRegistry(JwtRegistryProperties properties,
+                                     ObjectProvider<WebClient.Builder> webClientBuilder,
+                                     MeterRegistry meterRegistry) {
+        Assert.hasText(properties.getAllowedIssuerBase(),
+                "openframe.security.jwt.allowed-issuer-base is required by the JWKS registry");
+        JwtRegistryProperties.Registry registry = properties.getRegistry();
+        WebClient webClient = webClientBuilder.getIfAvailable(WebClient::builder).build();
+        return new JwksRegistry(new JwksClient(webClient, registry.getFetchTimeout(), Clock.systemUTC()),
+                registry, Clock.systemUTC(), meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "openframe.security.jwt.registry.verified-tokens", name = "enabled",
+            havingValue = "true", matchIfMissing = true)
+    public VerifiedTokenCache verifiedTokenCache(JwtRegistryProperties properties, MeterRegistry meterRegistry) {
+        return new VerifiedTokenCache(properties.getRegistry().getVerifiedTokens(), Clock.systemUTC(), meterRegistry);
+    }
+
+}
@@ -0,0 +1,168 @@
+package com.openframe.gateway.jwt;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.DirectFieldAccessor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtIssuerValidator;
+import org.springframework.security.oauth2.jwt.JwtTimestampValidator;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder.JwkSetUriReactiveJwtDecoderBuilder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtIssuerReactiveAuthenticationManagerResolver;
+import org.springframework.util.ReflectionUtils;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Replaces the issuer authentication manager resolver of the gateway core, which keeps a decoder
+ * per issuer in a small cache, and its decoders that discover their keys from an allowed issuer
+ * with ones backed by the {@link JwksRegistry}. An authentication converter bean, if the core
+ * defines one, is kept.
+ * <p>
+ * Only Nimbus decoders built with {@code withIssuerLocation} are replaced, since the registry
+ * serves the keys of an issuer; decoders with fixed keys, a JWK set URI or of other types are
+ * left alone. A replaced decoder keeps the validator it was configured with, audience and custom
+ * validators included. The decoder of the issuer
+ * resolver validates timestamps, the {@link OAuth2TokenValidator} beans of the context and the
+ * validators of the replaced decoders except their issuer checks, since it serves every allowed
+ * issuer.
+ */
+@Slf4j
+public class JwtRegistryPostProcessor implements BeanPostProcessor, SmartInitializingSingleton {
+
+    private final ObjectProvider<JwtRegistryProperties> properties;
+    private final ObjectProvider<JwksRegistry> registry;
+    private final ObjectProvider<VerifiedTokenCache> verifiedTokens;
+    private final ObjectProvider<Converter<Jwt, Mono<AbstractAuthenticationToken>>> converter;
+    private final ObjectProvider<OAuth2TokenValidator<Jwt>> validators;
+    private final List<OAuth2TokenValidator<Jwt>> copiedValidators = new ArrayList<>();
+    private IssuerJwtDecoder decoder;
+
+    public JwtRegistryPostProcessor(ObjectProvider<JwtRegistryProperties> properties,
+                                    ObjectProvider<JwksRegistry> registry,
+                                    ObjectProvider<VerifiedTokenCache> verifiedTokens,
+                                    ObjectProvider<Converter<Jwt, Mono<AbstractAuthenticationToken>>> converter,
+                                    ObjectProvider<OAuth2TokenValidator<Jwt>> validators) {
+        this.properties = properties;
+        this.registry = registry;
+        this.verifiedTokens = verifiedTokens;
+        this.converter = converter;
+        this.validators = validators;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof JwtIssuerReactiveAuthenticationManagerResolver) {
+            log.info("Issuers of {} are resolved through the JWKS registry", beanName);
+            return new JwtIssuerReactiveAuthenticationManagerResolver(
+                    new IssuerAuthenticationManagerResolver(decoder(), converter.getIfAvailable()));
+        }
+        if (bean instanceof NimbusReactiveJwtDecoder) {
+            String issuer = issuerLocationOf(bean);
+            IssuerJwtDecoder replacement = newDecoder();
+            if (issuer == null || !replacement.isAllowed(issuer)) {
+                log.info("Tokens of {} are decoded with its own keys, it does not discover them from an allowed issuer",
+                        beanName);
+                return bean;
+            }
+            log.info("Tokens of {} from {} are decoded through the JWKS registry", beanName, issuer);
+            OAuth2TokenValidator<Jwt> validator = validatorOf(bean);
+            synchronized (copiedValidators) {
+                flatten(validator, copiedValidators);
+            }
+            replacement.setJwtValidator(validator);
+            return replacement;
+        }
+        return bean;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        List<OAuth2TokenValidator<Jwt>> shared = new ArrayList<>();
+        validators.orderedStream().forEach(shared::add);
+        synchronized (copiedValidators) {
+            copiedValidators.stream().filter(validator -> !shared.contains(validator)).forEach(shared::add);
+        }
+        decoder().setJwtValidator(JwtValidators.createDefaultWithValidators(shared));
+    }
+
+    private synchronized IssuerJwtDecoder decoder() {
+        if (decoder == null) {
+            decoder = newDecoder();
+        }
+        return decoder;
+    }
+
+    private IssuerJwtDecoder newDecoder() {
+        return new IssuerJwtDecoder(registry.getObject(), verifiedTokens.getIfAvailable(),
+                properties.getObject().getAllowedIssuerBase());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static OAuth2TokenValidator<Jwt> validatorOf(Object decoder) {
+        return (OAuth2TokenValidator<Jwt>) new DirectFieldAccessor(decoder).getPropertyValue("jwtValidator");
+    }
+
+    /**
+     * The decoder's processor holds the builder it was built with. Its JWK set URI is resolved by a
+     * lambda of the decoder holding the issuer for {@code withIssuerLocation}, and by a lambda of
+     * the builder holding the URI for {@code withJwkSetUri}.
+     *
+     * @return the issuer a Nimbus decoder discovers its keys from, {@code null} for other decoders
+     */
+    private static String issuerLocationOf(Object decoder) {
+        Object processor = new DirectFieldAccessor(decoder).getPropertyValue("jwtProcessor");
+        Object builder = captured(processor, JwkSetUriReactiveJwtDecoderBuilder.class);
+        if (builder == null) {
+            return null;
+        }
+        Object jwkSetUri = new DirectFieldAccessor(builder).getPropertyValue("jwkSetUri");
+        if (jwkSetUri == null || !jwkSetUri.getClass().getName().startsWith(NimbusReactiveJwtDecoder.class.getName() + "$$")) {
+            return null;
+        }
+        return (String) captured(jwkSetUri, String.class);
+    }
+
+    /**
+     * @return the first value of the given type captured by a lambda, or {@code null}
+     */
+    private static Object captured(Object lambda, Class<?> type) {
+        if (lambda == null) {
+            return null;
+        }
+        for (Field field : lambda.getClass().getDeclaredFields()) {
+            if (field.getType() == type) {
+                ReflectionUtils.makeAccessible(field);
+                return ReflectionUtils.getField(field, lambda);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adds the validators a validator is composed of, without timestamp and issuer validators.
+     */
+    @SuppressWarnings("unchecked")
+    private static void flatten(OAuth2TokenValidator<Jwt> validator, List<OAuth2TokenValidator<Jwt>> into) {
+        if (validator instanceof DelegatingOAuth2TokenValidator<Jwt>) {
+            Collection<OAuth2TokenValidator<Jwt>> delegates = (Collection<OAuth2TokenValidator<Jwt>>)
+                    new DirectFieldAccessor(validator).getPropertyValue("tokenValidators");
+            delegates.forEach(delegate -> flatten(delegate, into));
+        } else if (!(validator instanceof JwtTimestampValidator) && !(validator instanceof JwtIssuerValidator)
+                && !into.contains(validator)) {
+            into.add(validator);
+        }
+    }
+
+}
@@ -0,0 +1,64 @@
+package com.openframe.gateway.jwt;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Issuer-keyed JWT decoding, bound from {@code openframe.security.jwt}. The allowed issuer base is
+ * shared with the gateway core; everything else lives under {@code registry}.
+ */
+@Data
+@ConfigurationProperties(prefix = "openframe.security.jwt")
+public class JwtRegistryProperties {
+
+    /**
+     * Tokens are only accepted from this issuer or issuers below it, e.g. {@code <base>/<tenant>}.
+     */
+    private String allowedIssuerBase;
+
+    private Registry registry = new Registry();
+
+    @Data
+    public static class Registry {
+
+        private boolean enabled = false;
+
+        private long maximumIssuers = 1_000;
+
+        /**
+         * Age after which the keys of an issuer are refetched in the background on their next use,
+         * while the current keys keep being served.
+         */
+        private Duration refreshAfter = Duration.ofMinutes(10);
+
+        /**
+         * Issuers that signed no token for this long are dropped.
+         */
+        private Duration expireAfter = Duration.ofHours(6);
+
+        /**
+         * Minimum time between refetches caused by tokens signed with an unknown key id.
+         */
+        private Duration rotationCooldown = Duration.ofSeconds(30);
+
+        private Duration fetchTimeout = Duration.ofSeconds(5);
+
+        private VerifiedTokens verifiedTokens = new VerifiedTokens();
+
+    }
+
+    @Data
+    public static class VerifiedTokens {
+
+        /**
+         * Whether tokens that passed signature verification are remembered until they expire.
+         */
+        private boolean enabled = true;
+
+        private long maximumSize = 100_000;
+
+    }
+
+}
@@ -0,0 +1,83 @@
+package com.openframe.gateway.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Tokens whose signature was verified, kept until they expire so that repeated requests with the
+ * same token skip signature verification.
+ * <p>
+ * Entries are keyed by the SHA-256 of the whole compact token, which covers its signature: a
+ * token that differs in any byte, including a tampered payload with a copied signature, misses.
+ * Claims are still validated on every hit.
+ */
+public class VerifiedTokenCache {
+
+    private final Cache<ByteBuffer, Jwt> tokens;
+    private final Clock clock;
+    private final ThreadLocal<MessageDigest> sha256 = ThreadLocal.withInitial(VerifiedTokenCache::newDigest);
+
+    public VerifiedTokenCache(JwtRegistryProperties.VerifiedTokens properties, Clock clock, MeterRegistry meterRegistry) {
+        this.clock = clock;
+        this.tokens = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfter(new Expiry<ByteBuffer, Jwt>() {
+                    @Override
+                    public long expireAfterCreate(ByteBuffer digest, Jwt jwt, long currentTime) {
+                        return timeToLive(jwt).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(ByteBuffer digest, Jwt jwt, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(ByteBuffer digest, Jwt jwt, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, tokens, "jwtVerifiedTokens");
+    }
+
+    public Jwt get(String token) {
+        return tokens.getIfPresent(digest(token));
+    }
+
+    public void put(Jwt jwt) {
+        if (jwt.getExpiresAt() != null && !timeToLive(jwt).isZero()) {
+            tokens.put(digest(jwt.getTokenValue()), jwt);
+        }
+    }
+
+    private Duration timeToLive(Jwt jwt) {
+        Duration remaining = Duration.between(clock.instant(), jwt.getExpiresAt());
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+
+    private ByteBuffer digest(String token) {
+        return ByteBuffer.wrap(sha256.get().digest(token.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+}
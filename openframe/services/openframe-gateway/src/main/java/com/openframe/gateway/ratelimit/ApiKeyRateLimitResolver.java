@@ -0,0 +1,70 @@
+package com.openframe.gateway.ratelimit;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Mono;
+
+/**
+ * Resolves the limits of an API key from the {@code rateLimits} of its {@code api_keys} document,
+ * falling back to the configured defaults for unset values, unknown keys or when MongoDB is not
+ * reachable. Results are cached for {@code limits-cache-ttl}.
+ */
+@Slf4j
+public class ApiKeyRateLimitResolver {
+
+    private static final String COLLECTION = "api_keys";
+    private static final int MAXIMUM_SIZE = 10_000;
+
+    private final RateLimitProperties properties;
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final AsyncLoadingCache<String, RateLimits> cache;
+
+    public ApiKeyRateLimitResolver(RateLimitProperties properties, ObjectProvider<ReactiveMongoTemplate> mongoTemplate) {
+        this.properties = properties;
+        this.mongoTemplate = mongoTemplate.getIfAvailable();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(MAXIMUM_SIZE)
+                .expireAfterWrite(properties.getLimitsCacheTtl())
+                .buildAsync((keyId, executor) -> load(keyId).toFuture());
+    }
+
+    public Mono<RateLimits> resolve(String keyId) {
+        return Mono.fromFuture(cache.get(keyId));
+    }
+
+    private Mono<RateLimits> load(String keyId) {
+        RateLimits defaults = defaults();
+        if (mongoTemplate == null) {
+            return Mono.just(defaults);
+        }
+        Query query = Query.query(Criteria.where("keyId").is(keyId));
+        query.fields().include("rateLimits");
+        return mongoTemplate.findOne(query, Document.class, COLLECTION)
+                .map(document -> document.get("rateLimits", Document.class))
+                .map(rateLimits -> new RateLimits(
+                        intOf(rateLimits, "requestsPerMinute", defaults.perMinute()),
+                        intOf(rateLimits, "requestsPerHour", defaults.perHour()),
+                        intOf(rateLimits, "requestsPerDay", defaults.perDay())))
+                .defaultIfEmpty(defaults)
+                .onErrorResume(e -> {
+                    log.warn("Failed to load rate limits of API key {}, using defaults: {}", keyId, e.getMessage());
+                    return Mono.just(defaults);
+                });
+    }
+
+    private RateLimits defaults() {
+        return new RateLimits(properties.getDefaultRequestsPerMinute(), properties.getDefaultRequestsPerHour(),
+                properties.getDefaultRequestsPerDay());
+    }
+
+    private static int intOf(Document document, String field, int fallback) {
+        return document.get(field) instanceof Number number ? number.intValue() : fallback;
+    }
+
+}
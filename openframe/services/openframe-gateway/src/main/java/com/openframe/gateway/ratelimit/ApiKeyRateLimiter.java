@@ -0,0 +1,15 @@
+package com.openframe.gateway.ratelimit;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Decides whether a request of an API key may pass its limits.
+ */
+public interface ApiKeyRateLimiter {
+
+    /**
+     * Counts one request against every window of the key, if all of them admit it.
+     */
+    Mono<RateLimitDecision> acquire(String keyId, RateLimits limits);
+
+}
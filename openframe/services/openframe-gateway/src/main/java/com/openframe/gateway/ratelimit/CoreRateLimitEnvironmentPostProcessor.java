@@ -0,0 +1,47 @@
+package com.openframe.gateway.ratelimit;
+
+import org.apache.commons.logging.Log;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.boot.logging.DeferredLogFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.Map;
+
+/**
+ * Turns the Redis limiter of the gateway core off while the gateway limiter is selected, so that
+ * API key requests are neither counted nor rejected twice.
+ * <p>
+ * Runs after the config data, including the config server, has been loaded and overrides
+ * {@code openframe.rate-limit.enabled} with a property source of the highest precedence.
+ */
+public class CoreRateLimitEnvironmentPostProcessor implements EnvironmentPostProcessor, Ordered {
+
+    static final String PROPERTY_SOURCE = "openframeGatewayRateLimit";
+    static final String CORE_ENABLED = "openframe.rate-limit.enabled";
+
+    private final Log log;
+
+    public CoreRateLimitEnvironmentPostProcessor(DeferredLogFactory logFactory) {
+        this.log = logFactory.getLog(CoreRateLimitEnvironmentPostProcessor.class);
+    }
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        RateLimitAlgorithm algorithm = RateLimitFilterCondition.algorithmOf(environment);
+        if (algorithm == RateLimitAlgorithm.FIXED_WINDOW
+                || !environment.getProperty(CORE_ENABLED, Boolean.class, false)) {
+            return;
+        }
+        environment.getPropertySources().addFirst(new MapPropertySource(PROPERTY_SOURCE, Map.of(CORE_ENABLED, false)));
+        log.info("Rate limiter of the gateway core disabled, API key limits are enforced with " + algorithm.tag());
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+}
@@ -0,0 +1,361 @@
+package com.openframe.gateway.ratelimit;
+
+import com.openframe.gateway.ratelimit.RateLimitDecision.Outcome;
+import com.openframe.gateway.ratelimit.RedisQuotaReserver.Grant;
+import com.openframe.gateway.ratelimit.RedisQuotaReserver.Request;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Token bucket rate limiter that admits requests from tokens leased to this replica, so the
+ * common path does not touch Redis.
+ * <p>
+ * Each key holds a lease per window. Tokens are taken from the key's token buckets in Redis in
+ * chunks of {@code tolerance * limit} (at most {@code max-chunk} and the burst) by
+ * {@link RedisQuotaReserver}; a refill is started in the background once half a chunk is left,
+ * and a request only waits for Redis when its lease is empty. Concurrent refills of one key share
+ * a single Redis call. Once Redis reports a bucket as empty, the key is denied locally until the
+ * bucket holds a token again, re-checking Redis at least once per reconcile interval in case
+ * other replicas returned tokens.
+ * <p>
+ * Every reconcile interval, leases unused for {@code idle-release} are returned to Redis and idle
+ * keys are dropped; all leases are returned on shutdown.
+ */
+@Slf4j
+public class LocalRateLimiter implements ApiKeyRateLimiter, SmartLifecycle {
+
+    private static final int MAX_ATTEMPTS = 2;
+
+    private final RedisQuotaReserver reserver;
+    private final RateLimitProperties properties;
+    private final Clock clock;
+    private final Map<String, KeyLease> leases = new ConcurrentHashMap<>();
+    private final Map<Outcome, Counter> outcomes = new EnumMap<>(Outcome.class);
+
+    private volatile Disposable reconciler;
+
+    public LocalRateLimiter(RedisQuotaReserver reserver, RateLimitProperties properties, Clock clock, MeterRegistry meterRegistry) {
+        this.reserver = reserver;
+        this.properties = properties;
+        this.clock = clock;
+        for (Outcome outcome : Outcome.values()) {
+            outcomes.put(outcome, Counter.builder("openframe.gateway.ratelimit.requests")
+                    .description("API key requests checked by the gateway rate limiter")
+                    .tag("algorithm", RateLimitAlgorithm.GCRA.tag())
+                    .tag("outcome", outcome.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        meterRegistry.gaugeMapSize("openframe.gateway.ratelimit.keys", List.of(), leases);
+    }
+
+    @Override
+    public Mono<RateLimitDecision> acquire(String keyId, RateLimits limits) {
+        return acquire(keyId, limits, 1).doOnNext(decision -> outcomes.get(decision.outcome()).increment());
+    }
+
+    private Mono<RateLimitDecision> acquire(String keyId, RateLimits limits, int attempt) {
+        KeyLease lease = leases.computeIfAbsent(keyId, KeyLease::new);
+        long now = clock.millis();
+        RateLimitDecision decision = lease.take(now, limits);
+        if (decision == null && lease.isRetired()) {
+            return acquire(keyId, limits, attempt);
+        }
+        if (decision != null) {
+            if (decision.outcome() == Outcome.ALLOWED) {
+                refill(lease, now, limits, false).subscribe(null,
+                        e -> log.debug("Background lease refill for key {} failed: {}", keyId, e.getMessage()));
+            }
+            return Mono.just(decision);
+        }
+        if (attempt > MAX_ATTEMPTS) {
+            return Mono.just(lease.deny(now, limits));
+        }
+        return refill(lease, now, limits, true)
+                .then(Mono.defer(() -> acquire(keyId, limits, attempt + 1)))
+                .onErrorResume(e -> Mono.just(unavailable(lease, keyId, limits, e)));
+    }
+
+    private Mono<Void> refill(KeyLease lease, long now, RateLimits limits, boolean urgent) {
+        synchronized (lease) {
+            if (lease.pending != null) {
+                return urgent ? lease.pending : Mono.empty();
+            }
+            List<Request> requests = lease.refillRequests(now, limits, urgent);
+            if (requests.isEmpty()) {
+                return Mono.empty();
+            }
+            Mono<Void> pending = reserver.reserve(lease.keyId, requests, now)
+                    .doOnNext(grants -> lease.apply(requests, grants))
+                    .doFinally(signal -> lease.clearPending())
+                    .then()
+                    .cache();
+            lease.pending = pending;
+            return pending;
+        }
+    }
+
+    private RateLimitDecision unavailable(KeyLease lease, String keyId, RateLimits limits, Throwable error) {
+        long now = clock.millis();
+        if (properties.isFailOpen()) {
+            log.warn("Rate limit quota for key {} could not be reserved, admitting requests for {}: {}",
+                    keyId, properties.getLocal().getFailOpenBackoff(), error.getMessage());
+            lease.failOpenUntil(now + properties.getLocal().getFailOpenBackoff().toMillis());
+            return RateLimitDecision.unchecked(Outcome.FAIL_OPEN, limits, now);
+        }
+        log.error("Rate limit quota for key {} could not be reserved, rejecting request: {}", keyId, error.getMessage());
+        return RateLimitDecision.unchecked(Outcome.UNAVAILABLE, limits, now);
+    }
+
+    /**
+     * Returns leases unused for {@code idle-release} and drops their keys. Draining and removal happen
+     * atomically with the lookups of the key; a caller still holding a drained lease finds it retired
+     * and looks the key up again.
+     */
+    Mono<Void> reconcile() {
+        long idleBefore = clock.millis() - properties.getLocal().getIdleRelease().toMillis();
+        return Flux.fromIterable(leases.values())
+                .concatMap(lease -> {
+                    List<List<Request>> drained = new ArrayList<>(1);
+                    leases.computeIfPresent(lease.keyId, (keyId, current) -> {
+                        if (current != lease) {
+                            return current;
+                        }
+                        List<Request> returns = lease.drainIfIdle(idleBefore);
+                        if (returns == null) {
+                            return current;
+                        }
+                        drained.add(returns);
+                        return null;
+                    });
+                    if (drained.isEmpty()) {
+                        return Mono.empty();
+                    }
+                    List<Request> returns = drained.get(0);
+                    return returns.isEmpty() ? Mono.empty() : reserver.release(lease.keyId, returns, clock.millis())
+                            .onErrorResume(e -> {
+                                log.debug("Failed to return leased tokens of key {}: {}", lease.keyId, e.getMessage());
+                                return Mono.empty();
+                            });
+                })
+                .then();
+    }
+
+    @Override
+    public void start() {
+        Duration interval = properties.getLocal().getReconcileInterval();
+        reconciler = Flux.interval(interval, interval)
+                .onBackpressureDrop()
+                .concatMap(tick -> reconcile(), 1)
+                .subscribe(null, e -> log.error("Rate limit lease reconciliation stopped", e));
+        log.info("Local rate limiter started: tolerance {}, max chunk {}",
+                properties.getLocal().getTolerance(), properties.getLocal().getMaxChunk());
+    }
+
+    @Override
+    public void stop() {
+        Disposable current = reconciler;
+        reconciler = null;
+        if (current != null) {
+            current.dispose();
+        }
+        try {
+            Flux.fromIterable(leases.values())
+                    .concatMap(lease -> {
+                        List<Request> returns = lease.drainIfIdle(Long.MAX_VALUE);
+                        return returns == null || returns.isEmpty()
+                                ? Mono.empty() : reserver.release(lease.keyId, returns, clock.millis());
+                    })
+                    .then()
+                    .block(Duration.ofSeconds(5));
+        } catch (RuntimeException e) {
+            log.warn("Failed to return leased rate limit tokens on shutdown: {}", e.getMessage());
+        }
+        leases.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return reconciler != null;
+    }
+
+    private long chunkOf(long limit, long burst) {
+        RateLimitProperties.Local local = properties.getLocal();
+        long chunk = (long) Math.floor(limit * local.getTolerance());
+        return Math.max(1, Math.min(chunk, Math.min(local.getMaxChunk(), burst)));
+    }
+
+    private static final class WindowLease {
+        long available;
+        long left = -1;
+        long fullAt;
+        long exhaustedUntil;
+        Request last;
+    }
+
+    /**
+     * Tokens leased for one key. All state is guarded by the instance lock.
+     */
+    private final class KeyLease {
+
+        final String keyId;
+        final WindowLease[] windows = new WindowLease[RateLimitWindow.values().length];
+        long lastUsed = clock.millis();
+        long failOpenUntil;
+        Mono<Void> pending;
+        boolean retired;
+
+        KeyLease(String keyId) {
+            this.keyId = keyId;
+            for (int i = 0; i < windows.length; i++) {
+                windows[i] = new WindowLease();
+            }
+        }
+
+        /**
+         * @return the decision, or {@code null} if a window has no leased tokens left
+         */
+        synchronized RateLimitDecision take(long now, RateLimits limits) {
+            if (retired) {
+                return null;
+            }
+            lastUsed = now;
+            if (now < failOpenUntil) {
+                return decision(Outcome.FAIL_OPEN, now, limits);
+            }
+            for (RateLimitWindow window : RateLimitWindow.values()) {
+                WindowLease lease = windows[window.ordinal()];
+                if (limits.of(window) > 0 && lease.available == 0 && now < lease.exhaustedUntil) {
+                    return deny(now, limits);
+                }
+            }
+            for (RateLimitWindow window : RateLimitWindow.values()) {
+                if (limits.of(window) > 0 && windows[window.ordinal()].available == 0) {
+                    return null;
+                }
+            }
+            for (RateLimitWindow window : RateLimitWindow.values()) {
+                if (limits.of(window) > 0) {
+                    windows[window.ordinal()].available--;
+                }
+            }
+            return decision(Outcome.ALLOWED, now, limits);
+        }
+
+        synchronized RateLimitDecision deny(long now, RateLimits limits) {
+            RateLimitDecision decision = decision(Outcome.DENIED, now, limits);
+            if (properties.isLogViolations()) {
+                log.warn("Rate limit exceeded for API key {} ({} window, limit {})",
+                        keyId, decision.window().tag(), decision.limit());
+            }
+            return decision;
+        }
+
+        synchronized List<Request> refillRequests(long now, RateLimits limits, boolean urgent) {
+            List<Request> requests = new ArrayList<>(windows.length);
+            if (retired) {
+                return requests;
+            }
+            for (RateLimitWindow window : RateLimitWindow.values()) {
+                long limit = limits.of(window);
+                WindowLease lease = windows[window.ordinal()];
+                if (limit <= 0 || now < lease.exhaustedUntil) {
+                    continue;
+                }
+                long burst = properties.getGcra().burstOf(window, limit);
+                long chunk = chunkOf(limit, burst);
+                if (lease.available == 0 || (!urgent && lease.available <= chunk / 2)) {
+                    requests.add(new Request(window, limit, burst, chunk));
+                }
+            }
+            return requests;
+        }
+
+        synchronized void apply(List<Request> requests, List<Grant> grants) {
+            long now = clock.millis();
+            for (int i = 0; i < requests.size(); i++) {
+                Request request = requests.get(i);
+                Grant grant = grants.get(i);
+                WindowLease lease = windows[request.window().ordinal()];
+                lease.available += grant.granted();
+                lease.left = grant.left();
+                lease.last = request;
+                long interval = request.window().getSeconds() * 1000 / request.limit();
+                lease.fullAt = now + grant.nextTokenIn() + (request.burst() - grant.left() - 1) * interval;
+                if (grant.granted() == 0) {
+                    lease.exhaustedUntil = now + Math.max(1, Math.min(grant.nextTokenIn(),
+                            properties.getLocal().getReconcileInterval().toMillis()));
+                }
+            }
+        }
+
+        synchronized void clearPending() {
+            pending = null;
+        }
+
+        synchronized void failOpenUntil(long until) {
+            failOpenUntil = until;
+        }
+
+        synchronized boolean isRetired() {
+            return retired;
+        }
+
+        /**
+         * Takes back the leases of a key idle since {@code idleBefore} and retires it, so it neither
+         * admits requests nor refills afterwards.
+         *
+         * @return the tokens to return to Redis, or {@code null} if the key is in use
+         */
+        synchronized List<Request> drainIfIdle(long idleBefore) {
+            if (pending != null || lastUsed >= idleBefore) {
+                return null;
+            }
+            retired = true;
+            List<Request> returns = new ArrayList<>(windows.length);
+            for (WindowLease lease : windows) {
+                if (lease.available > 0 && lease.last != null) {
+                    returns.add(new Request(lease.last.window(), lease.last.limit(), lease.last.burst(), lease.available));
+                    lease.available = 0;
+                }
+            }
+            return returns;
+        }
+
+        /**
+         * Reports the window with the fewest requests left.
+         */
+        private RateLimitDecision decision(Outcome outcome, long now, RateLimits limits) {
+            RateLimitWindow constrained = RateLimitWindow.MINUTE;
+            long remaining = Long.MAX_VALUE;
+            for (RateLimitWindow window : RateLimitWindow.values()) {
+                WindowLease lease = windows[window.ordinal()];
+                if (limits.of(window) <= 0 || lease.left < 0) {
+                    continue;
+                }
+                long left = lease.available == 0 && now < lease.exhaustedUntil ? 0 : lease.available + lease.left;
+                if (left < remaining) {
+                    remaining = left;
+                    constrained = window;
+                }
+            }
+            long reset = (Math.max(now, windows[constrained.ordinal()].fullAt) + 999) / 1000;
+            return new RateLimitDecision(outcome, constrained, limits.of(constrained),
+                    remaining == Long.MAX_VALUE ? -1 : remaining, reset);
+        }
+
+    }
+
+}
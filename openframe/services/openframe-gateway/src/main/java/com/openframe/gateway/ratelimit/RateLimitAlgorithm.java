@@ -0,0 +1,30 @@
+package com.openframe.gateway.ratelimit;
+
+/**
+ * How the gateway counts API key requests, selected with {@code openframe.rate-limit.algorithm}.
+ */
+public enum RateLimitAlgorithm {
+
+    /**
+     * Counters per calendar minute, hour and day, kept by the rate limiter of the gateway core. Up
+     * to twice the limit can pass around a window boundary.
+     */
+    FIXED_WINDOW,
+
+    /**
+     * Sliding window estimated from the current and the previous window's counters.
+     */
+    SLIDING_WINDOW,
+
+    /**
+     * Generic cell rate algorithm, a token bucket per window refilled at {@code limit} tokens per
+     * window that holds {@code gcra.burst-ratio * limit} tokens, at least {@code gcra.min-burst}. With {@code local.enabled}, served
+     * from per-replica token leases.
+     */
+    GCRA;
+
+    public String tag() {
+        return name().toLowerCase();
+    }
+
+}
@@ -0,0 +1,51 @@
+package com.openframe.gateway.ratelimit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+
+import java.time.Clock;
+
+/**
+ * Registers the gateway rate limiter selected by {@code openframe.rate-limit.algorithm}: the
+ * scripted sliding window or GCRA limiter, or for GCRA with {@code local.enabled} the token lease
+ * limiter.
+ * <p>
+ * It enforces the API key limits in place of the Redis limiter of the gateway core, which
+ * {@link CoreRateLimitEnvironmentPostProcessor} turns off while this one is active.
+ */
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+@Conditional(RateLimitFilterCondition.class)
+public class RateLimitConfiguration {
+
+    @Bean
+    public ApiKeyRateLimiter apiKeyRateLimiter(ReactiveStringRedisTemplate redisTemplate,
+                                          RateLimitProperties properties,
+                                          MeterRegistry meterRegistry) {
+        if (properties.getAlgorithm() == RateLimitAlgorithm.GCRA && properties.getLocal().isEnabled()) {
+            return new LocalRateLimiter(
+                    new RedisQuotaReserver(redisTemplate, properties, meterRegistry), properties, Clock.systemUTC(), meterRegistry);
+        }
+        return new ScriptedRateLimiter(redisTemplate, properties, properties.getAlgorithm(), Clock.systemUTC(), meterRegistry);
+    }
+
+    @Bean
+    public ApiKeyRateLimitResolver apiKeyRateLimitResolver(RateLimitProperties properties,
+                                                           ObjectProvider<ReactiveMongoTemplate> mongoTemplate) {
+        return new ApiKeyRateLimitResolver(properties, mongoTemplate);
+    }
+
+    @Bean
+    public RateLimitFilter rateLimitFilter(ApiKeyRateLimiter rateLimiter,
+                                           ApiKeyRateLimitResolver limitsResolver,
+                                           RateLimitProperties properties) {
+        return new RateLimitFilter(rateLimiter, limitsResolver, properties);
+    }
+
+}
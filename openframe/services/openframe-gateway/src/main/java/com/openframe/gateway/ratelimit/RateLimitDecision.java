@@ -0,0 +1,28 @@
+package com.openframe.gateway.ratelimit;
+
+/**
+ * Outcome of a rate limit check, with the figures of the most constrained window for the
+ * {@code X-RateLimit-*} headers.
+ *
+ * @param remaining estimate of the requests left in the window, {@code -1} if unknown
+ */
+public record RateLimitDecision(Outcome outcome, RateLimitWindow window, int limit, long remaining, long resetEpochSecond) {
+
+    public enum Outcome {
+        ALLOWED, DENIED, FAIL_OPEN, UNAVAILABLE
+    }
+
+    /**
+     * Decision for a request that could not be checked against Redis, reported against the minute window.
+     */
+    public static RateLimitDecision unchecked(Outcome outcome, RateLimits limits, long nowMillis) {
+        RateLimitWindow window = RateLimitWindow.MINUTE;
+        return new RateLimitDecision(outcome, window, limits.of(window), -1,
+                window.startOf(nowMillis / 1000) + window.getSeconds());
+    }
+
+    public boolean isAllowed() {
+        return outcome == Outcome.ALLOWED || outcome == Outcome.FAIL_OPEN;
+    }
+
+}
@@ -0,0 +1,89 @@
+package com.openframe.gateway.ratelimit;
+
+import com.openframe.gateway.apikey.ApiKeys;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Applies the gateway rate limiter to requests authenticated with an {@code X-API-Key} header.
+ * <p>
+ * Limits are kept per validated key id, the {@code ak_...} part of the key, so made-up ids never
+ * reach MongoDB or Redis; requests without an authenticated principal pass unchecked, they are
+ * rejected by the security chain or are public. The secret is never used here. Rejected requests
+ * get {@code 429} with the documented error body and {@code Retry-After}, and with
+ * {@code include-headers} every response carries the {@code X-RateLimit-*} headers of the most
+ * constrained window.
+ */
+@RequiredArgsConstructor
+public class RateLimitFilter implements GlobalFilter, Ordered {
+
+    /**
+     * After the filters of the gateway core and ahead of cached, coalesced and proxied responses,
+     * so rejected requests are never served.
+     */
+    public static final int ORDER = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 10;
+
+    private final ApiKeyRateLimiter rateLimiter;
+    private final ApiKeyRateLimitResolver limitsResolver;
+    private final RateLimitProperties properties;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        return ApiKeys.validatedKeyIdOf(exchange)
+                .flatMap(keyId -> limitsResolver.resolve(keyId).flatMap(limits -> rateLimiter.acquire(keyId, limits)))
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(decision -> decision.isPresent() ? apply(decision.get(), exchange, chain) : chain.filter(exchange));
+    }
+
+    private Mono<Void> apply(RateLimitDecision decision, ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (properties.isIncludeHeaders() && decision.remaining() >= 0) {
+            addHeaders(exchange.getResponse().getHeaders(), decision);
+        }
+        return switch (decision.outcome()) {
+            case ALLOWED, FAIL_OPEN -> chain.filter(exchange);
+            case DENIED -> reject(exchange.getResponse(), HttpStatus.TOO_MANY_REQUESTS, decision);
+            case UNAVAILABLE -> reject(exchange.getResponse(), HttpStatus.SERVICE_UNAVAILABLE, decision);
+        };
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    private static void addHeaders(HttpHeaders headers, RateLimitDecision decision) {
+        headers.set("X-RateLimit-Limit", Integer.toString(decision.limit()));
+        headers.set("X-RateLimit-Remaining", Long.toString(decision.remaining()));
+        headers.set("X-RateLimit-Reset", Long.toString(decision.resetEpochSecond()));
+        headers.set("X-RateLimit-Window", Long.toString(decision.window().getSeconds()));
+    }
+
+    private static Mono<Void> reject(ServerHttpResponse response, HttpStatus status, RateLimitDecision decision) {
+        long retryAfter = Math.max(1, decision.resetEpochSecond() - Instant.now().getEpochSecond());
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+        String body = status == HttpStatus.TOO_MANY_REQUESTS
+                ? "{\"error\":\"rate_limit_exceeded\",\"message\":\"Rate limit exceeded\",\"retryAfter\":%d,\"timestamp\":\"%s\"}"
+                : "{\"error\":\"rate_limit_unavailable\",\"message\":\"Rate limit could not be checked\",\"retryAfter\":%d,\"timestamp\":\"%s\"}";
+        DataBuffer buffer = response.bufferFactory()
+                .wrap(body.formatted(retryAfter, Instant.now()).getBytes(StandardCharsets.UTF_8));
+        return response.writeWith(Mono.just(buffer));
+    }
+
+}
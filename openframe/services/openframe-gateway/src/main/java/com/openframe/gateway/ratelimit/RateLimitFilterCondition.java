@@ -0,0 +1,30 @@
+package com.openframe.gateway.ratelimit;
+
+import org.springframework.boot.autoconfigure.condition.ConditionOutcome;
+import org.springframework.boot.autoconfigure.condition.SpringBootCondition;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.core.env.Environment;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+
+/**
+ * Matches when the gateway limiter is selected, that is when {@code openframe.rate-limit.algorithm}
+ * is a sliding window or GCRA.
+ */
+class RateLimitFilterCondition extends SpringBootCondition {
+
+    @Override
+    public ConditionOutcome getMatchOutcome(ConditionContext context, AnnotatedTypeMetadata metadata) {
+        RateLimitAlgorithm algorithm = algorithmOf(context.getEnvironment());
+        return algorithm != RateLimitAlgorithm.FIXED_WINDOW
+                ? ConditionOutcome.match("rate limit algorithm is " + algorithm)
+                : ConditionOutcome.noMatch("fixed window rate limits are left to the gateway core");
+    }
+
+    static RateLimitAlgorithm algorithmOf(Environment environment) {
+        return Binder.get(environment)
+                .bind("openframe.rate-limit.algorithm", RateLimitAlgorithm.class)
+                .orElse(RateLimitAlgorithm.FIXED_WINDOW);
+    }
+
+}
@@ -0,0 +1,117 @@
+package com.openframe.gateway.ratelimit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * API key rate limits, bound from {@code openframe.rate-limit}.
+ * <p>
+ * The defaults, {@code redis-ttl}, {@code fail-open}, {@code log-violations} and
+ * {@code include-headers} are shared with the Redis limiter of the gateway core. {@code algorithm}
+ * selects the gateway limiter; {@code local} serves the GCRA token buckets from per-replica
+ * token leases.
+ */
+@Data
+@ConfigurationProperties(prefix = "openframe.rate-limit")
+public class RateLimitProperties {
+
+    private int defaultRequestsPerMinute = 60;
+
+    private int defaultRequestsPerHour = 1000;
+
+    private int defaultRequestsPerDay = 10000;
+
+    /**
+     * TTL of the Redis counters in seconds; day counters live at least one day.
+     */
+    private long redisTtl = 7200;
+
+    private boolean failOpen = true;
+
+    private boolean logViolations = true;
+
+    private boolean includeHeaders = true;
+
+    /**
+     * How long the per-key limits read from {@code api_keys} are cached by the gateway limiter.
+     */
+    private Duration limitsCacheTtl = Duration.ofMinutes(5);
+
+    private RateLimitAlgorithm algorithm = RateLimitAlgorithm.FIXED_WINDOW;
+
+    private Local local = new Local();
+
+    private Gcra gcra = new Gcra();
+
+    @Data
+    public static class Local {
+
+        /**
+         * Serves {@code gcra} from token leases instead of one Redis call per request.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Share of a window's limit one replica may lease at once. The limit can be exceeded by at
+         * most {@code tolerance * limit} per replica, and is under-admitted by at most that much
+         * until idle leases are returned.
+         */
+        private double tolerance = 0.05;
+
+        /**
+         * Upper bound of tokens leased per Redis call.
+         */
+        private int maxChunk = 100;
+
+        /**
+         * How often idle leases are returned to Redis and idle keys dropped, and the longest a key
+         * is denied locally before Redis is asked again.
+         */
+        private Duration reconcileInterval = Duration.ofSeconds(5);
+
+        /**
+         * Leases unused for this long are returned so other replicas can use them.
+         */
+        private Duration idleRelease = Duration.ofSeconds(10);
+
+        /**
+         * With {@code fail-open}, requests are admitted without Redis for this long after a Redis failure.
+         */
+        private Duration failOpenBackoff = Duration.ofSeconds(1);
+
+        private String keyPrefix = "rate_limit:lease:";
+
+    }
+
+    @Data
+    public static class Gcra {
+
+        /**
+         * Requests a key may send at once, as a share of the per-minute limit. Any minute admits at
+         * most {@code limit} plus the burst. The hour and day buckets always hold their full limit,
+         * so they stay quotas rather than being smoothed into a rate.
+         */
+        private double burstRatio = 0.1;
+
+        /**
+         * Smallest per-minute burst, so that keys with low limits can still send a few requests in
+         * a row. Never more than the limit.
+         */
+        private int minBurst = 3;
+
+        /**
+         * @return the token bucket capacity of the window with the given limit
+         */
+        public long burstOf(RateLimitWindow window, long limit) {
+            if (window != RateLimitWindow.MINUTE) {
+                return Math.max(1, limit);
+            }
+            long burst = Math.max(minBurst, (long) Math.ceil(limit * burstRatio));
+            return Math.max(1, Math.min(burst, limit));
+        }
+
+    }
+
+}
@@ -0,0 +1,30 @@
+package com.openframe.gateway.ratelimit;
+
+/**
+ * Fixed windows counted per API key.
+ */
+public enum RateLimitWindow {
+
+    MINUTE(60),
+    HOUR(3600),
+    DAY(86400);
+
+    private final long seconds;
+
+    RateLimitWindow(long seconds) {
+        this.seconds = seconds;
+    }
+
+    public long getSeconds() {
+        return seconds;
+    }
+
+    public long startOf(long epochSecond) {
+        return epochSecond - epochSecond % seconds;
+    }
+
+    public String tag() {
+        return name().toLowerCase();
+    }
+
+}
@@ -0,0 +1,16 @@
+package com.openframe.gateway.ratelimit;
+
+/**
+ * Request limits of one API key per window.
+ */
+public record RateLimits(int perMinute, int perHour, int perDay) {
+
+    public int of(RateLimitWindow window) {
+        return switch (window) {
+            case MINUTE -> perMinute;
+            case HOUR -> perHour;
+            case DAY -> perDay;
+        };
+    }
+
+}
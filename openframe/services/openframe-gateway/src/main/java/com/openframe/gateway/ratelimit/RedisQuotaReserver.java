@@ -0,0 +1,158 @@
+package com.openframe.gateway.ratelimit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Leases chunks of tokens from the shared per-window token buckets in Redis.
+ * <p>
+ * Each bucket is stored as the theoretical arrival time of the generic cell rate algorithm: it
+ * refills at {@code limit} tokens per window and holds at most {@code burst} tokens. A reservation
+ * is one script call covering every window that needs tokens and takes from each bucket the
+ * requested chunk or what is left of it, so a replica only receives tokens the bucket holds.
+ * Unused tokens are handed back with {@link #release}; a bucket never holds more than its burst.
+ * Times are taken from the gateway clock, so replicas should be NTP-synchronised.
+ */
+@RequiredArgsConstructor
+public class RedisQuotaReserver {
+
+    /**
+     * KEYS: one arrival time per window. ARGV: now in ms, then interval in ms, burst and chunk per
+     * window; a chunk of 0 only reads the bucket. Returns per window the granted tokens, the tokens
+     * left in the bucket and the ms until it holds its next token.
+     */
+    private static final RedisScript<List> RESERVE = RedisScript.of("""
+            local now = tonumber(ARGV[1])
+            local result = {}
+            for i, key in ipairs(KEYS) do
+              local interval = tonumber(ARGV[i * 3 - 1])
+              local burst = tonumber(ARGV[i * 3])
+              local chunk = tonumber(ARGV[i * 3 + 1])
+              local arrival = math.max(tonumber(redis.call('GET', key) or '0'), now)
+              local available = math.floor((now + burst * interval - arrival) / interval)
+              local granted = math.max(0, math.min(chunk, available))
+              if granted > 0 then
+                arrival = arrival + granted * interval
+                redis.call('SET', key, string.format('%.3f', arrival), 'PX', math.ceil(arrival - now))
+              end
+              result[#result + 1] = granted
+              result[#result + 1] = math.max(0, available - granted)
+              result[#result + 1] = math.ceil(math.max(0, arrival + interval - burst * interval - now))
+            end
+            return result
+            """, List.class);
+
+    /**
+     * KEYS: one arrival time per window. ARGV: now in ms, then interval in ms and tokens to return per window.
+     */
+    private static final RedisScript<Long> RELEASE = RedisScript.of("""
+            local now = tonumber(ARGV[1])
+            for i, key in ipairs(KEYS) do
+              local arrival = tonumber(redis.call('GET', key) or '0')
+              if arrival > now then
+                arrival = arrival - tonumber(ARGV[i * 2]) * tonumber(ARGV[i * 2 + 1])
+                if arrival > now then
+                  redis.call('SET', key, string.format('%.3f', arrival), 'PX', math.ceil(arrival - now))
+                else
+                  redis.call('DEL', key)
+                end
+              end
+            end
+            return 1
+            """, Long.class);
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final RateLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * @param requests windows to lease from, in any order
+     * @return one grant per request, in the same order
+     */
+    public Mono<List<Grant>> reserve(String keyId, List<Request> requests, long nowMillis) {
+        List<String> keys = new ArrayList<>(requests.size());
+        List<String> args = new ArrayList<>(1 + requests.size() * 3);
+        args.add(Long.toString(nowMillis));
+        for (Request request : requests) {
+            keys.add(bucketKey(keyId, request.window()));
+            args.add(Double.toString(intervalOf(request.window(), request.limit())));
+            args.add(Long.toString(request.burst()));
+            args.add(Long.toString(request.tokens()));
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return redisTemplate.execute(RESERVE, keys, args)
+                .next()
+                .map(result -> toGrants(result, requests.size()))
+                .doOnSuccess(grants -> sample.stop(timer("reserve", "success")))
+                .doOnError(e -> sample.stop(timer("reserve", "error")));
+    }
+
+    /**
+     * @param returns windows and the number of tokens to give back for each
+     */
+    public Mono<Void> release(String keyId, List<Request> returns, long nowMillis) {
+        List<String> keys = new ArrayList<>(returns.size());
+        List<String> args = new ArrayList<>(1 + returns.size() * 2);
+        args.add(Long.toString(nowMillis));
+        for (Request request : returns) {
+            keys.add(bucketKey(keyId, request.window()));
+            args.add(Double.toString(intervalOf(request.window(), request.limit())));
+            args.add(Long.toString(request.tokens()));
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return redisTemplate.execute(RELEASE, keys, args)
+                .then()
+                .doOnSuccess(ignored -> sample.stop(timer("release", "success")))
+                .doOnError(e -> sample.stop(timer("release", "error")));
+    }
+
+    String bucketKey(String keyId, RateLimitWindow window) {
+        return properties.getLocal().getKeyPrefix() + "{" + keyId + "}:" + window.tag();
+    }
+
+    private static double intervalOf(RateLimitWindow window, long limit) {
+        return window.getSeconds() * 1000.0 / limit;
+    }
+
+    private Timer timer(String operation, String outcome) {
+        return Timer.builder("openframe.gateway.ratelimit.redis")
+                .description("Redis round trips of the gateway rate limiter")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static List<Grant> toGrants(List<?> result, int size) {
+        List<Grant> grants = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            grants.add(new Grant(toLong(result.get(i * 3)), toLong(result.get(i * 3 + 1)), toLong(result.get(i * 3 + 2))));
+        }
+        return grants;
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number number ? number.longValue() : Long.parseLong(value.toString());
+    }
+
+    /**
+     * @param tokens tokens to lease, or to return on release
+     */
+    public record Request(RateLimitWindow window, long limit, long burst, long tokens) {
+    }
+
+    /**
+     * @param granted     tokens leased to this replica
+     * @param left        tokens left in the bucket for all replicas
+     * @param nextTokenIn ms until the bucket holds a token again, {@code 0} if it holds some
+     */
+    public record Grant(long granted, long left, long nextTokenIn) {
+    }
+
+}
@@ -0,0 +1,206 @@
+package com.openframe.gateway.ratelimit;
+
+import com.openframe.gateway.ratelimit.RateLimitDecision.Outcome;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rate limiter that checks and counts a request against all windows of a key in one Lua script,
+ * sent as {@code EVALSHA} (the template falls back to {@code EVAL} once if Redis does not know the
+ * script yet).
+ * <p>
+ * {@link RateLimitAlgorithm#SLIDING_WINDOW} keeps the current and previous window's counts in one
+ * hash per window and weighs the previous count by the share of it still inside the sliding
+ * window. {@link RateLimitAlgorithm#GCRA} keeps one theoretical arrival time per window. Either
+ * way a request is only counted if every window admits it, and a key costs one Redis round trip
+ * per request. Times are taken from the gateway clock, so replicas should be NTP-synchronised.
+ */
+@Slf4j
+public class ScriptedRateLimiter implements ApiKeyRateLimiter {
+
+    /**
+     * KEYS: one hash per window. ARGV: now in ms, then period in ms and limit per window.
+     * Returns allowed, 1-based index of the reported window, remaining, and ms until that window
+     * resets (allowed) or until the request would be admitted (denied).
+     */
+    private static final RedisScript<List> SLIDING_WINDOW = RedisScript.of("""
+            local now = tonumber(ARGV[1])
+            local states = {}
+            local denied, retry = 0, 0
+            local reported, minRemaining, reset = 1, -1, 0
+            for i, key in ipairs(KEYS) do
+              local period = tonumber(ARGV[i * 2])
+              local limit = tonumber(ARGV[i * 2 + 1])
+              local start = now - (now % period)
+              local state = redis.call('HMGET', key, 's', 'c', 'p')
+              local previousStart = tonumber(state[1])
+              local current = tonumber(state[2]) or 0
+              local previous = tonumber(state[3]) or 0
+              if previousStart ~= start then
+                if previousStart == start - period then previous = current else previous = 0 end
+                current = 0
+              end
+              local estimate = previous * (period - (now - start)) / period + current
+              if estimate + 1 > limit then
+                local wait = start + period - now
+                if current + 1 <= limit and previous > 0 then
+                  wait = math.min(wait, (estimate + 1 - limit) * period / previous)
+                end
+                if wait > retry then denied, retry = i, wait end
+              end
+              states[i] = {start, current, previous, period}
+              local remaining = math.max(0, math.floor(limit - estimate - 1))
+              if minRemaining < 0 or remaining < minRemaining then
+                reported, minRemaining, reset = i, remaining, start + period - now
+              end
+            end
+            if denied > 0 then
+              return {0, denied, 0, math.ceil(retry)}
+            end
+            for i, key in ipairs(KEYS) do
+              local state = states[i]
+              redis.call('HSET', key, 's', state[1], 'c', state[2] + 1, 'p', state[3])
+              redis.call('PEXPIRE', key, state[4] * 2)
+            end
+            return {1, reported, minRemaining, math.ceil(reset)}
+            """, List.class);
+
+    /**
+     * KEYS: one theoretical arrival time per window. ARGV: now in ms, then period in ms, limit and
+     * burst per window. Returns the same fields as the sliding window script.
+     */
+    private static final RedisScript<List> GCRA = RedisScript.of("""
+            local now = tonumber(ARGV[1])
+            local arrivals = {}
+            local denied, retry = 0, 0
+            local reported, minRemaining = 1, -1
+            for i, key in ipairs(KEYS) do
+              local interval = tonumber(ARGV[i * 3 - 1]) / tonumber(ARGV[i * 3])
+              local burst = tonumber(ARGV[i * 3 + 1])
+              local arrival = math.max(tonumber(redis.call('GET', key) or '0'), now) + interval
+              local allowAt = arrival - burst * interval
+              if now < allowAt and allowAt - now > retry then
+                denied, retry = i, allowAt - now
+              end
+              arrivals[i] = arrival
+              local remaining = math.max(0, math.floor((now - allowAt) / interval))
+              if minRemaining < 0 or remaining < minRemaining then
+                reported, minRemaining = i, remaining
+              end
+            end
+            if denied > 0 then
+              return {0, denied, 0, math.ceil(retry)}
+            end
+            for i, key in ipairs(KEYS) do
+              redis.call('SET', key, string.format('%.3f', arrivals[i]), 'PX', math.ceil(arrivals[i] - now))
+            end
+            return {1, reported, minRemaining, math.ceil(arrivals[reported] - now)}
+            """, List.class);
+
+    private static final String KEY_PREFIX = "rate_limit:";
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final RateLimitProperties properties;
+    private final RateLimitAlgorithm algorithm;
+    private final Clock clock;
+    private final MeterRegistry meterRegistry;
+    private final Map<Outcome, Counter> outcomes = new EnumMap<>(Outcome.class);
+
+    public ScriptedRateLimiter(ReactiveStringRedisTemplate redisTemplate, RateLimitProperties properties,
+                               RateLimitAlgorithm algorithm, Clock clock, MeterRegistry meterRegistry) {
+        if (algorithm == RateLimitAlgorithm.FIXED_WINDOW) {
+            throw new IllegalArgumentException("Fixed windows are counted by the rate limiter of the gateway core");
+        }
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+        this.algorithm = algorithm;
+        this.clock = clock;
+        this.meterRegistry = meterRegistry;
+        for (Outcome outcome : Outcome.values()) {
+            outcomes.put(outcome, Counter.builder("openframe.gateway.ratelimit.requests")
+                    .description("API key requests checked by the gateway rate limiter")
+                    .tag("algorithm", algorithm.tag())
+                    .tag("outcome", outcome.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    public Mono<RateLimitDecision> acquire(String keyId, RateLimits limits) {
+        long now = clock.millis();
+        List<RateLimitWindow> windows = new ArrayList<>(RateLimitWindow.values().length);
+        List<String> keys = new ArrayList<>(RateLimitWindow.values().length);
+        List<String> args = new ArrayList<>(1 + RateLimitWindow.values().length * 3);
+        args.add(Long.toString(now));
+        for (RateLimitWindow window : RateLimitWindow.values()) {
+            int limit = limits.of(window);
+            if (limit <= 0) {
+                continue;
+            }
+            windows.add(window);
+            keys.add(KEY_PREFIX + algorithm.tag() + ":{" + keyId + "}:" + window.tag());
+            args.add(Long.toString(window.getSeconds() * 1000));
+            args.add(Integer.toString(limit));
+            if (algorithm == RateLimitAlgorithm.GCRA) {
+                args.add(Long.toString(properties.getGcra().burstOf(window, limit)));
+            }
+        }
+        if (windows.isEmpty()) {
+            return Mono.just(new RateLimitDecision(Outcome.ALLOWED, RateLimitWindow.MINUTE, 0, -1, now / 1000));
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return redisTemplate.execute(algorithm == RateLimitAlgorithm.GCRA ? GCRA : SLIDING_WINDOW, keys, args)
+                .next()
+                .doOnSuccess(result -> sample.stop(timer("success")))
+                .doOnError(e -> sample.stop(timer("error")))
+                .map(result -> toDecision(keyId, result, windows, limits, now))
+                .onErrorResume(e -> Mono.just(unchecked(keyId, limits, e)))
+                .doOnNext(decision -> outcomes.get(decision.outcome()).increment());
+    }
+
+    private RateLimitDecision toDecision(String keyId, List<?> result, List<RateLimitWindow> windows,
+                                         RateLimits limits, long now) {
+        boolean allowed = toLong(result.get(0)) == 1;
+        RateLimitWindow window = windows.get((int) toLong(result.get(1)) - 1);
+        long remaining = toLong(result.get(2));
+        long resetEpochSecond = (now + toLong(result.get(3)) + 999) / 1000;
+        if (!allowed && properties.isLogViolations()) {
+            log.warn("Rate limit exceeded for API key {} ({} window, limit {})", keyId, window.tag(), limits.of(window));
+        }
+        return new RateLimitDecision(allowed ? Outcome.ALLOWED : Outcome.DENIED, window, limits.of(window),
+                remaining, resetEpochSecond);
+    }
+
+    private RateLimitDecision unchecked(String keyId, RateLimits limits, Throwable error) {
+        if (properties.isFailOpen()) {
+            log.warn("Rate limit for key {} could not be checked, admitting request: {}", keyId, error.getMessage());
+            return RateLimitDecision.unchecked(Outcome.FAIL_OPEN, limits, clock.millis());
+        }
+        log.error("Rate limit for key {} could not be checked, rejecting request: {}", keyId, error.getMessage());
+        return RateLimitDecision.unchecked(Outcome.UNAVAILABLE, limits, clock.millis());
+    }
+
+    private Timer timer(String outcome) {
+        return Timer.builder("openframe.gateway.ratelimit.redis")
+                .description("Redis round trips of the gateway rate limiter")
+                .tag("operation", algorithm.tag())
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number number ? number.longValue() : Long.parseLong(value.toString());
+    }
+
+}
@@ -0,0 +1,211 @@
+package com.openframe.gateway.reads;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lexical helpers for deciding whether a GraphQL document is a read, without a schema.
+ * <p>
+ * Only documents holding a single query operation are considered; mutations, subscriptions,
+ * fragments and spreads at the root are never reads.
+ */
+public final class GraphQLQueries {
+
+    private GraphQLQueries() {
+    }
+
+    /**
+     * Drops comments, commas and insignificant whitespace, so that differently formatted copies of a
+     * query share one key. String literals are kept as written.
+     */
+    public static String normalize(String query) {
+        StringBuilder normalized = new StringBuilder(query.length());
+        boolean separated = false;
+        int length = query.length();
+        int i = 0;
+        while (i < length) {
+            char c = query.charAt(i);
+            if (c == '#') {
+                while (i < length && query.charAt(i) != '\n' && query.charAt(i) != '\r') {
+                    i++;
+                }
+                separated = true;
+                continue;
+            }
+            if (Character.isWhitespace(c) || c == ',' || c == '\uFEFF') {
+                separated = true;
+                i++;
+                continue;
+            }
+            if (separated && !normalized.isEmpty() && isNamePart(normalized.charAt(normalized.length() - 1))
+                    && isNamePart(c)) {
+                normalized.append(' ');
+            }
+            separated = false;
+            if (c == '"') {
+                int end = stringEnd(query, i);
+                normalized.append(query, i, end);
+                i = end;
+            } else {
+                normalized.append(c);
+                i++;
+            }
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * @param normalized a query as returned by {@link #normalize(String)}
+     * @return the root fields selected by the query, by name rather than alias, or {@code null} if
+     * the document is not a single query operation made of plain fields
+     */
+    public static List<String> rootFields(String normalized) {
+        int selection;
+        if (normalized.startsWith("{")) {
+            selection = 0;
+        } else if (normalized.startsWith("query") && (normalized.length() == 5 || !isNamePart(normalized.charAt(5)))) {
+            selection = selectionSetStart(normalized, 5);
+        } else {
+            return null;
+        }
+        if (selection < 0) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        int i = skipSpace(normalized, selection + 1);
+        while (i < normalized.length() && normalized.charAt(i) != '}') {
+            if (!isNameStart(normalized.charAt(i))) {
+                return null;
+            }
+            int end = nameEnd(normalized, i);
+            String field = normalized.substring(i, end);
+            i = skipSpace(normalized, end);
+            if (i < normalized.length() && normalized.charAt(i) == ':') {
+                i = skipSpace(normalized, i + 1);
+                if (i >= normalized.length() || !isNameStart(normalized.charAt(i))) {
+                    return null;
+                }
+                end = nameEnd(normalized, i);
+                field = normalized.substring(i, end);
+                i = skipSpace(normalized, end);
+            }
+            i = skipGroup(normalized, i, '(', ')');
+            while (i >= 0 && i < normalized.length() && normalized.charAt(i) == '@') {
+                i = skipGroup(normalized, skipSpace(normalized, nameEnd(normalized, i + 1)), '(', ')');
+            }
+            i = skipGroup(normalized, i, '{', '}');
+            if (i < 0) {
+                return null;
+            }
+            if (!field.equals("__typename")) {
+                fields.add(field);
+            }
+            i = skipSpace(normalized, i);
+        }
+        if (i >= normalized.length() || skipSpace(normalized, i + 1) != normalized.length() || fields.isEmpty()) {
+            return null;
+        }
+        return fields;
+    }
+
+    /**
+     * @return the index of the operation's selection set, skipping its name, variable definitions
+     * (whose defaults may contain braces) and directives, or {@code -1}
+     */
+    private static int selectionSetStart(String query, int from) {
+        int depth = 0;
+        int i = from;
+        while (i < query.length()) {
+            char c = query.charAt(i);
+            if (c == '"') {
+                i = stringEnd(query, i);
+                continue;
+            }
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (c == '{' && depth == 0) {
+                return i;
+            }
+            i++;
+        }
+        return -1;
+    }
+
+    /**
+     * @return the index after the group opened at {@code from}, {@code from} itself if no group
+     * starts there, or {@code -1} if the group is not closed
+     */
+    private static int skipGroup(String query, int from, char open, char close) {
+        if (from < 0 || from >= query.length() || query.charAt(from) != open) {
+            return from;
+        }
+        int depth = 0;
+        int i = from;
+        while (i < query.length()) {
+            char c = query.charAt(i);
+            if (c == '"') {
+                i = stringEnd(query, i);
+                continue;
+            }
+            if (c == open) {
+                depth++;
+            } else if (c == close && --depth == 0) {
+                return skipSpace(query, i + 1);
+            }
+            i++;
+        }
+        return -1;
+    }
+
+    private static int stringEnd(String query, int start) {
+        int length = query.length();
+        if (query.startsWith("\"\"\"", start)) {
+            int i = start + 3;
+            while (i < length) {
+                if (query.charAt(i) == '\\' && query.startsWith("\"\"\"", i + 1)) {
+                    i += 4;
+                } else if (query.startsWith("\"\"\"", i)) {
+                    return i + 3;
+                } else {
+                    i++;
+                }
+            }
+            return length;
+        }
+        int i = start + 1;
+        while (i < length) {
+            char c = query.charAt(i);
+            if (c == '\\') {
+                i += 2;
+            } else if (c == '"' || c == '\n' || c == '\r') {
+                return i + 1;
+            } else {
+                i++;
+            }
+        }
+        return length;
+    }
+
+    private static int skipSpace(String query, int from) {
+        return from < query.length() && query.charAt(from) == ' ' ? from + 1 : from;
+    }
+
+    private static int nameEnd(String query, int from) {
+        int i = from;
+        while (i < query.length() && isNamePart(query.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isNameStart(char c) {
+        return c == '_' || (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+    }
+
+    private static boolean isNamePart(char c) {
+        return isNameStart(c) || (c >= '0' && c <= '9');
+    }
+
+}
@@ -0,0 +1,21 @@
+package com.openframe.gateway.reads;
+
+import java.util.List;
+
+/**
+ * A GraphQL query or REST {@code GET}, identified apart from the caller.
+ *
+ * @param rootFields  distinct root fields of the GraphQL query in sorted order, or {@code null} for
+ *                    a REST read
+ * @param path        request path before route filters strip any prefix
+ * @param fingerprint normalized query, variables with sorted keys, operation name and
+ *                    {@code Accept} of a GraphQL read; path, sorted query string and
+ *                    {@code Accept} of a REST read
+ */
+public record ReadRequest(List<String> rootFields, String path, String fingerprint) {
+
+    public boolean isGraphQL() {
+        return rootFields != null;
+    }
+
+}
@@ -0,0 +1,246 @@
+package com.openframe.gateway.reads;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.openframe.gateway.apikey.ApiKeys;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Recognizes idempotent reads among gateway requests and keys them per caller.
+ * <p>
+ * A GraphQL read is a single query, sent to {@code graphqlPath} as a {@code POST} with a JSON body
+ * or as a {@code GET}; every other {@code GET} is a REST read. Callers are scoped by tenant (token
+ * issuer) and user (token subject), or by the whole API key for API key requests. Unauthenticated
+ * requests have no key.
+ */
+@Slf4j
+public class ReadRequests {
+
+    @FunctionalInterface
+    public interface Handler {
+
+        /**
+         * @param exchange the exchange to continue with; a GraphQL {@code POST} body is replayable
+         */
+        Mono<Void> handle(ServerWebExchange exchange, ReadRequest read);
+
+    }
+
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter canonicalWriter;
+    private final String graphqlPath;
+    private final long maximumRequestSize;
+    private final ThreadLocal<MessageDigest> sha256 = ThreadLocal.withInitial(ReadRequests::newDigest);
+
+    /**
+     * @param graphqlPath        GraphQL endpoint as requested by clients
+     * @param maximumRequestSize larger GraphQL request bodies are not read
+     */
+    public ReadRequests(ObjectMapper objectMapper, String graphqlPath, DataSize maximumRequestSize) {
+        this.objectMapper = objectMapper;
+        this.canonicalWriter = objectMapper.writer().with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+        this.graphqlPath = graphqlPath;
+        this.maximumRequestSize = maximumRequestSize.toBytes();
+    }
+
+    /**
+     * Hands the read the exchange carries to {@code handler}, or continues the chain if the exchange
+     * is not a read.
+     */
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain, Handler handler) {
+        ServerHttpRequest request = exchange.getRequest();
+        HttpMethod method = request.getMethod();
+        if (method != HttpMethod.GET && method != HttpMethod.POST) {
+            return chain.filter(exchange);
+        }
+        URI uri = originalUri(exchange);
+        if (uri.getRawPath().equals(graphqlPath)) {
+            if (method == HttpMethod.POST) {
+                return filterGraphQLPost(exchange, chain, handler);
+            }
+            String variables = request.getQueryParams().getFirst("variables");
+            return handle(exchange, chain, handler, graphQLRead(request, uri, request.getQueryParams().getFirst("query"),
+                    variables == null ? null : readTree(variables), request.getQueryParams().getFirst("operationName")));
+        }
+        return method == HttpMethod.GET ? handler.handle(exchange, restRead(request, uri)) : chain.filter(exchange);
+    }
+
+    /**
+     * @return the SHA-256 of the caller's scope and the read's fingerprint, or nothing if the request
+     * is not authenticated
+     */
+    public Mono<String> keyOf(ServerWebExchange exchange, ReadRequest read) {
+        return scopeOf(exchange).map(scope -> {
+            MessageDigest digest = sha256.get();
+            digest.update(scope.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            return HexFormat.of().formatHex(digest.digest(read.fingerprint().getBytes(StandardCharsets.UTF_8)));
+        });
+    }
+
+    private Mono<Void> filterGraphQLPost(ServerWebExchange exchange, GatewayFilterChain chain, Handler handler) {
+        // Already read by an earlier filter: its request replays the body
+        DataBuffer cached = exchange.getAttribute(ServerWebExchangeUtils.CACHED_REQUEST_BODY_ATTR);
+        if (cached != null) {
+            return handle(exchange, chain, handler, graphQLRead(exchange.getRequest(), originalUri(exchange), cached));
+        }
+        HttpHeaders headers = exchange.getRequest().getHeaders();
+        long length = headers.getContentLength();
+        if (headers.getContentType() == null || !MediaType.APPLICATION_JSON.isCompatibleWith(headers.getContentType())
+                || length <= 0 || length > maximumRequestSize) {
+            return chain.filter(exchange);
+        }
+        return ServerWebExchangeUtils.cacheRequestBody(exchange, request -> {
+            DataBuffer body = exchange.getAttribute(ServerWebExchangeUtils.CACHED_REQUEST_BODY_ATTR);
+            return handle(exchange.mutate().request(request).build(), chain, handler,
+                    body == null ? null : graphQLRead(request, originalUri(exchange), body));
+        });
+    }
+
+    private static Mono<Void> handle(ServerWebExchange exchange, GatewayFilterChain chain, Handler handler,
+                                     ReadRequest read) {
+        return read == null ? chain.filter(exchange) : handler.handle(exchange, read);
+    }
+
+    private ReadRequest graphQLRead(ServerHttpRequest request, URI uri, DataBuffer body) {
+        JsonNode graphQLRequest = readTree(body.toString(StandardCharsets.UTF_8));
+        return graphQLRequest == null || !graphQLRequest.isObject() ? null
+                : graphQLRead(request, uri, graphQLRequest.path("query").textValue(),
+                graphQLRequest.get("variables"), graphQLRequest.path("operationName").textValue());
+    }
+
+    private ReadRequest graphQLRead(ServerHttpRequest request, URI uri, String query, JsonNode variables,
+                                    String operationName) {
+        if (query == null) {
+            return null;
+        }
+        String normalized = GraphQLQueries.normalize(query);
+        List<String> fields = GraphQLQueries.rootFields(normalized);
+        String canonicalVariables = canonical(variables);
+        if (fields == null || canonicalVariables == null) {
+            return null;
+        }
+        String fingerprint = String.join("\n", "graphql", normalized, canonicalVariables,
+                operationName == null ? "" : operationName, acceptOf(request));
+        return new ReadRequest(fields.stream().distinct().sorted().toList(), uri.getRawPath(), fingerprint);
+    }
+
+    private static ReadRequest restRead(ServerHttpRequest request, URI uri) {
+        String query = uri.getRawQuery() == null ? ""
+                : String.join("&", Arrays.stream(uri.getRawQuery().split("&")).sorted().toList());
+        return new ReadRequest(null, uri.getRawPath(),
+                String.join("\n", "rest", uri.getRawPath(), query, acceptOf(request)));
+    }
+
+    /**
+     * @return the tenant of a token-authenticated request, the last path segment of its issuer
+     * ({@code <allowed-issuer-base>/<tenant>}), or nothing for API key and unauthenticated requests
+     */
+    public static Mono<String> tenantOf(ServerWebExchange exchange) {
+        if (ApiKeys.keyIdOf(exchange.getRequest()) != null) {
+            return Mono.empty();
+        }
+        return jwtOf().mapNotNull(jwt -> {
+            String issuer = jwt.getClaimAsString("iss");
+            if (issuer == null) {
+                return null;
+            }
+            String trimmed = issuer.endsWith("/") ? issuer.substring(0, issuer.length() - 1) : issuer;
+            return trimmed.substring(trimmed.lastIndexOf('/') + 1);
+        });
+    }
+
+    /**
+     * @return the tenant and user of the request, or nothing if it is not authenticated
+     */
+    private static Mono<String> scopeOf(ServerWebExchange exchange) {
+        String apiKey = exchange.getRequest().getHeaders().getFirst(ApiKeys.API_KEY_HEADER);
+        if (ApiKeys.keyIdOf(apiKey) != null) {
+            // The whole key: only the holder of the secret that got the response can read it back
+            return Mono.just("api-key\n" + apiKey);
+        }
+        return jwtOf().map(jwt -> "jwt\n" + jwt.getClaimAsString("iss") + "\n" + jwt.getSubject());
+    }
+
+    private static Mono<Jwt> jwtOf() {
+        return ReactiveSecurityContextHolder.getContext()
+                .mapNotNull(SecurityContext::getAuthentication)
+                .filter(Authentication::isAuthenticated)
+                .filter(JwtAuthenticationToken.class::isInstance)
+                .map(authentication -> ((JwtAuthenticationToken) authentication).getToken());
+    }
+
+    /**
+     * @return the variables as JSON with sorted keys, {@code {}} if there are none, or {@code null}
+     * if they are not an object
+     */
+    private String canonical(JsonNode variables) {
+        if (variables == null || variables.isNull()) {
+            return "{}";
+        }
+        if (!variables.isObject()) {
+            return null;
+        }
+        try {
+            return canonicalWriter.writeValueAsString(objectMapper.convertValue(variables, Map.class));
+        } catch (IOException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private JsonNode readTree(String json) {
+        try {
+            return objectMapper.readTree(json);
+        } catch (IOException e) {
+            log.debug("Not treating a request with unreadable JSON as a read: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static String acceptOf(ServerHttpRequest request) {
+        String accept = request.getHeaders().getFirst(HttpHeaders.ACCEPT);
+        return accept == null ? "" : accept;
+    }
+
+    private static URI originalUri(ServerWebExchange exchange) {
+        Set<URI> uris = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ORIGINAL_REQUEST_URL_ATTR);
+        return uris == null || uris.isEmpty() ? exchange.getRequest().getURI() : uris.iterator().next();
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+}
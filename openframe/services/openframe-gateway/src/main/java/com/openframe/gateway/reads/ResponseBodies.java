@@ -0,0 +1,69 @@
+package com.openframe.gateway.reads;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Collects response bodies of reads without holding more than a size limit.
+ */
+public final class ResponseBodies {
+
+    private ResponseBodies() {
+    }
+
+    /**
+     * Buffers {@code body} until it completes or grows beyond {@code limit} bytes.
+     *
+     * @param complete receives the whole body if it stayed within the limit
+     * @param overflow receives the buffers held so far followed by the rest of the body otherwise
+     */
+    public static Mono<Void> collect(Publisher<? extends DataBuffer> body, long limit,
+                                     Function<byte[], Mono<Void>> complete,
+                                     Function<Flux<DataBuffer>, Mono<Void>> overflow) {
+        return Flux.defer(() -> {
+                    long[] size = {0};
+                    return Flux.from(body)
+                            .map(DataBuffer.class::cast)
+                            .bufferUntil(buffer -> (size[0] += buffer.readableByteCount()) > limit);
+                })
+                .switchOnFirst((first, chunks) -> {
+                    if (first.hasValue() && sizeOf(first.get()) > limit) {
+                        return overflow.apply(chunks.concatMapIterable(Function.identity()));
+                    }
+                    // Within the limit the body completed with its first chunk
+                    return chunks.next()
+                            .map(ResponseBodies::toBytes)
+                            .defaultIfEmpty(new byte[0])
+                            .flatMap(complete);
+                })
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                .then();
+    }
+
+    private static long sizeOf(List<DataBuffer> buffers) {
+        long size = 0;
+        for (DataBuffer buffer : buffers) {
+            size += buffer.readableByteCount();
+        }
+        return size;
+    }
+
+    private static byte[] toBytes(List<DataBuffer> buffers) {
+        byte[] bytes = new byte[Math.toIntExact(sizeOf(buffers))];
+        int offset = 0;
+        for (DataBuffer buffer : buffers) {
+            int length = buffer.readableByteCount();
+            buffer.read(bytes, offset, length);
+            offset += length;
+            DataBufferUtils.release(buffer);
+        }
+        return bytes;
+    }
+
+}
@@ -0,0 +1,36 @@
+package com.openframe.gateway.responsecache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An allow-listed read request.
+ *
+ * @param name GraphQL root fields or REST path pattern, used as the metric tag
+ * @param ttl  how long the response is kept
+ * @param tags invalidation tags of the response
+ */
+public record CacheableRead(String name, Duration ttl, List<String> tags) {
+
+    /**
+     * @param tenant the caller's tenant, empty if the caller has none
+     * @return this read carrying each tag both as is and scoped to the tenant
+     */
+    public CacheableRead scopedTo(String tenant) {
+        List<String> scoped = new ArrayList<>(tags.size() * 2);
+        for (String tag : tags) {
+            scoped.add(tag);
+            scoped.add(tenantTag(tag, tenant));
+        }
+        return new CacheableRead(name, ttl, List.copyOf(scoped));
+    }
+
+    /**
+     * @param tenant a tenant, or empty for callers without one
+     */
+    public static String tenantTag(String tag, String tenant) {
+        return tag + "@" + tenant;
+    }
+
+}
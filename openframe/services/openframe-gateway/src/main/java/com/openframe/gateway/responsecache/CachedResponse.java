@@ -0,0 +1,64 @@
+package com.openframe.gateway.responsecache;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * A cached {@code 200} response: its body, content type and strong entity tag.
+ */
+public record CachedResponse(byte[] body, String contentType, String etag) {
+
+    /**
+     * @return the response with a strong entity tag derived from the SHA-256 of its body
+     */
+    public static CachedResponse of(byte[] body, String contentType) {
+        return new CachedResponse(body, contentType, etagOf(body));
+    }
+
+    public static String etagOf(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 16)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * @return {@code <etag>\n<content type>\n<body>}, as stored in Redis
+     */
+    byte[] encode() {
+        byte[] head = (etag + "\n" + contentType + "\n").getBytes(StandardCharsets.UTF_8);
+        byte[] encoded = Arrays.copyOf(head, head.length + body.length);
+        System.arraycopy(body, 0, encoded, head.length, body.length);
+        return encoded;
+    }
+
+    /**
+     * @return the response, or {@code null} if the value is not an encoded response
+     */
+    static CachedResponse decode(byte[] encoded) {
+        int etagEnd = indexOf(encoded, 0);
+        int contentTypeEnd = etagEnd < 0 ? -1 : indexOf(encoded, etagEnd + 1);
+        if (contentTypeEnd < 0) {
+            return null;
+        }
+        return new CachedResponse(
+                Arrays.copyOfRange(encoded, contentTypeEnd + 1, encoded.length),
+                new String(encoded, etagEnd + 1, contentTypeEnd - etagEnd - 1, StandardCharsets.UTF_8),
+                new String(encoded, 0, etagEnd, StandardCharsets.UTF_8));
+    }
+
+    private static int indexOf(byte[] bytes, int from) {
+        for (int i = from; i < bytes.length; i++) {
+            if (bytes[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+}
@@ -0,0 +1,184 @@
+package com.openframe.gateway.responsecache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Responses of allow-listed reads, held in memory and optionally in Redis.
+ * <p>
+ * Every entry carries invalidation tags. Invalidating a tag bumps its generation before dropping
+ * its entries; a response fetched while one of its tags was invalidated is not stored, so that a
+ * read racing a change cannot bring the old data back. In Redis, each tag is a set of the keys
+ * stored under it.
+ */
+@Slf4j
+public class ResponseCache {
+
+    public static final String LOCAL = "local";
+    public static final String REDIS = "redis";
+
+    /**
+     * KEYS[1] entry, KEYS[2..] tag sets; ARGV[1] encoded response, ARGV[2] time to live in ms.
+     */
+    private static final RedisScript<Long> STORE = RedisScript.of("""
+            redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2])
+            for i = 2, #KEYS do
+                redis.call('SADD', KEYS[i], KEYS[1])
+                if redis.call('PTTL', KEYS[i]) < tonumber(ARGV[2]) then
+                    redis.call('PEXPIRE', KEYS[i], ARGV[2])
+                end
+            end
+            return 1
+            """, Long.class);
+
+    /**
+     * KEYS[1] tag set; deletes the set and every entry in it.
+     */
+    private static final RedisScript<Long> INVALIDATE = RedisScript.of("""
+            local keys = redis.call('SMEMBERS', KEYS[1])
+            for i = 1, #keys do
+                redis.call('DEL', keys[i])
+            end
+            redis.call('DEL', KEYS[1])
+            return #keys
+            """, Long.class);
+
+    public record Lookup(CachedResponse response, String tier) {
+    }
+
+    private record Entry(CachedResponse response, Set<String> tags, long ttlNanos) {
+    }
+
+    private final Cache<String, Entry> local;
+    private final ReactiveRedisTemplate<String, byte[]> redisTemplate;
+    private final String keyPrefix;
+    private final ConcurrentMap<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    /**
+     * @param redisTemplate the shared tier, or {@code null} to keep entries in memory only
+     */
+    public ResponseCache(ResponseCacheProperties properties, ReactiveRedisTemplate<String, byte[]> redisTemplate,
+                         MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.keyPrefix = properties.getRedis().getKeyPrefix();
+        this.local = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaximumSize().toBytes())
+                .weigher((String key, Entry entry) -> key.length() + entry.response().body().length)
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String key, Entry entry, long currentTime) {
+                        return entry.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+                        return entry.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, local, "gatewayResponses");
+    }
+
+    /**
+     * @return the cached response and the tier it came from; responses found in Redis are copied
+     * into memory
+     */
+    public Mono<Lookup> get(String key, CacheableRead read) {
+        Entry entry = local.getIfPresent(key);
+        if (entry != null) {
+            return Mono.just(new Lookup(entry.response(), LOCAL));
+        }
+        if (redisTemplate == null) {
+            return Mono.empty();
+        }
+        long[] generation = generations(read.tags());
+        return redisTemplate.opsForValue().get(keyPrefix + key)
+                .mapNotNull(CachedResponse::decode)
+                .doOnNext(response -> putLocal(key, response, read, generation))
+                .map(response -> new Lookup(response, REDIS))
+                .onErrorResume(e -> {
+                    log.warn("Failed to read cached response {} from Redis: {}", read.name(), e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * @return the current generations of the tags, to be passed to {@link #put} once the response
+     * is fetched
+     */
+    public long[] generations(List<String> tags) {
+        long[] current = new long[tags.size()];
+        for (int i = 0; i < current.length; i++) {
+            AtomicLong generation = generations.get(tags.get(i));
+            current[i] = generation == null ? 0 : generation.get();
+        }
+        return current;
+    }
+
+    /**
+     * Stores the response unless one of its tags was invalidated since {@code generation} was taken.
+     */
+    public void put(String key, CachedResponse response, CacheableRead read, long[] generation) {
+        if (!putLocal(key, response, read, generation) || redisTemplate == null) {
+            return;
+        }
+        List<String> keys = new ArrayList<>(read.tags().size() + 1);
+        keys.add(keyPrefix + key);
+        read.tags().forEach(tag -> keys.add(tagKey(tag)));
+        byte[] ttl = Long.toString(read.ttl().toMillis()).getBytes(StandardCharsets.US_ASCII);
+        redisTemplate.execute(STORE, keys, List.of(response.encode(), ttl))
+                .subscribe(null, e -> log.warn("Failed to store response {} in Redis: {}", read.name(), e.getMessage()));
+    }
+
+    public void invalidate(Collection<String> tags) {
+        tags.forEach(tag -> generations.computeIfAbsent(tag, ignored -> new AtomicLong()).incrementAndGet());
+        local.asMap().values().removeIf(entry -> entry.tags().stream().anyMatch(tags::contains));
+        if (redisTemplate != null) {
+            Flux.fromIterable(tags)
+                    .flatMap(tag -> redisTemplate.execute(INVALIDATE, List.of(tagKey(tag)), List.of()))
+                    .subscribe(null, e -> log.warn("Failed to invalidate responses {} in Redis: {}", tags, e.getMessage()));
+        }
+    }
+
+    private boolean putLocal(String key, CachedResponse response, CacheableRead read, long[] generation) {
+        if (!Arrays.equals(generation, generations(read.tags()))) {
+            return false;
+        }
+        local.put(key, new Entry(response, Set.copyOf(read.tags()), read.ttl().toNanos()));
+        // An invalidation between the check and the put may have missed the new entry
+        if (!Arrays.equals(generation, generations(read.tags()))) {
+            local.invalidate(key);
+            return false;
+        }
+        return true;
+    }
+
+    private String tagKey(String tag) {
+        return keyPrefix + "tag:" + tag;
+    }
+
+}
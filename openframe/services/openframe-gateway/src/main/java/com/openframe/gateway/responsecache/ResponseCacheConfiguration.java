@@ -0,0 +1,87 @@
+package com.openframe.gateway.responsecache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.util.Assert;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Enables the gateway response cache with {@code openframe.gateway.response-cache.enabled}.
+ */
+@Configuration
+@EnableConfigurationProperties(ResponseCacheProperties.class)
+@ConditionalOnProperty(prefix = "openframe.gateway.response-cache", name = "enabled", havingValue = "true")
+public class ResponseCacheConfiguration {
+
+    @Bean
+    public ResponseCache responseCache(ResponseCacheProperties properties,
+                                       ObjectProvider<ReactiveRedisConnectionFactory> connectionFactory,
+                                       MeterRegistry meterRegistry) {
+        ReactiveRedisTemplate<String, byte[]> redisTemplate = null;
+        if (properties.getRedis().isEnabled()) {
+            RedisSerializationContext<String, byte[]> context = RedisSerializationContext
+                    .<String, byte[]>newSerializationContext(RedisSerializer.string())
+                    .value(RedisSerializer.byteArray())
+                    .build();
+            redisTemplate = new ReactiveRedisTemplate<>(connectionFactory.getObject(), context);
+        }
+        return new ResponseCache(properties, redisTemplate, meterRegistry);
+    }
+
+    @Bean
+    public ResponseCacheFilter responseCacheFilter(ResponseCache responseCache, ResponseCacheProperties properties,
+                                                   ObjectProvider<ObjectMapper> objectMapper,
+                                                   MeterRegistry meterRegistry) {
+        return new ResponseCacheFilter(responseCache, properties, objectMapper.getIfAvailable(ObjectMapper::new),
+                meterRegistry);
+    }
+
+    /**
+     * Every replica reads all change events with its own group and never commits, so each
+     * in-memory tier sees every invalidation.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "openframe.gateway.response-cache.invalidation", name = "enabled",
+            havingValue = "true", matchIfMissing = true)
+    public ConcurrentMessageListenerContainer<byte[], byte[]> responseCacheInvalidationContainer(
+            ResponseCache responseCache, ResponseCacheProperties properties, ObjectProvider<ObjectMapper> objectMapper) {
+        ResponseCacheProperties.Invalidation invalidation = properties.getInvalidation();
+        Assert.hasText(invalidation.getBootstrapServers(),
+                "openframe.gateway.response-cache.invalidation.bootstrap-servers must be set");
+        Assert.notEmpty(invalidation.getTopics(), "openframe.gateway.response-cache.invalidation.topics must be set");
+        ContainerProperties containerProperties = new ContainerProperties(
+                invalidation.getTopics().keySet().toArray(String[]::new));
+        containerProperties.setAckMode(ContainerProperties.AckMode.MANUAL);
+        ResponseCacheInvalidationListener listener =
+                new ResponseCacheInvalidationListener(responseCache, Map.copyOf(invalidation.getTopics()),
+                        objectMapper.getIfAvailable(ObjectMapper::new));
+        containerProperties.setMessageListener(listener);
+        containerProperties.setConsumerRebalanceListener(listener);
+        Map<String, Object> consumerProperties = Map.of(
+                ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, invalidation.getBootstrapServers(),
+                ConsumerConfig.GROUP_ID_CONFIG, "openframe-gateway-response-cache-" + UUID.randomUUID(),
+                ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest",
+                ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false,
+                ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class,
+                ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        return new ConcurrentMessageListenerContainer<>(new DefaultKafkaConsumerFactory<>(consumerProperties),
+                containerProperties);
+    }
+
+}
@@ -0,0 +1,250 @@
+package com.openframe.gateway.responsecache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openframe.gateway.reads.ReadRequest;
+import com.openframe.gateway.reads.ReadRequests;
+import com.openframe.gateway.reads.ResponseBodies;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Serves allow-listed GraphQL queries and REST reads from the {@link ResponseCache}.
+ * <p>
+ * A GraphQL request is cacheable when its document is a single query whose root fields are all
+ * listed in {@code graphql-operations}; it may be sent as a {@code POST} with a JSON body or as a
+ * {@code GET}. Responses are keyed per caller by {@link ReadRequests}; unauthenticated requests are
+ * never cached. Their tags are also scoped to the caller's tenant, so that change events of one
+ * tenant leave the responses of others in place.
+ * <p>
+ * Only {@code 200} JSON responses without GraphQL {@code errors}, cookies or content encoding are
+ * stored; bodies are buffered only up to {@code maximum-body-size}, larger ones are passed through.
+ * Every cached response carries a strong {@code ETag} and {@code Cache-Control: private, no-cache}.
+ * A {@code GET} whose {@code If-None-Match} matches gets {@code 304} without a body, whether the
+ * response was cached or just fetched; a GraphQL {@code POST} gets {@code 412}, as RFC 9110
+ * requires for methods other than {@code GET} and {@code HEAD}.
+ */
+public class ResponseCacheFilter implements GlobalFilter, Ordered {
+
+    /**
+     * Ahead of {@link NettyWriteResponseFilter}, which writes the upstream body to the response it
+     * was given, and after the rate limiting and usage filters. Requests are authenticated by the
+     * security web filters before any gateway filter runs. Misses go on to the coalescing filter.
+     */
+    public static final int ORDER = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 2;
+
+    public static final String CACHE_HEADER = "X-Cache";
+
+    private static final String CACHE_CONTROL = "private, no-cache";
+    private static final String UPSTREAM = "upstream";
+
+    private record RestRead(PathPattern pattern, Duration ttl, List<String> tags) {
+    }
+
+    private final ResponseCache cache;
+    private final ResponseCacheProperties properties;
+    private final ReadRequests readRequests;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final List<RestRead> restReads;
+
+    public ResponseCacheFilter(ResponseCache cache, ResponseCacheProperties properties, ObjectMapper objectMapper,
+                               MeterRegistry meterRegistry) {
+        this.cache = cache;
+        this.properties = properties;
+        this.readRequests = new ReadRequests(objectMapper, properties.getGraphqlPath(),
+                properties.getMaximumRequestSize());
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.restReads = properties.getRest().stream()
+                .map(read -> new RestRead(PathPatternParser.defaultInstance.parse(read.getPath()), read.getTtl(),
+                        List.copyOf(read.getTags())))
+                .toList();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        return readRequests.filter(exchange, chain, (readExchange, read) -> serve(readExchange, chain, read));
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    private Mono<Void> serve(ServerWebExchange exchange, GatewayFilterChain chain, ReadRequest request) {
+        CacheableRead read = request.isGraphQL() ? graphQLRead(request) : restRead(request);
+        if (read == null) {
+            return chain.filter(exchange);
+        }
+        return readRequests.keyOf(exchange, request)
+                .zipWhen(key -> ReadRequests.tenantOf(exchange).defaultIfEmpty(""))
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(scoped -> scoped.isPresent()
+                        ? serve(exchange, chain, read.scopedTo(scoped.get().getT2()), scoped.get().getT1())
+                        : chain.filter(exchange));
+    }
+
+    private CacheableRead graphQLRead(ReadRequest request) {
+        Duration ttl = null;
+        for (String field : request.rootFields()) {
+            Duration fieldTtl = properties.getGraphqlOperations().get(field);
+            if (fieldTtl == null) {
+                return null;
+            }
+            ttl = ttl == null || fieldTtl.compareTo(ttl) < 0 ? fieldTtl : ttl;
+        }
+        return new CacheableRead(String.join("+", request.rootFields()), ttl, request.rootFields());
+    }
+
+    private CacheableRead restRead(ReadRequest request) {
+        PathContainer path = PathContainer.parsePath(request.path());
+        for (RestRead read : restReads) {
+            if (read.pattern().matches(path)) {
+                return new CacheableRead(read.pattern().getPatternString(), read.ttl(), read.tags());
+            }
+        }
+        return null;
+    }
+
+    private Mono<Void> serve(ServerWebExchange exchange, GatewayFilterChain chain, CacheableRead read, String key) {
+        long[] generation = cache.generations(read.tags());
+        return cache.get(key, read)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(lookup -> lookup.isPresent()
+                        ? writeCached(exchange, read, lookup.get())
+                        : fetch(exchange, chain, read, key, generation));
+    }
+
+    private Mono<Void> writeCached(ServerWebExchange exchange, CacheableRead read, ResponseCache.Lookup lookup) {
+        ServerHttpResponse response = exchange.getResponse();
+        CachedResponse cached = lookup.response();
+        HttpHeaders headers = response.getHeaders();
+        headers.setETag(cached.etag());
+        headers.setCacheControl(CACHE_CONTROL);
+        headers.set(CACHE_HEADER, "HIT");
+        HttpStatus precondition = preconditionOf(exchange.getRequest(), cached.etag());
+        if (precondition != null) {
+            count(read, lookup.tier(), precondition);
+            response.setStatusCode(precondition);
+            return response.setComplete();
+        }
+        count(read, lookup.tier(), HttpStatus.OK);
+        response.setStatusCode(HttpStatus.OK);
+        headers.set(HttpHeaders.CONTENT_TYPE, cached.contentType());
+        headers.setContentLength(cached.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    private Mono<Void> fetch(ServerWebExchange exchange, GatewayFilterChain chain, CacheableRead read, String key,
+                             long[] generation) {
+        ServerHttpRequest request = exchange.getRequest();
+        ServerHttpResponseDecorator capturing = new ServerHttpResponseDecorator(exchange.getResponse()) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                if (!isCacheable(getStatusCode(), getHeaders())) {
+                    count(read, UPSTREAM, getStatusCode());
+                    return super.writeWith(body);
+                }
+                return ResponseBodies.collect(body, properties.getMaximumBodySize().toBytes(), this::complete,
+                        rest -> {
+                            count(read, UPSTREAM, getStatusCode());
+                            return super.writeWith(rest);
+                        });
+            }
+
+            private Mono<Void> complete(byte[] bytes) {
+                HttpHeaders headers = getHeaders();
+                CachedResponse fetched = CachedResponse.of(bytes, headers.getFirst(HttpHeaders.CONTENT_TYPE));
+                if (!hasErrors(bytes)) {
+                    cache.put(key, fetched, read, generation);
+                }
+                headers.setETag(fetched.etag());
+                headers.setCacheControl(CACHE_CONTROL);
+                headers.set(CACHE_HEADER, "MISS");
+                HttpStatus precondition = preconditionOf(request, fetched.etag());
+                if (precondition != null) {
+                    count(read, UPSTREAM, precondition);
+                    setStatusCode(precondition);
+                    headers.remove(HttpHeaders.CONTENT_LENGTH);
+                    headers.remove(HttpHeaders.TRANSFER_ENCODING);
+                    return setComplete();
+                }
+                count(read, UPSTREAM, HttpStatus.OK);
+                headers.remove(HttpHeaders.TRANSFER_ENCODING);
+                headers.setContentLength(bytes.length);
+                return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+            }
+        };
+        return chain.filter(exchange.mutate().response(capturing).build());
+    }
+
+    private boolean isCacheable(HttpStatusCode status, HttpHeaders headers) {
+        MediaType contentType = headers.getContentType();
+        return status != null && status.value() == HttpStatus.OK.value()
+                && headers.getContentLength() <= properties.getMaximumBodySize().toBytes()
+                && contentType != null
+                && (contentType.getSubtype().equals("json") || "json".equals(contentType.getSubtypeSuffix()))
+                && !headers.containsKey(HttpHeaders.SET_COOKIE)
+                && !headers.containsKey(HttpHeaders.CONTENT_ENCODING);
+    }
+
+    /**
+     * @return {@code 304} for a {@code GET} or {@code HEAD} whose {@code If-None-Match} matches,
+     * {@code 412} for other methods, {@code null} if it does not match
+     */
+    private static HttpStatus preconditionOf(ServerHttpRequest request, String etag) {
+        for (String candidate : request.getHeaders().getIfNoneMatch()) {
+            String tag = candidate.startsWith("W/") ? candidate.substring(2) : candidate;
+            if (tag.equals("*") || tag.equals(etag)) {
+                HttpMethod method = request.getMethod();
+                return method == HttpMethod.GET || method == HttpMethod.HEAD
+                        ? HttpStatus.NOT_MODIFIED
+                        : HttpStatus.PRECONDITION_FAILED;
+            }
+        }
+        return null;
+    }
+
+    private boolean hasErrors(byte[] body) {
+        try {
+            JsonNode response = objectMapper.readTree(body);
+            return response == null || response.has("errors");
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    private void count(CacheableRead read, String source, HttpStatusCode status) {
+        meterRegistry.counter("openframe.gateway.response-cache.requests",
+                "read", read.name(),
+                "source", source,
+                "status", status == null ? "none" : Integer.toString(status.value())).increment();
+    }
+
+}
@@ -0,0 +1,100 @@
+package com.openframe.gateway.responsecache;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.listener.BatchMessageListener;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Drops cached responses whose tags are mapped to the topic of a change event, once per poll.
+ * <p>
+ * An event naming its tenant in the topic's {@code tenant-field} only drops the responses of that
+ * tenant and of callers without a tenant; other events drop the tags for every tenant. Nothing
+ * else of the event is read. Events published while the consumer was not assigned are lost, so
+ * the tags of newly assigned topics are invalidated for every tenant.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ResponseCacheInvalidationListener implements BatchMessageListener<byte[], byte[]>,
+        ConsumerAwareRebalanceListener {
+
+    private final ResponseCache cache;
+    private final Map<String, ResponseCacheProperties.Topic> topics;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void onMessage(List<ConsumerRecord<byte[], byte[]>> records) {
+        Set<String> tags = new HashSet<>();
+        for (ConsumerRecord<byte[], byte[]> record : records) {
+            ResponseCacheProperties.Topic topic = topics.get(record.topic());
+            if (topic == null) {
+                continue;
+            }
+            String tenant = tenantOf(record.value(), topic.getTenantField());
+            for (String tag : topic.getTags()) {
+                if (tenant == null) {
+                    tags.add(tag);
+                } else {
+                    tags.add(CacheableRead.tenantTag(tag, tenant));
+                    tags.add(CacheableRead.tenantTag(tag, ""));
+                }
+            }
+        }
+        invalidate(tags);
+    }
+
+    @Override
+    public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+        Set<String> tags = new HashSet<>();
+        partitions.stream().map(TopicPartition::topic).distinct()
+                .map(topics::get)
+                .filter(Objects::nonNull)
+                .forEach(topic -> tags.addAll(topic.getTags()));
+        invalidate(tags);
+    }
+
+    private void invalidate(Set<String> tags) {
+        if (!tags.isEmpty()) {
+            cache.invalidate(tags);
+        }
+    }
+
+    /**
+     * @return the top-level text field of the JSON event, or {@code null} if it has none
+     */
+    private String tenantOf(byte[] value, String field) {
+        if (field == null || value == null) {
+            return null;
+        }
+        try (JsonParser parser = objectMapper.getFactory().createParser(value)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken token = parser.nextToken();
+                if (name.equals(field)) {
+                    return token == JsonToken.VALUE_STRING && !parser.getText().isEmpty() ? parser.getText() : null;
+                }
+                parser.skipChildren();
+            }
+        } catch (IOException e) {
+            log.debug("No tenant in change event", e);
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,112 @@
+package com.openframe.gateway.responsecache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Gateway cache of allow-listed read responses, bound from {@code openframe.gateway.response-cache}.
+ */
+@Data
+@ConfigurationProperties(prefix = "openframe.gateway.response-cache")
+public class ResponseCacheProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * GraphQL endpoint as requested by clients, before route filters strip any prefix.
+     */
+    private String graphqlPath = "/api/graphql";
+
+    /**
+     * Cacheable GraphQL root query fields and how long their responses are kept. A request is
+     * cached only if every root field it selects is listed; each field is also an invalidation tag.
+     */
+    private Map<String, Duration> graphqlOperations = new LinkedHashMap<>();
+
+    /**
+     * Cacheable {@code GET} requests outside GraphQL.
+     */
+    private List<RestRead> rest = new ArrayList<>();
+
+    /**
+     * Total size of the response bodies held in memory by each replica.
+     */
+    private DataSize maximumSize = DataSize.ofMegabytes(64);
+
+    /**
+     * Larger responses are passed through without being cached.
+     */
+    private DataSize maximumBodySize = DataSize.ofKilobytes(256);
+
+    /**
+     * Larger GraphQL request bodies are passed through without being read.
+     */
+    private DataSize maximumRequestSize = DataSize.ofKilobytes(64);
+
+    private Redis redis = new Redis();
+
+    private Invalidation invalidation = new Invalidation();
+
+    @Data
+    public static class RestRead {
+
+        /**
+         * Path pattern matched against the request path before route filters strip any prefix,
+         * e.g. {@code /external-api/api/v1/organizations/**}.
+         */
+        private String path;
+
+        private Duration ttl = Duration.ofMinutes(1);
+
+        private List<String> tags = new ArrayList<>();
+
+    }
+
+    /**
+     * Second tier shared by all replicas; entries found there are copied into memory.
+     */
+    @Data
+    public static class Redis {
+
+        private boolean enabled = false;
+
+        private String keyPrefix = "openframe:gateway:responses:";
+
+    }
+
+    @Data
+    public static class Invalidation {
+
+        private boolean enabled = true;
+
+        private String bootstrapServers;
+
+        /**
+         * Topics whose events drop the entries carrying any of their tags.
+         */
+        private Map<String, Topic> topics = new LinkedHashMap<>();
+
+    }
+
+    @Data
+    public static class Topic {
+
+        private List<String> tags = new ArrayList<>();
+
+        /**
+         * Top-level field of the JSON events naming the tenant they change, matched against the
+         * last path segment of the caller's token issuer. Events without it, or topics without a
+         * field, drop the tags for every tenant.
+         */
+        private String tenantField;
+
+    }
+
+}
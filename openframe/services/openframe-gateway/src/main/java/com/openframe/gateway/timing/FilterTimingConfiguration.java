@@ -0,0 +1,51 @@
+package com.openframe.gateway.timing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.reactive.WebHttpHandlerBuilderCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.server.WebFilter;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Enables per-filter latency histograms with {@code openframe.gateway.filter-timing.enabled}.
+ */
+@Slf4j
+@Configuration
+@EnableConfigurationProperties(FilterTimingProperties.class)
+@ConditionalOnProperty(prefix = "openframe.gateway.filter-timing", name = "enabled", havingValue = "true")
+public class FilterTimingConfiguration {
+
+    @Bean
+    public static FilterTimingPostProcessor filterTimingPostProcessor() {
+        return new FilterTimingPostProcessor();
+    }
+
+    @Bean
+    public FilterTimingWebFilter filterTimingWebFilter(FilterTimingProperties properties, MeterRegistry meterRegistry) {
+        return new FilterTimingWebFilter(properties, meterRegistry);
+    }
+
+    /**
+     * Times the web filters that run ahead of the gateway, such as the security filter chain,
+     * named after their beans; bean names that are class names are cut to the simple name.
+     */
+    @Bean
+    public WebHttpHandlerBuilderCustomizer filterTimingWebFilters(ApplicationContext context) {
+        return builder -> builder.filters(filters -> {
+            Map<WebFilter, String> names = new IdentityHashMap<>();
+            context.getBeansOfType(WebFilter.class)
+                    .forEach((name, filter) -> names.put(filter, name.substring(name.lastIndexOf('.') + 1)));
+            filters.replaceAll(filter -> filter instanceof FilterTimingWebFilter ? filter
+                    : new TimedWebFilter(names.getOrDefault(filter, FilterTimingPostProcessor.nameOf(filter)), filter));
+            log.info("Timing {} web filters", filters.size() - 1);
+        });
+    }
+
+}
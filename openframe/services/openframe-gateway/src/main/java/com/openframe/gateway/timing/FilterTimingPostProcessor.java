@@ -0,0 +1,78 @@
+package com.openframe.gateway.timing;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.handler.FilteringWebHandler;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Times the gateway's global filters and the filters of every security filter chain.
+ * <p>
+ * The gateway's {@link FilteringWebHandler} is rebuilt from the same global filters, each wrapped
+ * in a {@link TimedGlobalFilter} named after its bean. Security chains are wrapped so that their
+ * filters, such as JWT validation and API key authentication, are timed as
+ * {@code security.<filter class>}.
+ */
+@Slf4j
+public class FilterTimingPostProcessor implements BeanPostProcessor, BeanFactoryAware {
+
+    static final String SECURITY_PREFIX = "security.";
+
+    private ListableBeanFactory beanFactory;
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+        this.beanFactory = (ListableBeanFactory) beanFactory;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean.getClass() == FilteringWebHandler.class) {
+            List<GlobalFilter> filters = beanFactory.getBeansOfType(GlobalFilter.class).entrySet().stream()
+                    .map(filter -> (GlobalFilter) new TimedGlobalFilter(filter.getKey(), filter.getValue()))
+                    .toList();
+            log.info("Timing {} global filters of {}", filters.size(), beanName);
+            return new FilteringWebHandler(filters);
+        }
+        if (bean instanceof SecurityWebFilterChain chain) {
+            // The chain's filters are fetched for every request, so they are wrapped only once
+            Flux<WebFilter> filters = chain.getWebFilters()
+                    .map(filter -> (WebFilter) new TimedWebFilter(SECURITY_PREFIX + nameOf(filter), filter))
+                    .cache();
+            return new SecurityWebFilterChain() {
+                @Override
+                public Mono<Boolean> matches(ServerWebExchange exchange) {
+                    return chain.matches(exchange);
+                }
+
+                @Override
+                public Flux<WebFilter> getWebFilters() {
+                    return filters;
+                }
+            };
+        }
+        return bean;
+    }
+
+    /**
+     * @return the short class name of a filter, without the suffix of lambdas and proxies
+     */
+    static String nameOf(Object filter) {
+        String name = ClassUtils.getShortName(ClassUtils.getUserClass(filter));
+        int generated = name.indexOf("$$");
+        return generated > 0 ? name.substring(0, generated) : name;
+    }
+
+}
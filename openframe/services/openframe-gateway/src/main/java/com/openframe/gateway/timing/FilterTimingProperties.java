@@ -0,0 +1,47 @@
+package com.openframe.gateway.timing;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-filter latency histograms, bound from {@code openframe.gateway.filter-timing}.
+ */
+@Data
+@ConfigurationProperties(prefix = "openframe.gateway.filter-timing")
+public class FilterTimingProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Upper bounds of the histogram buckets published for every filter and route. A short fixed
+     * list keeps the number of series low; durations above the last bucket only count towards
+     * {@code +Inf}.
+     */
+    private List<Duration> buckets = new ArrayList<>(List.of(
+            Duration.ofNanos(100_000), Duration.ofNanos(500_000), Duration.ofMillis(1), Duration.ofMillis(5),
+            Duration.ofMillis(10), Duration.ofMillis(25), Duration.ofMillis(50), Duration.ofMillis(100),
+            Duration.ofMillis(250), Duration.ofMillis(500), Duration.ofSeconds(1), Duration.ofMillis(2500),
+            Duration.ofSeconds(5), Duration.ofSeconds(10), Duration.ofSeconds(30)));
+
+    private ServerTiming serverTiming = new ServerTiming();
+
+    @Data
+    public static class ServerTiming {
+
+        /**
+         * Adds a {@code Server-Timing} header with the stages of sampled requests.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Share of requests, from {@code 0} to {@code 1}, that get the header.
+         */
+        private double sampleRate = 0.01;
+
+    }
+
+}
@@ -0,0 +1,90 @@
+package com.openframe.gateway.timing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts the {@link FilterTimings} of every exchange and records its stages once it completes.
+ * <p>
+ * Each stage goes to {@code openframe.gateway.filter.duration}, tagged with the filter and the id
+ * of the route the exchange was matched to, or {@code none} if it was answered before routing.
+ * The whole exchange is recorded as the {@code exchange} filter. Sampled responses also carry
+ * a {@code Server-Timing} header with the stages completed before the response was committed.
+ */
+public class FilterTimingWebFilter implements WebFilter, Ordered {
+
+    public static final String METRIC_NAME = "openframe.gateway.filter.duration";
+    public static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    static final String EXCHANGE = "exchange";
+    static final String NO_ROUTE = "none";
+
+    private final FilterTimingProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Duration[] buckets;
+    private final Map<String, Map<String, Timer>> timers = new ConcurrentHashMap<>();
+
+    public FilterTimingWebFilter(FilterTimingProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.buckets = properties.getBuckets().toArray(Duration[]::new);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        FilterTimings timings = new FilterTimings();
+        exchange.getAttributes().put(FilterTimings.ATTRIBUTE, timings);
+        if (isSampled()) {
+            exchange.getResponse().beforeCommit(() -> {
+                exchange.getResponse().getHeaders().add(SERVER_TIMING_HEADER, timings.serverTiming());
+                return Mono.empty();
+            });
+        }
+        return chain.filter(exchange).doFinally(signal -> record(exchange, timings));
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    private boolean isSampled() {
+        FilterTimingProperties.ServerTiming serverTiming = properties.getServerTiming();
+        return serverTiming.isEnabled() && ThreadLocalRandom.current().nextDouble() < serverTiming.getSampleRate();
+    }
+
+    private void record(ServerWebExchange exchange, FilterTimings timings) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        Map<String, Timer> routeTimers = timers.computeIfAbsent(route == null ? NO_ROUTE : route.getId(),
+                k -> new ConcurrentHashMap<>());
+        for (FilterTimings.Stage stage : timings.stages()) {
+            // Filters that answered the request themselves only see it end after this filter does
+            stage.stop();
+            timer(routeTimers, stage.name(), route).record(stage.durationNanos(), TimeUnit.NANOSECONDS);
+        }
+        timer(routeTimers, EXCHANGE, route).record(timings.elapsedNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private Timer timer(Map<String, Timer> routeTimers, String filter, Route route) {
+        return routeTimers.computeIfAbsent(filter, k -> Timer.builder(METRIC_NAME)
+                .description("Time each gateway filter spends on a request before passing it on")
+                .tag("filter", filter)
+                .tag("route", route == null ? NO_ROUTE : route.getId())
+                .serviceLevelObjectives(buckets)
+                .register(meterRegistry));
+    }
+
+}
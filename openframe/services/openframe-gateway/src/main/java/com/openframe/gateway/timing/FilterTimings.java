@@ -0,0 +1,96 @@
+package com.openframe.gateway.timing;
+
+import org.springframework.web.server.ServerWebExchange;
+
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * The stages timed while one exchange passes through the gateway, kept as an exchange attribute.
+ */
+public class FilterTimings {
+
+    public static final String ATTRIBUTE = FilterTimings.class.getName();
+
+    private final long startNanos = System.nanoTime();
+    private final Queue<Stage> stages = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @return the timings of the exchange, or {@code null} if it is not timed
+     */
+    public static FilterTimings of(ServerWebExchange exchange) {
+        return exchange.getAttribute(ATTRIBUTE);
+    }
+
+    public Stage start(String name) {
+        Stage stage = new Stage(name, System.nanoTime());
+        stages.add(stage);
+        return stage;
+    }
+
+    public Iterable<Stage> stages() {
+        return stages;
+    }
+
+    public long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    /**
+     * @return a {@code Server-Timing} value listing the stages stopped so far and the time since
+     * the exchange started as {@code total}
+     */
+    public String serverTiming() {
+        StringBuilder value = new StringBuilder();
+        for (Stage stage : stages) {
+            long duration = stage.durationNanos();
+            if (duration >= 0) {
+                append(value, stage.name(), duration).append(", ");
+            }
+        }
+        return append(value, "total", elapsedNanos()).toString();
+    }
+
+    private static StringBuilder append(StringBuilder value, String name, long nanos) {
+        return value.append(name).append(";dur=").append(String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0));
+    }
+
+    /**
+     * The time one filter spent on the exchange before handing it to the next filter, or until it
+     * completed if it answered the request itself.
+     */
+    public static final class Stage {
+
+        private final String name;
+        private final long startNanos;
+        private volatile long durationNanos = -1;
+
+        private Stage(String name, long startNanos) {
+            this.name = name;
+            this.startNanos = startNanos;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        /**
+         * @return the duration, or {@code -1} while the stage is running
+         */
+        public long durationNanos() {
+            return durationNanos;
+        }
+
+        /**
+         * Stops the stage; only the first call counts.
+         */
+        public void stop() {
+            if (durationNanos < 0) {
+                durationNanos = System.nanoTime() - startNanos;
+            }
+        }
+
+    }
+
+}
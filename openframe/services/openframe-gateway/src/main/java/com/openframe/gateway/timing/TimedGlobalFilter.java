@@ -0,0 +1,54 @@
+package com.openframe.gateway.timing;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.OrderUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Times a global filter as a stage of {@link FilterTimings}, keeping its order.
+ * <p>
+ * The stage stops when the filter subscribes to the rest of the chain, so it covers only the
+ * filter's own work. For the routing filter that is the wait for the upstream's response headers.
+ */
+public class TimedGlobalFilter implements GlobalFilter, Ordered {
+
+    private final String name;
+    private final GlobalFilter delegate;
+    private final int order;
+
+    public TimedGlobalFilter(String name, GlobalFilter delegate) {
+        this.name = name;
+        this.delegate = delegate;
+        this.order = delegate instanceof Ordered ordered
+                ? ordered.getOrder()
+                : OrderUtils.getOrder(delegate.getClass(), Ordered.LOWEST_PRECEDENCE);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        FilterTimings timings = FilterTimings.of(exchange);
+        if (timings == null) {
+            return delegate.filter(exchange, chain);
+        }
+        FilterTimings.Stage stage = timings.start(name);
+        return delegate.filter(exchange, next -> Mono.defer(() -> {
+                    stage.stop();
+                    return chain.filter(next);
+                }))
+                .doFinally(signal -> stage.stop());
+    }
+
+    @Override
+    public int getOrder() {
+        return order;
+    }
+
+    @Override
+    public String toString() {
+        return "Timed[" + name + ", " + delegate + "]";
+    }
+
+}
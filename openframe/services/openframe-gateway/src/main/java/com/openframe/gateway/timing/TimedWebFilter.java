@@ -0,0 +1,42 @@
+package com.openframe.gateway.timing;
+
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Times a web filter, such as the security filter chain or one of its filters, as a stage of
+ * {@link FilterTimings}. Like {@link TimedGlobalFilter}, the stage stops once the rest of the
+ * chain is subscribed to.
+ */
+public class TimedWebFilter implements WebFilter {
+
+    private final String name;
+    private final WebFilter delegate;
+
+    public TimedWebFilter(String name, WebFilter delegate) {
+        this.name = name;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        FilterTimings timings = FilterTimings.of(exchange);
+        if (timings == null) {
+            return delegate.filter(exchange, chain);
+        }
+        FilterTimings.Stage stage = timings.start(name);
+        return delegate.filter(exchange, next -> Mono.defer(() -> {
+                    stage.stop();
+                    return chain.filter(next);
+                }))
+                .doFinally(signal -> stage.stop());
+    }
+
+    @Override
+    public String toString() {
+        return "Timed[" + name + ", " + delegate + "]";
+    }
+
+}
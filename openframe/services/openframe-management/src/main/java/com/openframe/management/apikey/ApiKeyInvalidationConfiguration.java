@@ -0,0 +1,25 @@
+package com.openframe.management.apikey;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * Enables announcing API key changes to the gateways with {@code openframe.api-key.invalidation.enabled}.
+ */
+@Configuration
+@EnableConfigurationProperties(ApiKeyInvalidationProperties.class)
+@ConditionalOnProperty(prefix = "openframe.api-key.invalidation", name = "enabled", havingValue = "true")
+public class ApiKeyInvalidationConfiguration {
+
+    @Bean
+    public ApiKeyInvalidationPublisher apiKeyInvalidationPublisher(MongoTemplate mongoTemplate,
+                                                                   StringRedisTemplate redisTemplate,
+                                                                   ApiKeyInvalidationProperties properties) {
+        return new ApiKeyInvalidationPublisher(mongoTemplate, redisTemplate, properties);
+    }
+
+}
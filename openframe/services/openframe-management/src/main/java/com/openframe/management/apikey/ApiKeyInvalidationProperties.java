@@ -0,0 +1,20 @@
+package com.openframe.management.apikey;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Announcements of API key changes to the gateways, bound from {@code openframe.api-key.invalidation}.
+ */
+@Data
+@ConfigurationProperties(prefix = "openframe.api-key.invalidation")
+public class ApiKeyInvalidationProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Redis channel the gateways' verified key caches listen on.
+     */
+    private String channel = "openframe:api-keys:invalidated";
+
+}
@@ -0,0 +1,120 @@
+package com.openframe.management.apikey;
+
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.messaging.ChangeStreamRequest;
+import org.springframework.data.mongodb.core.messaging.DefaultMessageListenerContainer;
+import org.springframework.data.mongodb.core.messaging.Message;
+import org.springframework.data.mongodb.core.messaging.MessageListenerContainer;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.List;
+
+/**
+ * Announces API keys whose verification may no longer hold to the gateways, by publishing the
+ * {@code _id} of their document on {@code openframe.api-key.invalidation.channel}.
+ * <p>
+ * Watches the {@code api_keys} collection with a change stream (MongoDB replica set required), so
+ * changes made by any service are seen. The stream is filtered by the server: inserts are dropped
+ * and updates are delivered only when they set or remove the key's hash or its validity
+ * ({@code revoked}, {@code active}, {@code expiresAt}, scopes or roles), so usage statistics
+ * updates neither reach this service nor churn the gateway caches. No full document is looked up;
+ * the gateways resolve the key from the announced id. Events that cannot be attributed to one
+ * document are announced as {@code *}.
+ */
+@Slf4j
+public class ApiKeyInvalidationPublisher implements SmartLifecycle {
+
+    static final String ALL_KEYS = "*";
+
+    private static final String COLLECTION = "api_keys";
+    private static final String VALIDITY_FIELD_PATTERN = "^(hashedKey|revoked|active|expiresAt|scopes|roles)(\\.|$)";
+
+    private final MongoTemplate mongoTemplate;
+    private final StringRedisTemplate redisTemplate;
+    private final ApiKeyInvalidationProperties properties;
+
+    private volatile MessageListenerContainer container;
+
+    public ApiKeyInvalidationPublisher(MongoTemplate mongoTemplate, StringRedisTemplate redisTemplate,
+                                       ApiKeyInvalidationProperties properties) {
+        this.mongoTemplate = mongoTemplate;
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+    }
+
+    void onChange(Message<ChangeStreamDocument<Document>, Document> message) {
+        ChangeStreamDocument<Document> change = message.getRaw();
+        if (change == null) {
+            return;
+        }
+        String id = idOf(change.getDocumentKey());
+        redisTemplate.convertAndSend(properties.getChannel(), id);
+        log.debug("Announced API key change {} for {}", change.getOperationTypeString(), id);
+    }
+
+    @Override
+    public void start() {
+        DefaultMessageListenerContainer listenerContainer = new DefaultMessageListenerContainer(mongoTemplate);
+        listenerContainer.register(ChangeStreamRequest.builder(this::onChange)
+                .collection(COLLECTION)
+                .filter(validityChanges())
+                .fullDocumentLookup(FullDocument.DEFAULT)
+                .build(), Document.class, e -> log.error("API key change stream failed", e));
+        listenerContainer.start();
+        container = listenerContainer;
+        log.info("Announcing API key changes on {}", properties.getChannel());
+    }
+
+    @Override
+    public void stop() {
+        MessageListenerContainer current = container;
+        container = null;
+        if (current != null) {
+            current.stop();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return container != null;
+    }
+
+    /**
+     * @return a {@code $match} stage passing every event except inserts and the updates that leave
+     * the hash and the validity fields untouched, including updates of their array elements
+     */
+    private static Document validityChanges() {
+        Document touchesUpdatedField = new Document("$gt", List.of(new Document("$size", new Document("$filter",
+                new Document("input", new Document("$objectToArray",
+                        new Document("$ifNull", List.of("$updateDescription.updatedFields", new Document()))))
+                        .append("cond", new Document("$regexMatch",
+                                new Document("input", "$$this.k").append("regex", VALIDITY_FIELD_PATTERN))))), 0));
+        Document touchesRemovedField = new Document("$gt", List.of(new Document("$size", new Document("$filter",
+                new Document("input", new Document("$ifNull", List.of("$updateDescription.removedFields", List.of())))
+                        .append("cond", new Document("$regexMatch",
+                                new Document("input", "$$this").append("regex", VALIDITY_FIELD_PATTERN))))), 0));
+        return new Document("$match", new Document("$or", List.of(
+                new Document("operationType", new Document("$nin", List.of("insert", "update"))),
+                new Document("operationType", "update")
+                        .append("$expr", new Document("$or", List.of(touchesUpdatedField, touchesRemovedField))))));
+    }
+
+    private static String idOf(BsonDocument documentKey) {
+        BsonValue id = documentKey != null ? documentKey.get("_id") : null;
+        if (id == null) {
+            return ALL_KEYS;
+        }
+        if (id.isObjectId()) {
+            return id.asObjectId().getValue().toHexString();
+        }
+        return id.isString() ? id.asString().getValue() : ALL_KEYS;
+    }
+
+}
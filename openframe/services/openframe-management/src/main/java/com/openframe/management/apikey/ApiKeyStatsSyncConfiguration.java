@@ -0,0 +1,30 @@
+package com.openframe.management.apikey;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables applying the gateway's write-behind API key usage with
+ * {@code openframe.api-key-stats.write-behind.enabled}.
+ */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(ApiKeyStatsSyncProperties.class)
+@ConditionalOnProperty(prefix = "openframe.api-key-stats.write-behind", name = "enabled", havingValue = "true")
+public class ApiKeyStatsSyncConfiguration {
+
+    @Bean
+    public ApiKeyStatsWriteBehindSync apiKeyStatsWriteBehindSync(StringRedisTemplate redisTemplate,
+                                                                 MongoTemplate mongoTemplate,
+                                                                 ApiKeyStatsSyncProperties properties,
+                                                                 MeterRegistry meterRegistry) {
+        return new ApiKeyStatsWriteBehindSync(redisTemplate, mongoTemplate, properties, meterRegistry);
+    }
+
+}
@@ -0,0 +1,40 @@
+package com.openframe.management.apikey;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * API key statistics synchronisation, bound from {@code openframe.api-key-stats}.
+ * <p>
+ * {@code sync-interval}, {@code lock-at-most-for} and {@code lock-at-least-for} are shared with
+ * the synchronisation of the management core; {@code write-behind} configures the job applying
+ * the usage batches flushed by the gateway.
+ */
+@Data
+@ConfigurationProperties(prefix = "openframe.api-key-stats")
+public class ApiKeyStatsSyncProperties {
+
+    /**
+     * Milliseconds between synchronisation runs.
+     */
+    private long syncInterval = 300000;
+
+    private String lockAtMostFor = "10m";
+
+    private String lockAtLeastFor = "1m";
+
+    private WriteBehind writeBehind = new WriteBehind();
+
+    @Data
+    public static class WriteBehind {
+
+        private boolean enabled = false;
+
+        /**
+         * API keys taken from Redis and written to MongoDB per bulk write.
+         */
+        private int batchSize = 500;
+
+    }
+
+}
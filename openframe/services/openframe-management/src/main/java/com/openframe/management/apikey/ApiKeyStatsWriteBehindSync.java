@@ -0,0 +1,166 @@
+package com.openframe.management.apikey;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.redis.connection.RedisZSetCommands.ZAddArgs;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Applies the last use of API keys flushed to Redis by the gateway to the {@code api_keys}
+ * collection with one unordered bulk write per batch.
+ * <p>
+ * Each batch is taken from Redis by a script that pops up to {@code batch-size} key ids from
+ * {@code api_key_stats:pending} and reads and removes their entries from
+ * {@code api_key_stats:last_used}, so the sorted set only holds unsynced keys and usage flushed
+ * while a batch is being applied lands in the next one. {@code lastUsedAt} only moves forward
+ * ({@code $max}). A batch that fails to write is put back into Redis.
+ * <p>
+ * Request counters are left to the statistics synchronisation of the management core, which
+ * applies the counters the gateway core keeps in Redis.
+ * <p>
+ * Runs every {@code sync-interval} under a ShedLock lock. Taking batches is atomic, so replicas
+ * never apply the same usage twice even without the lock.
+ */
+@Slf4j
+public class ApiKeyStatsWriteBehindSync {
+
+    // Written by the gateway's ApiKeyStatsFlusher
+    static final String PENDING_KEY = "api_key_stats:pending";
+    static final String LAST_USED_KEY = "api_key_stats:last_used";
+
+    private static final String COLLECTION = "api_keys";
+
+    /**
+     * KEYS: pending set, last used sorted set. ARGV: batch size.
+     * Returns key id and last used per key, {@code 0} for keys trimmed by the gateway.
+     */
+    private static final RedisScript<List> TAKE_BATCH = RedisScript.of("""
+            local ids = redis.call('SPOP', KEYS[1], tonumber(ARGV[1]))
+            local result = {}
+            for _, id in ipairs(ids) do
+              result[#result + 1] = id
+              result[#result + 1] = redis.call('ZSCORE', KEYS[2], id) or '0'
+              redis.call('ZREM', KEYS[2], id)
+            end
+            return result
+            """, List.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final MongoTemplate mongoTemplate;
+    private final ApiKeyStatsSyncProperties properties;
+    private final Timer syncSuccess;
+    private final Timer syncError;
+    private final Counter syncedKeys;
+
+    public ApiKeyStatsWriteBehindSync(StringRedisTemplate redisTemplate, MongoTemplate mongoTemplate,
+                                      ApiKeyStatsSyncProperties properties, MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.mongoTemplate = mongoTemplate;
+        this.properties = properties;
+        this.syncSuccess = syncTimer(meterRegistry, "success");
+        this.syncError = syncTimer(meterRegistry, "error");
+        this.syncedKeys = Counter.builder("openframe.management.apikey.stats.synced")
+                .description("API keys whose usage was applied to MongoDB")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${openframe.api-key-stats.sync-interval:300000}",
+            initialDelayString = "${openframe.api-key-stats.sync-interval:300000}")
+    @SchedulerLock(name = "apiKeyStatsWriteBehindSync",
+            lockAtMostFor = "${openframe.api-key-stats.lock-at-most-for:10m}",
+            lockAtLeastFor = "${openframe.api-key-stats.lock-at-least-for:1m}")
+    public void sync() {
+        Timer.Sample sample = Timer.start();
+        int keys = 0;
+        try {
+            List<ApiKeyUsageBatch> batch;
+            while (!(batch = takeBatch()).isEmpty()) {
+                apply(batch);
+                keys += batch.size();
+            }
+            sample.stop(syncSuccess);
+        } catch (RuntimeException e) {
+            sample.stop(syncError);
+            log.error("API key usage sync stopped after {} keys", keys, e);
+        }
+        if (keys > 0) {
+            log.info("Applied usage of {} API keys", keys);
+        }
+    }
+
+    private List<ApiKeyUsageBatch> takeBatch() {
+        List<?> result = redisTemplate.execute(TAKE_BATCH, List.of(PENDING_KEY, LAST_USED_KEY),
+                Integer.toString(properties.getWriteBehind().getBatchSize()));
+        if (result == null || result.isEmpty()) {
+            return List.of();
+        }
+        List<ApiKeyUsageBatch> batch = new ArrayList<>(result.size() / 2);
+        for (int i = 0; i + 1 < result.size(); i += 2) {
+            batch.add(new ApiKeyUsageBatch(result.get(i).toString(), toLong(result.get(i + 1))));
+        }
+        return batch;
+    }
+
+    private void apply(List<ApiKeyUsageBatch> batch) {
+        List<ApiKeyUsageBatch> used = batch.stream().filter(usage -> usage.lastUsedAt() > 0).toList();
+        if (used.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkMode.UNORDERED, COLLECTION);
+        for (ApiKeyUsageBatch usage : used) {
+            bulk.updateOne(Query.query(Criteria.where("keyId").is(usage.keyId())),
+                    new Update().max("lastUsedAt", new Date(usage.lastUsedAt())));
+        }
+        try {
+            bulk.execute();
+            syncedKeys.increment(used.size());
+        } catch (RuntimeException e) {
+            restore(used);
+            throw e;
+        }
+    }
+
+    private void restore(List<ApiKeyUsageBatch> batch) {
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection redis = (StringRedisConnection) connection;
+            for (ApiKeyUsageBatch usage : batch) {
+                redis.zAdd(LAST_USED_KEY, usage.lastUsedAt(), usage.keyId(), ZAddArgs.empty().gt());
+                redis.sAdd(PENDING_KEY, usage.keyId());
+            }
+            return null;
+        });
+        log.warn("Put usage of {} API keys back into Redis after a failed bulk write", batch.size());
+    }
+
+    private static long toLong(Object value) {
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        return (long) Double.parseDouble(value.toString());
+    }
+
+    private static Timer syncTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("openframe.management.apikey.stats.sync")
+                .description("Runs applying API key usage from Redis to MongoDB")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+}
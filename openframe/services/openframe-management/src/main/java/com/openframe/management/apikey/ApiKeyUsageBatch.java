@@ -0,0 +1,9 @@
+package com.openframe.management.apikey;
+
+/**
+ * Last use of one API key taken from Redis, to be applied to its {@code api_keys} document.
+ *
+ * @param lastUsedAt epoch milliseconds of the latest request, {@code 0} if it was trimmed
+ */
+public record ApiKeyUsageBatch(String keyId, long lastUsedAt) {
+}
@@ -0,0 +1,75 @@
+package com.openframe.stream.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openframe.stream.deserializer.DebeziumEnvelope;
+import com.openframe.stream.deserializer.EnvelopeFieldSet;
+import com.openframe.stream.deserializer.SelectiveEnvelopeReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compares full tree deserialization of a Debezium envelope with the selective reader.
+ * <p>
+ * {@link #treeModel} mirrors what the stream core does today: the whole envelope, including the
+ * {@code before} image and the {@code source} block, is parsed into a {@link JsonNode} tree
+ * before the handler picks its fields.
+ */
+@State(Scope.Thread)
+public class EnvelopeDeserializationBenchmark {
+
+    @Param
+    private InboundMessageType messageType;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private SelectiveEnvelopeReader reader;
+    private EnvelopeFieldSet fieldSet;
+    private byte[][] envelopes;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        reader = new SelectiveEnvelopeReader(objectMapper);
+        fieldSet = messageType.getFieldSet();
+        envelopes = RecordedEnvelopes.load(messageType);
+    }
+
+    @Benchmark
+    public void treeModel(Blackhole blackhole) throws IOException {
+        JsonNode root = objectMapper.readTree(next());
+        JsonNode payload = root.has("payload") ? root.get("payload") : root;
+        JsonNode after = payload.path("after");
+        if (after.isTextual()) {
+            after = objectMapper.readTree(after.asText());
+        }
+        Map<String, Object> selected = new HashMap<>();
+        for (String field : fieldSet.afterFields()) {
+            selected.put(field, after.get(field));
+        }
+        blackhole.consume(payload.path("op").asText());
+        blackhole.consume(payload.path("ts_ms").asLong());
+        blackhole.consume(payload.path("source").path("ts_ms").asLong());
+        blackhole.consume(selected);
+    }
+
+    @Benchmark
+    public DebeziumEnvelope selective() {
+        return reader.read(next(), fieldSet);
+    }
+
+    private byte[] next() {
+        byte[] envelope = envelopes[cursor];
+        cursor = (cursor + 1) % envelopes.length;
+        return envelope;
+    }
+
+}
@@ -0,0 +1,162 @@
+package com.openframe.stream.benchmark;
+
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * Compares consume-process-produce throughput of the at-least-once and the exactly-once mode
+ * against a real Kafka cluster.
+ * <p>
+ * The recorded envelopes of all inbound topics are written to a scratch input topic, then
+ * consumed and forwarded to a scratch output topic once with per-poll offset commits and once
+ * with a Kafka transaction per poll, the way the listener containers run in either mode.
+ * Scratch topics are deleted afterwards.
+ * <p>
+ * Usage: {@code java -cp benchmarks.jar com.openframe.stream.benchmark.ExactlyOnceThroughputComparison
+ * <bootstrap-servers> [records] [max-poll-records]}
+ */
+public class ExactlyOnceThroughputComparison {
+
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(500);
+
+    private final String bootstrapServers;
+    private final int records;
+    private final int maxPollRecords;
+
+    ExactlyOnceThroughputComparison(String bootstrapServers, int records, int maxPollRecords) {
+        this.bootstrapServers = bootstrapServers;
+        this.records = records;
+        this.maxPollRecords = maxPollRecords;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: ExactlyOnceThroughputComparison <bootstrap-servers> [records] [max-poll-records]");
+            System.exit(1);
+        }
+        int records = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+        int maxPollRecords = args.length > 2 ? Integer.parseInt(args[2]) : 500;
+        new ExactlyOnceThroughputComparison(args[0], records, maxPollRecords).run();
+    }
+
+    void run() throws Exception {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        String input = "openframe-eos-bench-in-" + suffix;
+        String output = "openframe-eos-bench-out-" + suffix;
+        try (Admin admin = Admin.create(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers))) {
+            admin.createTopics(List.of(new NewTopic(input, 6, (short) 1), new NewTopic(output, 6, (short) 1))).all().get();
+            try {
+                fill(input);
+                double atLeastOnce = forward(input, output, false);
+                double exactlyOnce = forward(input, output, true);
+                System.out.printf("records=%d max.poll.records=%d%n", records, maxPollRecords);
+                System.out.printf("at-least-once: %,.0f records/s%n", atLeastOnce);
+                System.out.printf("exactly-once:  %,.0f records/s (%.1f%% of at-least-once)%n",
+                        exactlyOnce, exactlyOnce * 100 / atLeastOnce);
+            } finally {
+                admin.deleteTopics(List.of(input, output)).all().get();
+            }
+        }
+    }
+
+    private void fill(String topic) {
+        List<byte[]> envelopes = Arrays.stream(InboundMessageType.values())
+                .flatMap(type -> Arrays.stream(RecordedEnvelopes.load(type)))
+                .toList();
+        try (KafkaProducer<byte[], byte[]> producer = new KafkaProducer<>(producerProperties(null))) {
+            for (int i = 0; i < records; i++) {
+                producer.send(new ProducerRecord<>(topic, Integer.toString(i % 10_000).getBytes(), envelopes.get(i % envelopes.size())));
+            }
+        }
+    }
+
+    /**
+     * @return forwarded records per second
+     */
+    private double forward(String input, String output, boolean transactional) {
+        String group = "openframe-eos-bench-" + (transactional ? "eos-" : "alo-") + UUID.randomUUID();
+        Properties producerProperties = producerProperties(transactional ? group : null);
+        try (KafkaConsumer<byte[], byte[]> consumer = new KafkaConsumer<>(consumerProperties(group, transactional));
+             KafkaProducer<byte[], byte[]> producer = new KafkaProducer<>(producerProperties)) {
+            if (transactional) {
+                producer.initTransactions();
+            }
+            consumer.subscribe(List.of(input));
+            int forwarded = 0;
+            long started = 0;
+            while (forwarded < records) {
+                ConsumerRecords<byte[], byte[]> polled = consumer.poll(POLL_TIMEOUT);
+                if (polled.isEmpty()) {
+                    continue;
+                }
+                if (started == 0) {
+                    started = System.nanoTime();
+                }
+                if (transactional) {
+                    producer.beginTransaction();
+                }
+                Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+                for (ConsumerRecord<byte[], byte[]> record : polled) {
+                    producer.send(new ProducerRecord<>(output, record.key(), record.value()));
+                    offsets.put(new TopicPartition(record.topic(), record.partition()), new OffsetAndMetadata(record.offset() + 1));
+                }
+                if (transactional) {
+                    producer.sendOffsetsToTransaction(offsets, consumer.groupMetadata());
+                    producer.commitTransaction();
+                } else {
+                    producer.flush();
+                    consumer.commitSync(offsets);
+                }
+                forwarded += polled.count();
+            }
+            return forwarded / ((System.nanoTime() - started) / 1e9);
+        }
+    }
+
+    private Properties producerProperties(String transactionalId) {
+        Properties properties = new Properties();
+        properties.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        properties.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        properties.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        properties.put(ProducerConfig.ACKS_CONFIG, "all");
+        properties.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+        if (transactionalId != null) {
+            properties.put(ProducerConfig.TRANSACTIONAL_ID_CONFIG, transactionalId);
+        }
+        return properties;
+    }
+
+    private Properties consumerProperties(String group, boolean transactional) {
+        Properties properties = new Properties();
+        properties.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        properties.put(ConsumerConfig.GROUP_ID_CONFIG, group);
+        properties.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        properties.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        properties.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        properties.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        properties.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        properties.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, transactional ? "read_committed" : "read_uncommitted");
+        return properties;
+    }
+
+}
@@ -0,0 +1,92 @@
+package com.openframe.stream.benchmark;
+
+import com.openframe.stream.benchmark.RecordedEnvelopes.RecordedEnvelope;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.DirectFieldAccessor;
+import org.springframework.context.ApplicationContext;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.BatchMessageListener;
+import org.springframework.kafka.listener.GenericMessageListener;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.util.ClassUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The message listener of the container subscribed to one inbound topic.
+ * <p>
+ * Recorded envelopes are deserialized with that container's own value deserializer, configured
+ * the way its consumer factory configures it for every consumer, and delivered as one-record
+ * polls. The listener runs on the calling thread; container interceptors and error handlers
+ * are not involved.
+ */
+final class InboundListener {
+
+    private static final Acknowledgment NO_ACK = () -> {
+    };
+
+    private final String topic;
+    private final GenericMessageListener<Object> listener;
+    private final boolean batch;
+    private final Deserializer<?> valueDeserializer;
+    private long offset;
+
+    private InboundListener(String topic, GenericMessageListener<Object> listener, Deserializer<?> valueDeserializer) {
+        this.topic = topic;
+        this.listener = listener;
+        this.batch = listener instanceof BatchMessageListener;
+        this.valueDeserializer = valueDeserializer;
+    }
+
+    @SuppressWarnings("unchecked")
+    static InboundListener of(ApplicationContext context, String topic) {
+        MessageListenerContainer container = context.getBean(KafkaListenerEndpointRegistry.class)
+                .getAllListenerContainers().stream()
+                .filter(candidate -> candidate.getContainerProperties().getTopics() != null
+                        && List.of(candidate.getContainerProperties().getTopics()).contains(topic))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No listener container subscribes to " + topic));
+        ConsumerFactory<?, ?> consumerFactory = (ConsumerFactory<?, ?>) new DirectFieldAccessor(container)
+                .getPropertyValue("consumerFactory");
+        return new InboundListener(topic,
+                (GenericMessageListener<Object>) container.getContainerProperties().getMessageListener(),
+                valueDeserializer(consumerFactory));
+    }
+
+    /**
+     * Deserializes and delivers one envelope, returning the deserialized value.
+     */
+    Object deliver(RecordedEnvelope envelope) {
+        // The JSON deserializer strips its type headers, so every delivery gets its own copy
+        RecordHeaders headers = new RecordHeaders(envelope.headers());
+        Object value = valueDeserializer.deserialize(topic, headers, envelope.value());
+        ConsumerRecord<Object, Object> record = new ConsumerRecord<>(topic, 0, offset++, System.currentTimeMillis(),
+                TimestampType.CREATE_TIME, -1, envelope.value().length, null, value, headers, Optional.empty());
+        listener.onMessage(batch ? List.of(record) : record, NO_ACK, null);
+        return value;
+    }
+
+    private static Deserializer<?> valueDeserializer(ConsumerFactory<?, ?> consumerFactory) {
+        Map<String, Object> configs = consumerFactory.getConfigurationProperties();
+        Deserializer<?> deserializer = consumerFactory.getValueDeserializer();
+        if (deserializer == null) {
+            Object type = configs.get(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG);
+            Class<?> deserializerClass = type instanceof Class<?> configured
+                    ? configured
+                    : ClassUtils.resolveClassName(String.valueOf(type), InboundListener.class.getClassLoader());
+            deserializer = (Deserializer<?>) BeanUtils.instantiateClass(deserializerClass);
+        }
+        deserializer.configure(configs, false);
+        return deserializer;
+    }
+
+}
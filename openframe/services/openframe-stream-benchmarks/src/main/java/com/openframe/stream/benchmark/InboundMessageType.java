@@ -0,0 +1,73 @@
+package com.openframe.stream.benchmark;
+
+import com.openframe.stream.deserializer.EnvelopeFieldSet;
+
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Inbound Debezium topics replayed by the benchmarks, one per message type of the stream core.
+ */
+public enum InboundMessageType {
+
+    MESHCENTRAL_EVENT("meshcentral.mongodb.events", "MESHCENTRAL", "nodeid"),
+    TACTICAL_RMM_EVENT("tactical-rmm.postgres.events", "TACTICAL_RMM", "agent_id"),
+    FLEET_MDM_EVENT("fleet.mysql.events", "FLEET_MDM", "uuid"),
+    FLEET_MDM_ACTIVITY("fleet.activities.events", "FLEET_MDM", null),
+    FLEET_MDM_HOST_ACTIVITY("fleet.host_activities.events", "FLEET_MDM", "host_id"),
+    FLEET_MDM_QUERY_RESULT("fleet.query_results.events", "FLEET_MDM", "host_id");
+
+    private final String topic;
+    private final String toolType;
+    private final String agentField;
+
+    InboundMessageType(String topic, String toolType, String agentField) {
+        this.topic = topic;
+        this.toolType = toolType;
+        this.agentField = agentField;
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    public String getToolType() {
+        return toolType;
+    }
+
+    /**
+     * The {@code after} field holding the tool agent id used for enrichment, {@code null} if none.
+     */
+    public String getAgentField() {
+        return agentField;
+    }
+
+    /**
+     * Fields the service reads selectively from envelopes of this topic: the source position and
+     * the agent field used for enrichment.
+     */
+    public EnvelopeFieldSet getFieldSet() {
+        return agentField == null ? EnvelopeFieldSet.POSITION_ONLY : new EnvelopeFieldSet(Set.of(agentField), true);
+    }
+
+    /**
+     * The {@code message-type} header the Debezium connector stamps on a change of the given
+     * source table, {@code null} if the connector adds no headers to this topic.
+     */
+    public String headerMessageType(String table) {
+        return switch (this) {
+            case MESHCENTRAL_EVENT -> "MESHCENTRAL_EVENT";
+            case TACTICAL_RMM_EVENT -> "logs_auditlog".equals(table) ? "TACTICAL_RMM_AUDIT_EVENT" : "TACTICAL_RMM_AGENT_HISTORY_EVENT";
+            case FLEET_MDM_QUERY_RESULT -> "FLEET_MDM_QUERY_RESULT_EVENT";
+            default -> null;
+        };
+    }
+
+    public static InboundMessageType ofTopic(String topic) {
+        return Arrays.stream(values())
+                .filter(type -> type.topic.equals(topic))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown inbound topic: " + topic));
+    }
+
+}
@@ -0,0 +1,79 @@
+package com.openframe.stream.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Loads the recorded Debezium envelopes used by the benchmarks.
+ * <p>
+ * Envelopes are stored one per line in {@code envelopes/<topic>.jsonl}.
+ */
+public final class RecordedEnvelopes {
+
+    static final String MESSAGE_TYPE_HEADER = "message-type";
+    static final String TYPE_ID_HEADER = "__TypeId__";
+    static final String DEBEZIUM_MESSAGE_TYPE = "com.openframe.kafka.model.debezium.CommonDebeziumMessage";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private RecordedEnvelopes() {
+    }
+
+    public static byte[][] load(InboundMessageType type) {
+        ClassPathResource resource = new ClassPathResource("envelopes/" + type.getTopic() + ".jsonl");
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            byte[][] envelopes = reader.lines()
+                    .filter(line -> !line.isBlank())
+                    .map(line -> line.getBytes(StandardCharsets.UTF_8))
+                    .toArray(byte[][]::new);
+            if (envelopes.length == 0) {
+                throw new IllegalStateException("No recorded envelopes for " + type.getTopic());
+            }
+            return envelopes;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load recorded envelopes for " + type.getTopic(), e);
+        }
+    }
+
+    /**
+     * Loads the envelopes together with the headers the Debezium connector adds to them, so the
+     * core deserializer resolves the same message type as in production.
+     */
+    public static RecordedEnvelope[] loadRecords(InboundMessageType type) {
+        return Arrays.stream(load(type))
+                .map(value -> new RecordedEnvelope(value, headersOf(type, value)))
+                .toArray(RecordedEnvelope[]::new);
+    }
+
+    private static Header[] headersOf(InboundMessageType type, byte[] value) {
+        String messageType;
+        try {
+            messageType = type.headerMessageType(OBJECT_MAPPER.readTree(value).path("source").path("table").asText());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Malformed recorded envelope for " + type.getTopic(), e);
+        }
+        if (messageType == null) {
+            return new Header[0];
+        }
+        return new Header[]{
+                new RecordHeader(MESSAGE_TYPE_HEADER, messageType.getBytes(StandardCharsets.UTF_8)),
+                new RecordHeader(TYPE_ID_HEADER, DEBEZIUM_MESSAGE_TYPE.getBytes(StandardCharsets.UTF_8))
+        };
+    }
+
+    /**
+     * A recorded envelope value and the connector headers it is delivered with.
+     */
+    public record RecordedEnvelope(byte[] value, Header[] headers) {
+    }
+
+}
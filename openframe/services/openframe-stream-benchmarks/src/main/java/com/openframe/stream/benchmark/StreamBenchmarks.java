@@ -0,0 +1,53 @@
+package com.openframe.stream.benchmark;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the stream benchmarks in the two passes used for capacity planning.
+ * <p>
+ * The throughput pass reports ops/s together with {@code gc.alloc.rate.norm}, i.e. bytes
+ * allocated per processed record. The sample pass reports latency percentiles, including p99,
+ * per message type. Results are written as JSON to {@code throughput.json} and
+ * {@code latency.json}; an optional argument narrows the benchmarks by regex.
+ */
+public class StreamBenchmarks {
+
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : StreamBenchmarks.class.getPackageName() + ".*Benchmark";
+
+        new Runner(common(include)
+                .mode(Mode.Throughput)
+                .timeUnit(TimeUnit.SECONDS)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result("throughput.json")
+                .build()).run();
+
+        new Runner(common(include)
+                .mode(Mode.SampleTime)
+                .timeUnit(TimeUnit.MICROSECONDS)
+                .resultFormat(ResultFormatType.JSON)
+                .result("latency.json")
+                .build()).run();
+    }
+
+    private static ChainedOptionsBuilder common(String include) {
+        return new OptionsBuilder()
+                .include(include)
+                .forks(1)
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(2))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(3));
+    }
+
+}
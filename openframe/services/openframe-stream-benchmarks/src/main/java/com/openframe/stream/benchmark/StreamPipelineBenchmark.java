@@ -0,0 +1,53 @@
+package com.openframe.stream.benchmark;
+
+import com.openframe.stream.benchmark.RecordedEnvelopes.RecordedEnvelope;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Replays recorded envelopes of one message type through the real stream pipeline: the core
+ * value deserializer, data enrichment and message handlers of the booted service, see
+ * {@link StreamPipelineContext}. Enrichment and sinks use the real MongoDB, Redis, Cassandra
+ * and Kafka clients, so the numbers include their round trips and move with every
+ * {@code openframe.libs.version} bump.
+ */
+@State(Scope.Thread)
+public class StreamPipelineBenchmark {
+
+    @Param
+    private InboundMessageType messageType;
+
+    private ConfigurableApplicationContext context;
+    private InboundListener listener;
+    private RecordedEnvelope[] envelopes;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        context = StreamPipelineContext.start();
+        listener = InboundListener.of(context, messageType.getTopic());
+        envelopes = RecordedEnvelopes.loadRecords(messageType);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object process() {
+        return listener.deliver(next());
+    }
+
+    private RecordedEnvelope next() {
+        RecordedEnvelope envelope = envelopes[cursor];
+        cursor = (cursor + 1) % envelopes.length;
+        return envelope;
+    }
+
+}
@@ -0,0 +1,57 @@
+package com.openframe.stream.benchmark;
+
+import com.openframe.stream.StreamApplication;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.kafka.config.AbstractKafkaListenerContainerFactory;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListenerContainer;
+
+/**
+ * Boots the real openframe-stream application context for the pipeline benchmarks.
+ * <p>
+ * The context runs on the base {@code openframe-stream.yml} without the config server and the
+ * web server. Listener containers never start: the benchmarks hand records to the container's
+ * message listener directly, see {@link InboundListener}, so the core deserializer, enrichment
+ * and handlers run as in production while the benchmark controls the input. Kafka, MongoDB,
+ * Redis and Cassandra are the real clients; point them at local instances with system
+ * properties, e.g. {@code -Dspring.oss-tenant.kafka.bootstrap-servers=localhost:9092}.
+ */
+final class StreamPipelineContext {
+
+    private StreamPipelineContext() {
+    }
+
+    static ConfigurableApplicationContext start() {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(StreamApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.cloud.config.enabled=false",
+                        "spring.config.import=optional:classpath:/openframe-stream.yml")
+                .initializers(ctx -> ctx.getBeanFactory().addBeanPostProcessor(new ListenerAutoStartupDisabler()))
+                .run();
+        // Listeners that force auto startup on their endpoint must not consume either
+        context.getBean(KafkaListenerEndpointRegistry.class).getAllListenerContainers().stream()
+                .filter(MessageListenerContainer::isRunning)
+                .forEach(MessageListenerContainer::stop);
+        return context;
+    }
+
+    private static final class ListenerAutoStartupDisabler implements BeanPostProcessor {
+
+        @Override
+        public Object postProcessBeforeInitialization(Object bean, String beanName) {
+            if (bean instanceof AbstractKafkaListenerContainerFactory<?, ?, ?> factory) {
+                factory.setAutoStartup(false);
+            } else if (bean instanceof AbstractMessageListenerContainer<?, ?> container) {
+                container.setAutoStartup(false);
+            }
+            return bean;
+        }
+
+    }
+
+}
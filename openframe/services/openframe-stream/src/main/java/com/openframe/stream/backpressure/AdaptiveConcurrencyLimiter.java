@@ -0,0 +1,157 @@
+package com.openframe.stream.backpressure;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit for Cassandra writes that adapts to the observed write latency.
+ * <p>
+ * Writers take a slot before issuing a statement and {@link #release(long, boolean)} it on
+ * completion; each release feeds the {@link LimitAlgorithm}. A writer waits while the limit is
+ * reached. {@link #tryAcquire()} gives up after the acquire timeout so the caller can shed load
+ * upstream before it keeps waiting in {@link #acquire()}; a write is never issued without a slot.
+ * The wait is bounded by the in-flight writes, which complete or time out within the driver's
+ * request timeout. Once no writer waits and a slot is free, the headroom listener is notified.
+ */
+@Slf4j
+public class AdaptiveConcurrencyLimiter {
+
+    static final String METRIC_PREFIX = "openframe.stream.backpressure";
+
+    private final LimitAlgorithm algorithm;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long acquireTimeoutNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+
+    private double limit;
+    private volatile int currentLimit;
+    private volatile int inFlight;
+    private int waiting;
+    private Runnable headroomListener = () -> {
+    };
+
+    private final Timer waitTimer;
+    private final Counter acquireTimeouts;
+    private final Counter drops;
+
+    public AdaptiveConcurrencyLimiter(LimitAlgorithm algorithm, int initialLimit, int minLimit, int maxLimit,
+                                      Duration acquireTimeout, MeterRegistry meterRegistry) {
+        this.algorithm = algorithm;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+        this.limit = clamp(initialLimit);
+        this.currentLimit = (int) limit;
+
+        Gauge.builder(METRIC_PREFIX + ".limit", this, AdaptiveConcurrencyLimiter::getLimit).register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".inflight", this, AdaptiveConcurrencyLimiter::getInFlight).register(meterRegistry);
+        this.waitTimer = Timer.builder(METRIC_PREFIX + ".wait").register(meterRegistry);
+        this.acquireTimeouts = Counter.builder(METRIC_PREFIX + ".acquire.timeouts").register(meterRegistry);
+        this.drops = Counter.builder(METRIC_PREFIX + ".drops").register(meterRegistry);
+    }
+
+    /**
+     * Takes a write slot, waiting at most the acquire timeout while the limit is reached.
+     *
+     * @return {@code false} if no slot became free in time; no slot is taken then
+     */
+    public boolean tryAcquire() {
+        return acquire(acquireTimeoutNanos);
+    }
+
+    /**
+     * Takes a write slot, waiting as long as the limit is reached. An interrupted writer takes the
+     * slot anyway and keeps its interrupt flag, so a stopping container is not held up.
+     */
+    public void acquire() {
+        acquire(Long.MAX_VALUE);
+    }
+
+    private boolean acquire(long timeoutNanos) {
+        long started = System.nanoTime();
+        lock.lock();
+        waiting++;
+        try {
+            long remaining = timeoutNanos;
+            while (inFlight >= currentLimit) {
+                if (remaining <= 0) {
+                    acquireTimeouts.increment();
+                    return false;
+                }
+                remaining = released.awaitNanos(remaining);
+            }
+            inFlight++;
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            inFlight++;
+            return true;
+        } finally {
+            waiting--;
+            lock.unlock();
+            waitTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Returns a write slot and adapts the limit.
+     *
+     * @param rttNanos latency of the completed write
+     * @param dropped  whether the write signals congestion
+     */
+    public void release(long rttNanos, boolean dropped) {
+        if (dropped) {
+            drops.increment();
+        }
+        boolean headroom;
+        lock.lock();
+        try {
+            int previous = currentLimit;
+            limit = clamp(algorithm.update(limit, rttNanos, inFlight, dropped));
+            currentLimit = (int) limit;
+            inFlight--;
+            if (currentLimit != previous) {
+                log.debug("Cassandra write concurrency limit {} -> {}", previous, currentLimit);
+            }
+            headroom = waiting == 0 && inFlight < currentLimit;
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (headroom) {
+            headroomListener.run();
+        }
+    }
+
+    /**
+     * @param listener invoked after a release that leaves a free slot and no waiting writer; runs on
+     *                 the releasing thread, which may be a driver I/O thread
+     */
+    public void setHeadroomListener(Runnable listener) {
+        this.headroomListener = listener;
+    }
+
+    private double clamp(double value) {
+        return Math.max(minLimit, Math.min(maxLimit, value));
+    }
+
+    public int getLimit() {
+        return currentLimit;
+    }
+
+    public int getInFlight() {
+        return inFlight;
+    }
+
+}
@@ -0,0 +1,39 @@
+package com.openframe.stream.backpressure;
+
+/**
+ * Additive increase, multiplicative decrease.
+ * <p>
+ * The limit grows by one per round trip, i.e. by {@code 1 / limit} per write, while at least half
+ * of it is used and is multiplied by the backoff ratio on a drop or a write slower than the latency
+ * threshold. Writes that were already in flight when the limit was decreased report the same
+ * congestion, so the limit is decreased at most once per round trip.
+ */
+public class AimdLimit implements LimitAlgorithm {
+
+    private final double backoffRatio;
+    private final long latencyThresholdNanos;
+
+    private long lastDecrease;
+
+    public AimdLimit(double backoffRatio, long latencyThresholdNanos) {
+        this.backoffRatio = backoffRatio;
+        this.latencyThresholdNanos = latencyThresholdNanos;
+    }
+
+    @Override
+    public double update(double limit, long rttNanos, int inFlight, boolean dropped) {
+        if (dropped || rttNanos > latencyThresholdNanos) {
+            long now = System.nanoTime();
+            if (now - lastDecrease < rttNanos) {
+                return limit;
+            }
+            lastDecrease = now;
+            return limit * backoffRatio;
+        }
+        if (inFlight * 2 >= limit) {
+            return limit + 1 / limit;
+        }
+        return limit;
+    }
+
+}
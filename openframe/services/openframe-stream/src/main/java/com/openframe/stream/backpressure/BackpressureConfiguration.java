@@ -0,0 +1,46 @@
+package com.openframe.stream.backpressure;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+
+@Configuration
+@EnableConfigurationProperties(BackpressureProperties.class)
+@ConditionalOnClass(name = "com.datastax.oss.driver.api.core.CqlSession")
+@ConditionalOnProperty(prefix = "openframe.stream.backpressure", name = "enabled", havingValue = "true")
+public class BackpressureConfiguration {
+
+    @Bean
+    public AdaptiveConcurrencyLimiter cassandraConcurrencyLimiter(BackpressureProperties properties,
+                                                                  MeterRegistry meterRegistry) {
+        LimitAlgorithm algorithm = switch (properties.getAlgorithm()) {
+            case AIMD -> new AimdLimit(properties.getAimd().getBackoffRatio(),
+                    properties.getAimd().getLatencyThreshold().toNanos());
+            case VEGAS -> new VegasLimit(properties.getVegas().getAlpha(), properties.getVegas().getBeta(),
+                    properties.getVegas().getProbeInterval());
+        };
+        return new AdaptiveConcurrencyLimiter(algorithm, properties.getInitialLimit(), properties.getMinLimit(),
+                properties.getMaxLimit(), properties.getAcquireTimeout(), meterRegistry);
+    }
+
+    @Bean
+    public PartitionPauseController partitionPauseController(AdaptiveConcurrencyLimiter limiter,
+                                                             ObjectProvider<KafkaListenerEndpointRegistry> registry,
+                                                             MeterRegistry meterRegistry) {
+        PartitionPauseController controller = new PartitionPauseController(registry, meterRegistry);
+        limiter.setHeadroomListener(controller::resumeAll);
+        return controller;
+    }
+
+    @Bean
+    public CassandraBackpressureInterceptor cassandraBackpressureInterceptor(AdaptiveConcurrencyLimiter limiter,
+                                                                             PartitionPauseController partitionPauseController) {
+        return new CassandraBackpressureInterceptor(limiter, partitionPauseController);
+    }
+
+}
@@ -0,0 +1,75 @@
+package com.openframe.stream.backpressure;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Adaptive backpressure between the inbound consumers and Cassandra, bound from
+ * {@code openframe.stream.backpressure}.
+ */
+@Data
+@ConfigurationProperties(prefix = "openframe.stream.backpressure")
+public class BackpressureProperties {
+
+    private boolean enabled = false;
+
+    private Algorithm algorithm = Algorithm.VEGAS;
+
+    private int initialLimit = 20;
+
+    private int minLimit = 1;
+
+    private int maxLimit = 200;
+
+    /**
+     * Time a listener thread waits for a free write slot before the partitions it processes are paused;
+     * the write keeps waiting for its slot afterwards.
+     */
+    private Duration acquireTimeout = Duration.ofSeconds(5);
+
+    private Aimd aimd = new Aimd();
+
+    private Vegas vegas = new Vegas();
+
+    public enum Algorithm {
+        AIMD, VEGAS
+    }
+
+    @Data
+    public static class Aimd {
+
+        /**
+         * Multiplicative decrease applied on a timeout, an overload or a slow write.
+         */
+        private double backoffRatio = 0.9;
+
+        /**
+         * Writes slower than this count as a drop.
+         */
+        private Duration latencyThreshold = Duration.ofMillis(500);
+
+    }
+
+    @Data
+    public static class Vegas {
+
+        /**
+         * Queue size below which the limit grows, scaled by log10 of the limit.
+         */
+        private int alpha = 3;
+
+        /**
+         * Queue size above which the limit shrinks, scaled by log10 of the limit.
+         */
+        private int beta = 6;
+
+        /**
+         * Samples per probe window; the no-load latency is reset to the minimum of each window, so a lasting shift is picked up.
+         */
+        private int probeInterval = 1000;
+
+    }
+
+}
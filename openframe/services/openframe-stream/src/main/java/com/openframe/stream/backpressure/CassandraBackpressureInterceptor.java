@@ -0,0 +1,60 @@
+package com.openframe.stream.backpressure;
+
+import com.datastax.oss.driver.api.core.DriverTimeoutException;
+import com.datastax.oss.driver.api.core.NodeUnavailableException;
+import com.datastax.oss.driver.api.core.connection.BusyConnectionException;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.core.servererrors.OverloadedException;
+import com.datastax.oss.driver.api.core.servererrors.WriteTimeoutException;
+import com.openframe.stream.cassandra.CqlStatementInterceptor;
+import com.openframe.stream.cassandra.CqlStatements;
+import com.openframe.stream.cassandra.DeferredStatements;
+import lombok.RequiredArgsConstructor;
+
+import java.util.concurrent.CompletionException;
+
+/**
+ * Runs the writes of the stream core through the {@link AdaptiveConcurrencyLimiter}.
+ * <p>
+ * Reads are not limited, nor are deferred writes, which take part in the limit through the batch
+ * that eventually executes them. When no write slot frees up within the acquire timeout the
+ * partitions the listener thread is processing are paused through the {@link PartitionPauseController},
+ * then the write keeps waiting for its slot. Client and server timeouts, overload responses and busy
+ * connections are reported to the limiter as drops.
+ */
+@RequiredArgsConstructor
+public class CassandraBackpressureInterceptor implements CqlStatementInterceptor {
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final PartitionPauseController pauseController;
+
+    @Override
+    public Statement<?> beforeExecute(Statement<?> statement) {
+        if (isLimited(statement) && !limiter.tryAcquire()) {
+            pauseController.pauseCurrentPartitions();
+            limiter.acquire();
+        }
+        return statement;
+    }
+
+    @Override
+    public void afterExecute(Statement<?> statement, long elapsedNanos, Throwable error) {
+        if (isLimited(statement)) {
+            limiter.release(elapsedNanos, isCongestion(error));
+        }
+    }
+
+    private static boolean isLimited(Statement<?> statement) {
+        return CqlStatements.isWrite(statement) && !DeferredStatements.isDeferred();
+    }
+
+    static boolean isCongestion(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause instanceof DriverTimeoutException
+                || cause instanceof WriteTimeoutException
+                || cause instanceof OverloadedException
+                || cause instanceof BusyConnectionException
+                || cause instanceof NodeUnavailableException;
+    }
+
+}
@@ -0,0 +1,19 @@
+package com.openframe.stream.backpressure;
+
+/**
+ * Computes the next concurrency limit from one completed write.
+ * <p>
+ * Implementations are called under the lock of {@link AdaptiveConcurrencyLimiter} and may keep state.
+ */
+public interface LimitAlgorithm {
+
+    /**
+     * @param limit     the current limit
+     * @param rttNanos  latency of the completed write
+     * @param inFlight  writes in flight when the write completed, including itself
+     * @param dropped   whether the write timed out, was rejected as overloaded or otherwise signals congestion
+     * @return the new, not yet clamped, limit
+     */
+    double update(double limit, long rttNanos, int inFlight, boolean dropped);
+
+}
@@ -0,0 +1,104 @@
+package com.openframe.stream.backpressure;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.listener.RecordInterceptor;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pauses the partitions whose records wait for a Cassandra write slot and resumes them once the
+ * {@link AdaptiveConcurrencyLimiter} has headroom again.
+ * <p>
+ * As a record interceptor it remembers the partitions each listener thread processes in the
+ * current poll. When a write of such a thread cannot get a slot, those partitions are paused
+ * through their listener container, which stops fetching them at its next poll while the consumer
+ * keeps polling and stays in the group. The records already fetched are processed as usual, so no
+ * offsets are skipped or rewound. Only partitions paused here are resumed here.
+ */
+@Slf4j
+public class PartitionPauseController implements RecordInterceptor<Object, Object> {
+
+    private final ObjectProvider<KafkaListenerEndpointRegistry> registry;
+    private final ThreadLocal<Set<TopicPartition>> current = ThreadLocal.withInitial(HashSet::new);
+    private final Map<TopicPartition, MessageListenerContainer> paused = new ConcurrentHashMap<>();
+    private final Counter pauses;
+
+    public PartitionPauseController(ObjectProvider<KafkaListenerEndpointRegistry> registry, MeterRegistry meterRegistry) {
+        this.registry = registry;
+        this.pauses = Counter.builder(AdaptiveConcurrencyLimiter.METRIC_PREFIX + ".pauses").register(meterRegistry);
+        Gauge.builder(AdaptiveConcurrencyLimiter.METRIC_PREFIX + ".paused.partitions", paused, Map::size)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void setupThreadState(Consumer<?, ?> consumer) {
+        current.get().clear();
+    }
+
+    @Override
+    public ConsumerRecord<Object, Object> intercept(ConsumerRecord<Object, Object> record, Consumer<Object, Object> consumer) {
+        current.get().add(new TopicPartition(record.topic(), record.partition()));
+        return record;
+    }
+
+    @Override
+    public void clearThreadState(Consumer<?, ?> consumer) {
+        current.get().clear();
+    }
+
+    /**
+     * Pauses the partitions of the poll the calling thread is processing.
+     */
+    public void pauseCurrentPartitions() {
+        Set<TopicPartition> partitions = current.get();
+        if (partitions.isEmpty()) {
+            return;
+        }
+        KafkaListenerEndpointRegistry endpointRegistry = registry.getIfAvailable();
+        if (endpointRegistry == null) {
+            return;
+        }
+        for (MessageListenerContainer container : endpointRegistry.getAllListenerContainers()) {
+            Collection<TopicPartition> assigned = container.getAssignedPartitions();
+            if (assigned == null) {
+                continue;
+            }
+            for (TopicPartition partition : partitions) {
+                if (assigned.contains(partition) && paused.putIfAbsent(partition, container) == null) {
+                    container.pausePartition(partition);
+                    pauses.increment();
+                    log.info("No Cassandra write slot for {}, pausing the partition", partition);
+                }
+            }
+        }
+    }
+
+    /**
+     * Resumes every partition paused by this controller.
+     */
+    public void resumeAll() {
+        if (paused.isEmpty()) {
+            return;
+        }
+        paused.forEach((partition, container) -> {
+            if (paused.remove(partition, container)) {
+                container.resumePartition(partition);
+                log.info("Cassandra writes have headroom again, resuming {}", partition);
+            }
+        });
+    }
+
+}
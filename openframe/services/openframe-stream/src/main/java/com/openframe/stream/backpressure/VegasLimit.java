@@ -0,0 +1,82 @@
+package com.openframe.stream.backpressure;
+
+/**
+ * Delay-based limit in the style of TCP Vegas.
+ * <p>
+ * The queue building up in Cassandra is estimated as {@code limit * (1 - rttNoLoad / rtt)}, where
+ * {@code rtt} is a moving average of the write latency and the no-load latency is the smallest
+ * latency of the previous probe window. The limit grows while
+ * the estimated queue is below {@code alpha} and shrinks once it exceeds {@code beta}, both scaled
+ * by {@code log10(limit)}. Like TCP Vegas the limit is adjusted at most once per round trip, so the
+ * moving average can catch up with one adjustment before the next. Drops shrink the limit
+ * regardless of latency and are kept out of the latency samples: a write rejected right away
+ * would otherwise pass for the no-load latency.
+ */
+public class VegasLimit implements LimitAlgorithm {
+
+    private final int alpha;
+    private final int beta;
+    private final int probeInterval;
+
+    private static final double SMOOTHING = 0.05;
+
+    private long rttNoLoad;
+    private double rttAverage;
+    private long windowMin = Long.MAX_VALUE;
+    private int samples;
+    private long lastAdjustment;
+
+    public VegasLimit(int alpha, int beta, int probeInterval) {
+        this.alpha = alpha;
+        this.beta = beta;
+        this.probeInterval = probeInterval;
+    }
+
+    @Override
+    public double update(double limit, long rttNanos, int inFlight, boolean dropped) {
+        long now = System.nanoTime();
+        if (dropped) {
+            // an overloaded or unavailable coordinator fails fast; its latency is no no-load sample
+            if (now - lastAdjustment < rttAverage) {
+                return limit;
+            }
+            lastAdjustment = now;
+            return limit - Math.max(1, Math.log10(limit));
+        }
+
+        windowMin = Math.min(windowMin, rttNanos);
+        rttAverage = rttAverage == 0 ? rttNanos : rttAverage + SMOOTHING * (rttNanos - rttAverage);
+        if (++samples >= probeInterval) {
+            // a window minimum above the old baseline means the baseline moved, e.g. after a topology change
+            rttNoLoad = windowMin;
+            windowMin = Long.MAX_VALUE;
+            samples = 0;
+        }
+        if (rttNoLoad == 0 || rttNanos < rttNoLoad) {
+            rttNoLoad = rttNanos;
+            return limit;
+        }
+
+        if (now - lastAdjustment < rttAverage) {
+            return limit;
+        }
+        lastAdjustment = now;
+
+        double log = Math.max(1, Math.log10(limit));
+        double queue = Math.ceil(limit * (1 - rttNoLoad / rttAverage));
+        if (queue > beta * log) {
+            return limit - log;
+        }
+        // no growth while the limit is not the bottleneck
+        if (inFlight * 2 < limit) {
+            return limit;
+        }
+        if (queue <= log) {
+            return limit + log;
+        } else if (queue < alpha * log) {
+            return limit + 1;
+        }
+        return limit;
+    }
+
+}
@@ -0,0 +1,39 @@
+package com.openframe.stream.batch;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.RecordInterceptor;
+
+@Configuration
+@EnableConfigurationProperties(MicroBatchProperties.class)
+@ConditionalOnProperty(prefix = "openframe.stream.batch", name = "enabled", havingValue = "true")
+public class MicroBatchConfiguration {
+
+    @Bean
+    public static MicroBatchKafkaPostProcessor microBatchKafkaPostProcessor(
+            ObjectProvider<MicroBatchProperties> properties) {
+        return new MicroBatchKafkaPostProcessor(properties);
+    }
+
+    /**
+     * Not combined with exactly-once mode, whose transactions commit the offsets before the poll ends.
+     */
+    @Bean
+    @ConditionalOnExpression("${openframe.stream.batch.unlogged-batches:true} and !${openframe.stream.exactly-once.enabled:false}")
+    public UnloggedBatchWriter unloggedBatchWriter(MicroBatchProperties properties) {
+        return new UnloggedBatchWriter(properties.getMaxBatchStatements());
+    }
+
+    @Bean
+    public MicroBatchListenerCustomizer microBatchListenerCustomizer(ObjectProvider<KafkaTemplate<?, ?>> kafkaTemplates,
+                                                                     ObjectProvider<UnloggedBatchWriter> batchWriter,
+                                                                     ObjectProvider<RecordInterceptor<?, ?>> interceptors) {
+        return new MicroBatchListenerCustomizer(kafkaTemplates, batchWriter.getIfAvailable(), interceptors);
+    }
+
+}
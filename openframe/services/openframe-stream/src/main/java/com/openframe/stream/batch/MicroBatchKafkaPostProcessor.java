@@ -0,0 +1,71 @@
+package com.openframe.stream.batch;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.kafka.config.AbstractKafkaListenerContainerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+/**
+ * Switches the Kafka infrastructure provided by the stream core into micro-batch mode.
+ * <p>
+ * Consumers fetch larger polls, producers linger long enough to send the records of one poll
+ * as multi-record produce requests and listener containers acknowledge per poll instead of
+ * per record. Cassandra batches and producers are flushed at the end of each poll by
+ * {@link PollBatchListener}.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class MicroBatchKafkaPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<MicroBatchProperties> properties;
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DefaultKafkaConsumerFactory<?, ?> consumerFactory) {
+            consumerFactory.updateConfigs(consumerConfigs(consumerFactory.getConfigurationProperties()));
+            log.info("Applied micro-batch consumer settings to {}", beanName);
+        } else if (bean instanceof DefaultKafkaProducerFactory<?, ?> producerFactory) {
+            producerFactory.updateConfigs(producerConfigs());
+            log.info("Applied micro-batch producer settings to {}", beanName);
+        } else if (bean instanceof AbstractKafkaListenerContainerFactory containerFactory) {
+            containerFactory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+            log.info("Listener containers of {} acknowledge per poll", beanName);
+        }
+        return bean;
+    }
+
+    private Map<String, Object> consumerConfigs(Map<String, Object> current) {
+        MicroBatchProperties batch = properties.getObject();
+        Map<String, Object> configs = new HashMap<>();
+        configs.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, batch.getMaxPollRecords());
+        configs.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, batch.getFetchMinBytes());
+        configs.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, (int) batch.getFetchMaxWait().toMillis());
+        if (!batch.getCoalesceTopics().isEmpty()) {
+            configs.put(ConsumerConfig.INTERCEPTOR_CLASSES_CONFIG,
+                    PollCoalescingInterceptor.appendTo(current.get(ConsumerConfig.INTERCEPTOR_CLASSES_CONFIG)));
+            configs.put(PollCoalescingInterceptor.TOPICS_CONFIG, PollCoalescingInterceptor.mergeTopics(
+                    current.get(PollCoalescingInterceptor.TOPICS_CONFIG), new LinkedHashSet<>(batch.getCoalesceTopics())));
+        }
+        return configs;
+    }
+
+    private Map<String, Object> producerConfigs() {
+        MicroBatchProperties batch = properties.getObject();
+        Map<String, Object> configs = new HashMap<>();
+        configs.put(ProducerConfig.LINGER_MS_CONFIG, (int) batch.getProducerLinger().toMillis());
+        configs.put(ProducerConfig.BATCH_SIZE_CONFIG, batch.getProducerBatchSize());
+        configs.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, batch.getProducerCompressionType());
+        return configs;
+    }
+
+}
@@ -0,0 +1,64 @@
+package com.openframe.stream.batch;
+
+import com.openframe.stream.container.InboundContainerCustomizer;
+import com.openframe.stream.container.RecordInterceptorPostProcessor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.Ordered;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import org.springframework.kafka.listener.BatchMessageListener;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.MessageListener;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.listener.RecordInterceptor;
+
+import java.util.Set;
+
+/**
+ * Replaces the record listener of the inbound containers with a {@link PollBatchListener}, so each
+ * poll is processed and flushed as one listener invocation.
+ * <p>
+ * The record interceptors installed by {@link RecordInterceptorPostProcessor} are moved from the
+ * container to the batch listener. Runs after the other customizers: containers already switched to
+ * parallel lanes or to another acknowledgment mode than per poll are left alone.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class MicroBatchListenerCustomizer implements InboundContainerCustomizer, Ordered {
+
+    private final ObjectProvider<KafkaTemplate<?, ?>> kafkaTemplates;
+    private final UnloggedBatchWriter batchWriter;
+    private final ObjectProvider<RecordInterceptor<?, ?>> interceptors;
+
+    @Override
+    public void customize(MessageListenerContainer container, Set<String> topics) {
+        ContainerProperties containerProperties = container.getContainerProperties();
+        Object listener = containerProperties.getMessageListener();
+        if (containerProperties.getAckMode() != ContainerProperties.AckMode.BATCH
+                || listener instanceof BatchMessageListener<?, ?> || !(listener instanceof MessageListener<?, ?>)) {
+            log.info("Listener container {} does not acknowledge a record listener per poll, micro-batch mode skipped",
+                    container.getListenerId());
+            return;
+        }
+
+        if (!(container instanceof AbstractMessageListenerContainer<?, ?> listenerContainer)) {
+            log.warn("Listener container {} does not expose its record interceptor, micro-batch mode skipped",
+                    container.getListenerId());
+            return;
+        }
+
+        listenerContainer.setRecordInterceptor(null);
+        container.setupMessageListener(new PollBatchListener(listener,
+                RecordInterceptorPostProcessor.combine(interceptors), kafkaTemplates, batchWriter));
+        log.info("Listener container {} for {} processes and flushes each poll as a batch",
+                container.getListenerId(), topics);
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+}
@@ -0,0 +1,50 @@
+package com.openframe.stream.batch;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Micro-batch sink mode settings for the inbound Debezium listeners.
+ * <p>
+ * When enabled every consumer poll is treated as one unit of work: records of upsert topics are
+ * coalesced to the last write per key, Cassandra writes are grouped into batches per partition,
+ * records are produced to the outbound topics as multi-record requests and offsets are committed
+ * only once the whole poll has been flushed.
+ */
+@Data
+@ConfigurationProperties(prefix = "openframe.stream.batch")
+public class MicroBatchProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Topics whose polls are collapsed to the last record per partition and key. Only upsert-style
+     * topics qualify, where every record carries the full row state; log topics feeding Pinot need
+     * every record.
+     */
+    private List<String> coalesceTopics = new ArrayList<>();
+
+    /**
+     * Send the Cassandra writes of a poll as unlogged batches per partition.
+     */
+    private boolean unloggedBatches = true;
+
+    private int maxBatchStatements = 50;
+
+    private int maxPollRecords = 500;
+
+    private int fetchMinBytes = 64 * 1024;
+
+    private Duration fetchMaxWait = Duration.ofMillis(250);
+
+    private Duration producerLinger = Duration.ofMillis(20);
+
+    private int producerBatchSize = 256 * 1024;
+
+    private String producerCompressionType = "lz4";
+
+}
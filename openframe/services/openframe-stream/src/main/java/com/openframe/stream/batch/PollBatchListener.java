@@ -0,0 +1,144 @@
+package com.openframe.stream.batch;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.AcknowledgingConsumerAwareMessageListener;
+import org.springframework.kafka.listener.AcknowledgingMessageListener;
+import org.springframework.kafka.listener.BatchAcknowledgingConsumerAwareMessageListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.listener.ConsumerAwareMessageListener;
+import org.springframework.kafka.listener.ListenerType;
+import org.springframework.kafka.listener.ListenerUtils;
+import org.springframework.kafka.listener.MessageListener;
+import org.springframework.kafka.listener.RecordInterceptor;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.util.List;
+
+/**
+ * Batch listener that runs the record listener of the stream core over a whole poll and flushes the
+ * Cassandra batches and the outbound producers before it returns.
+ * <p>
+ * The container commits the offsets of a batch listener only when it returns normally, so a poll is
+ * acknowledged only after its Cassandra writes and its Pinot and device records were flushed. A flush
+ * failure is thrown to the container's error handler, which retries or recovers the poll; no offsets
+ * of it are committed. When a record fails, the work of the records before it is flushed first and the
+ * failure is reported as a {@link BatchListenerFailedException} for that record, so the error handler
+ * commits the records before it and handles the failing record as it would for a record listener.
+ * Transactional templates are skipped, their records are flushed when the container commits the
+ * transaction.
+ * <p>
+ * The record interceptors of the container are applied here per record, including their per-poll
+ * thread state.
+ */
+@Slf4j
+public class PollBatchListener implements BatchAcknowledgingConsumerAwareMessageListener<Object, Object> {
+
+    private static final Acknowledgment NO_OP_ACK = () -> {
+    };
+
+    private final Object delegate;
+    private final ListenerType delegateType;
+    private final RecordInterceptor<Object, Object> interceptor;
+    private final ObjectProvider<KafkaTemplate<?, ?>> kafkaTemplates;
+    private final UnloggedBatchWriter batchWriter;
+
+    /**
+     * @param interceptor the record interceptor removed from the container, {@code null} for none
+     * @param batchWriter the Cassandra batch writer, {@code null} when unlogged batches are disabled
+     */
+    public PollBatchListener(Object delegate, RecordInterceptor<Object, Object> interceptor,
+                             ObjectProvider<KafkaTemplate<?, ?>> kafkaTemplates, UnloggedBatchWriter batchWriter) {
+        this.delegate = delegate;
+        this.delegateType = ListenerUtils.determineListenerType(delegate);
+        this.interceptor = interceptor;
+        this.kafkaTemplates = kafkaTemplates;
+        this.batchWriter = batchWriter;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void onMessage(List<ConsumerRecord<Object, Object>> records, Acknowledgment acknowledgment,
+                          Consumer<?, ?> consumer) {
+        Consumer<Object, Object> recordConsumer = (Consumer<Object, Object>) consumer;
+        if (interceptor != null) {
+            interceptor.setupThreadState(consumer);
+        }
+        try {
+            if (batchWriter != null) {
+                batchWriter.begin();
+            }
+            for (ConsumerRecord<Object, Object> record : records) {
+                try {
+                    invoke(record, recordConsumer);
+                } catch (RuntimeException e) {
+                    flush();
+                    throw new BatchListenerFailedException("Processing of %s-%d@%d failed"
+                            .formatted(record.topic(), record.partition(), record.offset()), e, record);
+                }
+            }
+            flush();
+        } finally {
+            if (batchWriter != null) {
+                batchWriter.discard();
+            }
+            if (interceptor != null) {
+                interceptor.clearThreadState(consumer);
+            }
+        }
+    }
+
+    /**
+     * @throws RuntimeException the failure of a Cassandra batch, after the producers were flushed
+     */
+    private void flush() {
+        try {
+            if (batchWriter != null) {
+                batchWriter.flush();
+            }
+        } finally {
+            kafkaTemplates.orderedStream()
+                    .filter(template -> !template.isTransactional())
+                    .forEach(KafkaTemplate::flush);
+        }
+    }
+
+    private void invoke(ConsumerRecord<Object, Object> record, Consumer<Object, Object> consumer) {
+        ConsumerRecord<Object, Object> intercepted = interceptor != null ? interceptor.intercept(record, consumer) : record;
+        if (intercepted == null) {
+            return;
+        }
+        try {
+            invokeDelegate(intercepted, consumer);
+            if (interceptor != null) {
+                interceptor.success(intercepted, consumer);
+            }
+        } catch (RuntimeException e) {
+            if (interceptor != null) {
+                interceptor.failure(intercepted, e, consumer);
+            }
+            throw e;
+        } finally {
+            if (interceptor != null) {
+                interceptor.afterRecord(intercepted, consumer);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void invokeDelegate(ConsumerRecord<Object, Object> record, Consumer<Object, Object> consumer) {
+        switch (delegateType) {
+            case ACKNOWLEDGING_CONSUMER_AWARE ->
+                    ((AcknowledgingConsumerAwareMessageListener<Object, Object>) delegate).onMessage(record, NO_OP_ACK, consumer);
+            case ACKNOWLEDGING ->
+                    ((AcknowledgingMessageListener<Object, Object>) delegate).onMessage(record, NO_OP_ACK);
+            case CONSUMER_AWARE ->
+                    ((ConsumerAwareMessageListener<Object, Object>) delegate).onMessage(record, consumer);
+            case SIMPLE -> ((MessageListener<Object, Object>) delegate).onMessage(record);
+        }
+    }
+
+}
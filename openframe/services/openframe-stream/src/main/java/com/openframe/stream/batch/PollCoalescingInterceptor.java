@@ -0,0 +1,143 @@
+package com.openframe.stream.batch;
+
+import com.openframe.stream.container.ConsumerInterceptors;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import org.apache.kafka.clients.consumer.ConsumerInterceptor;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Kafka consumer interceptor that collapses a poll to the last write per primary key.
+ * <p>
+ * Debezium keys records by the source primary key, so within one partition only the newest
+ * envelope of a key carries the state that has to reach Cassandra and Pinot. Older envelopes
+ * of the same key are dropped before they reach the listener. The newest record of every
+ * partition is always kept, so committed offsets still advance over the whole poll.
+ * Tombstones are never used to supersede a record, otherwise the preceding delete envelope
+ * would be lost.
+ * <p>
+ * Coalescing is limited to the topics listed in {@link #TOPICS_CONFIG}, which must be upsert-style
+ * topics: on log topics every record is an event of its own. {@value #ALL_TOPICS} coalesces every
+ * topic, an absent setting none.
+ */
+public class PollCoalescingInterceptor implements ConsumerInterceptor<Object, Object> {
+
+    public static final String TOPICS_CONFIG = "openframe.stream.coalesce.topics";
+    public static final String ALL_TOPICS = "*";
+
+    static final String RECORDS_METRIC = "openframe.stream.coalesce.records";
+
+    private final Map<String, Counter> absorbedCounters = new ConcurrentHashMap<>();
+    private final Map<String, Counter> emittedCounters = new ConcurrentHashMap<>();
+
+    private Set<String> topics = Set.of();
+
+    @Override
+    public ConsumerRecords<Object, Object> onConsume(ConsumerRecords<Object, Object> records) {
+        if (records.isEmpty()) {
+            return records;
+        }
+
+        Map<TopicPartition, List<ConsumerRecord<Object, Object>>> coalesced = new HashMap<>();
+        boolean changed = false;
+        for (TopicPartition partition : records.partitions()) {
+            List<ConsumerRecord<Object, Object>> partitionRecords = records.records(partition);
+            List<ConsumerRecord<Object, Object>> kept = coalesces(partition.topic())
+                    ? coalesce(partitionRecords)
+                    : partitionRecords;
+            int absorbed = partitionRecords.size() - kept.size();
+            if (absorbed > 0) {
+                changed = true;
+                counter(absorbedCounters, partition.topic(), "absorbed").increment(absorbed);
+            }
+            counter(emittedCounters, partition.topic(), "emitted").increment(kept.size());
+            coalesced.put(partition, kept);
+        }
+        return changed ? new ConsumerRecords<>(coalesced) : records;
+    }
+
+    static List<ConsumerRecord<Object, Object>> coalesce(List<ConsumerRecord<Object, Object>> records) {
+        if (records.size() < 2) {
+            return records;
+        }
+
+        Set<Object> seenKeys = new HashSet<>();
+        List<ConsumerRecord<Object, Object>> kept = new ArrayList<>(records.size());
+        for (int i = records.size() - 1; i >= 0; i--) {
+            ConsumerRecord<Object, Object> record = records.get(i);
+            if (record.key() == null || record.value() == null || seenKeys.add(keyOf(record.key()))) {
+                kept.add(record);
+            }
+        }
+        Collections.reverse(kept);
+        return kept;
+    }
+
+    private static Object keyOf(Object key) {
+        return key instanceof byte[] bytes ? ByteBuffer.wrap(bytes) : key;
+    }
+
+    private boolean coalesces(String topic) {
+        return topics.contains(ALL_TOPICS) || topics.contains(topic);
+    }
+
+    private static Counter counter(Map<String, Counter> counters, String topic, String outcome) {
+        return counters.computeIfAbsent(topic, t -> Metrics.counter(RECORDS_METRIC, "topic", t, "outcome", outcome));
+    }
+
+    /**
+     * Adds this interceptor to the {@code interceptor.classes} value of a consumer factory.
+     */
+    public static List<String> appendTo(Object configured) {
+        return ConsumerInterceptors.append(configured, PollCoalescingInterceptor.class);
+    }
+
+    /**
+     * Merges two {@link #TOPICS_CONFIG} values, keeping {@value #ALL_TOPICS} dominant.
+     */
+    public static String mergeTopics(Object configured, Set<String> added) {
+        Set<String> merged = new LinkedHashSet<>(parseTopics(configured));
+        merged.addAll(added);
+        return merged.contains(ALL_TOPICS) ? ALL_TOPICS : String.join(",", merged);
+    }
+
+    private static Set<String> parseTopics(Object configured) {
+        Set<String> parsed = new LinkedHashSet<>();
+        if (configured != null) {
+            for (String topic : configured.toString().split(",")) {
+                if (!topic.isBlank()) {
+                    parsed.add(topic.trim());
+                }
+            }
+        }
+        return parsed;
+    }
+
+    @Override
+    public void onCommit(Map<TopicPartition, OffsetAndMetadata> offsets) {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+        topics = parseTopics(configs.get(TOPICS_CONFIG));
+    }
+
+}
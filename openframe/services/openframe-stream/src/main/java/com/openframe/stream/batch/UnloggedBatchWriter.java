@@ -0,0 +1,187 @@
+package com.openframe.stream.batch;
+
+import com.datastax.oss.driver.api.core.ConsistencyLevel;
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.BatchStatement;
+import com.datastax.oss.driver.api.core.cql.BatchType;
+import com.datastax.oss.driver.api.core.cql.BatchableStatement;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.openframe.stream.cassandra.CqlStatementDeferral;
+import com.openframe.stream.cassandra.CqlStatements;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+/**
+ * Collects the Cassandra writes of one poll and sends them as unlogged batches per table and partition.
+ * <p>
+ * Between {@link #begin()} and {@link #flush()} on a listener thread, plain writes with a known
+ * partition are deferred and grouped by destination table and partition key, plus the write timestamp,
+ * consistency level and execution profile they must share. Each group goes out as a single-partition
+ * {@link BatchType#UNLOGGED} batch, one request to the replicas of that partition instead of one per
+ * statement. A group never holds the same statement twice: writes of the same row would share the
+ * batch timestamp, so the later one starts a new group which is sent after the earlier one.
+ * <p>
+ * Lightweight transactions stay per record and are executed directly: a conditional batch is applied
+ * or rejected as a whole and reports one outcome, while the caller of each conditional write needs its
+ * own. The upserts of the stream core are lightweight transactions, so in micro-batch mode they keep
+ * one request per record and only its plain writes are batched. Increments, statements without a table
+ * or routing key and statements issued on other threads are executed directly as well.
+ */
+public class UnloggedBatchWriter implements CqlStatementDeferral {
+
+    static final String STATEMENTS_METRIC = "openframe.stream.batch.cql.statements";
+    static final String REQUESTS_METRIC = "openframe.stream.batch.cql.requests";
+
+    private final int maxBatchStatements;
+    private final ThreadLocal<PollBuffer> buffers = new ThreadLocal<>();
+    private final Counter statements = Metrics.counter(STATEMENTS_METRIC);
+    private final Counter requests = Metrics.counter(REQUESTS_METRIC);
+
+    public UnloggedBatchWriter(int maxBatchStatements) {
+        this.maxBatchStatements = Math.max(1, maxBatchStatements);
+    }
+
+    /**
+     * Starts deferring the writes issued on the current thread; a buffer left open is flushed first.
+     */
+    public void begin() {
+        flush();
+        buffers.set(new PollBuffer());
+    }
+
+    /**
+     * Drops the writes still deferred on the current thread without sending them; their callers are
+     * completed with a {@link CancellationException}.
+     */
+    public void discard() {
+        PollBuffer buffer = buffers.get();
+        if (buffer == null) {
+            return;
+        }
+        buffers.remove();
+        CancellationException discarded = new CancellationException("Deferred write discarded with its poll");
+        buffer.groups.values().forEach(group -> group.completions.forEach(completion -> completion.accept(discarded)));
+        buffer.groups.clear();
+    }
+
+    /**
+     * Sends the deferred writes of the current thread and waits until all of them completed.
+     *
+     * @throws CompletionException wrapping the first failure; the other groups are still completed
+     */
+    public void flush() {
+        PollBuffer buffer = buffers.get();
+        if (buffer == null) {
+            return;
+        }
+        buffers.remove();
+        buffer.groups.values().forEach(group -> buffer.dispatched.add(dispatch(group)));
+        buffer.groups.clear();
+        CompletableFuture.allOf(buffer.dispatched.toArray(CompletableFuture[]::new)).join();
+    }
+
+    @Override
+    public boolean accepts(Statement<?> statement) {
+        PollBuffer buffer = buffers.get();
+        return buffer != null
+                && !buffer.dispatching
+                && statement instanceof BatchableStatement<?>
+                && CqlStatements.isWrite(statement)
+                && !CqlStatements.isConditional(statement)
+                && !CqlStatements.isIncrement(statement)
+                && keyspaceOf(statement) != null
+                && CqlStatements.tableOf(statement) != null
+                && statement.getRoutingKey() != null;
+    }
+
+    @Override
+    public void defer(CqlSession session, Statement<?> statement, Consumer<Throwable> completion) {
+        PollBuffer buffer = buffers.get();
+        GroupKey key = new GroupKey(session, keyspaceOf(statement), CqlStatements.tableOf(statement),
+                statement.getRoutingKey().duplicate(),
+                statement.getQueryTimestamp(), statement.getConsistencyLevel(), statement.getExecutionProfileName());
+        Group group = buffer.groups.get(key);
+        String query = CqlStatements.queryOf(statement);
+        if (group != null && (group.queries.contains(query) || group.statements.size() >= maxBatchStatements)) {
+            buffer.dispatching = true;
+            try {
+                buffer.dispatched.add(dispatch(group));
+            } finally {
+                buffer.dispatching = false;
+            }
+            group = null;
+        }
+        if (group == null) {
+            group = new Group(key);
+            buffer.groups.put(key, group);
+        }
+        group.queries.add(query);
+        group.statements.add((BatchableStatement<?>) statement);
+        group.completions.add(completion);
+        statements.increment();
+    }
+
+    private CompletableFuture<?> dispatch(Group group) {
+        GroupKey key = group.key;
+        Statement<?> statement = group.statements.size() == 1 ? group.statements.get(0) : batchOf(group);
+        requests.increment();
+        CompletableFuture<?> executed;
+        try {
+            executed = key.session().executeAsync(statement).toCompletableFuture();
+        } catch (RuntimeException e) {
+            executed = CompletableFuture.failedFuture(e);
+        }
+        return executed.whenComplete((result, error) -> group.completions.forEach(completion -> completion.accept(error)));
+    }
+
+    private static BatchStatement batchOf(Group group) {
+        GroupKey key = group.key;
+        BatchStatement batch = BatchStatement.newInstance(BatchType.UNLOGGED, group.statements)
+                .setRoutingKeyspace(key.keyspace())
+                .setRoutingKey(key.routingKey())
+                .setQueryTimestamp(key.timestamp())
+                .setConsistencyLevel(key.consistency())
+                .setExecutionProfileName(key.profile());
+        boolean idempotent = group.statements.stream().allMatch(s -> Boolean.TRUE.equals(s.isIdempotent()));
+        return idempotent ? batch.setIdempotent(true) : batch;
+    }
+
+    private static CqlIdentifier keyspaceOf(Statement<?> statement) {
+        return statement.getKeyspace() != null ? statement.getKeyspace() : statement.getRoutingKeyspace();
+    }
+
+    private record GroupKey(CqlSession session, CqlIdentifier keyspace, String table, ByteBuffer routingKey,
+                            long timestamp, ConsistencyLevel consistency, String profile) {
+    }
+
+    private static final class Group {
+        private final GroupKey key;
+        private final List<BatchableStatement<?>> statements = new ArrayList<>();
+        private final List<Consumer<Throwable>> completions = new ArrayList<>();
+        private final Set<String> queries = new HashSet<>();
+
+        private Group(GroupKey key) {
+            this.key = key;
+        }
+    }
+
+    private static final class PollBuffer {
+        private final Map<GroupKey, Group> groups = new LinkedHashMap<>();
+        private final List<CompletableFuture<?>> dispatched = new ArrayList<>();
+        private boolean dispatching;
+    }
+
+}
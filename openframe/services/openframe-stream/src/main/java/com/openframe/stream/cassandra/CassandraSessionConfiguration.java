@@ -0,0 +1,18 @@
+package com.openframe.stream.cassandra;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnClass(name = "com.datastax.oss.driver.api.core.CqlSession")
+public class CassandraSessionConfiguration {
+
+    @Bean
+    public static InterceptingCqlSessionPostProcessor interceptingCqlSessionPostProcessor(
+            ObjectProvider<CqlStatementInterceptor> interceptors, ObjectProvider<CqlStatementDeferral> deferral) {
+        return new InterceptingCqlSessionPostProcessor(interceptors, deferral);
+    }
+
+}
@@ -0,0 +1,27 @@
+package com.openframe.stream.cassandra;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.Statement;
+
+import java.util.function.Consumer;
+
+/**
+ * Takes over statements of the stream core to execute them later, e.g. grouped into batches.
+ * <p>
+ * Only single-statement {@code execute} and {@code executeAsync} calls are offered. An accepted
+ * statement runs through {@code beforeExecute} and {@code capture} of the {@link CqlStatementInterceptor}s
+ * when it is handed over and through {@code afterExecute} once the deferral reports its outcome; both
+ * happen while {@link DeferredStatements#isDeferred()} is set. The caller immediately receives an
+ * applied result without rows.
+ */
+public interface CqlStatementDeferral {
+
+    boolean accepts(Statement<?> statement);
+
+    /**
+     * @param session    the intercepting session to execute the statement with
+     * @param completion to be invoked exactly once with the failure, {@code null} on success
+     */
+    void defer(CqlSession session, Statement<?> statement, Consumer<Throwable> completion);
+
+}
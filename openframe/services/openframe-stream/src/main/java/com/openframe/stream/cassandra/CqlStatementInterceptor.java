@@ -0,0 +1,43 @@
+package com.openframe.stream.cassandra;
+
+import com.datastax.oss.driver.api.core.cql.Statement;
+
+/**
+ * Callback around every statement the stream core executes through the {@code CqlSession}.
+ * <p>
+ * The Cassandra writers live in the stream core, so features of this service observe and adjust
+ * their statements through this hook instead of replacing the writers.
+ */
+public interface CqlStatementInterceptor {
+
+    /**
+     * @return the statement to execute, possibly a modified copy
+     */
+    default Statement<?> beforeExecute(Statement<?> statement) {
+        return statement;
+    }
+
+    /**
+     * Invoked on the executing thread before the statement is sent; the returned value is handed to
+     * {@link #afterExecute(Statement, long, Throwable, Object)}, which may run on a driver thread.
+     */
+    default Object capture() {
+        return null;
+    }
+
+    /**
+     * Invoked once the statement completed, for asynchronous executions when the result is available.
+     *
+     * @param error the failure, {@code null} on success
+     */
+    default void afterExecute(Statement<?> statement, long elapsedNanos, Throwable error) {
+    }
+
+    /**
+     * Variant of {@link #afterExecute(Statement, long, Throwable)} receiving the value of {@link #capture()}.
+     */
+    default void afterExecute(Statement<?> statement, long elapsedNanos, Throwable error, Object captured) {
+        afterExecute(statement, elapsedNanos, error);
+    }
+
+}
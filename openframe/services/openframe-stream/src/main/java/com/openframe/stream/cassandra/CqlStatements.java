@@ -0,0 +1,75 @@
+package com.openframe.stream.cassandra;
+
+import com.datastax.oss.driver.api.core.cql.BatchStatement;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.driver.api.core.cql.Statement;
+
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Classification of CQL statements by their query text.
+ */
+public final class CqlStatements {
+
+    private static final Pattern WRITE = Pattern.compile("^\\s*(INSERT|UPDATE|DELETE|BEGIN)\\b");
+    private static final Pattern INCREMENT = Pattern.compile("\\bSET\\b.*\\b(\\w+)\\s*=\\s*\\1\\s*[+-]");
+    private static final Pattern TABLE = Pattern.compile("^\\s*(?:INSERT\\s+INTO|UPDATE|DELETE\\b.*?\\bFROM)\\s+(?:\"?\\w+\"?\\.)?\"?(\\w+)");
+    private static final Pattern CONDITIONAL = Pattern.compile("\\sIF\\s+(NOT\\s+)?EXISTS\\b|\\sIF\\s+\\w+\\s*[=<>!]");
+
+    private CqlStatements() {
+    }
+
+    /**
+     * @return the CQL of simple and bound statements, {@code null} for other statement types
+     */
+    public static String queryOf(Statement<?> statement) {
+        return switch (statement) {
+            case SimpleStatement simple -> simple.getQuery();
+            case BoundStatement bound -> bound.getPreparedStatement().getQuery();
+            default -> null;
+        };
+    }
+
+    public static boolean isWrite(Statement<?> statement) {
+        if (statement instanceof BatchStatement) {
+            return true;
+        }
+        String query = queryOf(statement);
+        return query != null && WRITE.matcher(query.toUpperCase(Locale.ROOT)).find();
+    }
+
+    /**
+     * Counter and collection increments ({@code SET c = c + ?}); they are not idempotent and counter
+     * updates cannot share a batch with other writes.
+     */
+    public static boolean isIncrement(Statement<?> statement) {
+        String query = queryOf(statement);
+        return query != null && INCREMENT.matcher(query.toUpperCase(Locale.ROOT)).find();
+    }
+
+    /**
+     * @return the lower-case name, without keyspace, of the table a simple or bound write targets,
+     * {@code null} for reads, batches and other statement types
+     */
+    public static String tableOf(Statement<?> statement) {
+        String query = queryOf(statement);
+        if (query == null) {
+            return null;
+        }
+        Matcher matcher = TABLE.matcher(query.toUpperCase(Locale.ROOT));
+        return matcher.find() ? matcher.group(1).toLowerCase(Locale.ROOT) : null;
+    }
+
+    /**
+     * Lightweight transactions; batches and unknown statement types are reported as conditional
+     * since their conditions cannot be inspected.
+     */
+    public static boolean isConditional(Statement<?> statement) {
+        String query = queryOf(statement);
+        return query == null || CONDITIONAL.matcher(query.toUpperCase(Locale.ROOT)).find();
+    }
+
+}
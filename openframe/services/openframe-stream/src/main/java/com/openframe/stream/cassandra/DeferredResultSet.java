@@ -0,0 +1,124 @@
+package com.openframe.stream.cassandra;
+
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
+import com.datastax.oss.driver.api.core.cql.ExecutionInfo;
+import com.datastax.oss.driver.api.core.cql.QueryTrace;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.internal.core.cql.EmptyColumnDefinitions;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Applied, row-less result handed out for a deferred write.
+ */
+record DeferredResultSet(Statement<?> statement) implements AsyncResultSet, ExecutionInfo {
+
+    @Override
+    public ColumnDefinitions getColumnDefinitions() {
+        return EmptyColumnDefinitions.INSTANCE;
+    }
+
+    @Override
+    public ExecutionInfo getExecutionInfo() {
+        return this;
+    }
+
+    @Override
+    public int remaining() {
+        return 0;
+    }
+
+    @Override
+    public Iterable<Row> currentPage() {
+        return List.of();
+    }
+
+    @Override
+    public boolean hasMorePages() {
+        return false;
+    }
+
+    @Override
+    public CompletionStage<AsyncResultSet> fetchNextPage() {
+        throw new IllegalStateException("No next page, use hasMorePages() before calling this method");
+    }
+
+    @Override
+    public boolean wasApplied() {
+        return true;
+    }
+
+    @Override
+    public Statement<?> getStatement() {
+        return statement;
+    }
+
+    @Override
+    public Node getCoordinator() {
+        return null;
+    }
+
+    @Override
+    public int getSpeculativeExecutionCount() {
+        return 0;
+    }
+
+    @Override
+    public int getSuccessfulExecutionIndex() {
+        return 0;
+    }
+
+    @Override
+    public List<Map.Entry<Node, Throwable>> getErrors() {
+        return List.of();
+    }
+
+    @Override
+    public ByteBuffer getPagingState() {
+        return null;
+    }
+
+    @Override
+    public List<String> getWarnings() {
+        return List.of();
+    }
+
+    @Override
+    public Map<String, ByteBuffer> getIncomingPayload() {
+        return Map.of();
+    }
+
+    @Override
+    public boolean isSchemaInAgreement() {
+        return true;
+    }
+
+    @Override
+    public UUID getTracingId() {
+        return null;
+    }
+
+    @Override
+    public CompletionStage<QueryTrace> getQueryTraceAsync() {
+        return CompletableFuture.failedFuture(new IllegalStateException("Deferred statements are not traced"));
+    }
+
+    @Override
+    public int getResponseSizeInBytes() {
+        return 0;
+    }
+
+    @Override
+    public int getCompressedResponseSizeInBytes() {
+        return 0;
+    }
+
+}
@@ -0,0 +1,49 @@
+package com.openframe.stream.cassandra;
+
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.ResultSet;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.internal.core.cql.ResultSets;
+
+/**
+ * State shared between the intercepting session and {@link CqlStatementInterceptor}s for statements
+ * taken over by a {@link CqlStatementDeferral}.
+ */
+public final class DeferredStatements {
+
+    private static final ThreadLocal<Boolean> DEFERRED = new ThreadLocal<>();
+
+    private DeferredStatements() {
+    }
+
+    /**
+     * @return whether the interceptor callbacks running on this thread belong to a deferred statement;
+     * the statement is executed later as part of another statement, e.g. a batch
+     */
+    public static boolean isDeferred() {
+        return Boolean.TRUE.equals(DEFERRED.get());
+    }
+
+    static void run(Runnable callbacks) {
+        Boolean previous = DEFERRED.get();
+        DEFERRED.set(Boolean.TRUE);
+        try {
+            callbacks.run();
+        } finally {
+            if (previous == null) {
+                DEFERRED.remove();
+            } else {
+                DEFERRED.set(previous);
+            }
+        }
+    }
+
+    static AsyncResultSet asyncResult(Statement<?> statement) {
+        return new DeferredResultSet(statement);
+    }
+
+    static ResultSet result(Statement<?> statement) {
+        return ResultSets.newInstance(asyncResult(statement));
+    }
+
+}
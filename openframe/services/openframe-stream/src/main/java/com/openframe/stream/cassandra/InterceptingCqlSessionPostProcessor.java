@@ -0,0 +1,129 @@
+package com.openframe.stream.cassandra;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Wraps the {@link CqlSession} beans so that all {@link CqlStatementInterceptor} beans see the
+ * statements executed through them.
+ * <p>
+ * Every session method whose first argument is a {@link Statement} is intercepted. Interceptors
+ * run {@code beforeExecute} and {@code capture} in bean order on the calling thread and
+ * {@code afterExecute} in reverse order, the latter when the returned {@link CompletionStage}
+ * completes for asynchronous executions. Single-statement executions accepted by the
+ * {@link CqlStatementDeferral} bean are handed over to it after {@code beforeExecute}.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class InterceptingCqlSessionPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<CqlStatementInterceptor> interceptors;
+    private final ObjectProvider<CqlStatementDeferral> deferral;
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof CqlSession session)) {
+            return bean;
+        }
+        List<CqlStatementInterceptor> resolved = interceptors.orderedStream().toList();
+        CqlStatementDeferral deferring = deferral.getIfAvailable();
+        if (resolved.isEmpty() && deferring == null) {
+            return bean;
+        }
+        log.info("Intercepting statements of {} with {} interceptor(s){}", beanName, resolved.size(),
+                deferring == null ? "" : " and " + deferring.getClass().getSimpleName());
+        return Proxy.newProxyInstance(CqlSession.class.getClassLoader(), new Class<?>[]{CqlSession.class},
+                (proxy, method, args) -> {
+                    if (args == null || args.length == 0 || !(args[0] instanceof Statement<?> statement)) {
+                        return invoke(method, session, args);
+                    }
+                    if (deferring != null && isSingleExecution(method) && deferring.accepts(statement)) {
+                        return defer(deferring, (CqlSession) proxy, resolved, method, statement);
+                    }
+                    int entered = 0;
+                    Object[] captured = new Object[resolved.size()];
+                    long started = System.nanoTime();
+                    try {
+                        for (CqlStatementInterceptor interceptor : resolved) {
+                            statement = interceptor.beforeExecute(statement);
+                            captured[entered++] = interceptor.capture();
+                        }
+                        args[0] = statement;
+                        Object result = invoke(method, session, args);
+                        if (result instanceof CompletionStage<?> stage) {
+                            Statement<?> executed = statement;
+                            int completed = entered;
+                            entered = 0;
+                            return stage.whenComplete((value, error) -> after(resolved, completed, captured, executed, started, error));
+                        }
+                        after(resolved, entered, captured, statement, started, null);
+                        entered = 0;
+                        return result;
+                    } catch (Throwable e) {
+                        after(resolved, entered, captured, statement, started, e);
+                        throw e;
+                    }
+                });
+    }
+
+    private static boolean isSingleExecution(Method method) {
+        return method.getParameterCount() == 1
+                && (method.getName().equals("execute") || method.getName().equals("executeAsync"));
+    }
+
+    private static Object defer(CqlStatementDeferral deferral, CqlSession session, List<CqlStatementInterceptor> interceptors,
+                                Method method, Statement<?> statement) {
+        Object[] captured = new Object[interceptors.size()];
+        long started = System.nanoTime();
+        Statement<?>[] deferred = {statement};
+        int[] entered = {0};
+        try {
+            DeferredStatements.run(() -> {
+                for (CqlStatementInterceptor interceptor : interceptors) {
+                    deferred[0] = interceptor.beforeExecute(deferred[0]);
+                    captured[entered[0]++] = interceptor.capture();
+                }
+            });
+            deferral.defer(session, deferred[0], error -> DeferredStatements.run(
+                    () -> after(interceptors, entered[0], captured, deferred[0], started, error)));
+        } catch (RuntimeException e) {
+            DeferredStatements.run(() -> after(interceptors, entered[0], captured, deferred[0], started, e));
+            throw e;
+        }
+        return method.getName().equals("executeAsync")
+                ? CompletableFuture.completedFuture(DeferredStatements.asyncResult(deferred[0]))
+                : DeferredStatements.result(deferred[0]);
+    }
+
+    private static Object invoke(Method method, CqlSession session, Object[] args) throws Throwable {
+        try {
+            return method.invoke(session, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void after(List<CqlStatementInterceptor> interceptors, int entered, Object[] captured,
+                              Statement<?> statement, long started, Throwable error) {
+        long elapsed = System.nanoTime() - started;
+        for (int i = entered - 1; i >= 0; i--) {
+            try {
+                interceptors.get(i).afterExecute(statement, elapsed, error, captured[i]);
+            } catch (RuntimeException e) {
+                log.warn("Statement interceptor {} failed", interceptors.get(i).getClass().getSimpleName(), e);
+            }
+        }
+    }
+
+}
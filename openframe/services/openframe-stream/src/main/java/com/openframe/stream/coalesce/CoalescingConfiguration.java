@@ -0,0 +1,24 @@
+package com.openframe.stream.coalesce;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(CoalescingProperties.class)
+@ConditionalOnProperty(prefix = "openframe.stream.coalesce", name = "enabled", havingValue = "true")
+public class CoalescingConfiguration {
+
+    @Bean
+    public static CoalescingKafkaPostProcessor coalescingKafkaPostProcessor(ObjectProvider<CoalescingProperties> properties) {
+        return new CoalescingKafkaPostProcessor(properties);
+    }
+
+    @Bean
+    public CoalescingWindowCustomizer coalescingWindowCustomizer(CoalescingProperties properties) {
+        return new CoalescingWindowCustomizer(properties);
+    }
+
+}
@@ -0,0 +1,39 @@
+package com.openframe.stream.coalesce;
+
+import com.openframe.stream.batch.PollCoalescingInterceptor;
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Registers {@link PollCoalescingInterceptor} on the consumer factories of the stream core,
+ * restricted to the topics that have a coalescing window.
+ */
+@RequiredArgsConstructor
+public class CoalescingKafkaPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<CoalescingProperties> properties;
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DefaultKafkaConsumerFactory<?, ?> consumerFactory) {
+            Set<String> topics = properties.getObject().getWindows().stream()
+                    .map(CoalescingProperties.Window::getTopic)
+                    .collect(Collectors.toSet());
+            Map<String, Object> current = consumerFactory.getConfigurationProperties();
+            consumerFactory.updateConfigs(Map.of(
+                    ConsumerConfig.INTERCEPTOR_CLASSES_CONFIG,
+                    PollCoalescingInterceptor.appendTo(current.get(ConsumerConfig.INTERCEPTOR_CLASSES_CONFIG)),
+                    PollCoalescingInterceptor.TOPICS_CONFIG,
+                    PollCoalescingInterceptor.mergeTopics(current.get(PollCoalescingInterceptor.TOPICS_CONFIG), topics)));
+        }
+        return bean;
+    }
+
+}
@@ -0,0 +1,41 @@
+package com.openframe.stream.coalesce;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-topic keyed coalescing windows for Debezium update storms, bound from
+ * {@code openframe.stream.coalesce}.
+ * <p>
+ * A window closes when the broker has accumulated {@code max-bytes} for the consumer or
+ * {@code window} has elapsed, whichever comes first; {@code max-records} caps the number of
+ * envelopes held in memory per poll. Within a closed window only the newest envelope per
+ * primary key is handed to the listener, so only upsert-style topics, whose records carry the
+ * full row state, may be listed.
+ */
+@Data
+@ConfigurationProperties(prefix = "openframe.stream.coalesce")
+public class CoalescingProperties {
+
+    private boolean enabled = false;
+
+    private List<Window> windows = new ArrayList<>();
+
+    @Data
+    public static class Window {
+
+        private String topic;
+
+        private Duration window = Duration.ofSeconds(1);
+
+        private int maxRecords = 2000;
+
+        private int maxBytes = 8 * 1024 * 1024;
+
+    }
+
+}
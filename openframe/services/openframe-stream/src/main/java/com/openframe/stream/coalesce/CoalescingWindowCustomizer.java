@@ -0,0 +1,51 @@
+package com.openframe.stream.coalesce;
+
+import com.openframe.stream.container.InboundContainerCustomizer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.springframework.kafka.listener.MessageListenerContainer;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Applies the coalescing window of a topic to the fetch settings of the container consuming it.
+ * <p>
+ * The broker holds a fetch until either {@code max-bytes} are available or the window has
+ * elapsed, so each poll covers one window. When a container consumes several topics the
+ * tightest configured window wins.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class CoalescingWindowCustomizer implements InboundContainerCustomizer {
+
+    private final CoalescingProperties properties;
+
+    @Override
+    public void customize(MessageListenerContainer container, Set<String> topics) {
+        List<CoalescingProperties.Window> windows = properties.getWindows().stream()
+                .filter(window -> topics.contains(window.getTopic()))
+                .toList();
+        if (windows.isEmpty()) {
+            return;
+        }
+
+        long windowMs = windows.stream().map(CoalescingProperties.Window::getWindow)
+                .min(Comparator.naturalOrder()).orElseThrow().toMillis();
+        int maxRecords = windows.stream().mapToInt(CoalescingProperties.Window::getMaxRecords).min().orElseThrow();
+        int maxBytes = windows.stream().mapToInt(CoalescingProperties.Window::getMaxBytes).min().orElseThrow();
+
+        Properties consumerProperties = container.getContainerProperties().getKafkaConsumerProperties();
+        consumerProperties.setProperty(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, String.valueOf(windowMs));
+        consumerProperties.setProperty(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, String.valueOf(maxBytes));
+        consumerProperties.setProperty(ConsumerConfig.FETCH_MAX_BYTES_CONFIG, String.valueOf(maxBytes));
+        consumerProperties.setProperty(ConsumerConfig.MAX_PARTITION_FETCH_BYTES_CONFIG, String.valueOf(maxBytes));
+        consumerProperties.setProperty(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(maxRecords));
+
+        log.info("Coalescing window for {}: {}ms, {} records, {} bytes", topics, windowMs, maxRecords, maxBytes);
+    }
+
+}
@@ -0,0 +1,38 @@
+package com.openframe.stream.container;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Helpers for adding interceptors to the consumer and producer factories of the stream core.
+ */
+public final class ConsumerInterceptors {
+
+    private ConsumerInterceptors() {
+    }
+
+    /**
+     * Appends a consumer or producer interceptor to an {@code interceptor.classes} value, keeping the
+     * configured ones first.
+     *
+     * @param configured the current value: a class, a list of classes or names, or a comma separated string
+     */
+    public static List<String> append(Object configured, Class<?> interceptor) {
+        List<String> interceptors = new ArrayList<>();
+        if (configured instanceof Collection<?> classes) {
+            classes.forEach(type -> interceptors.add(type instanceof Class<?> c ? c.getName() : type.toString()));
+        } else if (configured instanceof Class<?> type) {
+            interceptors.add(type.getName());
+        } else if (configured instanceof String names && !names.isBlank()) {
+            for (String name : names.split(",")) {
+                interceptors.add(name.trim());
+            }
+        }
+        if (!interceptors.contains(interceptor.getName())) {
+            interceptors.add(interceptor.getName());
+        }
+        return interceptors;
+    }
+
+}
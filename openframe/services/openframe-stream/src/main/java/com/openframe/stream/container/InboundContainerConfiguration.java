@@ -0,0 +1,17 @@
+package com.openframe.stream.container;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.listener.RecordInterceptor;
+
+@Configuration
+public class InboundContainerConfiguration {
+
+    @Bean
+    public static RecordInterceptorPostProcessor recordInterceptorPostProcessor(
+            ObjectProvider<RecordInterceptor<?, ?>> interceptors) {
+        return new RecordInterceptorPostProcessor(interceptors);
+    }
+
+}
@@ -0,0 +1,23 @@
+package com.openframe.stream.container;
+
+import org.springframework.kafka.listener.MessageListenerContainer;
+
+import java.util.Set;
+
+/**
+ * Callback applied to every Kafka listener container before it is started.
+ * <p>
+ * The listener containers of the inbound Debezium topics are created by the stream core,
+ * so features of this service adjust them through this hook instead of declaring their own
+ * container factories.
+ */
+@FunctionalInterface
+public interface InboundContainerCustomizer {
+
+    /**
+     * @param container the not yet started listener container
+     * @param topics    the topics the container subscribes to, empty for pattern subscriptions
+     */
+    void customize(MessageListenerContainer container, Set<String> topics);
+
+}
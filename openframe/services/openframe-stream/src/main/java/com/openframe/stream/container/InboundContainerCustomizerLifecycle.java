@@ -0,0 +1,80 @@
+package com.openframe.stream.container;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.TopicPartitionOffset;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Applies all {@link InboundContainerCustomizer} beans to the registered listener containers.
+ * <p>
+ * Runs one phase before the {@link KafkaListenerEndpointRegistry}, i.e. after all
+ * {@code @KafkaListener} containers have been created but before any of them is started.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class InboundContainerCustomizerLifecycle implements SmartLifecycle {
+
+    private final ObjectProvider<KafkaListenerEndpointRegistry> registry;
+    private final ObjectProvider<InboundContainerCustomizer> customizers;
+
+    private volatile boolean running;
+
+    @Override
+    public void start() {
+        KafkaListenerEndpointRegistry endpointRegistry = registry.getIfAvailable();
+        List<InboundContainerCustomizer> resolved = customizers.orderedStream().toList();
+        if (endpointRegistry != null && !resolved.isEmpty()) {
+            for (MessageListenerContainer container : endpointRegistry.getAllListenerContainers()) {
+                if (container.isRunning()) {
+                    log.warn("Listener container {} already running, skipping customization", container.getListenerId());
+                    continue;
+                }
+                Set<String> topics = topicsOf(container.getContainerProperties());
+                resolved.forEach(customizer -> customizer.customize(container, topics));
+            }
+        }
+        running = true;
+    }
+
+    static Set<String> topicsOf(ContainerProperties properties) {
+        Set<String> topics = new LinkedHashSet<>();
+        if (properties.getTopics() != null) {
+            topics.addAll(Arrays.asList(properties.getTopics()));
+        }
+        if (properties.getTopicPartitions() != null) {
+            Arrays.stream(properties.getTopicPartitions())
+                    .map(TopicPartitionOffset::getTopic)
+                    .forEach(topics::add);
+        }
+        return topics;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return AbstractMessageListenerContainer.DEFAULT_PHASE - 1;
+    }
+
+}
@@ -0,0 +1,49 @@
+package com.openframe.stream.container;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.kafka.config.AbstractKafkaListenerContainerFactory;
+import org.springframework.kafka.listener.CompositeRecordInterceptor;
+import org.springframework.kafka.listener.RecordInterceptor;
+
+import java.util.List;
+
+/**
+ * Installs all {@link RecordInterceptor} beans on the listener container factories of the stream core.
+ * <p>
+ * A container holds a single record interceptor, so features contribute interceptor beans instead of
+ * setting their own; more than one is combined into a {@link CompositeRecordInterceptor} in bean order.
+ */
+@RequiredArgsConstructor
+public class RecordInterceptorPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<RecordInterceptor<?, ?>> interceptors;
+
+    @Override
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof AbstractKafkaListenerContainerFactory containerFactory) {
+            RecordInterceptor<Object, Object> combined = combine(interceptors);
+            if (combined != null) {
+                containerFactory.setRecordInterceptor(combined);
+            }
+        }
+        return bean;
+    }
+
+    /**
+     * @return the interceptor beans in bean order, combined if more than one, {@code null} for none
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public static RecordInterceptor<Object, Object> combine(ObjectProvider<RecordInterceptor<?, ?>> interceptors) {
+        List<RecordInterceptor<?, ?>> resolved = interceptors.orderedStream().toList();
+        if (resolved.isEmpty()) {
+            return null;
+        }
+        return resolved.size() == 1
+                ? (RecordInterceptor<Object, Object>) resolved.get(0)
+                : new CompositeRecordInterceptor(resolved.toArray(RecordInterceptor[]::new));
+    }
+
+}
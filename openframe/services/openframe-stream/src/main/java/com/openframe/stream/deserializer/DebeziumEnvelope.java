@@ -0,0 +1,56 @@
+package com.openframe.stream.deserializer;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.Map;
+
+/**
+ * Lightweight view of a Debezium change event holding only the parts a handler asked for.
+ */
+@Value
+@Builder
+public class DebeziumEnvelope {
+
+    public static final String OP_CREATE = "c";
+    public static final String OP_UPDATE = "u";
+    public static final String OP_DELETE = "d";
+    public static final String OP_READ = "r";
+
+    String op;
+
+    /**
+     * Time the connector processed the event.
+     */
+    Long tsMs;
+
+    /**
+     * Selected scalar fields of the {@code source} block, empty unless requested.
+     */
+    Map<String, Object> source;
+
+    /**
+     * Selected fields of the {@code after} image; {@code null} for deletes.
+     */
+    Map<String, Object> after;
+
+    public boolean isDelete() {
+        return OP_DELETE.equals(op);
+    }
+
+    /**
+     * Commit time of the change in the source database, falling back to the connector time.
+     */
+    public Long getSourceTsMs() {
+        Object sourceTs = source == null ? null : source.get("ts_ms");
+        return sourceTs instanceof Number number ? number.longValue() : tsMs;
+    }
+
+    /**
+     * @return the log position of the change, {@code null} unless the source block was read
+     */
+    public SourcePosition getPosition() {
+        return SourcePosition.of(source);
+    }
+
+}
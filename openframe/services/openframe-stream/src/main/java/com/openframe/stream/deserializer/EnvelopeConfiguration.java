@@ -0,0 +1,33 @@
+package com.openframe.stream.deserializer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the selective envelope reader shared by the stream features that only need the
+ * envelope header, the source position or a few {@code after} fields, and records source
+ * positions on inbound records when the metrics or the exactly-once mode read them.
+ */
+@Configuration
+public class EnvelopeConfiguration {
+
+    @Bean
+    public SelectiveEnvelopeReader selectiveEnvelopeReader(ObjectProvider<ObjectMapper> objectMapper) {
+        return new SelectiveEnvelopeReader(objectMapper.getIfAvailable(ObjectMapper::new));
+    }
+
+    @Bean
+    public SourcePositionResolver sourcePositionResolver(SelectiveEnvelopeReader reader) {
+        return new SourcePositionResolver(reader);
+    }
+
+    @Bean
+    @ConditionalOnExpression("${openframe.stream.metrics.enabled:false} or ${openframe.stream.exactly-once.enabled:false}")
+    public static SourcePositionKafkaPostProcessor sourcePositionKafkaPostProcessor(ObjectProvider<SelectiveEnvelopeReader> reader) {
+        return new SourcePositionKafkaPostProcessor(reader);
+    }
+
+}
@@ -0,0 +1,21 @@
+package com.openframe.stream.deserializer;
+
+import java.util.Set;
+
+/**
+ * Describes which parts of a Debezium envelope are materialized by {@link SelectiveEnvelopeReader}.
+ *
+ * @param afterFields   fields of the {@code after} image to extract, empty to skip the image
+ * @param includeSource whether the scalar fields of the {@code source} block are extracted
+ */
+public record EnvelopeFieldSet(Set<String> afterFields, boolean includeSource) {
+
+    public static final EnvelopeFieldSet HEADER_ONLY = new EnvelopeFieldSet(Set.of(), false);
+
+    public static final EnvelopeFieldSet POSITION_ONLY = new EnvelopeFieldSet(Set.of(), true);
+
+    public EnvelopeFieldSet {
+        afterFields = Set.copyOf(afterFields);
+    }
+
+}
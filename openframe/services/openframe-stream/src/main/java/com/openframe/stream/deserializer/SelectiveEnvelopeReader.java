@@ -0,0 +1,127 @@
+package com.openframe.stream.deserializer;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Streaming, field-selective reader for Debezium JSON envelopes.
+ * <p>
+ * Instead of building a full tree for every envelope the reader walks the raw bytes with a
+ * token parser, materializes only {@code op}, {@code ts_ms} and the requested {@code after}
+ * and {@code source} fields, and skips everything else - including the {@code before} image -
+ * without allocating. Both the schema-wrapped ({@code {"schema":..,"payload":..}}) and the
+ * bare payload format are supported, as well as MongoDB envelopes where {@code after} is an
+ * embedded JSON string.
+ */
+@RequiredArgsConstructor
+public class SelectiveEnvelopeReader {
+
+    private final ObjectMapper objectMapper;
+
+    public DebeziumEnvelope read(byte[] data, EnvelopeFieldSet fields) {
+        try (JsonParser parser = objectMapper.createParser(data)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Debezium envelope is not a JSON object");
+            }
+            DebeziumEnvelope.DebeziumEnvelopeBuilder envelope = DebeziumEnvelope.builder().source(Map.of());
+            readPayload(parser, fields, envelope);
+            return envelope.build();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read Debezium envelope", e);
+        }
+    }
+
+    private void readPayload(JsonParser parser, EnvelopeFieldSet fields,
+                             DebeziumEnvelope.DebeziumEnvelopeBuilder envelope) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (name) {
+                case "payload" -> {
+                    if (value == JsonToken.START_OBJECT) {
+                        readPayload(parser, fields, envelope);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                case "op" -> envelope.op(parser.getValueAsString());
+                case "ts_ms" -> envelope.tsMs(value.isNumeric() ? parser.getLongValue() : null);
+                case "after" -> envelope.after(readAfter(parser, value, fields));
+                case "source" -> {
+                    if (fields.includeSource() && value == JsonToken.START_OBJECT) {
+                        envelope.source(readScalars(parser));
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+    private Map<String, Object> readAfter(JsonParser parser, JsonToken value, EnvelopeFieldSet fields) throws IOException {
+        if (value == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (fields.afterFields().isEmpty()) {
+            parser.skipChildren();
+            return Map.of();
+        }
+        if (value == JsonToken.VALUE_STRING) {
+            try (JsonParser embedded = objectMapper.createParser(parser.getText())) {
+                embedded.nextToken();
+                return readSelected(embedded, fields);
+            }
+        }
+        return readSelected(parser, fields);
+    }
+
+    private Map<String, Object> readSelected(JsonParser parser, EnvelopeFieldSet fields) throws IOException {
+        Map<String, Object> selected = new HashMap<>(fields.afterFields().size() * 2);
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (!fields.afterFields().contains(name)) {
+                parser.skipChildren();
+            } else if (value.isStructStart()) {
+                selected.put(name, parser.readValueAsTree());
+            } else {
+                selected.put(name, scalar(parser, value));
+            }
+        }
+        return selected;
+    }
+
+    private Map<String, Object> readScalars(JsonParser parser) throws IOException {
+        Map<String, Object> scalars = new HashMap<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (value.isStructStart()) {
+                parser.skipChildren();
+            } else {
+                scalars.put(name, scalar(parser, value));
+            }
+        }
+        return scalars;
+    }
+
+    private static Object scalar(JsonParser parser, JsonToken value) throws IOException {
+        return switch (value) {
+            case VALUE_STRING -> parser.getText();
+            case VALUE_NUMBER_INT -> parser.getNumberValue();
+            case VALUE_NUMBER_FLOAT -> parser.getDoubleValue();
+            case VALUE_TRUE -> Boolean.TRUE;
+            case VALUE_FALSE -> Boolean.FALSE;
+            default -> null;
+        };
+    }
+
+}
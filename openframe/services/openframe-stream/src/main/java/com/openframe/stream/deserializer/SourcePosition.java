@@ -0,0 +1,84 @@
+package com.openframe.stream.deserializer;
+
+import java.util.Comparator;
+import java.util.Map;
+
+/**
+ * Position of a change in the source database's log, derived from the Debezium {@code source} block.
+ * <p>
+ * Positions of the same connector are totally ordered: PostgreSQL by {@code lsn}, MySQL by binlog
+ * file, position and row, MongoDB by oplog time and ordinal. Other connectors fall back to
+ * {@code ts_ms}.
+ *
+ * @param tsMs   commit time in the source database
+ * @param major  most significant ordering component
+ * @param minor  second ordering component
+ * @param micro  least significant ordering component
+ * @param ordinal order of the change within its commit, where the connector reports one
+ */
+public record SourcePosition(long tsMs, long major, long minor, long micro, long ordinal) implements Comparable<SourcePosition> {
+
+    private static final Comparator<SourcePosition> ORDER = Comparator
+            .comparingLong(SourcePosition::major)
+            .thenComparingLong(SourcePosition::minor)
+            .thenComparingLong(SourcePosition::micro);
+
+    /**
+     * @return the position, or {@code null} if the source block carries no timestamp
+     */
+    public static SourcePosition of(Map<String, Object> source) {
+        if (source == null || !(source.get("ts_ms") instanceof Number ts)) {
+            return null;
+        }
+        long tsMs = ts.longValue();
+        if (source.get("lsn") instanceof Number lsn) {
+            return new SourcePosition(tsMs, lsn.longValue(), 0, 0, 0);
+        }
+        if (source.get("file") instanceof String file && source.get("pos") instanceof Number pos) {
+            long row = longOf(source.get("row"));
+            return new SourcePosition(tsMs, binlogIndex(file), pos.longValue(), row, row);
+        }
+        if (source.containsKey("ord")) {
+            long ord = longOf(source.get("ord"));
+            return new SourcePosition(tsMs, tsMs, ord, 0, ord);
+        }
+        return new SourcePosition(tsMs, tsMs, 0, 0, 0);
+    }
+
+    /**
+     * Cassandra write time in microseconds: the commit time, with the sub-millisecond part taken
+     * from the intra-transaction ordinal where the connector provides one. Re-applying the same
+     * change yields the same write time.
+     * <p>
+     * The write time follows the commit time, not the log position: changes of different
+     * transactions committed within the same millisecond, or the same second on MySQL whose
+     * binlog timestamps have second precision, can share a write time, in which case Cassandra
+     * keeps the greater cell value regardless of their order in the log.
+     */
+    public long writeTimestampMicros() {
+        return tsMs * 1000 + Math.min(ordinal, 999);
+    }
+
+    public boolean isAfter(SourcePosition other) {
+        return compareTo(other) > 0;
+    }
+
+    @Override
+    public int compareTo(SourcePosition other) {
+        return ORDER.compare(this, other);
+    }
+
+    private static long binlogIndex(String file) {
+        int dot = file.lastIndexOf('.');
+        try {
+            return dot < 0 ? 0 : Long.parseLong(file.substring(dot + 1));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static long longOf(Object value) {
+        return value instanceof Number number ? number.longValue() : 0;
+    }
+
+}
@@ -0,0 +1,119 @@
+package com.openframe.stream.deserializer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.utils.Utils;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+/**
+ * Value deserializer wrapper that records the Debezium source position of the raw value in the
+ * {@value #POSITION_HEADER} header before delegating.
+ * <p>
+ * The position is read from the raw bytes with the {@link SelectiveEnvelopeReader}, which only
+ * materializes the {@code source} scalars, so record interceptors get it without converting the
+ * value the stream core deserialized back into JSON.
+ */
+public class SourcePositionDeserializer<T> implements Deserializer<T> {
+
+    public static final String POSITION_HEADER = "openframe_source_position";
+    public static final String DELEGATE_CLASS_CONFIG = "openframe.stream.position.value.delegate.class";
+
+    private static final int POSITION_BYTES = 5 * Long.BYTES;
+
+    private final SelectiveEnvelopeReader reader;
+    private Deserializer<T> delegate;
+    private boolean ownsDelegate;
+
+    public SourcePositionDeserializer() {
+        this.reader = new SelectiveEnvelopeReader(new ObjectMapper());
+    }
+
+    public SourcePositionDeserializer(Deserializer<T> delegate, SelectiveEnvelopeReader reader) {
+        this.delegate = delegate;
+        this.reader = reader;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        if (delegate != null) {
+            return;
+        }
+        Object configured = configs.get(DELEGATE_CLASS_CONFIG);
+        try {
+            delegate = configured instanceof Class<?> type
+                    ? Utils.newInstance(type, Deserializer.class)
+                    : Utils.newInstance(String.valueOf(configured), Deserializer.class);
+        } catch (ClassNotFoundException e) {
+            throw new KafkaException("Value deserializer " + configured + " not found", e);
+        }
+        ownsDelegate = true;
+        delegate.configure(configs, isKey);
+    }
+
+    @Override
+    public T deserialize(String topic, byte[] data) {
+        return delegate.deserialize(topic, data);
+    }
+
+    @Override
+    public T deserialize(String topic, Headers headers, byte[] data) {
+        if (data != null) {
+            stamp(headers, data);
+        }
+        return delegate.deserialize(topic, headers, data);
+    }
+
+    @Override
+    public T deserialize(String topic, Headers headers, ByteBuffer data) {
+        if (data != null) {
+            stamp(headers, Utils.toArray(data.duplicate()));
+        }
+        return delegate.deserialize(topic, headers, data);
+    }
+
+    private void stamp(Headers headers, byte[] data) {
+        headers.remove(POSITION_HEADER);
+        SourcePosition position;
+        try {
+            position = reader.read(data, EnvelopeFieldSet.POSITION_ONLY).getPosition();
+        } catch (RuntimeException e) {
+            return;
+        }
+        if (position != null) {
+            headers.add(POSITION_HEADER, ByteBuffer.allocate(POSITION_BYTES)
+                    .putLong(position.tsMs())
+                    .putLong(position.major())
+                    .putLong(position.minor())
+                    .putLong(position.micro())
+                    .putLong(position.ordinal())
+                    .array());
+        }
+    }
+
+    /**
+     * @return the position recorded for the value of a record, {@code null} for tombstones,
+     * values without a source block or records not read through this deserializer
+     */
+    public static SourcePosition positionOf(Headers headers) {
+        Header header = headers.lastHeader(POSITION_HEADER);
+        if (header == null || header.value() == null || header.value().length != POSITION_BYTES) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(header.value());
+        return new SourcePosition(buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong());
+    }
+
+    @Override
+    public void close() {
+        if (ownsDelegate) {
+            delegate.close();
+        }
+    }
+
+}
@@ -0,0 +1,54 @@
+package com.openframe.stream.deserializer;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+
+import java.util.Map;
+
+/**
+ * Wraps the value deserializer of the consumer factories of the stream core in a
+ * {@link SourcePositionDeserializer}.
+ * <p>
+ * A deserializer class configured through {@code value.deserializer} becomes the delegate of a
+ * wrapper created per consumer; a deserializer instance set on the factory is wrapped once and
+ * shared by its consumers, as it was before.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class SourcePositionKafkaPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<SelectiveEnvelopeReader> reader;
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DefaultKafkaConsumerFactory<?, ?> consumerFactory && wrap(consumerFactory)) {
+            log.info("Source positions are recorded by the consumers of {}", beanName);
+        }
+        return bean;
+    }
+
+    private <V> boolean wrap(DefaultKafkaConsumerFactory<?, V> consumerFactory) {
+        Deserializer<V> configured = consumerFactory.getValueDeserializer();
+        if (configured instanceof SourcePositionDeserializer<V>) {
+            return false;
+        }
+        if (configured != null) {
+            consumerFactory.setValueDeserializer(new SourcePositionDeserializer<>(configured, reader.getObject()));
+            return true;
+        }
+        Object delegate = consumerFactory.getConfigurationProperties().get(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG);
+        if (delegate == null || SourcePositionDeserializer.class.equals(delegate)) {
+            return false;
+        }
+        consumerFactory.updateConfigs(Map.of(
+                ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, SourcePositionDeserializer.class,
+                SourcePositionDeserializer.DELEGATE_CLASS_CONFIG, delegate));
+        return true;
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.openframe.stream.deserializer;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Resolves the Debezium source position of a record in any of the forms the listener containers
+ * see it.
+ * <p>
+ * Records read through the {@link SourcePositionDeserializer} carry the position in a header;
+ * raw values are read with the selective envelope reader. Values already deserialized by the
+ * stream core are not converted back into JSON: without the header they have no position.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class SourcePositionResolver {
+
+    private final SelectiveEnvelopeReader reader;
+
+    /**
+     * @return the position, or {@code null} for tombstones and records without a known source block
+     */
+    public SourcePosition resolve(ConsumerRecord<?, ?> record) {
+        SourcePosition position = SourcePositionDeserializer.positionOf(record.headers());
+        return position != null ? position : resolve(record.value());
+    }
+
+    /**
+     * @return the position of a raw value, or {@code null} for tombstones, values without a source
+     * block and deserialized values
+     */
+    public SourcePosition resolve(Object value) {
+        try {
+            return switch (value) {
+                case byte[] bytes -> reader.read(bytes, EnvelopeFieldSet.POSITION_ONLY).getPosition();
+                case String text -> reader.read(text.getBytes(StandardCharsets.UTF_8), EnvelopeFieldSet.POSITION_ONLY).getPosition();
+                case null, default -> null;
+            };
+        } catch (RuntimeException e) {
+            log.debug("No source position for record value of type {}", value.getClass().getName(), e);
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,46 @@
+package com.openframe.stream.exactlyonce;
+
+import com.openframe.stream.deserializer.SourcePositionResolver;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+
+@Configuration
+@EnableConfigurationProperties(ExactlyOnceProperties.class)
+@ConditionalOnProperty(prefix = "openframe.stream.exactly-once", name = "enabled", havingValue = "true")
+public class ExactlyOnceConfiguration {
+
+    public ExactlyOnceConfiguration(@Value("${openframe.stream.parallel.enabled:false}") boolean parallel) {
+        if (parallel) {
+            // parallel lanes acknowledge asynchronously, outside the container's transaction
+            throw new IllegalStateException("openframe.stream.exactly-once cannot be combined with openframe.stream.parallel");
+        }
+    }
+
+    @Bean
+    public static ExactlyOnceKafkaPostProcessor exactlyOnceKafkaPostProcessor(
+            ObjectProvider<ExactlyOnceProperties> properties,
+            ObjectProvider<ProducerFactory<?, ?>> producerFactory,
+            ObjectProvider<KafkaTemplate<?, ?>> kafkaTemplate) {
+        return new ExactlyOnceKafkaPostProcessor(properties, producerFactory, kafkaTemplate);
+    }
+
+    @Bean
+    public SourcePositionRecordInterceptor sourcePositionRecordInterceptor(SourcePositionResolver sourcePositionResolver) {
+        return new SourcePositionRecordInterceptor(sourcePositionResolver);
+    }
+
+    @Bean
+    @ConditionalOnClass(name = "com.datastax.oss.driver.api.core.CqlSession")
+    @ConditionalOnProperty(prefix = "openframe.stream.exactly-once", name = "position-timestamps", havingValue = "true", matchIfMissing = true)
+    public PositionTimestampStatementInterceptor positionTimestampStatementInterceptor(ExactlyOnceProperties properties) {
+        return new PositionTimestampStatementInterceptor(properties.getPositionTimestampTables());
+    }
+
+}
@@ -0,0 +1,108 @@
+package com.openframe.stream.exactlyonce;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.kafka.config.AbstractKafkaListenerContainerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultAfterRollbackProcessor;
+import org.springframework.kafka.transaction.KafkaTransactionManager;
+import org.springframework.util.backoff.FixedBackOff;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Switches the Kafka infrastructure provided by the stream core to transactional consume-process-produce.
+ * <p>
+ * The producer factory of the listener containers' transaction manager becomes transactional,
+ * consumers only read committed data and every listener container runs each delivery inside a
+ * Kafka transaction that also carries the consumed offsets, so records sent to
+ * {@code integrated-tool.events.pinot} and {@code devices-topic} are published exactly once per
+ * inbound record, also across rebalances. A failing record is retried in new transactions and
+ * finally published to {@code <topic>.DLQ}, with its offset committed in the dead letter's transaction.
+ * <p>
+ * That producer factory is the one a {@link ProducerFactory} injection point resolves to: the only
+ * one, or the primary one. Other producer factories keep producing without transactions. The
+ * transaction manager is not registered as a bean so it does not compete with the transaction
+ * managers of the stream core.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ExactlyOnceKafkaPostProcessor implements BeanPostProcessor, BeanFactoryAware {
+
+    static final String DLQ_SUFFIX = ".DLQ";
+
+    private final ObjectProvider<ExactlyOnceProperties> properties;
+    private final ObjectProvider<ProducerFactory<?, ?>> producerFactory;
+    private final ObjectProvider<KafkaTemplate<?, ?>> kafkaTemplate;
+
+    private ConfigurableListableBeanFactory beanFactory;
+    private String transactionalProducerFactory;
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) {
+        this.beanFactory = (ConfigurableListableBeanFactory) beanFactory;
+    }
+
+    @Override
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DefaultKafkaProducerFactory<?, ?> factory && !factory.transactionCapable()
+                && beanName.equals(transactionalProducerFactory())) {
+            ExactlyOnceProperties exactlyOnce = properties.getObject();
+            factory.updateConfigs(Map.of(
+                    ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true,
+                    ProducerConfig.ACKS_CONFIG, "all",
+                    ProducerConfig.TRANSACTION_TIMEOUT_CONFIG, (int) exactlyOnce.getTransactionTimeout().toMillis()));
+            factory.setTransactionIdPrefix(exactlyOnce.getTransactionIdPrefix());
+            log.info("Producer factory {} is transactional with prefix {}", beanName, exactlyOnce.getTransactionIdPrefix());
+        } else if (bean instanceof DefaultKafkaConsumerFactory<?, ?> consumerFactory) {
+            consumerFactory.updateConfigs(Map.of(
+                    ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed",
+                    ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false));
+        } else if (bean instanceof AbstractKafkaListenerContainerFactory containerFactory) {
+            containerFactory.getContainerProperties().setKafkaAwareTransactionManager(
+                    new KafkaTransactionManager<>(producerFactory.getObject()));
+            containerFactory.setAfterRollbackProcessor(afterRollbackProcessor());
+            log.info("Listener containers of {} process records in Kafka transactions", beanName);
+        }
+        return bean;
+    }
+
+    /**
+     * Name of the producer factory bean the transaction manager is created with, resolved by
+     * name so other factories are not instantiated early.
+     */
+    private String transactionalProducerFactory() {
+        if (transactionalProducerFactory == null) {
+            String[] names = beanFactory.getBeanNamesForType(ProducerFactory.class, true, false);
+            transactionalProducerFactory = names.length == 1 ? names[0] : Arrays.stream(names)
+                    .filter(name -> beanFactory.containsBeanDefinition(name) && beanFactory.getBeanDefinition(name).isPrimary())
+                    .findFirst()
+                    .orElse("");
+        }
+        return transactionalProducerFactory;
+    }
+
+    private DefaultAfterRollbackProcessor<Object, Object> afterRollbackProcessor() {
+        ExactlyOnceProperties exactlyOnce = properties.getObject();
+        KafkaTemplate<?, ?> template = kafkaTemplate.getObject();
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(template,
+                (record, exception) -> new TopicPartition(record.topic() + DLQ_SUFFIX, -1));
+        FixedBackOff backOff = new FixedBackOff(exactlyOnce.getRetryInterval().toMillis(), exactlyOnce.getMaxAttempts() - 1L);
+        return new DefaultAfterRollbackProcessor<>(recoverer, backOff, template, true);
+    }
+
+}
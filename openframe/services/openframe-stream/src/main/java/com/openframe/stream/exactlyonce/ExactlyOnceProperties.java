@@ -0,0 +1,44 @@
+package com.openframe.stream.exactlyonce;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Exactly-once processing of the inbound Debezium topics, bound from {@code openframe.stream.exactly-once}.
+ */
+@Data
+@ConfigurationProperties(prefix = "openframe.stream.exactly-once")
+public class ExactlyOnceProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Prefix of the producer transactional ids; must be unique per instance.
+     */
+    private String transactionIdPrefix = "openframe-stream-tx-";
+
+    private Duration transactionTimeout = Duration.ofMinutes(1);
+
+    /**
+     * Stamp Cassandra writes with a write time derived from the Debezium source position.
+     */
+    private boolean positionTimestamps = true;
+
+    /**
+     * Tables, without keyspace, whose plain writes are position-stamped. Only tables written solely by
+     * this service and never with lightweight transactions qualify; empty stamps nothing.
+     */
+    private List<String> positionTimestampTables = new ArrayList<>();
+
+    /**
+     * Deliveries of a failing record before it is published to {@code <topic>.DLQ}.
+     */
+    private int maxAttempts = 5;
+
+    private Duration retryInterval = Duration.ofSeconds(1);
+
+}
@@ -0,0 +1,55 @@
+package com.openframe.stream.exactlyonce;
+
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.openframe.stream.cassandra.CqlStatementInterceptor;
+import com.openframe.stream.cassandra.CqlStatements;
+import com.openframe.stream.deserializer.SourcePosition;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Stamps statements executed while a record is processed with the write time of its Debezium
+ * source position.
+ * <p>
+ * With a deterministic write time a redelivered change re-applies the exact same cells, which
+ * makes the plain upserts of the stream core idempotent across rebalances. Statements with an
+ * explicit timestamp are left untouched.
+ * <p>
+ * Only the tables explicitly allowed as {@code position-timestamp-tables} are stamped. A past
+ * source position loses against the server write time of lightweight transactions and of writes
+ * from other services, so a table qualifies only when the stream service is its sole writer and it
+ * takes no lightweight transactions. Conditional writes are never stamped, Cassandra rejects client
+ * timestamps on them.
+ */
+public class PositionTimestampStatementInterceptor implements CqlStatementInterceptor {
+
+    private final Set<String> stampedTables;
+
+    public PositionTimestampStatementInterceptor(Collection<String> stampedTables) {
+        this.stampedTables = stampedTables.stream()
+                .map(table -> table.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    public Statement<?> beforeExecute(Statement<?> statement) {
+        return stamp(statement);
+    }
+
+    Statement<?> stamp(Statement<?> statement) {
+        SourcePosition position = SourcePositionContext.current();
+        if (position == null || statement.getQueryTimestamp() != Statement.NO_DEFAULT_TIMESTAMP
+                || CqlStatements.isConditional(statement)) {
+            return statement;
+        }
+        String table = CqlStatements.tableOf(statement);
+        if (table == null || !stampedTables.contains(table)) {
+            return statement;
+        }
+        return statement.setQueryTimestamp(position.writeTimestampMicros());
+    }
+
+}
@@ -0,0 +1,27 @@
+package com.openframe.stream.exactlyonce;
+
+import com.openframe.stream.deserializer.SourcePosition;
+
+/**
+ * Holds the source position of the record currently processed on the listener thread.
+ */
+public final class SourcePositionContext {
+
+    private static final ThreadLocal<SourcePosition> CURRENT = new ThreadLocal<>();
+
+    private SourcePositionContext() {
+    }
+
+    public static SourcePosition current() {
+        return CURRENT.get();
+    }
+
+    static void set(SourcePosition position) {
+        CURRENT.set(position);
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+}
@@ -0,0 +1,41 @@
+package com.openframe.stream.exactlyonce;
+
+import com.openframe.stream.deserializer.SourcePositionResolver;
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.core.Ordered;
+import org.springframework.kafka.listener.RecordInterceptor;
+
+/**
+ * Exposes the Debezium source position of the record being processed through {@link SourcePositionContext}.
+ * <p>
+ * Runs first among the record interceptors so that later ones can reuse the resolved position.
+ */
+@RequiredArgsConstructor
+public class SourcePositionRecordInterceptor implements RecordInterceptor<Object, Object>, Ordered {
+
+    private final SourcePositionResolver resolver;
+
+    @Override
+    public ConsumerRecord<Object, Object> intercept(ConsumerRecord<Object, Object> record, Consumer<Object, Object> consumer) {
+        SourcePositionContext.set(resolver.resolve(record));
+        return record;
+    }
+
+    @Override
+    public void afterRecord(ConsumerRecord<Object, Object> record, Consumer<Object, Object> consumer) {
+        SourcePositionContext.clear();
+    }
+
+    @Override
+    public void clearThreadState(Consumer<?, ?> consumer) {
+        SourcePositionContext.clear();
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+}
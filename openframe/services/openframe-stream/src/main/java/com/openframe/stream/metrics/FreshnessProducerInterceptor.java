@@ -0,0 +1,45 @@
+package com.openframe.stream.metrics;
+
+import org.apache.kafka.clients.producer.ProducerInterceptor;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+
+import java.util.Map;
+
+/**
+ * Kafka producer interceptor recording the freshness of records handed to the producer while an
+ * inbound record is processed, i.e. the messages for Pinot and {@code devices-topic}.
+ * <p>
+ * The {@link FreshnessRecorder} is passed in the producer configuration under {@link #RECORDER_CONFIG}.
+ */
+public class FreshnessProducerInterceptor implements ProducerInterceptor<Object, Object> {
+
+    public static final String RECORDER_CONFIG = "openframe.stream.metrics.freshness-recorder";
+
+    private FreshnessRecorder freshness;
+
+    @Override
+    public ProducerRecord<Object, Object> onSend(ProducerRecord<Object, Object> record) {
+        InFlightRecord inFlight = InFlightRecord.current();
+        if (inFlight != null && freshness != null) {
+            freshness.record(inFlight.topic(), record.topic(), inFlight.sourceTsMs());
+        }
+        return record;
+    }
+
+    @Override
+    public void onAcknowledgement(RecordMetadata metadata, Exception exception) {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+        if (configs.get(RECORDER_CONFIG) instanceof FreshnessRecorder recorder) {
+            freshness = recorder;
+        }
+    }
+
+}
@@ -0,0 +1,46 @@
+package com.openframe.stream.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records end-to-end freshness, the time from the source commit of a change until it reached a sink.
+ * <p>
+ * Exported as the {@code openframe.stream.freshness} histogram, tagged with the inbound
+ * {@code topic} and the {@code sink}: {@code cassandra}, the outbound Kafka topic feeding Pinot
+ * or {@code devices-topic}, or {@code processed} once the listener completed the record.
+ */
+public class FreshnessRecorder {
+
+    static final String FRESHNESS_METRIC = "openframe.stream.freshness";
+
+    private final MeterRegistry meterRegistry;
+    private final Duration maximum;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public FreshnessRecorder(MeterRegistry meterRegistry, Duration maximum) {
+        this.meterRegistry = meterRegistry;
+        this.maximum = maximum;
+    }
+
+    public void record(String topic, String sink, long sourceTsMs) {
+        long age = System.currentTimeMillis() - sourceTsMs;
+        if (age >= 0) {
+            timers.computeIfAbsent(topic + '\n' + sink, key -> Timer.builder(FRESHNESS_METRIC)
+                            .description("Time from the source commit of a change until it reached the sink")
+                            .tag("topic", topic)
+                            .tag("sink", sink)
+                            .publishPercentileHistogram()
+                            .minimumExpectedValue(Duration.ofMillis(10))
+                            .maximumExpectedValue(maximum)
+                            .register(meterRegistry))
+                    .record(age, TimeUnit.MILLISECONDS);
+        }
+    }
+
+}
@@ -0,0 +1,28 @@
+package com.openframe.stream.metrics;
+
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.openframe.stream.cassandra.CqlStatementInterceptor;
+import com.openframe.stream.cassandra.CqlStatements;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Records the freshness of every successful Cassandra write issued while an inbound record is processed.
+ */
+@RequiredArgsConstructor
+public class FreshnessStatementInterceptor implements CqlStatementInterceptor {
+
+    private final FreshnessRecorder freshness;
+
+    @Override
+    public Object capture() {
+        return InFlightRecord.current();
+    }
+
+    @Override
+    public void afterExecute(Statement<?> statement, long elapsedNanos, Throwable error, Object captured) {
+        if (error == null && captured instanceof InFlightRecord inFlight && CqlStatements.isWrite(statement)) {
+            freshness.record(inFlight.topic(), "cassandra", inFlight.sourceTsMs());
+        }
+    }
+
+}
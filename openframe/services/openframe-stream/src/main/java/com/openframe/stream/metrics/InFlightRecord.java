@@ -0,0 +1,29 @@
+package com.openframe.stream.metrics;
+
+/**
+ * The inbound record currently processed on the listener thread.
+ *
+ * @param topic       the inbound topic
+ * @param sourceTsMs  commit time of the change in the source database
+ * @param startNanos  when processing started
+ */
+public record InFlightRecord(String topic, long sourceTsMs, long startNanos) {
+
+    private static final ThreadLocal<InFlightRecord> CURRENT = new ThreadLocal<>();
+
+    /**
+     * @return the record in flight on this thread, or {@code null}
+     */
+    public static InFlightRecord current() {
+        return CURRENT.get();
+    }
+
+    static void set(InFlightRecord record) {
+        CURRENT.set(record);
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+}
@@ -0,0 +1,175 @@
+package com.openframe.stream.metrics;
+
+import com.openframe.stream.deserializer.SourcePosition;
+import com.openframe.stream.deserializer.SourcePositionResolver;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Periodically computes the lag of the stream's consumer group on every inbound topic.
+ * <p>
+ * {@code openframe.stream.lag.records} is the sum over partitions of log end offset minus
+ * committed offset. {@code openframe.stream.lag.seconds} is the age of the oldest unconsumed
+ * change, i.e. now minus the Debezium {@code ts_ms} of the record at the committed offset,
+ * taken over the partition that is furthest behind; it is {@code 0} when the group is caught up.
+ * Both are group-wide values, so every instance reports the same figures and autoscalers can
+ * aggregate with {@code max}. Partitions without a committed offset are not counted.
+ */
+@Slf4j
+public class InboundLagMonitor implements SmartLifecycle {
+
+    static final String LAG_METRIC_PREFIX = "openframe.stream.lag";
+
+    private final StreamMetricsProperties properties;
+    private final String groupId;
+    private final Supplier<Admin> adminFactory;
+    private final Supplier<Consumer<byte[], byte[]>> consumerFactory;
+    private final SourcePositionResolver resolver;
+
+    private final Map<String, AtomicLong> lagRecords = new HashMap<>();
+    private final Map<String, AtomicLong> lagMillis = new HashMap<>();
+
+    private ScheduledExecutorService scheduler;
+    private Admin admin;
+    private Consumer<byte[], byte[]> consumer;
+
+    public InboundLagMonitor(StreamMetricsProperties properties, String groupId, Supplier<Admin> adminFactory,
+                             Supplier<Consumer<byte[], byte[]>> consumerFactory, SourcePositionResolver resolver,
+                             MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.groupId = groupId;
+        this.adminFactory = adminFactory;
+        this.consumerFactory = consumerFactory;
+        this.resolver = resolver;
+        for (String topic : properties.getMessageTypes().keySet()) {
+            AtomicLong records = lagRecords.computeIfAbsent(topic, t -> new AtomicLong());
+            AtomicLong millis = lagMillis.computeIfAbsent(topic, t -> new AtomicLong());
+            Gauge.builder(LAG_METRIC_PREFIX + ".records", records, AtomicLong::get)
+                    .description("Records of the topic not yet committed by the stream consumer group")
+                    .tag("topic", topic)
+                    .tag("message_type", properties.messageTypeOf(topic))
+                    .baseUnit("records")
+                    .register(meterRegistry);
+            Gauge.builder(LAG_METRIC_PREFIX + ".seconds", millis, value -> value.get() / 1000.0)
+                    .description("Age of the oldest change of the topic not yet committed by the stream consumer group")
+                    .tag("topic", topic)
+                    .tag("message_type", properties.messageTypeOf(topic))
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+        }
+    }
+
+    void refresh() {
+        try {
+            long timeout = properties.getLagTimeout().toMillis();
+            Map<TopicPartition, OffsetAndMetadata> committed = new HashMap<>();
+            admin.listConsumerGroupOffsets(groupId).partitionsToOffsetAndMetadata().get(timeout, TimeUnit.MILLISECONDS)
+                    .forEach((partition, offset) -> {
+                        if (offset != null && lagRecords.containsKey(partition.topic())) {
+                            committed.put(partition, offset);
+                        }
+                    });
+
+            Map<TopicPartition, OffsetSpec> latest = new HashMap<>();
+            committed.keySet().forEach(partition -> latest.put(partition, OffsetSpec.latest()));
+            Map<TopicPartition, Long> end = new HashMap<>();
+            admin.listOffsets(latest).all().get(timeout, TimeUnit.MILLISECONDS)
+                    .forEach((partition, info) -> end.put(partition, info.offset()));
+
+            Map<String, Long> records = new HashMap<>();
+            Map<TopicPartition, Long> behind = new HashMap<>();
+            committed.forEach((partition, offset) -> {
+                long lag = Math.max(0, end.getOrDefault(partition, offset.offset()) - offset.offset());
+                records.merge(partition.topic(), lag, Long::sum);
+                if (lag > 0) {
+                    behind.put(partition, offset.offset());
+                }
+            });
+
+            Map<String, Long> millis = new HashMap<>();
+            long now = System.currentTimeMillis();
+            oldestSourceTimestamps(behind).forEach((partition, sourceTsMs) ->
+                    millis.merge(partition.topic(), Math.max(0, now - sourceTsMs), Math::max));
+
+            lagRecords.forEach((topic, value) -> value.set(records.getOrDefault(topic, 0L)));
+            lagMillis.forEach((topic, value) -> value.set(millis.getOrDefault(topic, 0L)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Failed to refresh the lag of consumer group {}", groupId, e);
+        }
+    }
+
+    /**
+     * Reads the record at the committed offset of every partition that is behind.
+     */
+    private Map<TopicPartition, Long> oldestSourceTimestamps(Map<TopicPartition, Long> committed) {
+        Map<TopicPartition, Long> timestamps = new HashMap<>();
+        if (committed.isEmpty()) {
+            return timestamps;
+        }
+        consumer.assign(committed.keySet());
+        committed.forEach(consumer::seek);
+        long deadline = System.nanoTime() + properties.getLagTimeout().toNanos();
+        while (timestamps.size() < committed.size() && System.nanoTime() < deadline) {
+            for (ConsumerRecord<byte[], byte[]> record : consumer.poll(Duration.ofMillis(200))) {
+                TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+                if (!timestamps.containsKey(partition)) {
+                    SourcePosition position = resolver.resolve(record.value());
+                    timestamps.put(partition, position != null ? position.tsMs() : record.timestamp());
+                    consumer.pause(List.of(partition));
+                }
+            }
+        }
+        consumer.resume(consumer.paused());
+        return timestamps;
+    }
+
+    @Override
+    public void start() {
+        admin = adminFactory.get();
+        consumer = consumerFactory.get();
+        scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("stream-lag-monitor").daemon().factory());
+        scheduler.scheduleWithFixedDelay(this::refresh, 0, properties.getLagInterval().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            try {
+                scheduler.awaitTermination(properties.getLagTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            scheduler = null;
+            consumer.close();
+            admin.close();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+
+}
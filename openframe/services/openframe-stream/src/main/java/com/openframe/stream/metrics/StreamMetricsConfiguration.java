@@ -0,0 +1,78 @@
+package com.openframe.stream.metrics;
+
+import com.openframe.stream.deserializer.SourcePositionResolver;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.ConsumerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+@EnableConfigurationProperties(StreamMetricsProperties.class)
+@ConditionalOnProperty(prefix = "openframe.stream.metrics", name = "enabled", havingValue = "true")
+public class StreamMetricsConfiguration {
+
+    @Bean
+    public FreshnessRecorder freshnessRecorder(StreamMetricsProperties properties, MeterRegistry meterRegistry) {
+        return new FreshnessRecorder(meterRegistry, properties.getFreshnessMaximum());
+    }
+
+    @Bean
+    public static StreamMetricsKafkaPostProcessor streamMetricsKafkaPostProcessor(ObjectProvider<FreshnessRecorder> freshnessRecorder) {
+        return new StreamMetricsKafkaPostProcessor(freshnessRecorder);
+    }
+
+    @Bean
+    public StreamMetricsRecordInterceptor streamMetricsRecordInterceptor(SourcePositionResolver sourcePositionResolver,
+                                                                         FreshnessRecorder freshnessRecorder,
+                                                                         StreamMetricsProperties properties,
+                                                                         MeterRegistry meterRegistry) {
+        return new StreamMetricsRecordInterceptor(sourcePositionResolver, freshnessRecorder, properties, meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnClass(name = "com.datastax.oss.driver.api.core.CqlSession")
+    public FreshnessStatementInterceptor freshnessStatementInterceptor(FreshnessRecorder freshnessRecorder) {
+        return new FreshnessStatementInterceptor(freshnessRecorder);
+    }
+
+    @Bean
+    public InboundLagMonitor inboundLagMonitor(StreamMetricsProperties properties,
+                                               ConsumerFactory<?, ?> consumerFactory,
+                                               SourcePositionResolver sourcePositionResolver,
+                                               MeterRegistry meterRegistry) {
+        Map<String, Object> configs = consumerFactory.getConfigurationProperties();
+        String groupId = String.valueOf(configs.get(ConsumerConfig.GROUP_ID_CONFIG));
+
+        Map<String, Object> adminConfigs = new HashMap<>();
+        configs.forEach((key, value) -> {
+            if (AdminClientConfig.configNames().contains(key)) {
+                adminConfigs.put(key, value);
+            }
+        });
+        adminConfigs.put(AdminClientConfig.CLIENT_ID_CONFIG, "openframe-stream-lag-monitor");
+
+        Map<String, Object> consumerConfigs = new HashMap<>(configs);
+        consumerConfigs.remove(ConsumerConfig.GROUP_ID_CONFIG);
+        consumerConfigs.remove(ConsumerConfig.INTERCEPTOR_CLASSES_CONFIG);
+        consumerConfigs.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        consumerConfigs.put(ConsumerConfig.MAX_PARTITION_FETCH_BYTES_CONFIG, 65536);
+        consumerConfigs.put(ConsumerConfig.CLIENT_ID_CONFIG, "openframe-stream-lag-monitor");
+
+        return new InboundLagMonitor(properties, groupId, () -> Admin.create(adminConfigs),
+                () -> new KafkaConsumer<>(consumerConfigs, new ByteArrayDeserializer(), new ByteArrayDeserializer()),
+                sourcePositionResolver, meterRegistry);
+    }
+
+}
@@ -0,0 +1,31 @@
+package com.openframe.stream.metrics;
+
+import com.openframe.stream.container.ConsumerInterceptors;
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+
+import java.util.Map;
+
+/**
+ * Registers {@link FreshnessProducerInterceptor} on the producer factories of the stream core.
+ */
+@RequiredArgsConstructor
+public class StreamMetricsKafkaPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<FreshnessRecorder> freshness;
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DefaultKafkaProducerFactory<?, ?> producerFactory) {
+            Object current = producerFactory.getConfigurationProperties().get(ProducerConfig.INTERCEPTOR_CLASSES_CONFIG);
+            producerFactory.updateConfigs(Map.of(
+                    ProducerConfig.INTERCEPTOR_CLASSES_CONFIG, ConsumerInterceptors.append(current, FreshnessProducerInterceptor.class),
+                    FreshnessProducerInterceptor.RECORDER_CONFIG, freshness.getObject()));
+        }
+        return bean;
+    }
+
+}
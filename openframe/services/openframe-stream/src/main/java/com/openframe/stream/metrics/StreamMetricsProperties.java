@@ -0,0 +1,49 @@
+package com.openframe.stream.metrics;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Lag, freshness and processing time metrics of the inbound topics, bound from
+ * {@code openframe.stream.metrics}.
+ */
+@Data
+@ConfigurationProperties(prefix = "openframe.stream.metrics")
+public class StreamMetricsProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Inbound topics and the stream core message type each one carries; lag is reported for these topics.
+     */
+    private Map<String, String> messageTypes = new LinkedHashMap<>();
+
+    /**
+     * How often the consumer group lag is refreshed.
+     */
+    private Duration lagInterval = Duration.ofSeconds(15);
+
+    /**
+     * Longest wait for the admin calls and the oldest unconsumed records of one refresh.
+     */
+    private Duration lagTimeout = Duration.ofSeconds(5);
+
+    /**
+     * Upper bound of the freshness histogram buckets.
+     */
+    private Duration freshnessMaximum = Duration.ofHours(1);
+
+    /**
+     * Upper bound of the processing time histogram buckets.
+     */
+    private Duration processingMaximum = Duration.ofSeconds(30);
+
+    public String messageTypeOf(String topic) {
+        return messageTypes.getOrDefault(topic, topic);
+    }
+
+}
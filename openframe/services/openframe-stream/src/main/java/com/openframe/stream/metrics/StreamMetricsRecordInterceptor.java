@@ -0,0 +1,104 @@
+package com.openframe.stream.metrics;
+
+import com.openframe.stream.deserializer.SourcePosition;
+import com.openframe.stream.deserializer.SourcePositionResolver;
+import com.openframe.stream.exactlyonce.SourcePositionContext;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.core.Ordered;
+import org.springframework.kafka.listener.RecordInterceptor;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times the processing of every inbound record and exposes it as {@link InFlightRecord} to the
+ * freshness probes of the sinks.
+ * <p>
+ * Processing time is exported as the {@code openframe.stream.processing} histogram tagged with
+ * topic, message type and outcome. The source commit time is taken from the position resolved by
+ * the exactly-once mode when it is enabled, otherwise from the position the
+ * {@link com.openframe.stream.deserializer.SourcePositionDeserializer} recorded, and falls back to
+ * the Kafka record timestamp.
+ */
+public class StreamMetricsRecordInterceptor implements RecordInterceptor<Object, Object>, Ordered {
+
+    static final String PROCESSING_METRIC = "openframe.stream.processing";
+
+    private final SourcePositionResolver resolver;
+    private final FreshnessRecorder freshness;
+    private final StreamMetricsProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public StreamMetricsRecordInterceptor(SourcePositionResolver resolver, FreshnessRecorder freshness,
+                                          StreamMetricsProperties properties, MeterRegistry meterRegistry) {
+        this.resolver = resolver;
+        this.freshness = freshness;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public ConsumerRecord<Object, Object> intercept(ConsumerRecord<Object, Object> record, Consumer<Object, Object> consumer) {
+        InFlightRecord.set(new InFlightRecord(record.topic(), sourceTsOf(record), System.nanoTime()));
+        return record;
+    }
+
+    @Override
+    public void success(ConsumerRecord<Object, Object> record, Consumer<Object, Object> consumer) {
+        InFlightRecord inFlight = InFlightRecord.current();
+        if (inFlight != null) {
+            timer(record.topic(), "success").record(System.nanoTime() - inFlight.startNanos(), TimeUnit.NANOSECONDS);
+            freshness.record(record.topic(), "processed", inFlight.sourceTsMs());
+        }
+    }
+
+    @Override
+    public void failure(ConsumerRecord<Object, Object> record, Exception exception, Consumer<Object, Object> consumer) {
+        InFlightRecord inFlight = InFlightRecord.current();
+        if (inFlight != null) {
+            timer(record.topic(), "failure").record(System.nanoTime() - inFlight.startNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void afterRecord(ConsumerRecord<Object, Object> record, Consumer<Object, Object> consumer) {
+        InFlightRecord.clear();
+    }
+
+    @Override
+    public void clearThreadState(Consumer<?, ?> consumer) {
+        InFlightRecord.clear();
+    }
+
+    private long sourceTsOf(ConsumerRecord<Object, Object> record) {
+        SourcePosition position = SourcePositionContext.current();
+        if (position == null) {
+            position = resolver.resolve(record);
+        }
+        return position != null ? position.tsMs() : record.timestamp();
+    }
+
+    private Timer timer(String topic, String outcome) {
+        return timers.computeIfAbsent(topic + '\n' + outcome, key -> Timer.builder(PROCESSING_METRIC)
+                .description("Processing time of an inbound record by the stream core")
+                .tag("topic", topic)
+                .tag("message_type", properties.messageTypeOf(topic))
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(100_000))
+                .maximumExpectedValue(properties.getProcessingMaximum())
+                .register(meterRegistry));
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 1;
+    }
+
+}
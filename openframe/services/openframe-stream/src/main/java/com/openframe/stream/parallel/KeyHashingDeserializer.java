@@ -0,0 +1,95 @@
+package com.openframe.stream.parallel;
+
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.utils.Utils;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+/**
+ * Key deserializer wrapper that records the murmur2 hash of the raw key bytes in the
+ * {@value #HASH_HEADER} header before delegating.
+ * <p>
+ * Lanes are chosen from this hash, so records of one source row share a lane regardless of how
+ * the stream core deserializes keys or whether its key type implements {@code hashCode}.
+ */
+public class KeyHashingDeserializer<T> implements Deserializer<T> {
+
+    public static final String HASH_HEADER = "openframe_key_hash";
+    public static final String DELEGATE_CLASS_CONFIG = "openframe.stream.parallel.key.delegate.class";
+
+    private Deserializer<T> delegate;
+    private boolean ownsDelegate;
+
+    public KeyHashingDeserializer() {
+    }
+
+    public KeyHashingDeserializer(Deserializer<T> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        if (delegate != null) {
+            return;
+        }
+        Object configured = configs.get(DELEGATE_CLASS_CONFIG);
+        try {
+            delegate = configured instanceof Class<?> type
+                    ? Utils.newInstance(type, Deserializer.class)
+                    : Utils.newInstance(String.valueOf(configured), Deserializer.class);
+        } catch (ClassNotFoundException e) {
+            throw new KafkaException("Key deserializer " + configured + " not found", e);
+        }
+        ownsDelegate = true;
+        delegate.configure(configs, isKey);
+    }
+
+    @Override
+    public T deserialize(String topic, byte[] data) {
+        return delegate.deserialize(topic, data);
+    }
+
+    @Override
+    public T deserialize(String topic, Headers headers, byte[] data) {
+        if (data != null) {
+            stamp(headers, Utils.murmur2(data));
+        }
+        return delegate.deserialize(topic, headers, data);
+    }
+
+    @Override
+    public T deserialize(String topic, Headers headers, ByteBuffer data) {
+        if (data != null) {
+            stamp(headers, Utils.murmur2(Utils.toArray(data.duplicate())));
+        }
+        return delegate.deserialize(topic, headers, data);
+    }
+
+    private static void stamp(Headers headers, int hash) {
+        headers.remove(HASH_HEADER).add(HASH_HEADER, ByteBuffer.allocate(Integer.BYTES).putInt(hash).array());
+    }
+
+    /**
+     * @return the hash recorded for the key of a record, {@code null} for records without key
+     * or not read through this deserializer
+     */
+    public static Integer hashOf(Headers headers) {
+        Header header = headers.lastHeader(HASH_HEADER);
+        return header == null || header.value() == null || header.value().length != Integer.BYTES
+                ? null
+                : ByteBuffer.wrap(header.value()).getInt();
+    }
+
+    @Override
+    public void close() {
+        if (ownsDelegate) {
+            delegate.close();
+        }
+    }
+
+}
@@ -0,0 +1,49 @@
+package com.openframe.stream.parallel;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+
+import java.util.Map;
+
+/**
+ * Wraps the key deserializer of the consumer factories of the stream core in a
+ * {@link KeyHashingDeserializer}.
+ * <p>
+ * A deserializer class configured through {@code key.deserializer} becomes the delegate of a
+ * wrapper created per consumer; a deserializer instance set on the factory is wrapped once and
+ * shared by its consumers, as it was before.
+ */
+@Slf4j
+public class KeyHashingKafkaPostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DefaultKafkaConsumerFactory<?, ?> consumerFactory && wrap(consumerFactory)) {
+            log.info("Key hashes for parallel lanes are recorded by the consumers of {}", beanName);
+        }
+        return bean;
+    }
+
+    private static <K> boolean wrap(DefaultKafkaConsumerFactory<K, ?> consumerFactory) {
+        Deserializer<K> configured = consumerFactory.getKeyDeserializer();
+        if (configured instanceof KeyHashingDeserializer<K>) {
+            return false;
+        }
+        if (configured != null) {
+            consumerFactory.setKeyDeserializer(new KeyHashingDeserializer<>(configured));
+            return true;
+        }
+        Object delegate = consumerFactory.getConfigurationProperties().get(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG);
+        if (delegate == null || KeyHashingDeserializer.class.equals(delegate)) {
+            return false;
+        }
+        consumerFactory.updateConfigs(Map.of(
+                ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, KeyHashingDeserializer.class,
+                KeyHashingDeserializer.DELEGATE_CLASS_CONFIG, delegate));
+        return true;
+    }
+
+}
@@ -0,0 +1,160 @@
+package com.openframe.stream.parallel;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.utils.Utils;
+import org.springframework.kafka.listener.AcknowledgingConsumerAwareMessageListener;
+import org.springframework.kafka.listener.AcknowledgingMessageListener;
+import org.springframework.kafka.listener.ConsumerAwareMessageListener;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.kafka.listener.ListenerType;
+import org.springframework.kafka.listener.ListenerUtils;
+import org.springframework.kafka.listener.MessageListener;
+import org.springframework.kafka.listener.RecordInterceptor;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.util.backoff.BackOff;
+import org.springframework.util.backoff.BackOffExecution;
+
+/**
+ * Record listener that fans the records of a partition out to {@link KeyedLaneExecutor} lanes.
+ * <p>
+ * Records are routed by topic and the hash of the raw Debezium key recorded by
+ * {@link KeyHashingDeserializer}, so per-row order is preserved while different rows of the same
+ * partition are processed concurrently. Each record is acknowledged when its processing completes;
+ * the container runs with asynchronous acks and only commits the contiguous prefix of completed
+ * offsets. Failures are retried in the lane with exponential back-off and finally handed to the
+ * dead-letter recoverer, as are records whose retry is interrupted.
+ * <p>
+ * The record interceptors of the container run on the lane around each attempt, so their thread
+ * state belongs to the record being processed there. Per-poll thread state
+ * ({@code setupThreadState} / {@code clearThreadState}) does not apply to lanes. The delegate and the
+ * interceptors receive the container's {@link Consumer}, which stays owned by the container thread:
+ * on a lane only its thread-safe operations may be used.
+ */
+@Slf4j
+public class KeyOrderedParallelListener implements AcknowledgingConsumerAwareMessageListener<Object, Object> {
+
+    private static final Acknowledgment NO_OP_ACK = () -> {
+    };
+
+    private final Object delegate;
+    private final ListenerType delegateType;
+    private final RecordInterceptor<Object, Object> interceptor;
+    private final KeyedLaneExecutor executor;
+    private final BackOff backOff;
+    private final ConsumerRecordRecoverer recoverer;
+
+    /**
+     * @param interceptor the record interceptor removed from the container, {@code null} for none
+     */
+    public KeyOrderedParallelListener(Object delegate, RecordInterceptor<Object, Object> interceptor,
+                                      KeyedLaneExecutor executor, BackOff backOff, ConsumerRecordRecoverer recoverer) {
+        this.delegate = delegate;
+        this.delegateType = ListenerUtils.determineListenerType(delegate);
+        this.interceptor = interceptor;
+        this.executor = executor;
+        this.backOff = backOff;
+        this.recoverer = recoverer;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void onMessage(ConsumerRecord<Object, Object> record, Acknowledgment acknowledgment, Consumer<?, ?> consumer) {
+        executor.execute(laneKeyOf(record), () -> process(record, acknowledgment, (Consumer<Object, Object>) consumer));
+    }
+
+    static int laneKeyOf(ConsumerRecord<?, ?> record) {
+        Integer keyHash = KeyHashingDeserializer.hashOf(record.headers());
+        if (keyHash == null) {
+            keyHash = switch (record.key()) {
+                case null -> record.partition();
+                case byte[] bytes -> Utils.murmur2(bytes);
+                default -> record.key().hashCode();
+            };
+        }
+        return 31 * record.topic().hashCode() + keyHash;
+    }
+
+    private void process(ConsumerRecord<Object, Object> record, Acknowledgment acknowledgment,
+                         Consumer<Object, Object> consumer) {
+        BackOffExecution backOffExecution = backOff.start();
+        boolean interrupted = false;
+        while (true) {
+            try {
+                invoke(record, consumer);
+                break;
+            } catch (Exception e) {
+                long interval = backOffExecution.nextBackOff();
+                if (interval == BackOffExecution.STOP) {
+                    log.error("Processing of {}-{}@{} failed, sending to DLQ",
+                            record.topic(), record.partition(), record.offset(), e);
+                    recoverer.accept(record, e);
+                    break;
+                }
+                log.warn("Processing of {}-{}@{} failed, retrying in {}ms: {}",
+                        record.topic(), record.partition(), record.offset(), interval, e.getMessage());
+                if (!sleep(interval)) {
+                    interrupted = true;
+                    log.error("Retry of {}-{}@{} interrupted, sending to DLQ",
+                            record.topic(), record.partition(), record.offset(), e);
+                    recoverer.accept(record, e);
+                    break;
+                }
+            }
+        }
+        acknowledgment.acknowledge();
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void invoke(ConsumerRecord<Object, Object> record, Consumer<Object, Object> consumer) {
+        ConsumerRecord<Object, Object> intercepted = interceptor != null ? interceptor.intercept(record, consumer) : record;
+        if (intercepted == null) {
+            return;
+        }
+        try {
+            invokeDelegate(intercepted, consumer);
+            if (interceptor != null) {
+                interceptor.success(intercepted, consumer);
+            }
+        } catch (RuntimeException e) {
+            if (interceptor != null) {
+                interceptor.failure(intercepted, e, consumer);
+            }
+            throw e;
+        } finally {
+            if (interceptor != null) {
+                interceptor.afterRecord(intercepted, consumer);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void invokeDelegate(ConsumerRecord<Object, Object> record, Consumer<Object, Object> consumer) {
+        switch (delegateType) {
+            case ACKNOWLEDGING_CONSUMER_AWARE ->
+                    ((AcknowledgingConsumerAwareMessageListener<Object, Object>) delegate).onMessage(record, NO_OP_ACK, consumer);
+            case ACKNOWLEDGING ->
+                    ((AcknowledgingMessageListener<Object, Object>) delegate).onMessage(record, NO_OP_ACK);
+            case CONSUMER_AWARE ->
+                    ((ConsumerAwareMessageListener<Object, Object>) delegate).onMessage(record, consumer);
+            case SIMPLE -> ((MessageListener<Object, Object>) delegate).onMessage(record);
+        }
+    }
+
+    /**
+     * @return {@code false} if interrupted; the interrupt flag is left cleared so the recoverer can
+     * still publish, the caller restores it afterwards
+     */
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            return false;
+        }
+    }
+
+}
@@ -0,0 +1,93 @@
+package com.openframe.stream.parallel;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fixed set of single-threaded lanes. Tasks submitted with the same key always run on the same
+ * lane and therefore in submission order, while different keys are processed concurrently.
+ * <p>
+ * Each lane queues at most {@code laneCapacity} tasks; submitting to a full lane blocks the caller,
+ * i.e. the listener container thread, until the lane has made room.
+ */
+@Slf4j
+public class KeyedLaneExecutor implements DisposableBean {
+
+    private final ThreadPoolExecutor[] lanes;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter fullLaneWaits;
+
+    public KeyedLaneExecutor(int laneCount, int laneCapacity, boolean virtualThreads, MeterRegistry meterRegistry) {
+        this.lanes = new ThreadPoolExecutor[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            ThreadFactory threadFactory = virtualThreads
+                    ? Thread.ofVirtual().name("stream-lane-" + i + "-", 0).factory()
+                    : Thread.ofPlatform().name("stream-lane-" + i + "-", 0).daemon(true).factory();
+            lanes[i] = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(laneCapacity), threadFactory, this::waitForCapacity);
+        }
+        Gauge.builder("openframe.stream.parallel.in.flight", inFlight, AtomicInteger::get)
+                .description("Records dispatched to processing lanes and not yet completed")
+                .register(meterRegistry);
+        fullLaneWaits = Counter.builder("openframe.stream.parallel.lane.full")
+                .description("Dispatches that waited for a full processing lane")
+                .register(meterRegistry);
+    }
+
+    public void execute(int keyHash, Runnable task) {
+        inFlight.incrementAndGet();
+        try {
+            lanes[laneOf(keyHash)].execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.decrementAndGet();
+            throw e;
+        }
+    }
+
+    int laneOf(int keyHash) {
+        return Math.floorMod(keyHash, lanes.length);
+    }
+
+    private void waitForCapacity(Runnable task, ThreadPoolExecutor lane) {
+        if (lane.isShutdown()) {
+            throw new RejectedExecutionException("Processing lane is shut down");
+        }
+        fullLaneWaits.increment();
+        try {
+            lane.getQueue().put(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for a full processing lane", e);
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdown();
+        }
+        for (ThreadPoolExecutor lane : lanes) {
+            if (!lane.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("Processing lane did not drain within 30s, {} records still in flight", inFlight.get());
+                lane.shutdownNow();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,75 @@
+package com.openframe.stream.parallel;
+
+import com.openframe.stream.container.InboundContainerCustomizer;
+import com.openframe.stream.container.RecordInterceptorPostProcessor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.Ordered;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import org.springframework.kafka.listener.BatchMessageListener;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.MessageListener;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.listener.RecordInterceptor;
+import org.springframework.util.backoff.BackOff;
+
+import java.util.Set;
+
+/**
+ * Replaces the record listener of the selected inbound containers with a
+ * {@link KeyOrderedParallelListener} and switches them to manual, out-of-order acknowledgments.
+ * <p>
+ * The record interceptors installed by {@link RecordInterceptorPostProcessor} are moved from the
+ * container to the lanes, where the records are actually processed.
+ * <p>
+ * This takes precedence over the per-poll acknowledgment of micro-batch mode for the same
+ * containers, so it runs before the micro-batch customizer.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ParallelListenerCustomizer implements InboundContainerCustomizer, Ordered {
+
+    private final ParallelProcessingProperties properties;
+    private final KeyedLaneExecutor executor;
+    private final BackOff backOff;
+    private final ConsumerRecordRecoverer recoverer;
+    private final ObjectProvider<RecordInterceptor<?, ?>> interceptors;
+
+    @Override
+    public void customize(MessageListenerContainer container, Set<String> topics) {
+        if (topics.isEmpty() || (!properties.getTopics().isEmpty()
+                && topics.stream().noneMatch(properties.getTopics()::contains))) {
+            return;
+        }
+
+        ContainerProperties containerProperties = container.getContainerProperties();
+        Object listener = containerProperties.getMessageListener();
+        if (listener instanceof BatchMessageListener<?, ?> || !(listener instanceof MessageListener<?, ?>)) {
+            log.warn("Listener container {} does not use a record listener, parallel processing skipped",
+                    container.getListenerId());
+            return;
+        }
+
+        if (!(container instanceof AbstractMessageListenerContainer<?, ?> listenerContainer)) {
+            log.warn("Listener container {} does not expose its record interceptor, parallel processing skipped",
+                    container.getListenerId());
+            return;
+        }
+
+        listenerContainer.setRecordInterceptor(null);
+        container.setupMessageListener(new KeyOrderedParallelListener(listener,
+                RecordInterceptorPostProcessor.combine(interceptors), executor, backOff, recoverer));
+        containerProperties.setAckMode(ContainerProperties.AckMode.MANUAL);
+        containerProperties.setAsyncAcks(true);
+        log.info("Listener container {} for {} processes records on {} key-ordered lanes",
+                container.getListenerId(), topics, properties.getLanes());
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE - 1;
+    }
+
+}
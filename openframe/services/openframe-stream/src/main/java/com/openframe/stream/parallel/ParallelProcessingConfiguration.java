@@ -0,0 +1,50 @@
+package com.openframe.stream.parallel;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.RecordInterceptor;
+import org.springframework.kafka.support.ExponentialBackOffWithMaxRetries;
+
+@Configuration
+@EnableConfigurationProperties(ParallelProcessingProperties.class)
+@ConditionalOnProperty(prefix = "openframe.stream.parallel", name = "enabled", havingValue = "true")
+public class ParallelProcessingConfiguration {
+
+    static final String DLQ_SUFFIX = ".DLQ";
+
+    @Bean
+    public static KeyHashingKafkaPostProcessor keyHashingKafkaPostProcessor() {
+        return new KeyHashingKafkaPostProcessor();
+    }
+
+    @Bean
+    public KeyedLaneExecutor keyedLaneExecutor(ParallelProcessingProperties properties, MeterRegistry meterRegistry) {
+        return new KeyedLaneExecutor(properties.getLanes(), properties.getLaneCapacity(), properties.isVirtualThreads(),
+                meterRegistry);
+    }
+
+    @Bean
+    public ParallelListenerCustomizer parallelListenerCustomizer(ParallelProcessingProperties properties,
+                                                                 KeyedLaneExecutor keyedLaneExecutor,
+                                                                 KafkaTemplate<?, ?> kafkaTemplate,
+                                                                 ObjectProvider<RecordInterceptor<?, ?>> interceptors) {
+        ParallelProcessingProperties.Retry retry = properties.getRetry();
+        ExponentialBackOffWithMaxRetries backOff = new ExponentialBackOffWithMaxRetries(retry.getMaxRetries());
+        backOff.setInitialInterval(retry.getInitialInterval().toMillis());
+        backOff.setMultiplier(retry.getMultiplier());
+        backOff.setMaxInterval(retry.getMaxInterval().toMillis());
+
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(kafkaTemplate,
+                (record, exception) -> new TopicPartition(record.topic() + DLQ_SUFFIX, -1));
+
+        return new ParallelListenerCustomizer(properties, keyedLaneExecutor, backOff, recoverer, interceptors);
+    }
+
+}
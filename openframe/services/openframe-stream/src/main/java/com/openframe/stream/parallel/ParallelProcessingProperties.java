@@ -0,0 +1,55 @@
+package com.openframe.stream.parallel;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Key-ordered parallel processing of the inbound Debezium topics, bound from
+ * {@code openframe.stream.parallel}.
+ */
+@Data
+@ConfigurationProperties(prefix = "openframe.stream.parallel")
+public class ParallelProcessingProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Topics processed in parallel; empty means every inbound listener container.
+     */
+    private Set<String> topics = new HashSet<>();
+
+    /**
+     * Number of serial lanes; records of one primary key always share a lane.
+     */
+    private int lanes = 16;
+
+    /**
+     * Records queued per lane; dispatching to a full lane blocks the listener container thread.
+     */
+    private int laneCapacity = 256;
+
+    /**
+     * Run lanes on virtual threads instead of platform threads.
+     */
+    private boolean virtualThreads = true;
+
+    private Retry retry = new Retry();
+
+    @Data
+    public static class Retry {
+
+        private int maxRetries = 5;
+
+        private Duration initialInterval = Duration.ofMillis(500);
+
+        private double multiplier = 2.0;
+
+        private Duration maxInterval = Duration.ofSeconds(10);
+
+    }
+
+}
@@ -0,0 +1,42 @@
+package com.openframe.stream.replay;
+
+import com.openframe.stream.deserializer.SelectiveEnvelopeReader;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.RecordInterceptor;
+
+@Configuration
+@EnableConfigurationProperties(DlqReplayProperties.class)
+@ConditionalOnProperty(prefix = "openframe.stream.dlq-replay", name = "enabled", havingValue = "true")
+public class DlqReplayConfiguration {
+
+    @Bean
+    public DlqReplayContainers dlqReplayContainers(ObjectProvider<KafkaListenerEndpointRegistry> registry,
+                                                   ConsumerFactory<?, ?> consumerFactory,
+                                                   ObjectProvider<RecordInterceptor<?, ?>> interceptors) {
+        return new DlqReplayContainers(registry, consumerFactory, interceptors);
+    }
+
+    @Bean
+    public DlqReplayService dlqReplayService(DlqReplayProperties properties,
+                                             DlqReplayContainers dlqReplayContainers,
+                                             ConsumerFactory<?, ?> consumerFactory,
+                                             ProducerFactory<?, ?> producerFactory,
+                                             SelectiveEnvelopeReader selectiveEnvelopeReader,
+                                             MeterRegistry meterRegistry) {
+        return new DlqReplayService(properties, dlqReplayContainers, consumerFactory, producerFactory, selectiveEnvelopeReader, meterRegistry);
+    }
+
+    @Bean
+    public DlqReplayEndpoint dlqReplayEndpoint(DlqReplayService dlqReplayService, DlqReplayProperties properties) {
+        return new DlqReplayEndpoint(dlqReplayService, properties);
+    }
+
+}
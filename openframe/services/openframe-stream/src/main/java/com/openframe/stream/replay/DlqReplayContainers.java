@@ -0,0 +1,184 @@
+package com.openframe.stream.replay;
+
+import com.openframe.stream.container.RecordInterceptorPostProcessor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import org.springframework.kafka.listener.AfterRollbackProcessor;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.listener.RecordInterceptor;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listener containers consuming the {@code <topic>.replay} topics DLQ replays publish to.
+ * <p>
+ * Replayed records do not go back into the Debezium topic, which Debezium alone writes and other
+ * consumers read as the change log. Instead, the first replay of a topic creates
+ * {@code <topic>.replay} with the partition count of the source topic and starts a container for
+ * it, built from the container subscribed to the source topic: same container properties,
+ * including the message listener and transaction manager, concurrency, error handler, rollback
+ * processor and record interceptors. Replayed records thus pass the regular processing chain.
+ * <p>
+ * Each replay container consumes with its own group, {@code <group>.replay}, so it neither joins
+ * nor rebalances the live consumer group of the source topic. Containers for the replay topics
+ * that already exist are started with the application, so records replayed before a restart and
+ * not consumed yet are processed without waiting for the next replay.
+ */
+@Slf4j
+public class DlqReplayContainers implements SmartLifecycle {
+
+    private static final String[] NOT_COPIED = {"topics", "topicPartitions", "topicPattern", "groupId", "ackCount", "ackTime", "subBatchPerPartition"};
+
+    private final ObjectProvider<KafkaListenerEndpointRegistry> registry;
+    private final ConsumerFactory<Object, Object> consumerFactory;
+    private final ObjectProvider<RecordInterceptor<?, ?>> interceptors;
+    private final KafkaAdmin admin;
+    private final Map<String, ConcurrentMessageListenerContainer<Object, Object>> containers = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+
+    @SuppressWarnings("unchecked")
+    public DlqReplayContainers(ObjectProvider<KafkaListenerEndpointRegistry> registry, ConsumerFactory<?, ?> consumerFactory,
+                               ObjectProvider<RecordInterceptor<?, ?>> interceptors) {
+        this.registry = registry;
+        this.consumerFactory = (ConsumerFactory<Object, Object>) consumerFactory;
+        this.interceptors = interceptors;
+        Map<String, Object> adminConfigs = new HashMap<>(consumerFactory.getConfigurationProperties());
+        adminConfigs.keySet().retainAll(AdminClientConfig.configNames());
+        this.admin = new KafkaAdmin(adminConfigs);
+    }
+
+    /**
+     * Creates the replay topic of a source topic and starts its container, unless already running.
+     *
+     * @throws IllegalStateException when no listener container subscribes to the source topic
+     */
+    public void ensureRunning(String sourceTopic) {
+        containers.computeIfAbsent(sourceTopic, topic -> start(topic, true));
+    }
+
+    /**
+     * Starts the containers of the replay topics that already exist for a subscribed source topic.
+     */
+    @Override
+    public void start() {
+        running = true;
+        Set<String> topics;
+        try (AdminClient client = AdminClient.create(admin.getConfigurationProperties())) {
+            topics = client.listTopics().names().get(admin.getOperationTimeout(), TimeUnit.SECONDS);
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            log.warn("Could not list the replay topics, their containers start with the next replay", e);
+            return;
+        }
+        topics.stream()
+                .filter(topic -> topic.endsWith(DlqReplayService.REPLAY_SUFFIX))
+                .map(topic -> topic.substring(0, topic.length() - DlqReplayService.REPLAY_SUFFIX.length()))
+                .filter(this::isSubscribed)
+                .forEach(sourceTopic -> {
+                    try {
+                        containers.computeIfAbsent(sourceTopic, topic -> start(topic, false));
+                    } catch (RuntimeException e) {
+                        log.warn("Could not start the replay container of {}", sourceTopic, e);
+                    }
+                });
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private ConcurrentMessageListenerContainer<Object, Object> start(String sourceTopic, boolean createTopic) {
+        AbstractMessageListenerContainer<?, ?> source = sourceContainer(sourceTopic);
+        String replayTopic = sourceTopic + DlqReplayService.REPLAY_SUFFIX;
+        if (createTopic) {
+            TopicDescription description = admin.describeTopics(sourceTopic).get(sourceTopic);
+            admin.createOrModifyTopics(new NewTopic(replayTopic, Optional.of(description.partitions().size()), Optional.empty()));
+        }
+
+        ContainerProperties properties = new ContainerProperties(replayTopic);
+        BeanUtils.copyProperties(source.getContainerProperties(), properties, NOT_COPIED);
+        String groupId = groupIdOf(source);
+        if (groupId != null) {
+            properties.setGroupId(groupId + DlqReplayService.REPLAY_SUFFIX);
+        }
+        ConcurrentMessageListenerContainer<Object, Object> container = new ConcurrentMessageListenerContainer<>(consumerFactory, properties);
+        container.setBeanName(source.getBeanName() + DlqReplayService.REPLAY_SUFFIX);
+        if (source instanceof ConcurrentMessageListenerContainer<?, ?> concurrent) {
+            container.setConcurrency(concurrent.getConcurrency());
+        }
+        container.setCommonErrorHandler(source.getCommonErrorHandler());
+        container.setAfterRollbackProcessor((AfterRollbackProcessor) source.getAfterRollbackProcessor());
+        RecordInterceptor<Object, Object> interceptor = RecordInterceptorPostProcessor.combine(interceptors);
+        if (interceptor != null) {
+            container.setRecordInterceptor(interceptor);
+        }
+        container.start();
+        log.info("Consuming {} as group {} with the listener of {}", replayTopic, properties.getGroupId(), sourceTopic);
+        return container;
+    }
+
+    private String groupIdOf(AbstractMessageListenerContainer<?, ?> source) {
+        String groupId = source.getGroupId();
+        if (groupId == null) {
+            Object configured = consumerFactory.getConfigurationProperties().get(ConsumerConfig.GROUP_ID_CONFIG);
+            groupId = configured != null ? configured.toString() : null;
+        }
+        return groupId;
+    }
+
+    private boolean isSubscribed(String sourceTopic) {
+        return registry.getObject().getAllListenerContainers().stream()
+                .anyMatch(container -> container.getContainerProperties().getTopics() != null
+                        && List.of(container.getContainerProperties().getTopics()).contains(sourceTopic));
+    }
+
+    private AbstractMessageListenerContainer<?, ?> sourceContainer(String sourceTopic) {
+        return registry.getObject().getAllListenerContainers().stream()
+                .filter(container -> container.getContainerProperties().getTopics() != null
+                        && List.of(container.getContainerProperties().getTopics()).contains(sourceTopic))
+                .filter(AbstractMessageListenerContainer.class::isInstance)
+                .map(container -> (AbstractMessageListenerContainer<?, ?>) container)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No listener container subscribes to " + sourceTopic));
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        containers.values().forEach(MessageListenerContainer::stop);
+        containers.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Same phase as the listener containers, after the inbound containers have been customized.
+     */
+    @Override
+    public int getPhase() {
+        return AbstractMessageListenerContainer.DEFAULT_PHASE;
+    }
+
+}
@@ -0,0 +1,82 @@
+package com.openframe.stream.replay;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Actuator endpoint starting, inspecting and cancelling DLQ replays:
+ * <ul>
+ *     <li>{@code POST /management/v1/dlqreplay} with {@code topic} and optional {@code from},
+ *     {@code to} (ISO-8601 instants), {@code keyPattern}, {@code rate} and {@code parallelism}</li>
+ *     <li>{@code GET /management/v1/dlqreplay} for the progress of the current or last job</li>
+ *     <li>{@code DELETE /management/v1/dlqreplay} to cancel the running job</li>
+ * </ul>
+ */
+@Endpoint(id = "dlqreplay")
+@RequiredArgsConstructor
+public class DlqReplayEndpoint {
+
+    private final DlqReplayService service;
+    private final DlqReplayProperties properties;
+
+    @ReadOperation
+    public DlqReplayStatus status() {
+        return service.status();
+    }
+
+    @WriteOperation
+    public DlqReplayStatus start(String topic, @Nullable String from, @Nullable String to, @Nullable String keyPattern,
+                                 @Nullable Integer rate, @Nullable Integer parallelism) {
+        if (!topic.endsWith(DlqReplayService.DLQ_SUFFIX)) {
+            throw invalid("topic must be a " + DlqReplayService.DLQ_SUFFIX + " topic");
+        }
+        int effectiveRate = rate != null ? rate : properties.getDefaultRate();
+        int effectiveParallelism = parallelism != null ? parallelism : properties.getDefaultParallelism();
+        if (effectiveRate <= 0 || effectiveParallelism <= 0) {
+            throw invalid("rate and parallelism must be positive");
+        }
+        DlqReplayRequest request = new DlqReplayRequest(topic, instant("from", from), instant("to", to),
+                pattern(keyPattern), effectiveRate, effectiveParallelism);
+        try {
+            return service.start(request);
+        } catch (IllegalStateException e) {
+            throw invalid(e.getMessage());
+        }
+    }
+
+    @DeleteOperation
+    public DlqReplayStatus cancel() {
+        return service.cancel();
+    }
+
+    private static Instant instant(String name, String value) {
+        try {
+            return value == null || value.isBlank() ? null : Instant.parse(value);
+        } catch (DateTimeParseException e) {
+            throw invalid(name + " must be an ISO-8601 instant");
+        }
+    }
+
+    private static Pattern pattern(String value) {
+        try {
+            return value == null || value.isBlank() ? null : Pattern.compile(value);
+        } catch (PatternSyntaxException e) {
+            throw invalid("keyPattern is not a valid regular expression");
+        }
+    }
+
+    private static InvalidEndpointRequestException invalid(String reason) {
+        return new InvalidEndpointRequestException(reason, reason);
+    }
+
+}
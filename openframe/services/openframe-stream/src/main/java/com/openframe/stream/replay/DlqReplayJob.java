@@ -0,0 +1,489 @@
+package com.openframe.stream.replay;
+
+import com.openframe.stream.deserializer.EnvelopeFieldSet;
+import com.openframe.stream.deserializer.SelectiveEnvelopeReader;
+import com.openframe.stream.deserializer.SourcePosition;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.utils.Utils;
+import org.springframework.kafka.support.KafkaHeaders;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Replays one range of a {@code <topic>.DLQ} into {@code <topic>.replay}, where a container
+ * built from the listener container of {@code <topic>} processes it again, see
+ * {@link DlqReplayContainers}.
+ * <p>
+ * The job runs in three phases:
+ * <ol>
+ *     <li>{@link Phase#INDEXING} reads the DLQ range and keeps the newest record per key, ordered by
+ *     Debezium source position, then original offset, then DLQ offset. Keys not matching the key
+ *     pattern are dropped, and so are keyless records while a key pattern is set.</li>
+ *     <li>{@link Phase#SCANNING} reads the target partitions from the oldest candidate onwards.
+ *     A candidate is obsolete when the same key appears at a later offset, or, for records without
+ *     original offset header, with a later source position.</li>
+ *     <li>{@link Phase#REPLAYING} republishes the remaining candidates, in original order, to the
+ *     replay topic partition numbered like the partition they originally came from, at the
+ *     requested rate with one worker per group of partitions. Right before each send the worker
+ *     reads its source partitions up to their current end, so a key that received a newer
+ *     version since the scan is dropped as obsolete instead of being replayed over it.</li>
+ * </ol>
+ * A job whose sends all succeeded ends {@link Phase#COMPLETED}; one with failed sends ends
+ * {@link Phase#PARTIAL}, the failed records stay in the DLQ for another replay.
+ */
+@Slf4j
+public class DlqReplayJob implements Runnable {
+
+    public static final String REPLAY_HEADER = "openframe-dlq-replay";
+
+    private static final String DLT_HEADER_PREFIX = "kafka_dlt-";
+    private static final long UNKNOWN = -1;
+
+    public enum Phase {
+        PENDING, INDEXING, SCANNING, REPLAYING, COMPLETED, PARTIAL, CANCELLED, FAILED;
+
+        boolean isFinished() {
+            return this == COMPLETED || this == PARTIAL || this == CANCELLED || this == FAILED;
+        }
+    }
+
+    @Getter
+    private final String id;
+    @Getter
+    private final DlqReplayRequest request;
+    private final Supplier<Consumer<byte[], byte[]>> consumers;
+    private final Producer<byte[], byte[]> producer;
+    private final SelectiveEnvelopeReader reader;
+    private final int maxCandidates;
+    private final Duration pollTimeout;
+
+    private final AtomicLong indexed = new AtomicLong();
+    private final AtomicLong filtered = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong obsolete = new AtomicLong();
+    private final AtomicLong replayed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong dlqLag = new AtomicLong();
+
+    private volatile Phase phase = Phase.PENDING;
+    private final AtomicLong candidateCount = new AtomicLong();
+    private volatile boolean cancelled;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    private final Map<TopicPartition, Long> scannedTo = new HashMap<>();
+    private long nextSendNanos;
+
+    public DlqReplayJob(String id, DlqReplayRequest request, Supplier<Consumer<byte[], byte[]>> consumers,
+                        Producer<byte[], byte[]> producer, SelectiveEnvelopeReader reader,
+                        int maxCandidates, Duration pollTimeout) {
+        this.id = id;
+        this.request = request;
+        this.consumers = consumers;
+        this.producer = producer;
+        this.reader = reader;
+        this.maxCandidates = maxCandidates;
+        this.pollTimeout = pollTimeout;
+    }
+
+    @Override
+    public void run() {
+        startedAt = Instant.now();
+        try {
+            Map<CandidateKey, Candidate> candidates = index();
+            Map<TopicPartition, List<Candidate>> byPartition = scan(candidates);
+            replay(byPartition);
+            phase = cancelled ? Phase.CANCELLED : failed.get() > 0 ? Phase.PARTIAL : Phase.COMPLETED;
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            error = e.getMessage();
+            phase = cancelled ? Phase.CANCELLED : Phase.FAILED;
+            log.error("DLQ replay {} of {} failed", id, request.topic(), e);
+        } finally {
+            finishedAt = Instant.now();
+            log.info("DLQ replay {} of {} {}: {}", id, request.topic(), phase, status());
+        }
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isFinished() {
+        return phase.isFinished();
+    }
+
+    private Map<CandidateKey, Candidate> index() {
+        phase = Phase.INDEXING;
+        Map<CandidateKey, Candidate> candidates = new LinkedHashMap<>();
+        try (Consumer<byte[], byte[]> consumer = consumers.get()) {
+            List<TopicPartition> partitions = partitionsOf(consumer, request.topic());
+            consumer.assign(partitions);
+            Map<TopicPartition, Long> end = request.to() == null
+                    ? consumer.endOffsets(partitions)
+                    : offsetsAt(consumer, partitions, request.to(), consumer.endOffsets(partitions));
+            if (request.from() == null) {
+                consumer.seekToBeginning(partitions);
+            } else {
+                offsetsAt(consumer, partitions, request.from(), end).forEach(consumer::seek);
+            }
+
+            Map<TopicPartition, Long> remaining = new HashMap<>();
+            for (TopicPartition partition : partitions) {
+                long lag = end.get(partition) - consumer.position(partition);
+                if (lag > 0) {
+                    remaining.put(partition, lag);
+                } else {
+                    consumer.pause(List.of(partition));
+                }
+            }
+            dlqLag.set(remaining.values().stream().mapToLong(Long::longValue).sum());
+
+            while (!remaining.isEmpty() && !cancelled) {
+                ConsumerRecords<byte[], byte[]> records = consumer.poll(pollTimeout);
+                for (ConsumerRecord<byte[], byte[]> record : records) {
+                    TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+                    if (!remaining.containsKey(partition) || record.offset() >= end.get(partition)) {
+                        continue;
+                    }
+                    index(record, candidates);
+                }
+                for (TopicPartition partition : records.partitions()) {
+                    if (remaining.containsKey(partition)) {
+                        long lag = end.get(partition) - consumer.position(partition);
+                        if (lag <= 0) {
+                            remaining.remove(partition);
+                            consumer.pause(List.of(partition));
+                        } else {
+                            remaining.put(partition, lag);
+                        }
+                    }
+                }
+                dlqLag.set(remaining.values().stream().mapToLong(Long::longValue).sum());
+            }
+        }
+        dlqLag.set(0);
+        candidateCount.set(candidates.size());
+        return candidates;
+    }
+
+    private void index(ConsumerRecord<byte[], byte[]> record, Map<CandidateKey, Candidate> candidates) {
+        indexed.incrementAndGet();
+        if (request.keyPattern() != null && (record.key() == null
+                || !request.keyPattern().matcher(new String(record.key(), StandardCharsets.UTF_8)).find())) {
+            filtered.incrementAndGet();
+            return;
+        }
+        Candidate candidate = candidate(record);
+        // without a key there is nothing to supersede, every keyless record is its own candidate
+        CandidateKey key = record.key() == null
+                ? new CandidateKey(ByteBuffer.wrap(new byte[0]), record.partition(), record.offset())
+                : new CandidateKey(ByteBuffer.wrap(record.key()), UNKNOWN, UNKNOWN);
+        Candidate current = candidates.get(key);
+        if (current == null) {
+            if (candidates.size() >= maxCandidates) {
+                throw new IllegalStateException("More than " + maxCandidates + " candidates in range, narrow from/to or the key pattern");
+            }
+            candidates.put(key, candidate);
+        } else {
+            coalesced.incrementAndGet();
+            if (Candidate.ORDER.compare(candidate, current) > 0) {
+                candidates.put(key, candidate);
+            }
+        }
+    }
+
+    private Candidate candidate(ConsumerRecord<byte[], byte[]> record) {
+        return new Candidate(record, intHeader(record, KafkaHeaders.DLT_ORIGINAL_PARTITION),
+                longHeader(record, KafkaHeaders.DLT_ORIGINAL_OFFSET), positionOf(record.value()));
+    }
+
+    private Map<TopicPartition, List<Candidate>> scan(Map<CandidateKey, Candidate> candidates) {
+        phase = Phase.SCANNING;
+        Map<TopicPartition, List<Candidate>> byPartition = new HashMap<>();
+        if (candidates.isEmpty() || cancelled) {
+            return byPartition;
+        }
+        String source = request.sourceTopic();
+        try (Consumer<byte[], byte[]> consumer = consumers.get()) {
+            int partitionCount = partitionsOf(consumer, source).size();
+            Map<TopicPartition, Map<ByteBuffer, Candidate>> byKey = new HashMap<>();
+            for (Candidate candidate : candidates.values()) {
+                TopicPartition partition = new TopicPartition(source, candidate.sourcePartition(partitionCount));
+                byPartition.computeIfAbsent(partition, p -> new ArrayList<>()).add(candidate);
+                if (candidate.record().key() != null) {
+                    byKey.computeIfAbsent(partition, p -> new HashMap<>()).put(ByteBuffer.wrap(candidate.record().key()), candidate);
+                }
+            }
+
+            List<TopicPartition> partitions = List.copyOf(byKey.keySet());
+            consumer.assign(partitions);
+            Map<TopicPartition, Long> end = consumer.endOffsets(partitions);
+            scannedTo.putAll(end);
+            for (TopicPartition partition : partitions) {
+                consumer.seek(partition, scanStart(consumer, partition, byKey.get(partition).values()));
+            }
+
+            List<TopicPartition> remaining = new ArrayList<>(partitions);
+            remaining.removeIf(partition -> consumer.position(partition) >= end.get(partition));
+            while (!remaining.isEmpty() && !cancelled) {
+                for (ConsumerRecord<byte[], byte[]> record : consumer.poll(pollTimeout)) {
+                    Map<ByteBuffer, Candidate> keys = byKey.get(new TopicPartition(record.topic(), record.partition()));
+                    Candidate candidate = record.key() == null ? null : keys.get(ByteBuffer.wrap(record.key()));
+                    if (candidate != null && supersedes(record, candidate)) {
+                        keys.remove(ByteBuffer.wrap(record.key()));
+                        byPartition.get(new TopicPartition(record.topic(), record.partition())).remove(candidate);
+                        obsolete.incrementAndGet();
+                    }
+                }
+                remaining.removeIf(partition -> consumer.position(partition) >= end.get(partition));
+            }
+        }
+        byPartition.values().forEach(list -> list.sort(Candidate.ORDER));
+        candidateCount.set(byPartition.values().stream().mapToLong(List::size).sum());
+        return byPartition;
+    }
+
+    private long scanStart(Consumer<byte[], byte[]> consumer, TopicPartition partition, Iterable<Candidate> candidates) {
+        long start = Long.MAX_VALUE;
+        long earliestTs = Long.MAX_VALUE;
+        for (Candidate candidate : candidates) {
+            if (candidate.originalOffset() != UNKNOWN && candidate.originalPartition() == partition.partition()) {
+                start = Math.min(start, candidate.originalOffset() + 1);
+            } else {
+                long ts = candidate.position() != null ? candidate.position().tsMs() : candidate.record().timestamp();
+                earliestTs = Math.min(earliestTs, ts);
+            }
+        }
+        if (earliestTs != Long.MAX_VALUE) {
+            // Debezium produces a change after its commit, so nothing newer precedes the commit time
+            OffsetAndTimestamp byTime = consumer.offsetsForTimes(Map.of(partition, earliestTs)).get(partition);
+            start = Math.min(start, byTime != null ? byTime.offset() : consumer.endOffsets(List.of(partition)).get(partition));
+        }
+        return start;
+    }
+
+    private boolean supersedes(ConsumerRecord<byte[], byte[]> record, Candidate candidate) {
+        if (candidate.originalOffset() != UNKNOWN && candidate.originalPartition() == record.partition()) {
+            return record.offset() > candidate.originalOffset();
+        }
+        SourcePosition position = positionOf(record.value());
+        return position != null && candidate.position() != null && position.isAfter(candidate.position());
+    }
+
+    private void replay(Map<TopicPartition, List<Candidate>> byPartition) throws Exception {
+        phase = Phase.REPLAYING;
+        if (byPartition.isEmpty() || cancelled) {
+            return;
+        }
+        nextSendNanos = System.nanoTime();
+        List<Map<TopicPartition, List<Candidate>>> lanes = new ArrayList<>();
+        byPartition.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(Comparator.comparingInt(TopicPartition::partition)))
+                .forEach(entry -> {
+                    int lane = entry.getKey().partition() % request.parallelism();
+                    while (lanes.size() <= lane) {
+                        lanes.add(new LinkedHashMap<>());
+                    }
+                    lanes.get(lane).put(entry.getKey(), entry.getValue());
+                });
+
+        try (ExecutorService workers = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("dlq-replay-" + id + "-", 0).factory())) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Map<TopicPartition, List<Candidate>> lane : lanes) {
+                futures.add(workers.submit(() -> replayLane(lane)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        producer.flush();
+    }
+
+    private void replayLane(Map<TopicPartition, List<Candidate>> lane) {
+        String target = request.replayTopic();
+        Map<TopicPartition, Map<ByteBuffer, Candidate>> byKey = new HashMap<>();
+        lane.forEach((partition, candidates) -> candidates.stream()
+                .filter(candidate -> candidate.record().key() != null)
+                .forEach(candidate -> byKey.computeIfAbsent(partition, p -> new HashMap<>())
+                        .put(ByteBuffer.wrap(candidate.record().key()), candidate)));
+
+        try (Consumer<byte[], byte[]> tail = consumers.get()) {
+            tail.assign(byKey.keySet());
+            byKey.keySet().forEach(partition -> tail.seek(partition, scannedTo.get(partition)));
+            for (Map.Entry<TopicPartition, List<Candidate>> entry : lane.entrySet()) {
+                for (Candidate candidate : entry.getValue()) {
+                    if (cancelled) {
+                        return;
+                    }
+                    pace();
+                    ConsumerRecord<byte[], byte[]> record = candidate.record();
+                    if (record.key() != null && isSuperseded(tail, entry.getKey(), byKey, candidate)) {
+                        obsolete.incrementAndGet();
+                        candidateCount.decrementAndGet();
+                        continue;
+                    }
+                    send(target, entry.getKey().partition(), candidate);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the partition from where the scan or the previous check stopped up to its current end
+     * and drops the candidates of every key that received a newer version meanwhile.
+     */
+    private boolean isSuperseded(Consumer<byte[], byte[]> tail, TopicPartition partition,
+                                 Map<TopicPartition, Map<ByteBuffer, Candidate>> byKey, Candidate candidate) {
+        long end = tail.endOffsets(List.of(partition)).get(partition);
+        while (tail.position(partition) < end && !cancelled) {
+            for (ConsumerRecord<byte[], byte[]> record : tail.poll(pollTimeout)) {
+                Map<ByteBuffer, Candidate> keys = byKey.get(new TopicPartition(record.topic(), record.partition()));
+                Candidate pending = record.key() == null ? null : keys.get(ByteBuffer.wrap(record.key()));
+                if (pending != null && supersedes(record, pending)) {
+                    keys.remove(ByteBuffer.wrap(record.key()));
+                }
+            }
+        }
+        return byKey.get(partition).get(ByteBuffer.wrap(candidate.record().key())) != candidate;
+    }
+
+    private void send(String target, int partition, Candidate candidate) {
+        ConsumerRecord<byte[], byte[]> record = candidate.record();
+        RecordHeaders headers = new RecordHeaders();
+        for (Header header : record.headers()) {
+            if (!header.key().startsWith(DLT_HEADER_PREFIX)) {
+                headers.add(header);
+            }
+        }
+        headers.add(REPLAY_HEADER, id.getBytes(StandardCharsets.UTF_8));
+        producer.send(new ProducerRecord<>(target, partition, record.key(), record.value(), headers),
+                (metadata, exception) -> {
+                    if (exception == null) {
+                        replayed.incrementAndGet();
+                    } else {
+                        failed.incrementAndGet();
+                        log.warn("Failed to replay {}-{}@{} to {}", record.topic(), record.partition(), record.offset(), target, exception);
+                    }
+                });
+    }
+
+    private void pace() {
+        long interval = TimeUnit.SECONDS.toNanos(1) / request.rate();
+        long slot;
+        synchronized (this) {
+            slot = Math.max(nextSendNanos, System.nanoTime() - TimeUnit.SECONDS.toNanos(1));
+            nextSendNanos = slot + interval;
+        }
+        long wait = slot - System.nanoTime();
+        if (wait > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancelled = true;
+            }
+        }
+    }
+
+    private SourcePosition positionOf(byte[] value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return reader.read(value, EnvelopeFieldSet.POSITION_ONLY).getPosition();
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static List<TopicPartition> partitionsOf(Consumer<byte[], byte[]> consumer, String topic) {
+        List<PartitionInfo> infos = consumer.partitionsFor(topic);
+        if (infos == null || infos.isEmpty()) {
+            throw new IllegalArgumentException("Topic " + topic + " does not exist");
+        }
+        return infos.stream().map(info -> new TopicPartition(topic, info.partition())).toList();
+    }
+
+    private static Map<TopicPartition, Long> offsetsAt(Consumer<byte[], byte[]> consumer, List<TopicPartition> partitions,
+                                                       Instant time, Map<TopicPartition, Long> fallback) {
+        Map<TopicPartition, Long> query = new HashMap<>();
+        partitions.forEach(partition -> query.put(partition, time.toEpochMilli()));
+        Map<TopicPartition, Long> offsets = new HashMap<>();
+        consumer.offsetsForTimes(query).forEach((partition, offset) ->
+                offsets.put(partition, offset != null ? offset.offset() : fallback.get(partition)));
+        return offsets;
+    }
+
+    private static long intHeader(ConsumerRecord<?, ?> record, String name) {
+        Header header = record.headers().lastHeader(name);
+        return header != null && header.value().length == Integer.BYTES ? ByteBuffer.wrap(header.value()).getInt() : UNKNOWN;
+    }
+
+    private static long longHeader(ConsumerRecord<?, ?> record, String name) {
+        Header header = record.headers().lastHeader(name);
+        return header != null && header.value().length == Long.BYTES ? ByteBuffer.wrap(header.value()).getLong() : UNKNOWN;
+    }
+
+    public DlqReplayStatus status() {
+        long remaining = switch (phase) {
+            case PENDING, INDEXING -> dlqLag.get();
+            case SCANNING, REPLAYING -> Math.max(0, candidateCount.get() - replayed.get() - failed.get());
+            default -> 0;
+        };
+        return new DlqReplayStatus(id, request.topic(), phase, startedAt, finishedAt, indexed.get(), filtered.get(),
+                coalesced.get(), obsolete.get(), candidateCount.get(), replayed.get(), failed.get(), remaining, error);
+    }
+
+    private record CandidateKey(ByteBuffer key, long partition, long offset) {
+    }
+
+    private record Candidate(ConsumerRecord<byte[], byte[]> record, long originalPartition, long originalOffset,
+                             SourcePosition position) {
+
+        static final Comparator<Candidate> ORDER = Comparator
+                .comparing(Candidate::position, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparingLong(Candidate::originalOffset)
+                .thenComparingLong(candidate -> candidate.record().offset());
+
+        int sourcePartition(int partitionCount) {
+            if (originalPartition != UNKNOWN) {
+                return (int) originalPartition;
+            }
+            // same partition the default partitioner picks for the Debezium key
+            return record.key() == null ? record.partition() % partitionCount
+                    : Utils.toPositive(Utils.murmur2(record.key())) % partitionCount;
+        }
+    }
+
+}
@@ -0,0 +1,35 @@
+package com.openframe.stream.replay;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * DLQ replay jobs started through the {@code dlqreplay} actuator endpoint, bound from
+ * {@code openframe.stream.dlq-replay}.
+ */
+@Data
+@ConfigurationProperties(prefix = "openframe.stream.dlq-replay")
+public class DlqReplayProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Records per second republished when the request does not specify a rate.
+     */
+    private int defaultRate = 500;
+
+    /**
+     * Target partitions replayed concurrently when the request does not specify a parallelism.
+     */
+    private int defaultParallelism = 4;
+
+    /**
+     * Upper bound of distinct keys indexed per job; narrow the range when a DLQ exceeds it.
+     */
+    private int maxCandidates = 500_000;
+
+    private Duration pollTimeout = Duration.ofSeconds(1);
+
+}
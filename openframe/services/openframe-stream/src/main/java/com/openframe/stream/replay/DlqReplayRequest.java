@@ -0,0 +1,35 @@
+package com.openframe.stream.replay;
+
+import java.time.Instant;
+import java.util.regex.Pattern;
+
+/**
+ * Parameters of one replay job.
+ *
+ * @param topic       the DLQ topic, {@code <topic>.DLQ}
+ * @param from        first DLQ record timestamp to replay, {@code null} for the beginning
+ * @param to          DLQ record timestamp to stop at, {@code null} for the end offsets at start
+ * @param keyPattern  only keys whose UTF-8 form matches are replayed, {@code null} for all
+ * @param rate        records per second
+ * @param parallelism target partitions replayed concurrently
+ */
+public record DlqReplayRequest(String topic, Instant from, Instant to, Pattern keyPattern, int rate, int parallelism) {
+
+    /**
+     * The Debezium topic the dead-lettered records came from, also for a {@code <topic>.replay.DLQ}.
+     */
+    public String sourceTopic() {
+        String source = topic.substring(0, topic.length() - DlqReplayService.DLQ_SUFFIX.length());
+        return source.endsWith(DlqReplayService.REPLAY_SUFFIX)
+                ? source.substring(0, source.length() - DlqReplayService.REPLAY_SUFFIX.length())
+                : source;
+    }
+
+    /**
+     * The topic the records are republished to, {@code <source topic>.replay}.
+     */
+    public String replayTopic() {
+        return sourceTopic() + DlqReplayService.REPLAY_SUFFIX;
+    }
+
+}
@@ -0,0 +1,168 @@
+package com.openframe.stream.replay;
+
+import com.openframe.stream.deserializer.SelectiveEnvelopeReader;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.ProducerFactory;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.ToLongFunction;
+
+/**
+ * Runs {@link DlqReplayJob}s, one at a time per instance.
+ * <p>
+ * Jobs use their own byte-array consumer and producer built from the configuration of the stream
+ * core's Kafka factories, without group id, interceptors or transactions, so the DLQ is read
+ * without committing offsets and the replayed records enter {@code <topic>.replay} exactly as
+ * they were dead-lettered. The replay topic and its container are set up before a job starts.
+ */
+@Slf4j
+public class DlqReplayService implements DisposableBean {
+
+    public static final String DLQ_SUFFIX = ".DLQ";
+
+    public static final String REPLAY_SUFFIX = ".replay";
+
+    static final String METRIC_PREFIX = "openframe.stream.dlq.replay";
+
+    private final DlqReplayProperties properties;
+    private final DlqReplayContainers containers;
+    private final Map<String, Object> consumerConfigs;
+    private final Producer<byte[], byte[]> producer;
+    private final SelectiveEnvelopeReader reader;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("dlq-replay").daemon().factory());
+    private final AtomicReference<DlqReplayJob> current = new AtomicReference<>();
+    private final Counter jobs;
+
+    public DlqReplayService(DlqReplayProperties properties, DlqReplayContainers containers,
+                            ConsumerFactory<?, ?> consumerFactory, ProducerFactory<?, ?> producerFactory,
+                            SelectiveEnvelopeReader reader, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.containers = containers;
+        this.reader = reader;
+
+        consumerConfigs = new HashMap<>(consumerFactory.getConfigurationProperties());
+        consumerConfigs.remove(ConsumerConfig.GROUP_ID_CONFIG);
+        consumerConfigs.remove(ConsumerConfig.INTERCEPTOR_CLASSES_CONFIG);
+        consumerConfigs.remove(ConsumerConfig.GROUP_INSTANCE_ID_CONFIG);
+        consumerConfigs.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        consumerConfigs.put(ConsumerConfig.CLIENT_ID_CONFIG, "openframe-stream-dlq-replay");
+
+        Map<String, Object> producerConfigs = new HashMap<>(producerFactory.getConfigurationProperties());
+        producerConfigs.remove(ProducerConfig.TRANSACTIONAL_ID_CONFIG);
+        producerConfigs.remove(ProducerConfig.INTERCEPTOR_CLASSES_CONFIG);
+        producerConfigs.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        producerConfigs.put(ProducerConfig.ACKS_CONFIG, "all");
+        producerConfigs.put(ProducerConfig.CLIENT_ID_CONFIG, "openframe-stream-dlq-replay");
+        producer = new KafkaProducer<>(producerConfigs, new ByteArraySerializer(), new ByteArraySerializer());
+
+        Gauge.builder(METRIC_PREFIX + ".remaining", this, service -> statusValue(service, DlqReplayStatus::remaining))
+                .description("DLQ records left to index, then candidates left to replay")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".progress", this, DlqReplayService::progress)
+                .description("Share of the current job's candidates that has been replayed")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".running", this, service -> service.isRunning() ? 1 : 0)
+                .register(meterRegistry);
+        for (String outcome : new String[]{"replayed", "obsolete", "coalesced", "filtered", "failed"}) {
+            Gauge.builder(METRIC_PREFIX + ".records", this, service -> statusValue(service, status -> switch (outcome) {
+                        case "replayed" -> status.replayed();
+                        case "obsolete" -> status.obsolete();
+                        case "coalesced" -> status.coalesced();
+                        case "filtered" -> status.filtered();
+                        default -> status.failed();
+                    }))
+                    .description("Records of the current or last job by outcome")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry);
+        }
+        jobs = Counter.builder(METRIC_PREFIX + ".jobs").register(meterRegistry);
+    }
+
+    /**
+     * @throws IllegalStateException when a job is still running or no listener container
+     *                               subscribes to the source topic
+     */
+    public DlqReplayStatus start(DlqReplayRequest request) {
+        DlqReplayJob job = new DlqReplayJob(UUID.randomUUID().toString(), request, this::createConsumer, producer,
+                reader, properties.getMaxCandidates(), properties.getPollTimeout());
+        DlqReplayJob previous = current.get();
+        if (previous != null && !previous.isFinished()) {
+            throw new IllegalStateException("DLQ replay " + previous.getId() + " is still running");
+        }
+        containers.ensureRunning(request.sourceTopic());
+        if (!current.compareAndSet(previous, job)) {
+            throw new IllegalStateException("Another DLQ replay was started concurrently");
+        }
+        log.info("Starting DLQ replay {} of {} into {}", job.getId(), request.topic(), request.replayTopic());
+        jobs.increment();
+        executor.execute(job);
+        return job.status();
+    }
+
+    public DlqReplayStatus status() {
+        DlqReplayJob job = current.get();
+        return job == null ? null : job.status();
+    }
+
+    public DlqReplayStatus cancel() {
+        DlqReplayJob job = current.get();
+        if (job == null) {
+            return null;
+        }
+        job.cancel();
+        return job.status();
+    }
+
+    public boolean isRunning() {
+        DlqReplayJob job = current.get();
+        return job != null && !job.isFinished();
+    }
+
+    private Consumer<byte[], byte[]> createConsumer() {
+        return new KafkaConsumer<>(consumerConfigs, new ByteArrayDeserializer(), new ByteArrayDeserializer());
+    }
+
+    private static double statusValue(DlqReplayService service, ToLongFunction<DlqReplayStatus> value) {
+        DlqReplayStatus status = service.status();
+        return status == null ? 0 : value.applyAsLong(status);
+    }
+
+    private static double progress(DlqReplayService service) {
+        DlqReplayStatus status = service.status();
+        if (status == null || status.candidates() == 0) {
+            return status != null && status.phase() == DlqReplayJob.Phase.COMPLETED ? 1 : 0;
+        }
+        return (double) (status.replayed() + status.failed()) / status.candidates();
+    }
+
+    @Override
+    public void destroy() {
+        DlqReplayJob job = current.get();
+        if (job != null) {
+            job.cancel();
+        }
+        executor.shutdownNow();
+        producer.close(Duration.ofSeconds(5));
+    }
+
+}
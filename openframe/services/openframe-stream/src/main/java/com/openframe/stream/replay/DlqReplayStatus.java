@@ -0,0 +1,20 @@
+package com.openframe.stream.replay;
+
+import java.time.Instant;
+
+/**
+ * Progress snapshot of a replay job, returned by the actuator endpoint.
+ *
+ * @param indexed   DLQ records read in the requested range
+ * @param filtered  records not matching the key pattern
+ * @param coalesced records superseded by a newer DLQ record of the same key
+ * @param obsolete  records whose key has a newer version in the target topic
+ * @param candidates records left to replay after filtering, coalescing and the obsolescence scan
+ * @param replayed  records republished to the target topic
+ * @param failed    records whose republishing failed
+ * @param remaining DLQ records left to index, then candidates left to replay
+ */
+public record DlqReplayStatus(String id, String topic, DlqReplayJob.Phase phase, Instant startedAt, Instant finishedAt,
+                              long indexed, long filtered, long coalesced, long obsolete, long candidates,
+                              long replayed, long failed, long remaining, String error) {
+}